@@ -0,0 +1,72 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.agent;
+
+import com.thoughtworks.go.domain.materials.git.GitReferenceRepositoryCache;
+import com.thoughtworks.go.util.NamedDaemonThreadFactory;
+import com.thoughtworks.go.util.SystemEnvironment;
+import com.thoughtworks.go.util.command.UrlArgument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.thoughtworks.go.util.command.ProcessOutputStreamConsumer.inMemoryConsumer;
+
+/**
+ * Fetches the git materials of the job reserved for this agent into the agent's git reference cache, in the
+ * background, while the current job is still uploading its artifacts. Nothing is done unless the cache is enabled.
+ */
+class MaterialWarmer {
+    private static final Logger LOG = LoggerFactory.getLogger(MaterialWarmer.class);
+
+    private final SystemEnvironment systemEnvironment;
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(new NamedDaemonThreadFactory("material-warmer"));
+
+    MaterialWarmer(SystemEnvironment systemEnvironment) {
+        this.systemEnvironment = systemEnvironment;
+    }
+
+    void warm(List<String> urls) {
+        Optional<GitReferenceRepositoryCache> cache = GitReferenceRepositoryCache.forAgent(systemEnvironment);
+        if (cache.isEmpty()) {
+            return;
+        }
+        for (String url : urls) {
+            if (pending.add(url)) {
+                executor.submit(() -> warm(cache.get(), url));
+            }
+        }
+    }
+
+    private void warm(GitReferenceRepositoryCache cache, String url) {
+        try {
+            long before = System.currentTimeMillis();
+            cache.warm(url, inMemoryConsumer());
+            LOG.info("[Agent Prefetch] Updated agent git cache for {} ahead of the next job. Took: {} ms", new UrlArgument(url).forDisplay(), System.currentTimeMillis() - before);
+        } catch (Exception e) {
+            LOG.warn("[Agent Prefetch] Unable to update agent git cache for {}", new UrlArgument(url).forDisplay(), e);
+        } finally {
+            pending.remove(url);
+        }
+    }
+}
@@ -17,6 +17,7 @@
 package com.thoughtworks.go.agent;
 
 import com.thoughtworks.go.agent.common.ssl.GoAgentServerHttpClient;
+import com.thoughtworks.go.agent.metrics.AgentMetrics;
 import com.thoughtworks.go.config.DefaultAgentRegistry;
 import com.thoughtworks.go.domain.JobIdentifier;
 import com.thoughtworks.go.domain.JobResult;
@@ -25,8 +26,10 @@ import com.thoughtworks.go.remote.AgentInstruction;
 import com.thoughtworks.go.remote.BuildRepositoryRemote;
 import com.thoughtworks.go.remote.Serialization;
 import com.thoughtworks.go.remote.request.*;
+import com.thoughtworks.go.remote.work.NoWork;
 import com.thoughtworks.go.remote.work.Work;
 import com.thoughtworks.go.server.service.AgentRuntimeInfo;
+import com.thoughtworks.go.util.SystemEnvironment;
 import org.apache.http.HttpHeaders;
 import org.apache.http.HttpResponse;
 import org.apache.http.NoHttpResponseException;
@@ -44,10 +47,12 @@ import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static com.thoughtworks.go.agent.ResponseHelpers.readBodyAsString;
 import static com.thoughtworks.go.agent.ResponseHelpers.readBodyAsStringOrElse;
 import static com.thoughtworks.go.remote.StandardHeaders.REQUEST_AUTH;
+import static com.thoughtworks.go.remote.StandardHeaders.REQUEST_PREFETCH_NEXT_WORK;
 import static com.thoughtworks.go.remote.StandardHeaders.REQUEST_UUID;
 import static java.lang.String.format;
 
@@ -58,12 +63,17 @@ public class RemotingClient implements BuildRepositoryRemote {
     private final GoAgentServerHttpClient client;
     private final DefaultAgentRegistry agent;
     private final URLService urls;
+    private final SystemEnvironment systemEnvironment;
+    private final MaterialWarmer materialWarmer;
+    private final AtomicReference<Work> prefetchedWork = new AtomicReference<>();
 
     @Autowired
-    public RemotingClient(GoAgentServerHttpClient client, DefaultAgentRegistry agent, URLService urls) {
+    public RemotingClient(GoAgentServerHttpClient client, DefaultAgentRegistry agent, URLService urls, SystemEnvironment systemEnvironment) {
         this.client = client;
         this.agent = agent;
         this.urls = urls;
+        this.systemEnvironment = systemEnvironment;
+        this.materialWarmer = new MaterialWarmer(systemEnvironment);
     }
 
     @Override
@@ -73,6 +83,11 @@ public class RemotingClient implements BuildRepositoryRemote {
 
     @Override
     public Work getWork(AgentRuntimeInfo info) {
+        Work prefetched = prefetchedWork.getAndSet(null);
+        if (prefetched != null) {
+            LOG.info("[Agent Prefetch] Starting the work handed over by the server along with the completion of the previous job");
+            return prefetched;
+        }
         return Serialization.fromJson(post("get_work", new GetWorkRequest(info)), Work.class);
     }
 
@@ -83,12 +98,31 @@ public class RemotingClient implements BuildRepositoryRemote {
 
     @Override
     public void reportCompleting(AgentRuntimeInfo info, JobIdentifier jobId, JobResult result) {
-        post("report_completing", new ReportCompleteStatusRequest(info, jobId, result));
+        if (!systemEnvironment.isAgentNextWorkPrefetchEnabled()) {
+            post("report_completing", new ReportCompleteStatusRequest(info, jobId, result));
+            return;
+        }
+
+        // servers which do not support prefetching ignore the header and respond with an empty body
+        String body = post("report_completing", new ReportCompleteStatusRequest(info, jobId, result), true);
+        String[] warmUpUrls = body.isBlank() ? null : Serialization.fromJson(body, String[].class);
+        if (warmUpUrls != null && warmUpUrls.length > 0) {
+            materialWarmer.warm(List.of(warmUpUrls));
+        }
     }
 
     @Override
     public void reportCompleted(AgentRuntimeInfo info, JobIdentifier jobId, JobResult result) {
-        post("report_completed", new ReportCompleteStatusRequest(info, jobId, result));
+        if (!systemEnvironment.isAgentNextWorkPrefetchEnabled()) {
+            post("report_completed", new ReportCompleteStatusRequest(info, jobId, result));
+            return;
+        }
+
+        String body = post("report_completed", new ReportCompleteStatusRequest(info, jobId, result), true);
+        Work work = body.isBlank() ? null : Serialization.fromJson(body, Work.class);
+        if (work != null && !(work instanceof NoWork)) {
+            prefetchedWork.set(work);
+        }
     }
 
     @Override
@@ -103,16 +137,23 @@ public class RemotingClient implements BuildRepositoryRemote {
     }
 
     private String post(final String action, final AgentRequest payload) {
+        return post(action, payload, false);
+    }
+
+    private String post(final String action, final AgentRequest payload, final boolean prefetchNextWork) {
+        long before = System.currentTimeMillis();
         try {
             try (CloseableHttpResponse response = client.execute(
                     injectCredentials(
-                            postRequestFor(action, payload)
+                            postRequestFor(action, payload, prefetchNextWork)
                     ))) {
                 validateResponse(response, action);
                 return readBodyAsString(response);
             }
         } catch (IOException e) {
             throw new RuntimeException(e);
+        } finally {
+            AgentMetrics.instance().recordRemotingCall(action, System.currentTimeMillis() - before);
         }
     }
 
@@ -147,9 +188,12 @@ public class RemotingClient implements BuildRepositoryRemote {
         }
     }
 
-    private HttpRequestBase postRequestFor(String action, AgentRequest payload) {
+    private HttpRequestBase postRequestFor(String action, AgentRequest payload, boolean prefetchNextWork) {
         final HttpPost request = new HttpPost(urls.remotingUrlFor(action));
         request.addHeader(HttpHeaders.ACCEPT, "application/vnd.go.cd+json");
+        if (prefetchNextWork) {
+            request.addHeader(REQUEST_PREFETCH_NEXT_WORK, "true");
+        }
         request.setEntity(new StringEntity(Serialization.toJson(payload, AgentRequest.class), ContentType.APPLICATION_JSON));
         return request;
     }
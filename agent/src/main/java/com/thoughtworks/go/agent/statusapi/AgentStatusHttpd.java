@@ -34,19 +34,24 @@ public class AgentStatusHttpd {
     private static final int SERVER_SOCKET_BACKLOG = 10;
 
     private final IsConnectedToServerV1 isConnectedToServer;
+    private final RuntimeMetricsV1 runtimeMetrics;
     private final SystemEnvironment environment;
     private HttpServer server;
 
     @Autowired
     public AgentStatusHttpd(SystemEnvironment environment,
-                            IsConnectedToServerV1 isConnectedToServerV1) {
+                            IsConnectedToServerV1 isConnectedToServerV1,
+                            RuntimeMetricsV1 runtimeMetricsV1) {
         this.environment = environment;
         this.isConnectedToServer = isConnectedToServerV1;
+        this.runtimeMetrics = runtimeMetricsV1;
     }
 
     private void setupRoutes(HttpServer server) {
         server.createContext("/health/v1/isConnectedToServer", isConnectedToServer);
         server.createContext("/health/latest/isConnectedToServer", isConnectedToServer);
+        server.createContext("/metrics/v1/runtime", runtimeMetrics);
+        server.createContext("/metrics/latest/runtime", runtimeMetrics);
         server.createContext("/", (HttpHandler) () -> new HttpHandler.Response(HttpURLConnection.HTTP_NOT_FOUND, "The page you requested was not found"));
     }
 
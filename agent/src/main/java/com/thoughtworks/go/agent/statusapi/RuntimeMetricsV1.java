@@ -0,0 +1,40 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.agent.statusapi;
+
+import com.thoughtworks.go.agent.metrics.AgentMetrics;
+import org.springframework.stereotype.Component;
+
+import java.net.HttpURLConnection;
+
+@Component
+public class RuntimeMetricsV1 implements HttpHandler {
+
+    private final AgentMetrics agentMetrics;
+
+    public RuntimeMetricsV1() {
+        this(AgentMetrics.instance());
+    }
+
+    RuntimeMetricsV1(AgentMetrics agentMetrics) {
+        this.agentMetrics = agentMetrics;
+    }
+
+    @Override
+    public Response response() {
+        return new Response(HttpURLConnection.HTTP_OK, agentMetrics.toPrometheusText());
+    }
+}
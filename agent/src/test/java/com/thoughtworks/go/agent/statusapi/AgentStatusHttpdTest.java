@@ -58,7 +58,7 @@ class AgentStatusHttpdTest {
 
     @BeforeEach
     void setUp() {
-        this.agentStatusHttpd = new AgentStatusHttpd(systemEnvironment, new IsConnectedToServerV1(agentHealthHolder));
+        this.agentStatusHttpd = new AgentStatusHttpd(systemEnvironment, new IsConnectedToServerV1(agentHealthHolder), new RuntimeMetricsV1());
     }
 
     @AfterEach
@@ -114,6 +114,18 @@ class AgentStatusHttpdTest {
         });
     }
 
+    @Test
+    void shouldRouteToRuntimeMetricsHandler() {
+        setupAgentStatusParameters();
+        startAgentStatusEndpointServer();
+
+        processHttpRequest(createGetRequest("/metrics/latest/runtime"), (response, httpEntity) -> {
+            assertThat(statusCode(response)).isEqualTo(HttpURLConnection.HTTP_OK);
+            assertThat(contentType(httpEntity)).isEqualTo("text/plain; charset=utf-8");
+            assertThat(responseBody(httpEntity)).contains("# TYPE gocd_agent_job_phase_duration_seconds histogram");
+        });
+    }
+
     @Test
     void shouldNotInitializeServerIfSettingIsTurnedOff() {
         try (MockedStatic<HttpServer> mockedStaticHttpServer = mockStatic(HttpServer.class)) {
@@ -82,6 +82,7 @@ public class AgentsControllerV7 extends ApiController implements SparkSpringCont
     private final ApiAuthenticationHelper apiAuthenticationHelper;
     private final SecurityService securityService;
     private final EnvironmentConfigService environmentConfigService;
+    private final String instanceId = UUID.randomUUID().toString();
 
     @Autowired
     public AgentsControllerV7(AgentService agentService, ApiAuthenticationHelper apiAuthenticationHelper,
@@ -120,6 +121,15 @@ public class AgentsControllerV7 extends ApiController implements SparkSpringCont
     }
 
     public String index(Request request, Response response) throws IOException {
+        // the versions only go up, and start over when the server restarts; the user is included as build details
+        // are only shown to users who can view the pipeline being built
+        String etag = etagFor(String.join("/", instanceId, agentService.getAgentInstances().version(),
+            String.valueOf(environmentConfigService.version()), currentUsernameString()));
+        if (fresh(request, etag)) {
+            return notModified(response);
+        }
+        setEtagHeader(response, etag);
+
         Map<String, List<EnvironmentConfig>> agentEnvironmentsByUuid = environmentConfigService.getAgentEnvironmentsByUuid();
 
         Map<AgentInstance, Collection<EnvironmentConfig>> agentToEnvConfigsMap =
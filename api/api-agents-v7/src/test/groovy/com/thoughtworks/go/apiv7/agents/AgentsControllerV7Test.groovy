@@ -173,6 +173,29 @@ class AgentsControllerV7Test implements SecurityServiceTrait, ControllerTrait<Ag
       ])
     }
 
+    @Test
+    void "should render 304 until an agent changes"() {
+      def instance = idle()
+      when(agentService.getAgentInstances()).thenReturn(new AgentInstances(null, null, instance))
+      when(environmentConfigService.getAgentEnvironmentsByUuid()).thenReturn(Map.of())
+
+      getWithApiHeader(controller.controllerPath())
+      def etag = response.getHeader("ETag")
+
+      assertThatResponse().isOk()
+
+      getWithApiHeader(controller.controllerPath(), ['if-none-match': etag])
+
+      assertThatResponse()
+        .isNotModified()
+        .hasNoBody()
+
+      instance.deny()
+      getWithApiHeader(controller.controllerPath(), ['if-none-match': etag])
+
+      assertThatResponse().isOk()
+    }
+
     @Test
     void "should return an empty list of agents if there are no agents available"() {
       def mockAgentInstances = mock(AgentInstances.class)
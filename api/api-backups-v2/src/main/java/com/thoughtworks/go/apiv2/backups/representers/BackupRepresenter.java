@@ -21,6 +21,8 @@ import com.thoughtworks.go.server.domain.BackupProgressStatus;
 import com.thoughtworks.go.server.domain.ServerBackup;
 import com.thoughtworks.go.spark.Routes;
 
+import java.util.Map;
+
 public class BackupRepresenter {
 
     public static void toJSON(OutputWriter jsonOutputWriter, ServerBackup backup) {
@@ -35,6 +37,10 @@ public class BackupRepresenter {
             .addIfNotNull("progress_status", backup.getBackupProgressStatus().map(BackupProgressStatus::name).orElse(null))
             .add("message", backup.getMessage())
             .addChild("user", userWriter -> UserSummaryRepresenter.toJSON(userWriter, backup.getUsername()));
+        Map<BackupProgressStatus, Long> stepDurations = backup.getStepDurationsInMillis();
+        if (!stepDurations.isEmpty()) {
+            jsonOutputWriter.addChild("step_durations_in_millis", writer -> stepDurations.forEach((step, duration) -> writer.add(step.name(), duration)));
+        }
     }
 
 }
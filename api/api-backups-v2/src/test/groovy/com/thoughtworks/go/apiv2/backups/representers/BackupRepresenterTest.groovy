@@ -51,6 +51,21 @@ class BackupRepresenterTest {
     assertThatJson(actualJson).isEqualTo(expectedJson)
   }
 
+  @Test
+  void 'should serialize the time taken by each step of the backup'() {
+    def backup = new ServerBackup("/foo/bar", new Date(42), "bob", BackupStatus.IN_PROGRESS, "", 99)
+    backup.setProgressStatus(BackupProgressStatus.BACKUP_DATABASE)
+    backup.recordStepDuration(BackupProgressStatus.BACKUP_CONFIG_REPO, 1200)
+    backup.recordStepDuration(BackupProgressStatus.BACKUP_CONFIG, 30)
+
+    def actualJson = toObjectString({ BackupRepresenter.toJSON(it, backup) })
+
+    assertThatJson(actualJson).node("step_durations_in_millis").isEqualTo([
+      BACKUP_CONFIG     : 30,
+      BACKUP_CONFIG_REPO: 1200
+    ])
+  }
+
   @Test
   void 'should not serialize progress status when not present'() {
     def backup = new ServerBackup("/foo/bar", new Date(42), "bob", BackupStatus.COMPLETED, "exporting config", 99)
@@ -20,6 +20,7 @@ import com.thoughtworks.go.api.ApiController;
 import com.thoughtworks.go.api.ApiVersion;
 import com.thoughtworks.go.apiv1.internalagent.representers.*;
 import com.thoughtworks.go.remote.AgentInstruction;
+import com.thoughtworks.go.remote.Serialization;
 import com.thoughtworks.go.remote.StandardHeaders;
 import com.thoughtworks.go.remote.request.*;
 import com.thoughtworks.go.remote.work.Work;
@@ -33,6 +34,8 @@ import org.springframework.stereotype.Component;
 import spark.Request;
 import spark.Response;
 
+import java.util.List;
+
 import static com.thoughtworks.go.api.util.HaltApiResponses.haltBecauseForbidden;
 import static java.lang.String.valueOf;
 import static spark.Spark.*;
@@ -94,6 +97,12 @@ public class InternalAgentControllerV1 extends ApiController implements SparkSpr
         ReportCompleteStatusRequest req = ReportCompleteStatusRequestRepresenter.fromJSON(request.body());
         ensureAgentIsMakingARequestForItself(req, request);
 
+        if (prefetchNextWork(request)) {
+            List<String> warmUpUrls = buildRepositoryMessageProducer.reportCompleting(req.getAgentRuntimeInfo(), req.getJobIdentifier(),
+                    req.getJobResult(), true);
+            return Serialization.toJson(warmUpUrls);
+        }
+
         buildRepositoryMessageProducer.reportCompleting(req.getAgentRuntimeInfo(), req.getJobIdentifier(),
                 req.getJobResult());
 
@@ -104,12 +113,22 @@ public class InternalAgentControllerV1 extends ApiController implements SparkSpr
         ReportCompleteStatusRequest req = ReportCompleteStatusRequestRepresenter.fromJSON(request.body());
         ensureAgentIsMakingARequestForItself(req, request);
 
+        if (prefetchNextWork(request)) {
+            Work work = buildRepositoryMessageProducer.reportCompleted(req.getAgentRuntimeInfo(), req.getJobIdentifier(),
+                    req.getJobResult(), true);
+            return WorkRepresenter.toJSON(work);
+        }
+
         buildRepositoryMessageProducer.reportCompleted(req.getAgentRuntimeInfo(), req.getJobIdentifier(),
                 req.getJobResult());
 
         return NOTHING;
     }
 
+    private boolean prefetchNextWork(Request request) {
+        return Boolean.parseBoolean(request.headers(StandardHeaders.REQUEST_PREFETCH_NEXT_WORK));
+    }
+
     public String isIgnored(Request request, Response response) {
         IsIgnoredRequest isIgnoredRequest = IsIgnoredRequestRepresenter.fromJSON(request.body());
         ensureAgentIsMakingARequestForItself(isIgnoredRequest, request);
@@ -202,6 +202,31 @@ class InternalAgentControllerV1Test implements ControllerTrait<InternalAgentCont
               .hasBodyContaining("")
     }
 
+    @Test
+    void 'should hand over the reserved work when the agent asks to prefetch its next work'() {
+      def agent = new Agent("uuid", "localhost", "176.19.4.1")
+      def runtimeInfo = AgentRuntimeInfo.fromAgent(agent.getAgentIdentifier(), AgentRuntimeStatus.Idle, currentWorkingDirectory(),
+              "20.1.0", "20.9.0", () -> "Mac OS X")
+      def jobIdentifier = new JobIdentifier("up_42", 100, "100", "up42_stage",
+              "1", "some_job", 1111L)
+
+      when(buildRepositoryMessageProducer.reportCompleted(runtimeInfo, jobIdentifier, JobResult.Passed, true)).thenReturn(new NoWork())
+
+      def headers = [
+              'accept'                    : controller.mimeType,
+              'content-type'              : 'application/json',
+              'X-Agent-GUID'              : 'uuid',
+              'X-Agent-Prefetch-Next-Work': 'true'
+      ]
+      postWithApiHeader(controller.controllerPath("/report_completed"), headers, ReportCompleteStatusRequestRepresenter.toJSON(
+              new ReportCompleteStatusRequest(runtimeInfo, jobIdentifier, JobResult.Passed)))
+
+      verify(buildRepositoryMessageProducer).reportCompleted(runtimeInfo, jobIdentifier, JobResult.Passed, true)
+      assertThatResponse()
+              .isOk()
+              .hasBodyContaining(WorkRepresenter.toJSON(new NoWork()))
+    }
+
     @Test
     void 'ensure agent is making a request for itself'() {
       def agent = new Agent("different_agent_uuid", "localhost", "176.19.4.1")
@@ -23,6 +23,7 @@ public interface StandardHeaders {
 
     String REQUEST_UUID = "X-Agent-GUID";
     String REQUEST_AUTH = "Authorization";
+    String REQUEST_PREFETCH_NEXT_WORK = "X-Agent-Prefetch-Next-Work";
 
     String RESPONSE_CONTENT_MD5 = "Content-MD5";
 
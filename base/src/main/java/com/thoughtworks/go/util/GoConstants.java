@@ -51,4 +51,7 @@ public class GoConstants {
     public static final String REGULAR_MULTIPART_FILENAME = "file";
     public static final String CHECKSUM_MULTIPART_FILENAME = "file_checksum";
     public static final String ZIP_MULTIPART_FILENAME = "zipfile";
+    // Streamed artifact uploads are a plain zip body, with the checksums of the zipped files as the last zip entry
+    public static final String STREAMED_ARTIFACT_CONTENT_TYPE = "application/zip";
+    public static final String STREAMED_ARTIFACT_CHECKSUM_ENTRY = ".gocd-artifact-checksums";
 }
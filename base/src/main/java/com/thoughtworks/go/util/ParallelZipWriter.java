@@ -0,0 +1,310 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.util;
+
+import java.io.*;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Writes a zip archive whose entries are compressed concurrently and assembled in their original order. Small files
+ * are deflated by worker threads into memory, a bounded number of entries ahead of the writer; large files are
+ * deflated by the writer itself, straight into the output.
+ * <p>
+ * Only plain (non Zip64) archives are written: callers should use {@link #canWrite(List)} and fall back to
+ * {@link java.util.zip.ZipOutputStream} otherwise.
+ */
+class ParallelZipWriter {
+    private static final ThreadFactory COMPRESSOR_THREADS = new NamedDaemonThreadFactory("zip-compressor");
+    static final long LARGE_ENTRY_SIZE = 8 * 1024 * 1024;
+    private static final long MAX_ARCHIVE_SIZE = 0xFFFF0000L;
+    private static final int MAX_ENTRIES = 0xFFFF;
+
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int DATA_DESCRIPTOR_SIGNATURE = 0x08074b50;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+    private static final int VERSION = 20;
+    private static final int FLAG_UTF8 = 0x800;
+    private static final int FLAG_DATA_DESCRIPTOR = 0x8;
+    private static final int STORED = 0;
+    private static final int DEFLATED = 8;
+
+    private final int threads;
+    private final ZipCompressionPolicy compressionPolicy;
+    private final int level;
+
+    record PendingEntry(String name, File file) {
+        boolean isDirectory() {
+            return file == null;
+        }
+    }
+
+    private record CompressedEntry(PendingEntry entry, long crc, long size, byte[] deflated) {
+    }
+
+    private record CentralDirectoryRecord(String name, int flags, int method, long dosTime, long crc, long compressedSize, long size, long offset) {
+    }
+
+    ParallelZipWriter(int threads, ZipCompressionPolicy compressionPolicy, int level) {
+        this.threads = threads;
+        this.compressionPolicy = compressionPolicy;
+        this.level = level;
+    }
+
+    static boolean canWrite(List<PendingEntry> entries) {
+        if (entries.size() >= MAX_ENTRIES) {
+            return false;
+        }
+        long totalSize = 0;
+        for (PendingEntry entry : entries) {
+            if (!entry.isDirectory()) {
+                // deflate can grow incompressible data slightly, and each entry adds headers
+                totalSize += entry.file().length() + entry.file().length() / 100 + 1024;
+            }
+        }
+        return totalSize < MAX_ARCHIVE_SIZE;
+    }
+
+    void write(List<PendingEntry> entries, OutputStream destination) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads, COMPRESSOR_THREADS);
+        try {
+            CountingOutputStream out = new CountingOutputStream(new BufferedOutputStream(destination));
+            List<CentralDirectoryRecord> centralDirectory = new ArrayList<>();
+            Deque<Future<CompressedEntry>> inFlight = new ArrayDeque<>();
+            int next = 0;
+            while (next < entries.size() || !inFlight.isEmpty()) {
+                while (next < entries.size() && inFlight.size() < threads * 2) {
+                    PendingEntry entry = entries.get(next++);
+                    inFlight.add(executor.submit(() -> compress(entry)));
+                }
+                CompressedEntry compressed = await(inFlight.poll());
+                centralDirectory.add(compressed.deflated() == null && !compressed.entry().isDirectory()
+                    ? writeStreamed(compressed.entry(), out)
+                    : writeBuffered(compressed, out));
+            }
+            writeCentralDirectory(centralDirectory, out);
+            out.flush();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private CompressedEntry compress(PendingEntry entry) throws IOException {
+        if (entry.isDirectory() || entry.file().length() >= LARGE_ENTRY_SIZE) {
+            return new CompressedEntry(entry, 0, 0, null);
+        }
+        byte[] content;
+        try (InputStream input = new FileInputStream(entry.file())) {
+            content = input.readAllBytes();
+        }
+        CRC32 crc = new CRC32();
+        crc.update(content);
+        Deflater deflater = new Deflater(levelFor(entry), true);
+        try {
+            ByteArrayOutputStream deflated = new ByteArrayOutputStream(Math.max(64, content.length / 2));
+            try (DeflaterOutputStream deflaterOutput = new DeflaterOutputStream(deflated, deflater)) {
+                deflaterOutput.write(content);
+            }
+            return new CompressedEntry(entry, crc.getValue(), content.length, deflated.toByteArray());
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private CentralDirectoryRecord writeBuffered(CompressedEntry compressed, CountingOutputStream out) throws IOException {
+        PendingEntry entry = compressed.entry();
+        long offset = out.count();
+        int method = entry.isDirectory() ? STORED : DEFLATED;
+        long compressedSize = entry.isDirectory() ? 0 : compressed.deflated().length;
+        long dosTime = dosTime(entry);
+        byte[] name = entry.name().getBytes(UTF_8);
+
+        writeLocalHeader(out, FLAG_UTF8, method, dosTime, compressed.crc(), compressedSize, compressed.size(), name);
+        if (!entry.isDirectory()) {
+            out.write(compressed.deflated());
+        }
+        return new CentralDirectoryRecord(entry.name(), FLAG_UTF8, method, dosTime, compressed.crc(), compressedSize, compressed.size(), offset);
+    }
+
+    private CentralDirectoryRecord writeStreamed(PendingEntry entry, CountingOutputStream out) throws IOException {
+        long offset = out.count();
+        int flags = FLAG_UTF8 | FLAG_DATA_DESCRIPTOR;
+        long dosTime = dosTime(entry);
+        writeLocalHeader(out, flags, DEFLATED, dosTime, 0, 0, 0, entry.name().getBytes(UTF_8));
+
+        long dataStart = out.count();
+        CRC32 crc = new CRC32();
+        long size = 0;
+        Deflater deflater = new Deflater(levelFor(entry), true);
+        try (InputStream input = new BufferedInputStream(new FileInputStream(entry.file()))) {
+            DeflaterOutputStream deflaterOutput = new DeflaterOutputStream(new NonClosingOutputStream(out), deflater, 64 * 1024);
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
+                deflaterOutput.write(buffer, 0, read);
+                size += read;
+            }
+            deflaterOutput.finish();
+        } finally {
+            deflater.end();
+        }
+        long compressedSize = out.count() - dataStart;
+
+        writeInt(out, DATA_DESCRIPTOR_SIGNATURE);
+        writeInt(out, crc.getValue());
+        writeInt(out, compressedSize);
+        writeInt(out, size);
+        return new CentralDirectoryRecord(entry.name(), flags, DEFLATED, dosTime, crc.getValue(), compressedSize, size, offset);
+    }
+
+    private void writeLocalHeader(OutputStream out, int flags, int method, long dosTime, long crc, long compressedSize, long size, byte[] name) throws IOException {
+        writeInt(out, LOCAL_HEADER_SIGNATURE);
+        writeShort(out, VERSION);
+        writeShort(out, flags);
+        writeShort(out, method);
+        writeInt(out, dosTime);
+        writeInt(out, crc);
+        writeInt(out, compressedSize);
+        writeInt(out, size);
+        writeShort(out, name.length);
+        writeShort(out, 0);
+        out.write(name);
+    }
+
+    private void writeCentralDirectory(List<CentralDirectoryRecord> records, CountingOutputStream out) throws IOException {
+        long start = out.count();
+        for (CentralDirectoryRecord record : records) {
+            byte[] name = record.name().getBytes(UTF_8);
+            writeInt(out, CENTRAL_HEADER_SIGNATURE);
+            writeShort(out, VERSION);
+            writeShort(out, VERSION);
+            writeShort(out, record.flags());
+            writeShort(out, record.method());
+            writeInt(out, record.dosTime());
+            writeInt(out, record.crc());
+            writeInt(out, record.compressedSize());
+            writeInt(out, record.size());
+            writeShort(out, name.length);
+            writeShort(out, 0); // extra field length
+            writeShort(out, 0); // comment length
+            writeShort(out, 0); // disk number
+            writeShort(out, 0); // internal attributes
+            writeInt(out, 0); // external attributes
+            writeInt(out, record.offset());
+            out.write(name);
+        }
+        long size = out.count() - start;
+        writeInt(out, END_OF_CENTRAL_DIRECTORY_SIGNATURE);
+        writeShort(out, 0);
+        writeShort(out, 0);
+        writeShort(out, records.size());
+        writeShort(out, records.size());
+        writeInt(out, size);
+        writeInt(out, start);
+        writeShort(out, 0);
+    }
+
+    private int levelFor(PendingEntry entry) {
+        return compressionPolicy.levelFor(entry.file().getName(), level);
+    }
+
+    private static CompressedEntry await(Future<CompressedEntry> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while compressing zip entries");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    static long dosTime(PendingEntry entry) {
+        long millis = entry.isDirectory() ? System.currentTimeMillis() : entry.file().lastModified();
+        LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+        if (time.getYear() < 1980) {
+            return (1 << 21) | (1 << 16);
+        }
+        return ((long) (time.getYear() - 1980) << 25) | ((long) time.getMonthValue() << 21) | ((long) time.getDayOfMonth() << 16)
+            | ((long) time.getHour() << 11) | ((long) time.getMinute() << 5) | (time.getSecond() >> 1);
+    }
+
+    private static void writeShort(OutputStream out, int value) throws IOException {
+        out.write(value & 0xff);
+        out.write((value >>> 8) & 0xff);
+    }
+
+    private static void writeInt(OutputStream out, long value) throws IOException {
+        writeShort(out, (int) (value & 0xffff));
+        writeShort(out, (int) ((value >>> 16) & 0xffff));
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        long count() {
+            return count;
+        }
+    }
+
+    private static class NonClosingOutputStream extends FilterOutputStream {
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
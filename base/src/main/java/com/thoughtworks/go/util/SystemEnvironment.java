@@ -111,6 +111,7 @@ public class SystemEnvironment implements Serializable, ConfigDirProvider {
     public static final GoSystemProperty<String> PLUGIN_GO_PROVIDED_PATH = new GoStringSystemProperty("plugins.go.provided.path", PLUGINS_PATH + FileSystems.getDefault().getSeparator() + "bundled");
     public static final GoSystemProperty<String> PLUGIN_EXTERNAL_PROVIDED_PATH = new GoStringSystemProperty("plugins.external.provided.path", PLUGINS_PATH + FileSystems.getDefault().getSeparator() + "external");
     public static final GoSystemProperty<String> PLUGIN_WORK_DIR = new CachedProperty<>(new GoStringSystemProperty("plugins.work.path", "plugins_work"));
+    public static final GoSystemProperty<String> PLUGIN_BUNDLE_CACHE_DIR = new CachedProperty<>(new GoStringSystemProperty("plugins.bundle.cache.path", ""));
     public static final GoSystemProperty<String> PLUGIN_ACTIVATOR_JAR_PATH = new CachedProperty<>(new GoStringSystemProperty("plugins.activator.jar.path", "lib/go-plugin-activator.jar"));
     public static final GoSystemProperty<String> ALL_PLUGINS_ZIP_PATH = new GoStringSystemProperty("plugins.all.zip.path", new File(PLUGINS_PATH, "go-plugins-all.zip").getAbsolutePath());
     public static final GoSystemProperty<String> ADDONS_PATH = new GoStringSystemProperty("addons.path", "addons");
@@ -146,6 +147,7 @@ public class SystemEnvironment implements Serializable, ConfigDirProvider {
     public static final GoSystemProperty<Boolean> GO_CONFIG_REPO_PERIODIC_GC = new GoBooleanSystemProperty("go.config.repo.gc.periodic", false);
 
     public static final GoSystemProperty<Integer> GO_ELASTIC_PLUGIN_CREATE_AGENT_THREADS = new GoIntSystemProperty("go.elasticplugin.createagent.threads", 5);
+    public static final GoSystemProperty<Integer> GO_ELASTIC_PLUGIN_CREATE_AGENTS_BATCH_SIZE = new GoIntSystemProperty("go.elasticplugin.createagents.batch.size", 50);
     public static final GoSystemProperty<Integer> GO_ELASTIC_PLUGIN_SERVER_PING_THREADS = new GoIntSystemProperty("go.elasticplugin.serverping.threads", 1);
     public static final GoSystemProperty<Integer> GO_ENCRYPTION_API_MAX_REQUESTS = new GoIntSystemProperty("go.encryption.api.max.requests", 30);
 
@@ -171,6 +173,33 @@ public class SystemEnvironment implements Serializable, ConfigDirProvider {
     private static final GoSystemProperty<Boolean> AGENT_STATUS_API_ENABLED = new GoBooleanSystemProperty("go.agent.status.api.enabled", true);
     private static final GoSystemProperty<String> AGENT_STATUS_API_BIND_HOST = new GoStringSystemProperty("go.agent.status.api.bind.host", "localhost");
     private static final GoSystemProperty<Integer> AGENT_STATUS_API_BIND_PORT = new GoIntSystemProperty("go.agent.status.api.bind.port", 8152);
+    private static final GoSystemProperty<Integer> AGENT_MATERIAL_PREPARE_THREADS = new GoIntSystemProperty("go.agent.material.prepare.threads", 1);
+    private static final GoSystemProperty<Boolean> AGENT_STREAMING_ARTIFACT_UPLOAD = new GoBooleanSystemProperty("go.agent.artifact.streaming.upload", false);
+    private static final GoSystemProperty<String> AGENT_GIT_REFERENCE_CACHE_DIR = new GoStringSystemProperty("go.agent.git.reference.cache.dir", "");
+    private static final GoSystemProperty<Long> AGENT_GIT_REFERENCE_CACHE_MAX_SIZE_IN_MB = new GoLongSystemProperty("go.agent.git.reference.cache.max.size.mb", 10 * 1024L);
+    private static final GoSystemProperty<Integer> ZIP_THREADS = new GoIntSystemProperty("go.zip.threads", 1);
+    private static final GoSystemProperty<String> ZIP_STORED_EXTENSIONS = new GoStringSystemProperty("go.zip.stored.extensions", "");
+    private static final GoSystemProperty<Integer> AGENT_FETCH_ARTIFACT_THREADS = new GoIntSystemProperty("go.agent.fetch.artifact.threads", 1);
+    private static final GoSystemProperty<String> AGENT_ARTIFACT_CACHE_DIR = new GoStringSystemProperty("go.agent.artifact.cache.dir", "");
+    private static final GoSystemProperty<Long> AGENT_ARTIFACT_CACHE_MAX_SIZE_IN_MB = new GoLongSystemProperty("go.agent.artifact.cache.max.size.mb", 10 * 1024L);
+    private static final GoSystemProperty<Boolean> AGENT_PREFETCH_NEXT_WORK = new GoBooleanSystemProperty("go.agent.prefetch.next.work", false);
+    private static final GoSystemProperty<Boolean> SERVER_PREFETCH_NEXT_WORK = new GoBooleanSystemProperty("go.server.prefetch.next.work", false);
+    private static final GoSystemProperty<Long> SERVER_PREFETCH_RESERVATION_TIMEOUT_IN_MILLIS = new GoLongSystemProperty("go.server.prefetch.reservation.timeout", MINUTES.toMillis(1));
+    private static final GoSystemProperty<Integer> ACCESS_TOKEN_CACHE_TTL_IN_SECONDS = new GoIntSystemProperty("go.server.access.token.cache.ttl.seconds", 30);
+    private static final GoSystemProperty<Integer> ACCESS_TOKEN_CACHE_MAX_SIZE = new GoIntSystemProperty("go.server.access.token.cache.max.size", 1000);
+    private static final GoSystemProperty<Integer> SECRETS_CACHE_TTL_IN_SECONDS = new GoIntSystemProperty("go.secrets.cache.ttl.seconds", 0);
+    private static final GoSystemProperty<Integer> PLUGIN_MAX_CONCURRENT_REQUESTS = new GoIntSystemProperty("go.plugin.max.concurrent.requests", 0);
+    private static final GoSystemProperty<Long> PLUGIN_BULKHEAD_WAIT_IN_MILLIS = new GoLongSystemProperty("go.plugin.bulkhead.wait.millis", SECONDS.toMillis(30));
+    private static final GoSystemProperty<Long> PLUGIN_REQUEST_TIMEOUT_IN_MILLIS = new GoLongSystemProperty("go.plugin.request.timeout.millis", 0L);
+    private static final GoSystemProperty<Integer> PLUGIN_CIRCUIT_BREAKER_FAILURE_THRESHOLD = new GoIntSystemProperty("go.plugin.circuit.breaker.failure.threshold", 0);
+    private static final GoSystemProperty<Long> PLUGIN_CIRCUIT_BREAKER_OPEN_IN_MILLIS = new GoLongSystemProperty("go.plugin.circuit.breaker.open.millis", SECONDS.toMillis(30));
+    private static final GoSystemProperty<Integer> PLUGIN_LOAD_THREADS = new GoIntSystemProperty("go.plugin.load.threads", 1);
+    private static final GoSystemProperty<Integer> PIPELINE_SCHEDULING_THREADS = new GoIntSystemProperty("go.pipeline.scheduling.threads", 1);
+    private static final GoSystemProperty<Integer> ARTIFACTS_RETENTION_THREADS = new GoIntSystemProperty("go.artifacts.retention.threads", 4);
+    private static final GoSystemProperty<Integer> ARTIFACTS_RETENTION_HEADROOM_PERCENT = new GoIntSystemProperty("go.artifacts.retention.headroom.percent", 10);
+    private static final GoSystemProperty<Boolean> BACKUP_INCREMENTAL = new GoBooleanSystemProperty("go.backup.incremental", false);
+    private static final GoSystemProperty<Integer> BACKUP_INCREMENTAL_FULL_EVERY = new GoIntSystemProperty("go.backup.incremental.full.every", 7);
+    private static final GoSystemProperty<Integer> BACKUP_THREADS = new GoIntSystemProperty("go.backup.threads", 4);
 
     private static final GoSystemProperty<Integer> GO_SPA_TIMEOUT_IN_MILLIS = new GoIntSystemProperty("go.spa.timeout", (int) SECONDS.toMillis(60));
     private static final GoSystemProperty<Integer> GO_SPA_REFRESH_INTERVAL_IN_MILLIS = new GoIntSystemProperty("go.spa.refresh.interval", (int) SECONDS.toMillis(5));
@@ -178,6 +207,7 @@ public class SystemEnvironment implements Serializable, ConfigDirProvider {
 
     private static final GoSystemProperty<Boolean> ENABLE_ANALYTICS_ONLY_FOR_ADMINS = new GoBooleanSystemProperty("go.enable.analytics.only.for.admins", false);
     public static final GoSystemProperty<Long> NOTIFICATION_PLUGIN_MESSAGES_TTL_IN_MILLIS = new GoLongSystemProperty("plugins.notification.message.ttl.millis", MINUTES.toMillis(2));
+    public static final GoSystemProperty<Integer> NOTIFICATION_PLUGIN_BATCH_SIZE = new GoIntSystemProperty("plugins.notification.batch.size", 50);
     public static final GoSystemProperty<Boolean> ALLOW_EVERYONE_TO_VIEW_OPERATE_GROUPS_WITH_NO_GROUP_AUTHORIZATION_SETUP = new GoBooleanSystemProperty("allow.everyone.to.view.operate.groups.with.no.authorization.setup", false);
 
     public static final GoSystemProperty<Boolean> ENABLE_HSTS_HEADER = new GoBooleanSystemProperty("gocd.enable.hsts.header", false);
@@ -601,6 +631,150 @@ public class SystemEnvironment implements Serializable, ConfigDirProvider {
         return AGENT_STATUS_API_BIND_PORT.getValue();
     }
 
+    public int getAgentMaterialPrepareThreads() {
+        return AGENT_MATERIAL_PREPARE_THREADS.getValue();
+    }
+
+    public boolean isAgentStreamingArtifactUploadEnabled() {
+        return AGENT_STREAMING_ARTIFACT_UPLOAD.getValue();
+    }
+
+    public String getAgentGitReferenceCacheDir() {
+        return AGENT_GIT_REFERENCE_CACHE_DIR.getValue();
+    }
+
+    public long getAgentGitReferenceCacheMaxSizeInMb() {
+        return AGENT_GIT_REFERENCE_CACHE_MAX_SIZE_IN_MB.getValue();
+    }
+
+    public int getZipThreads() {
+        return ZIP_THREADS.getValue();
+    }
+
+    /**
+     * @return comma separated extensions (such as "jar,png") of files which are added to zips without compression;
+     * empty to compress every file
+     */
+    public String getZipStoredExtensions() {
+        return ZIP_STORED_EXTENSIONS.getValue();
+    }
+
+    public int getAgentFetchArtifactThreads() {
+        return AGENT_FETCH_ARTIFACT_THREADS.getValue();
+    }
+
+    public String getAgentArtifactCacheDir() {
+        return AGENT_ARTIFACT_CACHE_DIR.getValue();
+    }
+
+    public long getAgentArtifactCacheMaxSizeInMb() {
+        return AGENT_ARTIFACT_CACHE_MAX_SIZE_IN_MB.getValue();
+    }
+
+    public boolean isAgentNextWorkPrefetchEnabled() {
+        return AGENT_PREFETCH_NEXT_WORK.getValue();
+    }
+
+    public boolean isServerNextWorkPrefetchEnabled() {
+        return SERVER_PREFETCH_NEXT_WORK.getValue();
+    }
+
+    public long getServerPrefetchReservationTimeoutInMillis() {
+        return SERVER_PREFETCH_RESERVATION_TIMEOUT_IN_MILLIS.getValue();
+    }
+
+    public int getAccessTokenCacheTtlInSeconds() {
+        return ACCESS_TOKEN_CACHE_TTL_IN_SECONDS.getValue();
+    }
+
+    public int getAccessTokenCacheMaxSize() {
+        return ACCESS_TOKEN_CACHE_MAX_SIZE.getValue();
+    }
+
+    /**
+     * @return how long resolved secret values may be reused, in memory, for other jobs and materials; 0 to always ask the
+     * secrets plugin
+     */
+    public int getSecretsCacheTtlInSeconds() {
+        return SECRETS_CACHE_TTL_IN_SECONDS.getValue();
+    }
+
+    /**
+     * @return the number of requests which may be in flight to a plugin, for an extension, at any time; 0 for no limit
+     */
+    public int getPluginMaxConcurrentRequests() {
+        return PLUGIN_MAX_CONCURRENT_REQUESTS.getValue();
+    }
+
+    public long getPluginBulkheadWaitInMillis() {
+        return PLUGIN_BULKHEAD_WAIT_IN_MILLIS.getValue();
+    }
+
+    /**
+     * @return how long to wait for a plugin to answer the request, from {@code go.plugin.request.<request-name>.timeout.millis}
+     * if set, or else {@code go.plugin.request.timeout.millis}; 0 to wait for as long as it takes
+     */
+    public long getPluginRequestTimeoutInMillis(String requestName) {
+        String timeout = getPropertyImpl("go.plugin.request." + requestName + ".timeout.millis");
+        return timeout == null ? PLUGIN_REQUEST_TIMEOUT_IN_MILLIS.getValue() : Long.parseLong(timeout);
+    }
+
+    /**
+     * @return the number of consecutive failures after which no requests are sent to a plugin for a while; 0 to always
+     * send them
+     */
+    public int getPluginCircuitBreakerFailureThreshold() {
+        return PLUGIN_CIRCUIT_BREAKER_FAILURE_THRESHOLD.getValue();
+    }
+
+    public long getPluginCircuitBreakerOpenInMillis() {
+        return PLUGIN_CIRCUIT_BREAKER_OPEN_IN_MILLIS.getValue();
+    }
+
+    /**
+     * @return the number of threads used to unpack plugin jars and to fetch plugin metadata when plugins are loaded. 1
+     * loads plugins one after the other.
+     */
+    public int getPluginLoadThreads() {
+        return Math.max(1, PLUGIN_LOAD_THREADS.getValue());
+    }
+
+    public int getPipelineSchedulingThreads() {
+        return Math.max(1, PIPELINE_SCHEDULING_THREADS.getValue());
+    }
+
+    public int getArtifactsRetentionThreads() {
+        return Math.max(1, ARTIFACTS_RETENTION_THREADS.getValue());
+    }
+
+    /**
+     * @return how far above the configured purge start, as a percentage of it, old artifacts start being purged, so
+     * that purging is under way before the disk is considered full
+     */
+    public int getArtifactsRetentionHeadroomPercent() {
+        return Math.max(0, ARTIFACTS_RETENTION_HEADROOM_PERCENT.getValue());
+    }
+
+    /**
+     * @return whether backups of the config repository only store the files which changed since the last backup. Such a
+     * backup cannot be restored by extracting its {@code config-repo.zip} alone: follow {@code config-repo.zip.restore.txt}
+     * in the backup directory, which names the earlier backups to extract as well.
+     */
+    public boolean isBackupIncremental() {
+        return BACKUP_INCREMENTAL.getValue();
+    }
+
+    /**
+     * @return how many backups, at most, build on each other before a full backup is made again
+     */
+    public int getBackupIncrementalFullEvery() {
+        return Math.max(1, BACKUP_INCREMENTAL_FULL_EVERY.getValue());
+    }
+
+    public int getBackupThreads() {
+        return Math.max(1, BACKUP_THREADS.getValue());
+    }
+
     public static Integer goSpaRefreshInterval() {
         return GO_SPA_REFRESH_INTERVAL_IN_MILLIS.getValue();
     }
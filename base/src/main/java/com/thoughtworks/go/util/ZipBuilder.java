@@ -43,12 +43,15 @@ public class ZipBuilder {
     }
 
     public void done() throws IOException {
+        if (zipUtil.zipInParallel(toAdd, level, destinationStream, excludeRootDir)) {
+            return;
+        }
         try (ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(destinationStream))) {
             zip.setLevel(level);
             for (Map.Entry<String, File> zipDirToSourceFileEntry : toAdd.entrySet()) {
                 File sourceFileToZip = zipDirToSourceFileEntry.getValue();
                 String destinationFolder = zipDirToSourceFileEntry.getKey();
-                zipUtil.addToZip(new ZipPath(destinationFolder), sourceFileToZip, zip, excludeRootDir);
+                zipUtil.addToZip(new ZipPath(destinationFolder), sourceFileToZip, zip, level, excludeRootDir);
             }
             zip.flush();
         }
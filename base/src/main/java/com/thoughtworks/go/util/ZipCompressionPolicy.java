@@ -0,0 +1,55 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.util;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+
+/**
+ * Decides the deflate level of each zip entry. Files whose extension is in the "store" list (typically formats which
+ * are compressed already, such as jars or images) are added without compression, since deflating them again costs
+ * time and saves next to nothing. All other files use the level asked for by the caller.
+ */
+public class ZipCompressionPolicy {
+    public static final ZipCompressionPolicy UNIFORM = new ZipCompressionPolicy(Set.of());
+
+    private final Set<String> storedExtensions;
+
+    public ZipCompressionPolicy(Set<String> storedExtensions) {
+        this.storedExtensions = storedExtensions.stream().map(extension -> extension.toLowerCase(Locale.ROOT)).collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * @param storedExtensions comma separated extensions, without the leading dot
+     */
+    public static ZipCompressionPolicy storing(String storedExtensions) {
+        return new ZipCompressionPolicy(Arrays.stream(storedExtensions.split(","))
+            .map(String::trim)
+            .filter(extension -> !extension.isEmpty())
+            .collect(Collectors.toSet()));
+    }
+
+    public int levelFor(String fileName, int defaultLevel) {
+        int dot = fileName.lastIndexOf('.');
+        if (dot < 0 || storedExtensions.isEmpty()) {
+            return defaultLevel;
+        }
+        return storedExtensions.contains(fileName.substring(dot + 1).toLowerCase(Locale.ROOT)) ? Deflater.NO_COMPRESSION : defaultLevel;
+    }
+}
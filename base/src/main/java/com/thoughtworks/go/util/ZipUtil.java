@@ -19,7 +19,17 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 
@@ -27,15 +37,32 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 
 public class ZipUtil {
     private static final Logger LOGGER = LoggerFactory.getLogger(ZipUtil.class);
+    private static final ThreadFactory EXTRACTOR_THREADS = new NamedDaemonThreadFactory("zip-extractor");
     private ZipEntryHandler zipEntryHandler = null;
+    private final int threads;
+    private final ZipCompressionPolicy compressionPolicy;
 
     public ZipUtil() {
+        this((ZipEntryHandler) null);
     }
 
     public ZipUtil(ZipEntryHandler zipEntryHandler) {
+        this(zipEntryHandler, new SystemEnvironment());
+    }
+
+    private ZipUtil(ZipEntryHandler zipEntryHandler, SystemEnvironment systemEnvironment) {
+        this(systemEnvironment.getZipThreads(), ZipCompressionPolicy.storing(systemEnvironment.getZipStoredExtensions()));
         this.zipEntryHandler = zipEntryHandler;
     }
 
+    /**
+     * @param threads the number of threads used to compress or extract entries; 1 to do everything on the caller's thread
+     */
+    public ZipUtil(int threads, ZipCompressionPolicy compressionPolicy) {
+        this.threads = threads;
+        this.compressionPolicy = compressionPolicy;
+    }
+
     public File zip(File source, File destZipFile, int level) throws IOException {
         zipContents(source, new FileOutputStream(destZipFile), level, false);
         return destZipFile;
@@ -58,44 +85,118 @@ public class ZipUtil {
         new ZipBuilder(this, level, output, excludeRootDir).add("", file).done();
     }
 
-    private void addFolderToZip(ZipPath path, File source, ZipOutputStream zip, boolean excludeRootDir) throws IOException {
+    /**
+     * Adds the file or folder to the given zip stream, computing the MD5 checksum of every file while it is being
+     * compressed, so that the contents are read only once.
+     *
+     * @return MD5 checksums (hex) of the zipped files, keyed by their entry names
+     */
+    public Map<String, String> zipWithChecksums(File source, ZipOutputStream zip, int level) throws IOException {
+        Map<String, String> checksums = new LinkedHashMap<>();
+        addToZip(new ZipPath(""), source, new ZipTarget(zip, level, checksums), false);
+        return checksums;
+    }
+
+    /**
+     * Writes the zip using the parallel engine, when more than one thread is configured and the archive does not need
+     * Zip64 extensions. The destination is closed once written.
+     *
+     * @return false if nothing was written, and the zip should be written sequentially instead
+     */
+    boolean zipInParallel(Map<String, File> sources, int level, OutputStream destination, boolean excludeRootDir) throws IOException {
+        if (threads <= 1) {
+            return false;
+        }
+        List<ParallelZipWriter.PendingEntry> entries = new ArrayList<>();
+        for (Map.Entry<String, File> source : sources.entrySet()) {
+            collectEntries(new ZipPath(source.getKey()), source.getValue(), excludeRootDir, entries);
+        }
+        if (!ParallelZipWriter.canWrite(entries)) {
+            return false;
+        }
+        try (OutputStream out = destination) {
+            new ParallelZipWriter(threads, compressionPolicy, level).write(entries, out);
+        }
+        return true;
+    }
+
+    // lists entries in the same order, and with the same names, as addToZip adds them
+    private void collectEntries(ZipPath path, File source, boolean excludeRootDir, List<ParallelZipWriter.PendingEntry> entries) {
+        if (!source.isDirectory()) {
+            entries.add(new ParallelZipWriter.PendingEntry(path.with(source).asZipEntry().getName(), source));
+            return;
+        }
+        ZipPath contentsPath = path;
+        if (!excludeRootDir) {
+            contentsPath = path.with(source);
+            entries.add(new ParallelZipWriter.PendingEntry(contentsPath.asZipEntryDirectory().getName(), null));
+        }
+        for (File file : source.listFiles()) {
+            collectEntries(contentsPath, file, false, entries);
+        }
+    }
+
+    private void addFolderToZip(ZipPath path, File source, ZipTarget target, boolean excludeRootDir) throws IOException {
         ZipPath newPath = path.with(source);
         if (source.isFile()) {
-            addToZip(newPath, source, zip, false);
+            addToZip(newPath, source, target, false);
         } else {
-            addDirectory(path, source, zip, excludeRootDir);
+            addDirectory(path, source, target, excludeRootDir);
         }
     }
 
-    private void addDirectory(ZipPath path, File source, ZipOutputStream zip, boolean excludeRootDir) throws IOException {
+    private void addDirectory(ZipPath path, File source, ZipTarget target, boolean excludeRootDir) throws IOException {
         if (excludeRootDir) {
-            addDirContents(path, source, zip);
+            addDirContents(path, source, target);
             return;
         }
         ZipPath newPath = path.with(source);
-        zip.putNextEntry(newPath.asZipEntryDirectory());
-        addDirContents(newPath, source, zip);
+        target.zip().putNextEntry(newPath.asZipEntryDirectory());
+        addDirContents(newPath, source, target);
     }
 
-    private void addDirContents(ZipPath path, File source, ZipOutputStream zip) throws IOException {
+    private void addDirContents(ZipPath path, File source, ZipTarget target) throws IOException {
         for (File file : source.listFiles()) {
-            addToZip(path, file, zip, false);
+            addToZip(path, file, target, false);
         }
     }
 
-    void addToZip(ZipPath path, File srcFile, ZipOutputStream zip, boolean excludeRootDir) throws IOException {
+    void addToZip(ZipPath path, File srcFile, ZipOutputStream zip, int level, boolean excludeRootDir) throws IOException {
+        addToZip(path, srcFile, new ZipTarget(zip, level, null), excludeRootDir);
+    }
+
+    private void addToZip(ZipPath path, File srcFile, ZipTarget target, boolean excludeRootDir) throws IOException {
         if (srcFile.isDirectory()) {
-            addFolderToZip(path, srcFile, zip, excludeRootDir);
+            addFolderToZip(path, srcFile, target, excludeRootDir);
         } else {
+            ZipOutputStream zip = target.zip();
             try (BufferedInputStream inputStream = new BufferedInputStream(new FileInputStream(srcFile))) {
                 ZipEntry zipEntry = path.with(srcFile).asZipEntry();
                 zipEntry.setTime(srcFile.lastModified());
+                zip.setLevel(compressionPolicy.levelFor(srcFile.getName(), target.level()));
                 zip.putNextEntry(zipEntry);
-                inputStream.transferTo(zip);
+                if (target.checksums() == null) {
+                    inputStream.transferTo(zip);
+                } else {
+                    MessageDigest md5 = md5Digest();
+                    new DigestInputStream(inputStream, md5).transferTo(zip);
+                    target.checksums().put(zipEntry.getName(), HexFormat.of().formatHex(md5.digest()));
+                }
             }
         }
     }
 
+    private record ZipTarget(ZipOutputStream zip, int level, Map<String, String> checksums) {
+    }
+
+    private static MessageDigest md5Digest() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     private void bombIfZipEntryPathContainsDirectoryTraversalCharacters(String filepath) {
         if (filepath.contains("..")) {
             throw new IllegalPathException(String.format("File %s is outside extraction target directory", filepath));
@@ -103,20 +204,87 @@ public class ZipUtil {
     }
 
     public void unzip(ZipInputStream zipInputStream, File destDir) throws IOException {
+        unzip(zipInputStream, destDir, (entry, stream) -> false);
+    }
+
+    /**
+     * Same as {@link #unzip(ZipInputStream, File)}, except that entries claimed by the interceptor are handed to it
+     * instead of being extracted.
+     */
+    public void unzip(ZipInputStream zipInputStream, File destDir, ZipEntryInterceptor interceptor) throws IOException {
         try (ZipInputStream zis = zipInputStream) {
             destDir.mkdirs();
             ZipEntry zipEntry = zis.getNextEntry();
             while (zipEntry != null) {
-                extractTo(zipEntry, zis, destDir);
+                if (!interceptor.intercept(zipEntry, zis)) {
+                    extractTo(zipEntry, zis, destDir);
+                }
                 zipEntry = zis.getNextEntry();
             }
         }
     }
 
     public void unzip(File zip, File destDir) throws IOException {
+        if (threads > 1 && zipEntryHandler == null) {
+            unzipInParallel(zip, destDir);
+            return;
+        }
         unzip(new ZipInputStream(new BufferedInputStream(new FileInputStream(zip))), destDir);
     }
 
+    // a zip file (unlike a stream) can be read at any entry, so that each file is extracted by its own task
+    private void unzipInParallel(File zip, File destDir) throws IOException {
+        try (ZipFile zipFile = new ZipFile(zip)) {
+            destDir.mkdirs();
+            Map<String, ZipEntry> files = new LinkedHashMap<>();
+            Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (isDirectory(entry.getName())) {
+                    extractTo(entry, InputStream.nullInputStream(), destDir);
+                } else {
+                    // like the sequential unzip, the last entry wins when a name is repeated
+                    files.put(entry.getName(), entry);
+                }
+            }
+
+            ExecutorService executor = Executors.newFixedThreadPool(threads, EXTRACTOR_THREADS);
+            try {
+                List<Future<?>> extractions = new ArrayList<>();
+                for (ZipEntry entry : files.values()) {
+                    extractions.add(executor.submit(() -> {
+                        try (InputStream stream = zipFile.getInputStream(entry)) {
+                            extractTo(entry, stream, destDir);
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> extraction : extractions) {
+                    awaitExtraction(extraction);
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    private static void awaitExtraction(Future<?> extraction) throws IOException {
+        try {
+            extraction.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while extracting zip entries");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
     private void extractTo(ZipEntry entry, InputStream entryInputStream, File toDir) throws IOException {
         bombIfZipEntryPathContainsDirectoryTraversalCharacters(entry.getName());
         String entryName = nonRootedEntryName(entry);
@@ -169,4 +337,11 @@ public class ZipUtil {
         void handleEntry(ZipEntry entry, InputStream stream) throws IOException;
     }
 
+    public interface ZipEntryInterceptor {
+        /**
+         * @return true if the entry was consumed and should not be extracted
+         */
+        boolean intercept(ZipEntry entry, InputStream stream) throws IOException;
+    }
+
 }
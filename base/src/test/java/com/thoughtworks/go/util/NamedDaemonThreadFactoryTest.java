@@ -0,0 +1,35 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NamedDaemonThreadFactoryTest {
+    @Test
+    void shouldMakeNumberedDaemonThreads() {
+        NamedDaemonThreadFactory factory = new NamedDaemonThreadFactory("zip-extractor");
+
+        Thread first = factory.newThread(() -> {});
+        Thread second = factory.newThread(() -> {});
+
+        assertThat(first.getName()).isEqualTo("zip-extractor-1");
+        assertThat(second.getName()).isEqualTo("zip-extractor-2");
+        assertThat(first.isDaemon()).isTrue();
+        assertThat(second.isDaemon()).isTrue();
+    }
+}
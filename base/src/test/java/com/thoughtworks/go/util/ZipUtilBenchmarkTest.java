@@ -0,0 +1,105 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.zip.Deflater;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Compares the throughput of the sequential and parallel zip engines on a large directory tree. Run it with
+ * {@code -Dzip.benchmark=true}; the number of threads can be set with {@code -Dzip.benchmark.threads}. The results are
+ * logged at INFO level.
+ */
+@EnabledIfSystemProperty(named = "zip.benchmark", matches = "true")
+public class ZipUtilBenchmarkTest {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ZipUtilBenchmarkTest.class);
+    private static final int FOLDERS = 50;
+    private static final int FILES_PER_FOLDER = 40;
+    private static final int ITERATIONS = 3;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void compareSequentialAndParallelEngines() throws IOException {
+        File source = createTree(tempDir.resolve("source").toFile());
+        long size = sizeOf(source);
+        int threads = Integer.getInteger("zip.benchmark.threads", Runtime.getRuntime().availableProcessors());
+
+        ZipUtil sequential = new ZipUtil(1, ZipCompressionPolicy.UNIFORM);
+        ZipUtil parallel = new ZipUtil(threads, ZipCompressionPolicy.storing("jar,png"));
+
+        report("zip, sequential", size, () -> sequential.zip(source, tempDir.resolve("sequential.zip").toFile(), Deflater.DEFAULT_COMPRESSION));
+        report("zip, " + threads + " threads", size, () -> parallel.zip(source, tempDir.resolve("parallel.zip").toFile(), Deflater.DEFAULT_COMPRESSION));
+        File zip = tempDir.resolve("sequential.zip").toFile();
+        report("unzip, sequential", size, () -> sequential.unzip(zip, Files.createTempDirectory(tempDir, "unzip").toFile()));
+        report("unzip, " + threads + " threads", size, () -> parallel.unzip(zip, Files.createTempDirectory(tempDir, "unzip").toFile()));
+    }
+
+    private void report(String name, long size, Action action) throws IOException {
+        action.run(); // warm up
+        long before = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            action.run();
+        }
+        double seconds = (System.nanoTime() - before) / 1e9 / ITERATIONS;
+        LOGGER.info(String.format("%-25s %8.3f s %10.1f MB/s", name, seconds, size / seconds / (1024 * 1024)));
+    }
+
+    private File createTree(File root) throws IOException {
+        Random random = new Random(42);
+        for (int folder = 0; folder < FOLDERS; folder++) {
+            File dir = new File(root, "folder-" + folder);
+            Files.createDirectories(dir.toPath());
+            for (int file = 0; file < FILES_PER_FOLDER; file++) {
+                if (file % 4 == 0) {
+                    byte[] incompressible = new byte[256 * 1024];
+                    random.nextBytes(incompressible);
+                    Files.write(new File(dir, "library-" + file + ".jar").toPath(), incompressible);
+                } else {
+                    StringBuilder log = new StringBuilder();
+                    for (int line = 0; line < 5000; line++) {
+                        log.append("[go] Line ").append(line).append(" of build log, value=").append(random.nextInt(1000)).append('\n');
+                    }
+                    Files.writeString(new File(dir, "build-" + file + ".log").toPath(), log, UTF_8);
+                }
+            }
+        }
+        return root;
+    }
+
+    private long sizeOf(File root) throws IOException {
+        try (var files = Files.walk(root.toPath())) {
+            return files.filter(Files::isRegularFile).mapToLong(path -> path.toFile().length()).sum();
+        }
+    }
+
+    private interface Action {
+        void run() throws IOException;
+    }
+}
@@ -16,26 +16,31 @@
 package com.thoughtworks.go.util;
 
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.condition.EnabledOnOs;
 import org.junit.jupiter.api.condition.OS;
 import org.junit.jupiter.api.io.TempDir;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.IOException;
-import java.io.InputStream;
+import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
 import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Objects.requireNonNull;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
 
 public class ZipUtilTest {
     @TempDir
@@ -89,6 +94,43 @@ public class ZipUtilTest {
         assertThat(fileContent(actual2)).isEqualTo(fileContent(file2));
     }
 
+    @Test
+    void shouldComputeChecksumsOfZippedFilesAndHandOverInterceptedEntries() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Map<String, String> checksums;
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            checksums = zipUtil.zipWithChecksums(srcDir, zip, Deflater.DEFAULT_COMPRESSION);
+            zip.putNextEntry(new ZipEntry("intercepted"));
+            zip.write("not extracted".getBytes(UTF_8));
+            zip.closeEntry();
+        }
+
+        assertThat(checksums).containsOnly(
+            entry(srcDir.getName() + "/_file1", md5Hex("_file1")),
+            entry(srcDir.getName() + "/_child1/_file2", md5Hex("_file2")));
+
+        ByteArrayOutputStream intercepted = new ByteArrayOutputStream();
+        zipUtil.unzip(new ZipInputStream(new ByteArrayInputStream(bytes.toByteArray())), destDir, (entry, stream) -> {
+            if (!entry.getName().equals("intercepted")) {
+                return false;
+            }
+            stream.transferTo(intercepted);
+            return true;
+        });
+
+        assertThat(intercepted.toString(UTF_8)).isEqualTo("not extracted");
+        assertThat(new File(destDir, "intercepted")).doesNotExist();
+        assertThat(fileContent(new File(destDir, srcDir.getName() + "/_child1/_file2"))).isEqualTo("_file2");
+    }
+
+    private static String md5Hex(String content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(content.getBytes(UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     private File createFileInTempDir() throws IOException {
         return Files.createFile(tempDir.resolve("file.txt")).toFile();
     }
@@ -245,6 +287,98 @@ public class ZipUtilTest {
         }
     }
 
+    @Nested
+    class ParallelEngine {
+        private final ZipUtil parallelZipUtil = new ZipUtil(4, ZipCompressionPolicy.storing("jar"));
+
+        @Test
+        void shouldZipInParallelAndUnzipIt() throws IOException {
+            File large = new File(childDir1, "large.log");
+            Files.writeString(large.toPath(), "a line of a large log file\n".repeat((int) (ParallelZipWriter.LARGE_ENTRY_SIZE / 20)), UTF_8);
+            Files.writeString(new File(srcDir, "library.jar").toPath(), "not really a jar", UTF_8);
+
+            zipFile = parallelZipUtil.zip(srcDir, createFileInTempDir(), Deflater.BEST_SPEED);
+
+            try (ZipInputStream zip = new ZipInputStream(new FileInputStream(zipFile))) {
+                zipUtil.unzip(zip, destDir);
+            }
+            File baseDir = new File(destDir, srcDir.getName());
+            assertIsDirectory(new File(baseDir, emptyDir.getName()));
+            assertThat(fileContent(new File(baseDir, file1.getName()))).isEqualTo("_file1");
+            assertThat(fileContent(new File(baseDir, "_child1/_file2"))).isEqualTo("_file2");
+            assertThat(fileContent(new File(baseDir, "library.jar"))).isEqualTo("not really a jar");
+            assertThat(Files.mismatch(large.toPath(), new File(baseDir, "_child1/large.log").toPath())).isEqualTo(-1);
+        }
+
+        @Test
+        void shouldWriteTheSameEntriesAsTheSequentialEngine() throws IOException {
+            File sequential = zipUtil.zipFolderContents(srcDir, tempDir.resolve("sequential.zip").toFile(), Deflater.DEFAULT_COMPRESSION);
+            File parallel = parallelZipUtil.zipFolderContents(srcDir, tempDir.resolve("parallel.zip").toFile(), Deflater.DEFAULT_COMPRESSION);
+
+            assertThat(entriesOf(parallel)).containsExactlyElementsOf(entriesOf(sequential));
+        }
+
+        @Test
+        void shouldPreserveFileTimestamps() throws Exception {
+            file1.setLastModified(1297989100000L);
+
+            File zip = parallelZipUtil.zip(file1, tempDir.resolve("foo.zip").toFile(), Deflater.DEFAULT_COMPRESSION);
+
+            try (ZipFile actualZip = new ZipFile(zip)) {
+                assertThat(actualZip.getEntry(file1.getName()).getTime()).isEqualTo(file1.lastModified());
+            }
+        }
+
+        @Test
+        void shouldUnzipInParallel() throws IOException {
+            zipFile = zipUtil.zip(srcDir, createFileInTempDir(), Deflater.DEFAULT_COMPRESSION);
+
+            parallelZipUtil.unzip(zipFile, destDir);
+
+            File baseDir = new File(destDir, srcDir.getName());
+            assertIsDirectory(new File(baseDir, emptyDir.getName()));
+            assertThat(fileContent(new File(baseDir, file1.getName()))).isEqualTo("_file1");
+            assertThat(fileContent(new File(baseDir, "_child1/_file2"))).isEqualTo("_file2");
+        }
+
+        @Test
+        void shouldNotUnzipEntriesOutsideTheTargetDirectoryInParallel() {
+            assertThatThrownBy(() -> parallelZipUtil.unzip(new File(requireNonNull(getClass().getResource("/archive_traversal_attack.zip")).toURI()), destDir))
+                .isInstanceOf(IllegalPathException.class)
+                .hasMessage("File ../2.txt is outside extraction target directory");
+        }
+
+        private List<String> entriesOf(File zip) throws IOException {
+            try (ZipFile actualZip = new ZipFile(zip)) {
+                return actualZip.stream().map(ZipEntry::getName).toList();
+            }
+        }
+    }
+
+    @Test
+    void shouldStoreFilesWithTheConfiguredExtensionsWithoutCompression() {
+        ZipCompressionPolicy policy = ZipCompressionPolicy.storing("jar, PNG");
+
+        assertThat(policy.levelFor("lib.jar", Deflater.BEST_COMPRESSION)).isEqualTo(Deflater.NO_COMPRESSION);
+        assertThat(policy.levelFor("image.png", Deflater.BEST_COMPRESSION)).isEqualTo(Deflater.NO_COMPRESSION);
+        assertThat(policy.levelFor("build.log", Deflater.BEST_COMPRESSION)).isEqualTo(Deflater.BEST_COMPRESSION);
+        assertThat(policy.levelFor("README", Deflater.BEST_COMPRESSION)).isEqualTo(Deflater.BEST_COMPRESSION);
+        assertThat(ZipCompressionPolicy.storing("").levelFor("lib.jar", Deflater.BEST_SPEED)).isEqualTo(Deflater.BEST_SPEED);
+    }
+
+    @Test
+    void shouldCompressFilesOfEveryExtensionByDefault() throws IOException {
+        File jar = new File(srcDir, "lib.jar");
+        Files.writeString(jar.toPath(), "compressible ".repeat(100), UTF_8);
+
+        File zip = new ZipUtil().zip(jar, createFileInTempDir(), Deflater.BEST_SPEED);
+
+        try (ZipFile actualZip = new ZipFile(zip)) {
+            assertThat(actualZip.getEntry("lib.jar").getMethod()).isEqualTo(ZipEntry.DEFLATED);
+            assertThat(actualZip.getEntry("lib.jar").getCompressedSize()).isLessThan(jar.length());
+        }
+    }
+
     private void assertContent(File targetZipFile, String file, String expectedContent) throws IOException {
         try (ZipFile actualZip = new ZipFile(targetZipFile)) {
             ZipEntry entry = actualZip.getEntry(file);
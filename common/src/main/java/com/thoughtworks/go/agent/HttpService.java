@@ -16,6 +16,7 @@
 package com.thoughtworks.go.agent;
 
 import com.thoughtworks.go.agent.common.ssl.GoAgentServerHttpClient;
+import com.thoughtworks.go.agent.metrics.AgentMetrics;
 import com.thoughtworks.go.config.AgentRegistry;
 import com.thoughtworks.go.domain.FetchHandler;
 import com.thoughtworks.go.util.GoConstants;
@@ -25,6 +26,8 @@ import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.entity.ContentProducer;
+import org.apache.http.entity.EntityTemplate;
 import org.apache.http.entity.mime.MultipartEntityBuilder;
 import org.apache.http.entity.mime.content.ByteArrayBody;
 import org.apache.http.entity.mime.content.FileBody;
@@ -66,6 +69,7 @@ public class HttpService {
         LOGGER.info("Uploading file [{}] to url [{}]", absolutePath, url);
 
         try (CloseableHttpResponse response = execute(createHttpPostForUpload(url, size, artifactFile, artifactChecksums))) {
+            AgentMetrics.instance().bytesUploaded(artifactFile.length());
             return response.getStatusLine().getStatusCode();
         } catch (IOException e) {
             LOGGER.error("Error while uploading file [{}]", artifactFile.getAbsolutePath(), e);
@@ -81,6 +85,25 @@ public class HttpService {
         return filePost;
     }
 
+    /**
+     * Uploads an artifact as a chunked zip body which is produced by the writer while the request is being sent, so
+     * that no temporary zip file is needed.
+     */
+    public int uploadStream(String url, long size, ContentProducer zipWriter) throws IOException {
+        LOGGER.info("Streaming upload to url [{}]", url);
+        HttpPost filePost = httpClientFactory.createPost(url);
+        setSizeHeader(filePost, size);
+        filePost.setHeader(REQUEST_CONFIRM_MODIFICATION, "true");
+        filePost.setEntity(httpClientFactory.createStreamingRequestEntity(out -> zipWriter.writeTo(AgentMetrics.instance().countingUploads(out))));
+
+        try (CloseableHttpResponse response = execute(filePost)) {
+            return response.getStatusLine().getStatusCode();
+        } catch (IOException e) {
+            LOGGER.error("Error while streaming upload to url [{}]", url, e);
+            throw e;
+        }
+    }
+
     public int download(String url, FetchHandler handler) throws IOException {
         try {
             PerfTimer timer = PerfTimer.start(LOGGER, String.format("Downloading from url [%s]", url));
@@ -90,7 +113,7 @@ public class HttpService {
 
                 if (statusCode == HttpURLConnection.HTTP_OK) {
                     if (response.getEntity() != null) {
-                        try (InputStream is = response.getEntity().getContent()) {
+                        try (InputStream is = AgentMetrics.instance().countingDownloads(response.getEntity().getContent())) {
                             handler.handle(is);
                         }
                     }
@@ -103,6 +126,29 @@ public class HttpService {
         }
     }
 
+    /**
+     * Downloads the resource starting at the given byte offset. The handler is told whether the server honoured the
+     * range (and sent only the remaining bytes) or sent the whole resource.
+     */
+    public int download(String url, long fromOffset, RangeHandler handler) throws IOException {
+        HttpGet get = httpClientFactory.createGet(url);
+        if (fromOffset > 0) {
+            get.setHeader("Range", "bytes=" + fromOffset + "-");
+        }
+        try (CloseableHttpResponse response = execute(get)) {
+            int statusCode = response.getStatusLine().getStatusCode();
+            if ((statusCode == HttpURLConnection.HTTP_OK || statusCode == HttpURLConnection.HTTP_PARTIAL) && response.getEntity() != null) {
+                try (InputStream is = AgentMetrics.instance().countingDownloads(response.getEntity().getContent())) {
+                    handler.handle(is, statusCode == HttpURLConnection.HTTP_PARTIAL);
+                }
+            }
+            return statusCode;
+        } catch (IOException e) {
+            LOGGER.error("Error while downloading [{}] from offset {}", url, fromOffset, e);
+            throw e;
+        }
+    }
+
     public CloseableHttpResponse execute(HttpRequestBase httpMethod) throws IOException {
         @SuppressWarnings("resource") // Believe this is intentional to re-use the client
         GoAgentServerHttpClient client = httpClientFactory.httpClient();
@@ -119,6 +165,10 @@ public class HttpService {
         method.setHeader(REQUEST_ARTIFACT_PAYLOAD_SIZE, String.valueOf(size));
     }
 
+    public interface RangeHandler {
+        void handle(InputStream stream, boolean partial) throws IOException;
+    }
+
     /**
      * Used to wrap the constructors in order to mock them out.
      */
@@ -151,5 +201,12 @@ public class HttpService {
             }
             return entityBuilder.build();
         }
+
+        public HttpEntity createStreamingRequestEntity(ContentProducer producer) {
+            EntityTemplate entity = new EntityTemplate(producer);
+            entity.setChunked(true);
+            entity.setContentType(GoConstants.STREAMED_ARTIFACT_CONTENT_TYPE);
+            return entity;
+        }
     }
 }
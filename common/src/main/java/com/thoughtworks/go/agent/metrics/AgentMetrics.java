@@ -0,0 +1,166 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.agent.metrics;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Where an agent spends its time and bandwidth: how long each phase of a job takes, how long calls to the server
+ * take, and how many bytes of artifacts and console output are transferred. The metrics are kept for the lifetime of
+ * the agent process and are exposed by the agent status API.
+ * <p>
+ * Jobs are not wired by Spring on the agent, hence the single, process wide instance.
+ */
+public class AgentMetrics {
+    private static final AgentMetrics INSTANCE = new AgentMetrics();
+
+    public enum Phase {
+        PREPARING("preparing"),
+        MATERIAL_UPDATE("material_update"),
+        FETCH_ARTIFACT("fetch_artifact"),
+        BUILD("build"),
+        ARTIFACT_UPLOAD("artifact_upload"),
+        CONSOLE_FLUSH("console_flush");
+
+        private final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+    }
+
+    private final Map<Phase, LatencyHistogram> phases = new EnumMap<>(Phase.class);
+    private final ConcurrentMap<String, LatencyHistogram> remotingCalls = new ConcurrentHashMap<>();
+    private final LongAdder bytesUploaded = new LongAdder();
+    private final LongAdder bytesDownloaded = new LongAdder();
+    private final LongAdder consoleBytesTransmitted = new LongAdder();
+
+    AgentMetrics() {
+        for (Phase phase : Phase.values()) {
+            phases.put(phase, new LatencyHistogram());
+        }
+    }
+
+    public static AgentMetrics instance() {
+        return INSTANCE;
+    }
+
+    public void recordPhase(Phase phase, long durationInMillis) {
+        phases.get(phase).observe(durationInMillis);
+    }
+
+    public void recordRemotingCall(String action, long durationInMillis) {
+        remotingCalls.computeIfAbsent(action, a -> new LatencyHistogram()).observe(durationInMillis);
+    }
+
+    public void bytesUploaded(long bytes) {
+        bytesUploaded.add(bytes);
+    }
+
+    public void bytesDownloaded(long bytes) {
+        bytesDownloaded.add(bytes);
+    }
+
+    public void consoleBytesTransmitted(long bytes) {
+        consoleBytesTransmitted.add(bytes);
+    }
+
+    public LatencyHistogram phase(Phase phase) {
+        return phases.get(phase);
+    }
+
+    /**
+     * @return the stream, counting every byte read from it as downloaded
+     */
+    public InputStream countingDownloads(InputStream stream) {
+        return new FilterInputStream(stream) {
+            @Override
+            public int read() throws IOException {
+                int read = super.read();
+                if (read != -1) {
+                    bytesDownloaded.increment();
+                }
+                return read;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int read = super.read(b, off, len);
+                if (read > 0) {
+                    bytesDownloaded.add(read);
+                }
+                return read;
+            }
+        };
+    }
+
+    /**
+     * @return the stream, counting every byte written to it as uploaded
+     */
+    public OutputStream countingUploads(OutputStream stream) {
+        return new FilterOutputStream(stream) {
+            @Override
+            public void write(int b) throws IOException {
+                out.write(b);
+                bytesUploaded.increment();
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+                bytesUploaded.add(len);
+            }
+        };
+    }
+
+    /**
+     * @return the metrics in the Prometheus text exposition format
+     */
+    public String toPrometheusText() {
+        StringBuilder out = new StringBuilder();
+        out.append("# HELP gocd_agent_job_phase_duration_seconds Time spent by jobs in each phase.\n");
+        out.append("# TYPE gocd_agent_job_phase_duration_seconds histogram\n");
+        for (Phase phase : Phase.values()) {
+            phases.get(phase).writeTo(out, "gocd_agent_job_phase_duration_seconds", "phase=\"" + phase.label + "\"");
+        }
+
+        out.append("# HELP gocd_agent_remoting_call_duration_seconds Time taken by calls to the server, by action.\n");
+        out.append("# TYPE gocd_agent_remoting_call_duration_seconds histogram\n");
+        new TreeMap<>(remotingCalls).forEach((action, histogram) ->
+            histogram.writeTo(out, "gocd_agent_remoting_call_duration_seconds", "action=\"" + action + "\""));
+
+        counter(out, "gocd_agent_artifact_uploaded_bytes_total", "Bytes of artifacts uploaded to the server.", bytesUploaded.sum());
+        counter(out, "gocd_agent_artifact_downloaded_bytes_total", "Bytes of artifacts downloaded from the server.", bytesDownloaded.sum());
+        counter(out, "gocd_agent_console_transmitted_bytes_total", "Bytes of console output sent to the server.", consoleBytesTransmitted.sum());
+        return out.toString();
+    }
+
+    private static void counter(StringBuilder out, String name, String help, long value) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" counter\n");
+        out.append(name).append(' ').append(value).append('\n');
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.agent.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock free histogram of durations, with fixed bucket boundaries, which can be written out in the Prometheus text
+ * format. Buckets are cumulative, as Prometheus expects: each one counts the observations less than or equal to its
+ * upper bound.
+ */
+public class LatencyHistogram {
+    static final long[] DEFAULT_BUCKETS_IN_MILLIS = {5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10_000, 30_000, 60_000, 300_000, 900_000, 3_600_000};
+
+    private final long[] upperBoundsInMillis;
+    private final LongAdder[] buckets;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumInMillis = new LongAdder();
+
+    public LatencyHistogram() {
+        this(DEFAULT_BUCKETS_IN_MILLIS);
+    }
+
+    LatencyHistogram(long[] upperBoundsInMillis) {
+        this.upperBoundsInMillis = upperBoundsInMillis.clone();
+        this.buckets = new LongAdder[upperBoundsInMillis.length];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void observe(long durationInMillis) {
+        long duration = Math.max(0, durationInMillis);
+        for (int i = 0; i < upperBoundsInMillis.length; i++) {
+            if (duration <= upperBoundsInMillis[i]) {
+                buckets[i].increment();
+                break;
+            }
+        }
+        count.increment();
+        sumInMillis.add(duration);
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public long sumInMillis() {
+        return sumInMillis.sum();
+    }
+
+    /**
+     * Writes the histogram, in seconds, as Prometheus expects.
+     *
+     * @param labels already formatted labels (e.g. {@code phase="build"}), or an empty string
+     */
+    void writeTo(StringBuilder out, String name, String labels) {
+        String separator = labels.isEmpty() ? "" : ",";
+        long cumulative = 0;
+        for (int i = 0; i < upperBoundsInMillis.length; i++) {
+            cumulative += buckets[i].sum();
+            out.append(name).append("_bucket{").append(labels).append(separator)
+                .append("le=\"").append(upperBoundsInMillis[i] / 1000.0).append("\"} ").append(cumulative).append('\n');
+        }
+        // read once, so that the +Inf bucket and the count agree even while observations are being added
+        long total = count();
+        out.append(name).append("_bucket{").append(labels).append(separator).append("le=\"+Inf\"} ").append(Math.max(total, cumulative)).append('\n');
+        out.append(name).append("_sum").append(labels.isEmpty() ? "" : "{" + labels + "}").append(' ').append(sumInMillis() / 1000.0).append('\n');
+        out.append(name).append("_count").append(labels.isEmpty() ? "" : "{" + labels + "}").append(' ').append(Math.max(total, cumulative)).append('\n');
+    }
+}
@@ -33,10 +33,12 @@ import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.TestOnly;
 import org.jetbrains.annotations.VisibleForTesting;
 
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Stream;
 
 import static com.thoughtworks.go.domain.AgentConfigStatus.*;
@@ -62,6 +64,8 @@ public class AgentInstance implements Comparable<AgentInstance> {
     private AgentConfigStatus agentConfigStatus;
 
     private final AtomicBoolean killRunningTasks = new AtomicBoolean(false);
+    private final AtomicLong version = new AtomicLong();
+    private volatile @Nullable List<Object> lastViewState;
     private volatile @Nullable Date lastHeardTime;
     private volatile @Nullable Date cancelledAt;
 
@@ -110,6 +114,7 @@ public class AgentInstance implements Comparable<AgentInstance> {
 
     public void syncAgentFrom(@NotNull Agent agent) {
         this.agent = agent;
+        version.incrementAndGet();
 
         if (agent.isElastic()) {
             agentRuntimeInfo = ElasticAgentRuntimeInfo.fromServer(agentRuntimeInfo, agent.getElasticAgentId(), agent.getElasticPluginId());
@@ -135,6 +140,7 @@ public class AgentInstance implements Comparable<AgentInstance> {
     public void building(AgentBuildingInfo agentBuildingInfo) {
         syncRuntimeStatus(Building);
         agentRuntimeInfo.busy(agentBuildingInfo);
+        version.incrementAndGet();
     }
 
     @TestOnly
@@ -142,16 +148,19 @@ public class AgentInstance implements Comparable<AgentInstance> {
         agentConfigStatus = Enabled;
         syncRuntimeStatus(Idle);
         agentRuntimeInfo.clearBuildingInfo();
+        version.incrementAndGet();
     }
 
     public void pending() {
         agentConfigStatus = Pending;
         agentRuntimeInfo.clearBuildingInfo();
+        version.incrementAndGet();
     }
 
     public void enable() {
         updateConfigStatus(Enabled);
         agentRuntimeInfo.clearBuildingInfo();
+        version.incrementAndGet();
     }
 
     public void cancel() {
@@ -248,6 +257,32 @@ public class AgentInstance implements Comparable<AgentInstance> {
         syncIp(newRuntimeInfo);
         this.lastHeardTime = new Date();
         this.agentRuntimeInfo.updateSelf(newRuntimeInfo);
+        List<Object> viewState = viewState();
+        if (!viewState.equals(lastViewState)) {
+            lastViewState = viewState;
+            version.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return a number which changes whenever something shown about the agent changes; pings which only tell that the
+     * agent is still alive leave it as is
+     */
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * @return the time, in millis, at which the agent will have lost contact, unless it is heard from before then
+     */
+    public long lostContactDeadline() {
+        Date heard = lastHeardTime;
+        return heard == null ? timeProvider.currentTimeMillis() : heard.getTime() + systemEnvironment.getAgentConnectionTimeout() * 1000L;
+    }
+
+    private List<Object> viewState() {
+        return Arrays.asList(agent.getIpaddress(), agentRuntimeInfo.getRuntimeStatus(), agentRuntimeInfo.getBuildingInfo(), agentRuntimeInfo.getLocation(),
+            agentRuntimeInfo.getUsableSpace(), agentRuntimeInfo.getOperatingSystem(), agentRuntimeInfo.getAgentVersion(), agentRuntimeInfo.getAgentBootstrapperVersion());
     }
 
     private void syncIp(AgentRuntimeInfo info) {
@@ -487,6 +522,7 @@ public class AgentInstance implements Comparable<AgentInstance> {
     private void updateRuntimeStatus(AgentRuntimeStatus agentRuntimeStatus) {
         if (this.agentRuntimeInfo.getRuntimeStatus() != agentRuntimeStatus) {
             this.agentRuntimeInfo.setRuntimeStatus(agentRuntimeStatus);
+            version.incrementAndGet();
             notifyStatusChange();
         }
     }
@@ -502,6 +538,7 @@ public class AgentInstance implements Comparable<AgentInstance> {
     private void updateConfigStatus(AgentConfigStatus agentConfigStatus) {
         if (this.agentConfigStatus != agentConfigStatus) {
             this.agentConfigStatus = agentConfigStatus;
+            version.incrementAndGet();
             notifyStatusChange();
         }
     }
@@ -0,0 +1,115 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.domain;
+
+import com.thoughtworks.go.util.SystemEnvironment;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * An agent-local store of fetched artifact files, addressed by their MD5 checksum, so that a file which was fetched
+ * by an earlier job is copied locally instead of being downloaded again. When the cache grows beyond its size limit,
+ * the least recently used files are deleted.
+ */
+public class ArtifactContentCache {
+    private static final Logger LOG = LoggerFactory.getLogger(ArtifactContentCache.class);
+    private static final Pattern MD5_HEX = Pattern.compile("[0-9a-f]{32}");
+
+    private final File cacheDir;
+    private final long maxSizeInBytes;
+
+    public ArtifactContentCache(File cacheDir, long maxSizeInBytes) {
+        this.cacheDir = cacheDir;
+        this.maxSizeInBytes = maxSizeInBytes;
+    }
+
+    /**
+     * @return the cache configured for this agent, or empty if the cache is not enabled
+     */
+    public static Optional<ArtifactContentCache> forAgent(SystemEnvironment systemEnvironment) {
+        String dir = systemEnvironment.getAgentArtifactCacheDir();
+        if (dir == null || dir.isBlank()) {
+            return Optional.empty();
+        }
+        return Optional.of(new ArtifactContentCache(new File(dir), systemEnvironment.getAgentArtifactCacheMaxSizeInMb() * FileUtils.ONE_MB));
+    }
+
+    /**
+     * @return true if a file with the given checksum was cached and has been copied to the destination
+     */
+    public boolean copyTo(String md5, File dest) throws IOException {
+        File cached = entryFor(md5);
+        if (cached == null || !cached.isFile()) {
+            return false;
+        }
+        FileUtils.forceMkdirParent(dest);
+        Files.copy(cached.toPath(), dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        cached.setLastModified(System.currentTimeMillis());
+        return true;
+    }
+
+    public void put(String md5, File file) throws IOException {
+        File cached = entryFor(md5);
+        if (cached == null || cached.isFile()) {
+            return;
+        }
+        FileUtils.forceMkdirParent(cached);
+        File tmp = File.createTempFile(md5, ".tmp", cached.getParentFile());
+        try {
+            Files.copy(file.toPath(), tmp.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            Files.move(tmp.toPath(), cached.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            FileUtils.deleteQuietly(tmp);
+        }
+    }
+
+    public synchronized void evictIfRequired() {
+        if (!cacheDir.isDirectory()) {
+            return;
+        }
+        List<File> entries = new ArrayList<>(FileUtils.listFiles(cacheDir, null, true));
+        long totalSize = entries.stream().mapToLong(File::length).sum();
+        if (totalSize <= maxSizeInBytes) {
+            return;
+        }
+        entries.sort(Comparator.comparingLong(File::lastModified));
+        for (File entry : entries) {
+            if (totalSize <= maxSizeInBytes) {
+                break;
+            }
+            long size = entry.length();
+            if (FileUtils.deleteQuietly(entry)) {
+                totalSize -= size;
+            }
+        }
+        LOG.info("Evicted artifacts from the agent artifact cache {} to keep it under {} bytes", cacheDir, maxSizeInBytes);
+    }
+
+    File entryFor(String md5) {
+        if (md5 == null || !MD5_HEX.matcher(md5).matches()) {
+            return null;
+        }
+        return new File(new File(cacheDir, md5.substring(0, 2)), md5);
+    }
+}
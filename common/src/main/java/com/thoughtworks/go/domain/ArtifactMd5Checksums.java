@@ -18,8 +18,10 @@ package com.thoughtworks.go.domain;
 import org.jetbrains.annotations.TestOnly;
 
 import java.io.*;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.TreeMap;
 
 public class ArtifactMd5Checksums implements Serializable {
 
@@ -55,4 +57,18 @@ public class ArtifactMd5Checksums implements Serializable {
     public String md5For(String artifactPath) {
         return checksumProperties.getProperty(artifactPath);
     }
+
+    /**
+     * @return the checksums of all artifacts within the given folder, keyed by their artifact paths
+     */
+    public Map<String, String> checksumsUnder(String folder) {
+        String prefix = folder.endsWith("/") ? folder : folder + "/";
+        Map<String, String> checksums = new TreeMap<>();
+        for (String artifactPath : checksumProperties.stringPropertyNames()) {
+            if (artifactPath.startsWith(prefix)) {
+                checksums.put(artifactPath, checksumProperties.getProperty(artifactPath));
+            }
+        }
+        return checksums;
+    }
 }
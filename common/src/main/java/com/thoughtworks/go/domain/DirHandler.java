@@ -46,6 +46,14 @@ public class DirHandler implements FetchHandler {
         checksumValidationPublisher = new ChecksumValidationPublisher();
     }
 
+    public String getSrcFile() {
+        return srcFile;
+    }
+
+    public File getDestOnAgent() {
+        return destOnAgent;
+    }
+
     @Override
     public String url(String remoteHost, String workingUrl) {
         return format("%s/remoting/files/%s.zip", remoteHost, workingUrl);
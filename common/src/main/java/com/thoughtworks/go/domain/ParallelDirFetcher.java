@@ -0,0 +1,219 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.domain;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.thoughtworks.go.agent.HttpService;
+import com.thoughtworks.go.util.Clock;
+import com.thoughtworks.go.util.NamedDaemonThreadFactory;
+import com.thoughtworks.go.work.GoPublisher;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.FilenameUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.net.HttpURLConnection;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Fetches an artifact directory file by file, using the artifact's checksum file as the list of files to fetch,
+ * instead of downloading the whole directory as a single zip. The list is checked against the server's listing of the
+ * directory first, so that a file missing from the checksum file is not silently left out. Files which are already present with the same checksum
+ * are left alone, files found in the agent's {@link ArtifactContentCache} are copied from it, and the rest are
+ * downloaded concurrently. Interrupted downloads are resumed from where they stopped when the server supports it.
+ */
+public class ParallelDirFetcher {
+    private static final Logger LOG = LoggerFactory.getLogger(ParallelDirFetcher.class);
+    private static final ThreadFactory FETCHER_THREADS = new NamedDaemonThreadFactory("artifact-fetcher");
+    private static final int MAX_ATTEMPTS = 4;
+    static final String PARTIAL_FILE_SUFFIX = ".gocd-partial";
+
+    private final HttpService httpService;
+    private final GoPublisher goPublisher;
+    private final Clock clock;
+    private final int maxThreads;
+    private final ArtifactContentCache cache;
+
+    enum Outcome {UNCHANGED, FROM_CACHE, DOWNLOADED}
+
+    public ParallelDirFetcher(HttpService httpService, GoPublisher goPublisher, Clock clock, int maxThreads, ArtifactContentCache cache) {
+        this.httpService = httpService;
+        this.goPublisher = goPublisher;
+        this.clock = clock;
+        this.maxThreads = maxThreads;
+        this.cache = cache;
+    }
+
+    /**
+     * @return false if the checksum file does not list exactly the files the server has in the directory, in which
+     * case nothing has been fetched and the directory should be downloaded as a zip instead
+     */
+    public boolean fetch(String baseRemoteUrl, JobIdentifier jobIdentifier, DirHandler handler, ArtifactMd5Checksums checksums) {
+        if (checksums == null) {
+            return false;
+        }
+        String srcFolder = FilenameUtils.separatorsToUnix(new File(handler.getSrcFile()).getPath());
+        Map<String, String> files = checksums.checksumsUnder(srcFolder);
+        if (files.isEmpty() || files.keySet().stream().anyMatch(path -> path.contains(".."))) {
+            return false;
+        }
+        Set<String> listedByServer = filesListedByServer(baseRemoteUrl, jobIdentifier, srcFolder);
+        if (!files.keySet().equals(listedByServer)) {
+            LOG.info("[Agent Fetch Artifact] The checksum file does not list the same files as the server has in directory '{}', fetching it as a zip", srcFolder);
+            return false;
+        }
+        String parent = new File(srcFolder).getParent();
+        int prefixLength = parent == null ? 0 : FilenameUtils.separatorsToUnix(parent).length() + 1;
+
+        long before = System.currentTimeMillis();
+        Map<Outcome, Integer> outcomes = fetchAll(baseRemoteUrl, jobIdentifier, handler.getDestOnAgent(), files, prefixLength);
+        LOG.info("[Agent Fetch Artifact] Fetched {} files of directory '{}' to '{}' using {} threads. Took: {} ms",
+            files.size(), srcFolder, handler.getDestOnAgent().getAbsolutePath(), maxThreads, System.currentTimeMillis() - before);
+
+        goPublisher.taggedConsumeLineWithPrefix(GoPublisher.OUT, format("Saved artifact to [%s] after verifying the integrity of its contents. Downloaded %d file(s), copied %d from the agent artifact cache, %d unchanged.",
+            handler.getDestOnAgent(), outcomes.get(Outcome.DOWNLOADED), outcomes.get(Outcome.FROM_CACHE), outcomes.get(Outcome.UNCHANGED)));
+        if (cache != null) {
+            cache.evictIfRequired();
+        }
+        return true;
+    }
+
+    private Set<String> filesListedByServer(String baseRemoteUrl, JobIdentifier jobIdentifier, String srcFolder) {
+        String url = format("%s/remoting/files/%s.json", baseRemoteUrl, jobIdentifier.artifactLocator(srcFolder));
+        Set<String> files = new TreeSet<>();
+        try {
+            int returnCode = httpService.download(url, 0, (stream, isPartial) ->
+                collectFiles(JsonParser.parseReader(new InputStreamReader(stream, UTF_8)).getAsJsonArray(), srcFolder, files));
+            if (returnCode == HttpURLConnection.HTTP_OK) {
+                return files;
+            }
+            LOG.warn("[Agent Fetch Artifact] Could not list directory '{}': unsuccessful response '{}' from the server", srcFolder, returnCode);
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("[Agent Fetch Artifact] Could not list directory '{}'", srcFolder, e);
+        }
+        return null;
+    }
+
+    private static void collectFiles(JsonArray entries, String folder, Set<String> files) {
+        for (JsonElement element : entries) {
+            JsonObject entry = element.getAsJsonObject();
+            String path = folder + "/" + entry.get("name").getAsString();
+            if ("folder".equals(entry.get("type").getAsString())) {
+                collectFiles(entry.getAsJsonArray("files"), path, files);
+            } else {
+                files.add(path);
+            }
+        }
+    }
+
+    private Map<Outcome, Integer> fetchAll(String baseRemoteUrl, JobIdentifier jobIdentifier, File destOnAgent, Map<String, String> files, int prefixLength) {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(maxThreads, files.size())), FETCHER_THREADS);
+        try {
+            Map<String, Future<Outcome>> fetches = new LinkedHashMap<>();
+            files.forEach((artifactPath, md5) -> {
+                String url = format("%s/remoting/files/%s", baseRemoteUrl, jobIdentifier.artifactLocator(artifactPath));
+                File target = new File(destOnAgent, artifactPath.substring(prefixLength));
+                fetches.put(artifactPath, executor.submit(() -> fetchFile(url, target, md5.toLowerCase(Locale.ROOT))));
+            });
+
+            Map<Outcome, Integer> outcomes = new EnumMap<>(Outcome.class);
+            for (Outcome outcome : Outcome.values()) {
+                outcomes.put(outcome, 0);
+            }
+            for (Map.Entry<String, Future<Outcome>> fetch : fetches.entrySet()) {
+                outcomes.merge(waitFor(fetch.getKey(), fetch.getValue()), 1, Integer::sum);
+            }
+            return outcomes;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Outcome waitFor(String artifactPath, Future<Outcome> fetch) {
+        try {
+            return fetch.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while fetching artifacts", e);
+        } catch (ExecutionException e) {
+            goPublisher.taggedConsumeLineWithPrefix(GoPublisher.ERR, format("[ERROR] Could not fetch the artifact [%s]: %s", artifactPath, e.getCause().getMessage()));
+            throw new RuntimeException(format("Artifact download failed for [%s]", artifactPath), e.getCause());
+        }
+    }
+
+    Outcome fetchFile(String url, File target, String md5) throws IOException, InterruptedException {
+        if (target.isFile() && md5.equals(md5Of(target))) {
+            return Outcome.UNCHANGED;
+        }
+        if (cache != null && cache.copyTo(md5, target)) {
+            return Outcome.FROM_CACHE;
+        }
+
+        FileUtils.forceMkdirParent(target);
+        File partial = new File(target.getParentFile(), target.getName() + PARTIAL_FILE_SUFFIX);
+        String lastError = null;
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            if (attempt > 1) {
+                LOG.warn("[Agent Fetch Artifact] Could not fetch '{}' ({}). Retrying, attempt {} of {}", url, lastError, attempt, MAX_ATTEMPTS);
+                clock.sleepForSeconds(attempt * 5L);
+            }
+            try {
+                long offset = partial.isFile() ? partial.length() : 0;
+                int returnCode = httpService.download(url, offset, (stream, isPartial) -> {
+                    try (OutputStream out = new FileOutputStream(partial, isPartial)) {
+                        stream.transferTo(out);
+                    }
+                });
+                if (returnCode == HttpURLConnection.HTTP_OK || returnCode == HttpURLConnection.HTTP_PARTIAL) {
+                    if (md5.equals(md5Of(partial))) {
+                        Files.move(partial.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                        if (cache != null) {
+                            cache.put(md5, target);
+                        }
+                        return Outcome.DOWNLOADED;
+                    }
+                    lastError = "checksum mismatch";
+                } else {
+                    lastError = format("unsuccessful response '%s' from the server", returnCode);
+                }
+                // a complete but bad (or rejected) download cannot be resumed
+                FileUtils.deleteQuietly(partial);
+            } catch (IOException e) {
+                // keep what was downloaded so far, the next attempt resumes from there
+                lastError = e.getMessage();
+            }
+        }
+        FileUtils.deleteQuietly(partial);
+        throw new IOException(format("Giving up fetching '%s' after %d attempts: %s", url, MAX_ATTEMPTS, lastError));
+    }
+
+    private static String md5Of(File file) throws IOException {
+        try (InputStream input = new BufferedInputStream(new FileInputStream(file))) {
+            return DigestUtils.md5Hex(input);
+        }
+    }
+}
@@ -16,6 +16,7 @@
 package com.thoughtworks.go.domain.builder;
 
 import com.thoughtworks.go.agent.URLService;
+import com.thoughtworks.go.agent.metrics.AgentMetrics;
 import com.thoughtworks.go.domain.*;
 import com.thoughtworks.go.plugin.access.artifact.ArtifactExtension;
 import com.thoughtworks.go.plugin.access.pluggabletask.TaskExtension;
@@ -49,12 +50,28 @@ public class FetchArtifactBuilder extends Builder {
     }
 
     public void fetch(DownloadAction downloadAction, URLService urlService) throws Exception {
-        downloadChecksumFile(downloadAction, urlService.baseRemoteURL());
-        downloadArtifact(downloadAction, urlService.baseRemoteURL());
+        fetch(downloadAction, urlService, null);
     }
 
-    private void downloadArtifact(DownloadAction downloadAction, String baseRemoteUrl) throws Exception {
-        handler.useArtifactMd5Checksums(checksumFileHandler.getArtifactMd5Checksums());
+    /**
+     * @param dirFetcher used to fetch directories file by file, or null to always download directories as a zip
+     */
+    public void fetch(DownloadAction downloadAction, URLService urlService, ParallelDirFetcher dirFetcher) throws Exception {
+        long before = System.currentTimeMillis();
+        try {
+            downloadChecksumFile(downloadAction, urlService.baseRemoteURL());
+            downloadArtifact(downloadAction, urlService.baseRemoteURL(), dirFetcher);
+        } finally {
+            AgentMetrics.instance().recordPhase(AgentMetrics.Phase.FETCH_ARTIFACT, System.currentTimeMillis() - before);
+        }
+    }
+
+    private void downloadArtifact(DownloadAction downloadAction, String baseRemoteUrl, ParallelDirFetcher dirFetcher) throws Exception {
+        ArtifactMd5Checksums checksums = checksumFileHandler.getArtifactMd5Checksums();
+        if (dirFetcher != null && handler instanceof DirHandler dirHandler && dirFetcher.fetch(baseRemoteUrl, jobIdentifier, dirHandler, checksums)) {
+            return;
+        }
+        handler.useArtifactMd5Checksums(checksums);
         pullArtifact(downloadAction, handler.url(baseRemoteUrl, artifactLocator()), handler);
     }
 
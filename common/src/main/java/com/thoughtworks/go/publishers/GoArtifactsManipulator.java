@@ -17,14 +17,18 @@ package com.thoughtworks.go.publishers;
 
 import com.thoughtworks.go.agent.HttpService;
 import com.thoughtworks.go.agent.URLService;
+import com.thoughtworks.go.domain.ArtifactContentCache;
 import com.thoughtworks.go.domain.DownloadAction;
 import com.thoughtworks.go.domain.JobIdentifier;
+import com.thoughtworks.go.domain.ParallelDirFetcher;
 import com.thoughtworks.go.domain.builder.FetchArtifactBuilder;
 import com.thoughtworks.go.remote.AgentIdentifier;
 import com.thoughtworks.go.remote.work.ConsoleOutputTransmitter;
 import com.thoughtworks.go.remote.work.RemoteConsoleAppender;
 import com.thoughtworks.go.util.ArtifactUtil;
 import com.thoughtworks.go.util.FileUtil;
+import com.thoughtworks.go.util.GoConstants;
+import com.thoughtworks.go.util.SystemEnvironment;
 import com.thoughtworks.go.util.SystemTimeClock;
 import com.thoughtworks.go.util.ZipUtil;
 import com.thoughtworks.go.work.DefaultGoPublisher;
@@ -37,14 +41,15 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.IOException;
+import java.io.*;
 import java.net.HttpURLConnection;
 import java.nio.charset.Charset;
 import java.util.Collection;
+import java.util.Map;
 import java.util.Properties;
 import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import static com.thoughtworks.go.util.ExceptionUtils.bomb;
 import static com.thoughtworks.go.util.GoConstants.PUBLISH_MAX_RETRIES;
@@ -57,13 +62,15 @@ public class GoArtifactsManipulator {
     private final HttpService httpService;
     private final URLService urlService;
     private final ZipUtil zipUtil;
+    private final SystemEnvironment systemEnvironment;
     private static final Logger LOGGER = LoggerFactory.getLogger(GoArtifactsManipulator.class);
 
     @Autowired
-    public GoArtifactsManipulator(HttpService httpService, URLService urlService, ZipUtil zipUtil) {
+    public GoArtifactsManipulator(HttpService httpService, URLService urlService, ZipUtil zipUtil, SystemEnvironment systemEnvironment) {
         this.httpService = httpService;
         this.urlService = urlService;
         this.zipUtil = zipUtil;
+        this.systemEnvironment = systemEnvironment;
     }
 
     public void publish(DefaultGoPublisher goPublisher, String destPath, File source, JobIdentifier jobIdentifier) {
@@ -80,10 +87,6 @@ public class GoArtifactsManipulator {
             try {
                 publishingAttempts++;
 
-                tmpDir = FileUtil.createTempFolder();
-                File dataToUpload = new File(tmpDir, source.getName() + ".zip");
-                zipUtil.zip(source, dataToUpload, Deflater.BEST_SPEED);
-
                 long size;
                 if (source.isDirectory()) {
                     size = FileUtils.sizeOfDirectory(source);
@@ -96,7 +99,15 @@ public class GoArtifactsManipulator {
                 String normalizedDestPath = FilenameUtils.separatorsToUnix(destPath);
                 String url = urlService.getUploadUrlOfAgent(jobIdentifier, normalizedDestPath, publishingAttempts);
 
-                int statusCode = httpService.upload(url, size, dataToUpload, artifactChecksums(source, normalizedDestPath));
+                int statusCode;
+                if (systemEnvironment.isAgentStreamingArtifactUploadEnabled() && !clashesWithStreamedChecksumEntry(source)) {
+                    statusCode = httpService.uploadStream(url, size, output -> writeZipWithChecksums(source, normalizedDestPath, output));
+                } else {
+                    tmpDir = FileUtil.createTempFolder();
+                    File dataToUpload = new File(tmpDir, source.getName() + ".zip");
+                    zipUtil.zip(source, dataToUpload, Deflater.BEST_SPEED);
+                    statusCode = httpService.upload(url, size, dataToUpload, artifactChecksums(source, normalizedDestPath));
+                }
 
                 if (statusCode == HttpURLConnection.HTTP_ENTITY_TOO_LARGE) {
                     String message = String.format("Artifact upload for file %s (Size: %s) was denied by the server. This usually happens when server runs out of disk space.",
@@ -122,6 +133,25 @@ public class GoArtifactsManipulator {
         throw new RuntimeException(lastException);
     }
 
+    // A file uploaded on its own becomes a top level zip entry, which the server would take for the streamed checksums
+    private static boolean clashesWithStreamedChecksumEntry(File source) {
+        return source.isFile() && GoConstants.STREAMED_ARTIFACT_CHECKSUM_ENTRY.equals(source.getName());
+    }
+
+    // Zips, checksums and sends the source in a single pass; the checksums are appended as the last zip entry
+    private void writeZipWithChecksums(File source, String destPath, OutputStream output) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(output));
+        Map<String, String> checksumsByEntryName = zipUtil.zipWithChecksums(source, zip, Deflater.BEST_SPEED);
+
+        Properties checksums = new Properties();
+        checksumsByEntryName.forEach((entryName, md5) -> checksums.setProperty(getEffectiveFileName(destPath, entryName), md5));
+        zip.putNextEntry(new ZipEntry(GoConstants.STREAMED_ARTIFACT_CHECKSUM_ENTRY));
+        checksums.store(zip, "");
+        zip.closeEntry();
+        zip.finish();
+        zip.flush();
+    }
+
     private Properties artifactChecksums(File source, String destPath) throws IOException {
         if (source.isDirectory()) {
             return computeChecksumForContentsOfDirectory(source, destPath);
@@ -168,7 +198,7 @@ public class GoArtifactsManipulator {
             String fetchMsg = String.format("Fetching artifact [%s] from [%s]", fetchArtifactBuilder.getSrc(),
                     fetchArtifactBuilder.jobLocatorForDisplay());
             goPublisher.taggedConsumeLineWithPrefix(DefaultGoPublisher.OUT, fetchMsg);
-            fetchArtifactBuilder.fetch(new DownloadAction(httpService, goPublisher, new SystemTimeClock()), urlService);
+            fetchArtifactBuilder.fetch(new DownloadAction(httpService, goPublisher, new SystemTimeClock()), urlService, dirFetcher(goPublisher));
         } catch (Exception e) {
             String fetchMsg = String.format("Failed to save artifact [%s] to [%s]",
                     fetchArtifactBuilder.getSrc(), fetchArtifactBuilder.getDest());
@@ -178,6 +208,14 @@ public class GoArtifactsManipulator {
         }
     }
 
+    private ParallelDirFetcher dirFetcher(DefaultGoPublisher goPublisher) {
+        int threads = systemEnvironment.getAgentFetchArtifactThreads();
+        if (threads <= 1) {
+            return null;
+        }
+        return new ParallelDirFetcher(httpService, goPublisher, new SystemTimeClock(), threads, ArtifactContentCache.forAgent(systemEnvironment).orElse(null));
+    }
+
     private String getDestPath(String file) {
         if (isEmpty(file)) {
             return "[defaultRoot]";
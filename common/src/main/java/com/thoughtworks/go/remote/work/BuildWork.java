@@ -15,11 +15,10 @@
  */
 package com.thoughtworks.go.remote.work;
 
+import com.thoughtworks.go.agent.metrics.AgentMetrics;
 import com.thoughtworks.go.domain.JobIdentifier;
 import com.thoughtworks.go.domain.JobResult;
-import com.thoughtworks.go.domain.MaterialRevision;
 import com.thoughtworks.go.domain.MaterialRevisions;
-import com.thoughtworks.go.domain.materials.MaterialAgentFactory;
 import com.thoughtworks.go.plugin.access.scm.SCMExtension;
 import com.thoughtworks.go.remote.AgentIdentifier;
 import com.thoughtworks.go.remote.work.artifact.ArtifactsPublisher;
@@ -131,7 +130,9 @@ public class BuildWork implements Work {
 
         goPublisher.consumeLineWithPrefix(format("Job Started: %s\n", new SimpleDateFormat("yyyy-MM-dd HH:mm:ss z").format(timeProvider.currentUtilDate())));
 
+        long beforePreparing = System.currentTimeMillis();
         prepareJob(agentIdentifier, scmExtension);
+        AgentMetrics.instance().recordPhase(AgentMetrics.Phase.PREPARING, System.currentTimeMillis() - beforePreparing);
 
         setupEnvironmentContext(environmentVariableContext);
 
@@ -171,15 +172,15 @@ public class BuildWork implements Work {
         }
 
         ConsoleOutputStreamConsumer consumer = new LabeledOutputStreamConsumer(DefaultGoPublisher.PREP, DefaultGoPublisher.PREP_ERR, processOutputStreamConsumer());
-        MaterialAgentFactory materialAgentFactory = new MaterialAgentFactory(consumer, workingDirectory, agentIdentifier, scmExtension);
 
         materialRevisions.getMaterials().cleanUp(workingDirectory, consumer);
 
         goPublisher.taggedConsumeLineWithPrefix(DefaultGoPublisher.PREP, "Start to update materials.\n");
 
-        for (MaterialRevision revision : materialRevisions.getRevisions()) {
-            materialAgentFactory.createAgent(revision).prepare();
-        }
+        long before = System.currentTimeMillis();
+        new MaterialsPreparer(workingDirectory, agentIdentifier, scmExtension, new SystemEnvironment().getAgentMaterialPrepareThreads())
+            .prepare(materialRevisions.getRevisions(), consumer);
+        AgentMetrics.instance().recordPhase(AgentMetrics.Phase.MATERIAL_UPDATE, System.currentTimeMillis() - before);
     }
 
     private ProcessOutputStreamConsumer<GoPublisher, GoPublisher> processOutputStreamConsumer() {
@@ -194,7 +195,12 @@ public class BuildWork implements Work {
 
     private JobResult buildJob(EnvironmentVariableContext environmentVariableContext, Charset consoleLogCharset) {
         goPublisher.reportStartingToBuild();
-        return execute(environmentVariableContext, consoleLogCharset);
+        long before = System.currentTimeMillis();
+        try {
+            return execute(environmentVariableContext, consoleLogCharset);
+        } finally {
+            AgentMetrics.instance().recordPhase(AgentMetrics.Phase.BUILD, System.currentTimeMillis() - before);
+        }
     }
 
     private JobResult completeJob(JobResult result, EnvironmentVariableContext environmentVariableContext) {
@@ -207,12 +213,15 @@ public class BuildWork implements Work {
 
         goPublisher.reportBeginToPublishArtifacts();
 
+        long before = System.currentTimeMillis();
         try {
             artifactsPublisher.publishArtifacts(assignment.getArtifactPlans(), environmentVariableContext);
         } catch (Exception e) {
             LOGGER.error(null, e);
             goPublisher.taggedConsumeLineWithPrefix(DefaultGoPublisher.PUBLISH_ERR, e.getMessage());
             return JobResult.Failed;
+        } finally {
+            AgentMetrics.instance().recordPhase(AgentMetrics.Phase.ARTIFACT_UPLOAD, System.currentTimeMillis() - before);
         }
 
         return result;
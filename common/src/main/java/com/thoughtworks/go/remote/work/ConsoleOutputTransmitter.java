@@ -15,6 +15,7 @@
  */
 package com.thoughtworks.go.remote.work;
 
+import com.thoughtworks.go.agent.metrics.AgentMetrics;
 import com.thoughtworks.go.util.SystemEnvironment;
 import com.thoughtworks.go.util.command.TaggedStreamConsumer;
 import org.apache.commons.collections4.queue.CircularFifoQueue;
@@ -31,6 +32,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 public final class ConsoleOutputTransmitter implements TaggedStreamConsumer, Runnable {
     private static final Logger LOGGER = LoggerFactory.getLogger(ConsoleOutputTransmitter.class);
@@ -86,8 +88,11 @@ public final class ConsoleOutputTransmitter implements TaggedStreamConsumer, Run
             toFlush = new ArrayList<>(buffer);
             buffer.clear();
         }
+        long before = System.currentTimeMillis();
         try {
-            consoleAppender.append(toFlush.stream().collect(Collectors.joining("\n", "", "\n")));
+            String content = toFlush.stream().collect(Collectors.joining("\n", "", "\n"));
+            consoleAppender.append(content);
+            AgentMetrics.instance().consoleBytesTransmitted(content.getBytes(UTF_8).length);
         } catch (IOException e) {
             LOGGER.warn("Could not send console output to server", e);
             synchronized (buffer) {
@@ -95,6 +100,8 @@ public final class ConsoleOutputTransmitter implements TaggedStreamConsumer, Run
                 buffer.clear();
                 buffer.addAll(toFlush);
             }
+        } finally {
+            AgentMetrics.instance().recordPhase(AgentMetrics.Phase.CONSOLE_FLUSH, System.currentTimeMillis() - before);
         }
     }
 
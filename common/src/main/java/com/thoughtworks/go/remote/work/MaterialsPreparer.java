@@ -0,0 +1,168 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.remote.work;
+
+import com.thoughtworks.go.config.materials.PluggableSCMMaterial;
+import com.thoughtworks.go.config.materials.ScmMaterial;
+import com.thoughtworks.go.domain.MaterialRevision;
+import com.thoughtworks.go.domain.materials.Material;
+import com.thoughtworks.go.domain.materials.MaterialAgent;
+import com.thoughtworks.go.domain.materials.MaterialAgentFactory;
+import com.thoughtworks.go.plugin.access.scm.SCMExtension;
+import com.thoughtworks.go.remote.AgentIdentifier;
+import com.thoughtworks.go.util.NamedDaemonThreadFactory;
+import com.thoughtworks.go.util.command.ConsoleOutputStreamConsumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Updates the materials of a job in its working directory. When more than one thread is allowed and every SCM material
+ * is checked out into its own folder (none nested inside another), the materials are updated concurrently, with each
+ * material's console output prefixed by its name, on a pool shared across jobs. Every material is attempted even when
+ * another fails, and the failure of the earliest one is rethrown. Otherwise, materials are updated one after the other.
+ */
+public class MaterialsPreparer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MaterialsPreparer.class);
+    // shared by every job the agent runs; idle threads are let go after a minute
+    private static final ExecutorService PREPARER_POOL = Executors.newCachedThreadPool(new NamedDaemonThreadFactory("material-preparer"));
+
+    private final File workingDirectory;
+    private final AgentIdentifier agentIdentifier;
+    private final SCMExtension scmExtension;
+    private final int maxThreads;
+
+    public MaterialsPreparer(File workingDirectory, AgentIdentifier agentIdentifier, SCMExtension scmExtension, int maxThreads) {
+        this.workingDirectory = workingDirectory;
+        this.agentIdentifier = agentIdentifier;
+        this.scmExtension = scmExtension;
+        this.maxThreads = maxThreads;
+    }
+
+    public void prepare(List<MaterialRevision> revisions, ConsoleOutputStreamConsumer consumer) {
+        if (maxThreads <= 1 || revisions.size() <= 1 || !haveDistinctDestinations(revisions)) {
+            for (MaterialRevision revision : revisions) {
+                createAgent(revision, consumer).prepare();
+            }
+            return;
+        }
+
+        int threads = Math.min(maxThreads, revisions.size());
+        LOGGER.debug("Updating {} materials using {} threads", revisions.size(), threads);
+        List<MaterialAgent> agents = new ArrayList<>();
+        for (MaterialRevision revision : revisions) {
+            agents.add(createAgent(revision, new MaterialPrefixedOutputStreamConsumer(revision.getMaterial().getDisplayName(), consumer)));
+        }
+        RuntimeException[] failures = new RuntimeException[agents.size()];
+        AtomicInteger next = new AtomicInteger();
+        List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            workers.add(PREPARER_POOL.submit(() -> {
+                for (int index = next.getAndIncrement(); index < agents.size(); index = next.getAndIncrement()) {
+                    try {
+                        agents.get(index).prepare();
+                    } catch (RuntimeException e) {
+                        failures[index] = e;
+                    }
+                }
+            }));
+        }
+        waitForAll(workers);
+        for (RuntimeException failure : failures) {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    MaterialAgent createAgent(MaterialRevision revision, ConsoleOutputStreamConsumer consumer) {
+        return new MaterialAgentFactory(consumer, workingDirectory, agentIdentifier, scmExtension).createAgent(revision);
+    }
+
+    private void waitForAll(List<Future<?>> workers) {
+        for (Future<?> worker : workers) {
+            try {
+                worker.get();
+            } catch (InterruptedException e) {
+                workers.forEach(w -> w.cancel(true));
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while updating materials", e);
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof RuntimeException runtimeException ? runtimeException : new RuntimeException(e.getCause());
+            }
+        }
+    }
+
+    boolean haveDistinctDestinations(List<MaterialRevision> revisions) {
+        List<Path> destinations = new ArrayList<>();
+        for (MaterialRevision revision : revisions) {
+            Material material = revision.getMaterial();
+            if (!(material instanceof ScmMaterial || material instanceof PluggableSCMMaterial)) {
+                continue;
+            }
+            if (material.getFolder() == null || material.getFolder().isBlank()) {
+                return false;
+            }
+            Path destination = workingDirectory.toPath().resolve(material.getFolder()).toAbsolutePath().normalize();
+            for (Path other : destinations) {
+                if (destination.startsWith(other) || other.startsWith(destination)) {
+                    return false;
+                }
+            }
+            destinations.add(destination);
+        }
+        return true;
+    }
+
+    private static class MaterialPrefixedOutputStreamConsumer implements ConsoleOutputStreamConsumer {
+        private final String prefix;
+        private final ConsoleOutputStreamConsumer consumer;
+
+        MaterialPrefixedOutputStreamConsumer(String materialName, ConsoleOutputStreamConsumer consumer) {
+            this.prefix = "[" + materialName + "] ";
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void stdOutput(String line) {
+            consumer.stdOutput(prefix + line);
+        }
+
+        @Override
+        public void errOutput(String line) {
+            consumer.errOutput(prefix + line);
+        }
+
+        @Override
+        public void taggedStdOutput(String tag, String line) {
+            consumer.taggedStdOutput(tag, prefix + line);
+        }
+
+        @Override
+        public void taggedErrOutput(String tag, String line) {
+            consumer.taggedErrOutput(tag, prefix + line);
+        }
+    }
+}
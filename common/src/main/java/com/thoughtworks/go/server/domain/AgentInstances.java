@@ -26,11 +26,13 @@ import com.thoughtworks.go.listener.AgentStatusChangeListener;
 import com.thoughtworks.go.server.service.AgentBuildingInfo;
 import com.thoughtworks.go.server.service.AgentRuntimeInfo;
 import com.thoughtworks.go.util.SystemEnvironment;
+import com.thoughtworks.go.util.TimeProvider;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.util.LinkedMultiValueMap;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Stream;
 
 import static com.thoughtworks.go.domain.AgentInstance.createFromAgent;
@@ -47,6 +49,10 @@ public class AgentInstances implements Iterable<AgentInstance> {
 
     private final AgentStatusChangeListener agentStatusChangeListener;
 
+    private final AgentLivenessTracker liveness = new AgentLivenessTracker();
+    private final AtomicLong membershipVersion = new AtomicLong();
+    private final TimeProvider timeProvider = new TimeProvider();
+
     public AgentInstances(AgentStatusChangeListener listener) {
         this.agentStatusChangeListener = listener;
         this.systemEnvironment = new SystemEnvironment();
@@ -62,7 +68,10 @@ public class AgentInstances implements Iterable<AgentInstance> {
     }
 
     public void add(AgentInstance agent) {
-        uuidToAgentInstanceMap.put(agent.getAgent().getUuid(), agent);
+        String uuid = agent.getAgent().getUuid();
+        uuidToAgentInstanceMap.put(uuid, agent);
+        membershipVersion.incrementAndGet();
+        liveness.schedule(uuid, agent.lostContactDeadline());
     }
 
     public void updateAgentAboutCancelledBuild(String uuid, boolean isCancelled) {
@@ -91,11 +100,16 @@ public class AgentInstances implements Iterable<AgentInstance> {
     }
 
     public void removeAgent(String uuid) {
-        uuidToAgentInstanceMap.remove(uuid);
+        if (uuidToAgentInstanceMap.remove(uuid) != null) {
+            membershipVersion.incrementAndGet();
+        }
+        liveness.forget(uuid);
     }
 
     public void clearAll() {
         uuidToAgentInstanceMap.clear();
+        membershipVersion.incrementAndGet();
+        liveness.clear();
     }
 
     public AgentInstances getAllAgents() {
@@ -127,9 +141,37 @@ public class AgentInstances implements Iterable<AgentInstance> {
         return uuidToAgentInstanceMap.size();
     }
 
+    /**
+     * Marks the agents which have not been heard from in time as having lost contact, and removes pending agents which
+     * have gone away. Only the agents whose deadline has passed are looked at.
+     */
     public void refresh() {
-        currentInstances().forEach(AgentInstance::refresh);
-        getRemovableAgents().forEach(agentInstance -> removeAgent(agentInstance.getAgent().getUuid()));
+        long now = timeProvider.currentTimeMillis();
+        for (String uuid : liveness.due(now)) {
+            AgentInstance agentInstance = uuidToAgentInstanceMap.get(uuid);
+            if (agentInstance == null) {
+                continue;
+            }
+            agentInstance.refresh();
+            if (agentInstance.canRemove()) {
+                removeAgent(uuid);
+            } else {
+                liveness.schedule(uuid, nextLivenessCheck(agentInstance, now));
+            }
+        }
+    }
+
+    /**
+     * @return a version of these agents, which changes whenever an agent is added or removed, or something shown about
+     * one of them changes. The version of each agent only goes up, so the sum of them, together with the count of
+     * additions and removals, is never repeated.
+     */
+    public String version() {
+        long agentChanges = 0;
+        for (AgentInstance agentInstance : uuidToAgentInstanceMap.values()) {
+            agentChanges += agentInstance.version();
+        }
+        return membershipVersion.get() + "-" + agentChanges;
     }
 
     public List<AgentInstance> agentsStuckInCancel() {
@@ -143,8 +185,7 @@ public class AgentInstances implements Iterable<AgentInstance> {
             if (existingInstance != null) {
                 existingInstance.syncAgentFrom(agentFromDB);
             } else {
-                AgentInstance newAgent = createFromAgent(agentFromDB, new SystemEnvironment(), agentStatusChangeListener);
-                uuidToAgentInstanceMap.put(uuid, newAgent);
+                add(createFromAgent(agentFromDB, new SystemEnvironment(), agentStatusChangeListener));
             }
         }
 
@@ -158,7 +199,7 @@ public class AgentInstances implements Iterable<AgentInstance> {
                     }
                 }
             }
-            uuids.forEach(uuidToAgentInstanceMap::remove);
+            uuids.forEach(this::removeAgent);
         }
     }
 
@@ -256,10 +297,13 @@ public class AgentInstances implements Iterable<AgentInstance> {
         return agentInstance.isPending() && !agentInstance.isNullAgent();
     }
 
-    private List<AgentInstance> getRemovableAgents() {
-        return stream(this.spliterator(), false)
-                .filter(AgentInstance::canRemove)
-                .collect(toList());
+    private long nextLivenessCheck(AgentInstance agentInstance, long now) {
+        long deadline = agentInstance.lostContactDeadline();
+        if (deadline > now) {
+            return deadline;
+        }
+        // already lost contact, or gone pending; the deadline moves once the agent is heard from again
+        return now + Math.max(1000L, systemEnvironment.getAgentConnectionTimeout() * 1000L);
     }
 
     private Collection<AgentInstance> currentInstances() {
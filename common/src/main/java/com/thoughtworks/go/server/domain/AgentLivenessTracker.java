@@ -0,0 +1,71 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.domain;
+
+import java.util.*;
+
+/**
+ * Keeps agents ordered by the time at which they will next have to be looked at, so that a refresh only visits the
+ * agents whose deadline has passed, instead of every agent.
+ * <p>
+ * Deadlines are not moved when agents ping; the agent is looked at when its old deadline passes, and is then given a
+ * new one. An agent has at most one deadline, and agents which are no longer tracked are dropped when their deadline
+ * comes up.
+ */
+class AgentLivenessTracker {
+    private record Deadline(long at, String uuid) {
+    }
+
+    private final PriorityQueue<Deadline> queue = new PriorityQueue<>(Comparator.comparingLong(Deadline::at));
+    private final Map<String, Long> deadlines = new HashMap<>();
+
+    synchronized void schedule(String uuid, long at) {
+        Long existing = deadlines.put(uuid, at);
+        if (existing == null || existing != at) {
+            queue.add(new Deadline(at, uuid));
+        }
+    }
+
+    synchronized void forget(String uuid) {
+        deadlines.remove(uuid);
+    }
+
+    synchronized void clear() {
+        deadlines.clear();
+        queue.clear();
+    }
+
+    /**
+     * @return the agents whose deadline is at or before the given time; they are no longer tracked, until scheduled
+     * again
+     */
+    synchronized List<String> due(long now) {
+        List<String> due = new ArrayList<>();
+        while (!queue.isEmpty() && queue.peek().at() <= now) {
+            Deadline deadline = queue.poll();
+            Long current = deadlines.get(deadline.uuid());
+            if (current != null && current == deadline.at()) {
+                deadlines.remove(deadline.uuid());
+                due.add(deadline.uuid());
+            }
+        }
+        return due;
+    }
+
+    synchronized int size() {
+        return deadlines.size();
+    }
+}
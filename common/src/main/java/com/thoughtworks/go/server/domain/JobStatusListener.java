@@ -17,6 +17,12 @@ package com.thoughtworks.go.server.domain;
 
 import com.thoughtworks.go.domain.JobInstance;
 
+import java.util.List;
+
 public interface JobStatusListener {
     void jobStatusChanged(JobInstance job);
+
+    default void jobStatusesChanged(List<JobInstance> jobs) {
+        jobs.forEach(this::jobStatusChanged);
+    }
 }
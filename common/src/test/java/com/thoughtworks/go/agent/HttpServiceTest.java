@@ -18,17 +18,21 @@ package com.thoughtworks.go.agent;
 import com.thoughtworks.go.agent.common.ssl.GoAgentServerHttpClient;
 import com.thoughtworks.go.config.AgentRegistry;
 import com.thoughtworks.go.domain.FetchHandler;
+import org.apache.http.HttpEntity;
 import org.apache.http.HttpVersion;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.entity.BasicHttpEntity;
+import org.apache.http.entity.ContentProducer;
 import org.apache.http.message.BasicStatusLine;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
@@ -36,6 +40,9 @@ import java.net.URI;
 import java.net.URISyntaxException;
 
 import static com.thoughtworks.go.remote.StandardHeaders.*;
+import static com.thoughtworks.go.util.GoConstants.STREAMED_ARTIFACT_CONTENT_TYPE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.Mockito.*;
 
@@ -85,6 +92,46 @@ public class HttpServiceTest {
         verify(httpClient).execute(mockPostMethod);
     }
 
+    @Test
+    public void shouldStreamArtifactUploadsAsAChunkedZip() throws IOException, URISyntaxException {
+        String uploadUrl = "http://url";
+
+        HttpPost mockPostMethod = mock(HttpPost.class);
+        CloseableHttpResponse response = mock(CloseableHttpResponse.class);
+        when(response.getStatusLine()).thenReturn(new BasicStatusLine(HttpVersion.HTTP_1_1, 201, "Created"));
+        when(httpClient.execute(mockPostMethod)).thenReturn(response);
+        when(httpClientFactory.createPost(uploadUrl)).thenReturn(mockPostMethod);
+        when(mockPostMethod.getURI()).thenReturn(new URI(uploadUrl));
+
+        int statusCode = service.uploadStream(uploadUrl, 100L, out -> out.write("zipped".getBytes(UTF_8)));
+
+        assertThat(statusCode).isEqualTo(201);
+        verify(mockPostMethod).setHeader(REQUEST_ARTIFACT_PAYLOAD_SIZE, "100");
+        verify(mockPostMethod).setHeader(REQUEST_CONFIRM_MODIFICATION, "true");
+        verify(mockPostMethod).setHeader(REQUEST_UUID, "some-guid");
+        verify(mockPostMethod).setHeader(REQUEST_AUTH, "some-token");
+        verify(httpClient).execute(mockPostMethod);
+
+        ArgumentCaptor<ContentProducer> producer = ArgumentCaptor.forClass(ContentProducer.class);
+        verify(httpClientFactory).createStreamingRequestEntity(producer.capture());
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        producer.getValue().writeTo(body);
+        assertThat(body.toString(UTF_8)).isEqualTo("zipped");
+    }
+
+    @Test
+    public void shouldCreateAChunkedZipEntityForStreamedUploads() throws IOException {
+        HttpService.HttpClientFactory factory = new HttpService.HttpClientFactory(null);
+
+        HttpEntity entity = factory.createStreamingRequestEntity(out -> out.write("zipped".getBytes(UTF_8)));
+
+        assertThat(entity.isChunked()).isTrue();
+        assertThat(entity.getContentType().getValue()).isEqualTo(STREAMED_ARTIFACT_CONTENT_TYPE);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        entity.writeTo(body);
+        assertThat(body.toString(UTF_8)).isEqualTo("zipped");
+    }
+
     @Test
     public void shouldDownloadArtifact() throws IOException, URISyntaxException {
         String url = "http://blah";
@@ -0,0 +1,82 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.agent.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AgentMetricsTest {
+    private final AgentMetrics metrics = new AgentMetrics();
+
+    @Test
+    void shouldWriteCumulativeHistogramBucketsInSeconds() {
+        LatencyHistogram histogram = new LatencyHistogram(new long[]{100, 1000});
+        histogram.observe(50);
+        histogram.observe(500);
+        histogram.observe(5000);
+
+        StringBuilder out = new StringBuilder();
+        histogram.writeTo(out, "latency_seconds", "phase=\"build\"");
+
+        assertThat(out.toString()).isEqualTo("""
+            latency_seconds_bucket{phase="build",le="0.1"} 1
+            latency_seconds_bucket{phase="build",le="1.0"} 2
+            latency_seconds_bucket{phase="build",le="+Inf"} 3
+            latency_seconds_sum{phase="build"} 5.55
+            latency_seconds_count{phase="build"} 3
+            """);
+    }
+
+    @Test
+    void shouldExposePhaseTimingsRemotingLatenciesAndTransferredBytes() {
+        metrics.recordPhase(AgentMetrics.Phase.BUILD, 1200);
+        metrics.recordRemotingCall("get_work", 30);
+        metrics.bytesUploaded(1024);
+        metrics.consoleBytesTransmitted(10);
+
+        String text = metrics.toPrometheusText();
+
+        assertThat(text)
+            .contains("gocd_agent_job_phase_duration_seconds_count{phase=\"build\"} 1")
+            .contains("gocd_agent_job_phase_duration_seconds_count{phase=\"material_update\"} 0")
+            .contains("gocd_agent_remoting_call_duration_seconds_bucket{action=\"get_work\",le=\"0.05\"} 1")
+            .contains("gocd_agent_artifact_uploaded_bytes_total 1024")
+            .contains("gocd_agent_artifact_downloaded_bytes_total 0")
+            .contains("gocd_agent_console_transmitted_bytes_total 10");
+    }
+
+    @Test
+    void shouldCountBytesStreamedThroughWrappedStreams() throws IOException {
+        try (InputStream in = metrics.countingDownloads(new ByteArrayInputStream(new byte[300]))) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        try (OutputStream out = metrics.countingUploads(new ByteArrayOutputStream())) {
+            out.write(new byte[200]);
+            out.write(1);
+        }
+
+        assertThat(metrics.toPrometheusText())
+            .contains("gocd_agent_artifact_downloaded_bytes_total 300")
+            .contains("gocd_agent_artifact_uploaded_bytes_total 201");
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.domain;
+
+import com.thoughtworks.go.agent.HttpService;
+import com.thoughtworks.go.helper.JobIdentifierMother;
+import com.thoughtworks.go.util.Clock;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Properties;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class ParallelDirFetcherTest {
+    @TempDir
+    File tempDir;
+
+    private HttpService httpService;
+    private StubGoPublisher goPublisher;
+    private File agentDest;
+    private ArtifactMd5Checksums checksums;
+    private JobIdentifier jobIdentifier;
+
+    @BeforeEach
+    void setUp() {
+        httpService = mock(HttpService.class);
+        goPublisher = new StubGoPublisher();
+        agentDest = new File(tempDir, "agent_dest");
+        jobIdentifier = JobIdentifierMother.anyBuildIdentifier();
+
+        Properties properties = new Properties();
+        properties.setProperty("dist/first", DigestUtils.md5Hex("First File"));
+        properties.setProperty("dist/nested/second", DigestUtils.md5Hex("Second File"));
+        properties.setProperty("other/third", DigestUtils.md5Hex("Third File"));
+        checksums = new ArtifactMd5Checksums(properties);
+    }
+
+    @Test
+    void shouldDownloadOnlyTheFilesWhichAreMissingOrChanged() throws IOException {
+        serveDistListing();
+        Files.createDirectories(new File(agentDest, "dist").toPath());
+        Files.writeString(new File(agentDest, "dist/first").toPath(), "First File", UTF_8);
+        serve("dist/nested/second", "Second File");
+
+        boolean fetched = fetcher(null).fetch("https://server/go", jobIdentifier, new DirHandler("dist", agentDest), checksums);
+
+        assertThat(fetched).isTrue();
+        assertThat(Files.readString(new File(agentDest, "dist/nested/second").toPath())).isEqualTo("Second File");
+        assertThat(new File(agentDest, "other/third")).doesNotExist();
+        verify(httpService).download(endsWith("dist.json"), eq(0L), any());
+        verify(httpService).download(endsWith("dist/nested/second"), eq(0L), any());
+        verifyNoMoreInteractions(httpService);
+        assertThat(goPublisher.getMessage()).contains("Downloaded 1 file(s), copied 0 from the agent artifact cache, 1 unchanged.");
+    }
+
+    @Test
+    void shouldResumeAnInterruptedDownload() throws Exception {
+        when(httpService.download(endsWith("dist/first"), eq(0L), any())).thenAnswer(invocation -> {
+            invocation.getArgument(2, HttpService.RangeHandler.class).handle(new ByteArrayInputStream("First".getBytes(UTF_8)), false);
+            throw new IOException("connection reset");
+        });
+        when(httpService.download(endsWith("dist/first"), eq(5L), any())).thenAnswer(invocation -> {
+            invocation.getArgument(2, HttpService.RangeHandler.class).handle(new ByteArrayInputStream(" File".getBytes(UTF_8)), true);
+            return 206;
+        });
+
+        ParallelDirFetcher.Outcome outcome = fetcher(null).fetchFile("https://server/go/dist/first", new File(agentDest, "first"), DigestUtils.md5Hex("First File"));
+
+        assertThat(outcome).isEqualTo(ParallelDirFetcher.Outcome.DOWNLOADED);
+        assertThat(Files.readString(new File(agentDest, "first").toPath())).isEqualTo("First File");
+        assertThat(new File(agentDest, "first" + ParallelDirFetcher.PARTIAL_FILE_SUFFIX)).doesNotExist();
+    }
+
+    @Test
+    void shouldReuseFilesFromTheAgentArtifactCache() throws IOException {
+        ArtifactContentCache cache = new ArtifactContentCache(new File(tempDir, "cache"), Long.MAX_VALUE);
+        serveDistListing();
+        serve("dist/first", "First File");
+        serve("dist/nested/second", "Second File");
+
+        fetcher(cache).fetch("https://server/go", jobIdentifier, new DirHandler("dist", agentDest), checksums);
+        File anotherDest = new File(tempDir, "another_dest");
+        fetcher(cache).fetch("https://server/go", jobIdentifier, new DirHandler("dist", anotherDest), checksums);
+
+        assertThat(Files.readString(new File(anotherDest, "dist/first").toPath())).isEqualTo("First File");
+        assertThat(Files.readString(new File(anotherDest, "dist/nested/second").toPath())).isEqualTo("Second File");
+        verify(httpService).download(endsWith("dist/first"), anyLong(), any());
+        verify(httpService).download(endsWith("dist/nested/second"), anyLong(), any());
+    }
+
+    @Test
+    void shouldNotFetchWhenTheChecksumFileDoesNotListTheDirectory() {
+        assertThat(fetcher(null).fetch("https://server/go", jobIdentifier, new DirHandler("unknown", agentDest), checksums)).isFalse();
+        assertThat(fetcher(null).fetch("https://server/go", jobIdentifier, new DirHandler("dist", agentDest), null)).isFalse();
+        verifyNoInteractions(httpService);
+    }
+
+    @Test
+    void shouldNotFetchWhenTheServerHasAFileInTheDirectoryWhichTheChecksumFileDoesNotList() throws IOException {
+        serveListing("dist", "[{\"name\": \"nested\", \"type\": \"folder\", \"files\": [{\"name\": \"second\", \"type\": \"file\"}]}, " +
+            "{\"name\": \"first\", \"type\": \"file\"}, {\"name\": \"unlisted\", \"type\": \"file\"}]");
+
+        assertThat(fetcher(null).fetch("https://server/go", jobIdentifier, new DirHandler("dist", agentDest), checksums)).isFalse();
+
+        verify(httpService).download(endsWith("dist.json"), eq(0L), any());
+        verifyNoMoreInteractions(httpService);
+        assertThat(agentDest).doesNotExist();
+    }
+
+    @Test
+    void shouldNotFetchWhenTheServerCannotListTheDirectory() throws IOException {
+        when(httpService.download(endsWith("dist.json"), anyLong(), any())).thenReturn(404);
+
+        assertThat(fetcher(null).fetch("https://server/go", jobIdentifier, new DirHandler("dist", agentDest), checksums)).isFalse();
+
+        verify(httpService).download(endsWith("dist.json"), eq(0L), any());
+        verifyNoMoreInteractions(httpService);
+    }
+
+    private ParallelDirFetcher fetcher(ArtifactContentCache cache) {
+        return new ParallelDirFetcher(httpService, goPublisher, mock(Clock.class), 4, cache);
+    }
+
+    private void serve(String artifactPath, String content) throws IOException {
+        when(httpService.download(endsWith(artifactPath), anyLong(), any())).thenAnswer(invocation -> {
+            invocation.getArgument(2, HttpService.RangeHandler.class).handle(new ByteArrayInputStream(content.getBytes(UTF_8)), false);
+            return 200;
+        });
+    }
+
+    private void serveDistListing() throws IOException {
+        serveListing("dist", "[{\"name\": \"nested\", \"type\": \"folder\", \"files\": [{\"name\": \"second\", \"type\": \"file\"}]}, " +
+            "{\"name\": \"first\", \"type\": \"file\"}]");
+    }
+
+    private void serveListing(String folder, String json) throws IOException {
+        serve(folder + ".json", json);
+    }
+}
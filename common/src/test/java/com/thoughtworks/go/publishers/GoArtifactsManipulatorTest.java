@@ -16,6 +16,7 @@
 package com.thoughtworks.go.publishers;
 
 import com.thoughtworks.go.agent.HttpService;
+import com.thoughtworks.go.agent.URLService;
 import com.thoughtworks.go.domain.AgentRuntimeStatus;
 import com.thoughtworks.go.domain.JobIdentifier;
 import com.thoughtworks.go.remote.AgentIdentifier;
@@ -23,22 +24,34 @@ import com.thoughtworks.go.remote.work.BuildRepositoryRemoteStub;
 import com.thoughtworks.go.remote.work.GoArtifactsManipulatorStub;
 import com.thoughtworks.go.server.service.AgentRuntimeInfo;
 import com.thoughtworks.go.util.ReflectionUtil;
+import com.thoughtworks.go.util.SystemEnvironment;
 import com.thoughtworks.go.util.TempDirUtils;
+import com.thoughtworks.go.util.ZipUtil;
 import com.thoughtworks.go.work.DefaultGoPublisher;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.collections4.queue.CircularFifoQueue;
 import org.apache.commons.io.FileUtils;
+import org.apache.http.entity.ContentProducer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.StringReader;
 import java.net.HttpURLConnection;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Properties;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
+import static com.thoughtworks.go.util.GoConstants.PUBLISH_MAX_RETRIES;
+import static com.thoughtworks.go.util.GoConstants.STREAMED_ARTIFACT_CHECKSUM_ENTRY;
 import static com.thoughtworks.go.util.SystemUtil.currentWorkingDirectory;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -137,6 +150,121 @@ public class GoArtifactsManipulatorTest {
         goArtifactsManipulatorStub.publish(goPublisher, "dest", artifactFolder.toFile(), jobIdentifier);
     }
 
+    @Test
+    public void shouldStreamTheArtifactZipWithItsChecksumsAsTheLastEntry() throws IOException {
+        String data = "Some text whose checksum can be asserted";
+        Files.writeString(tempFile, data, UTF_8);
+        ByteArrayOutputStream uploaded = new ByteArrayOutputStream();
+        when(httpService.uploadStream(any(), eq(tempFile.toFile().length()), any())).then(invocation -> {
+            invocation.<ContentProducer>getArgument(2).writeTo(uploaded);
+            return HttpURLConnection.HTTP_CREATED;
+        });
+
+        streamingArtifactsManipulator().publish(goPublisher, "/dest/path", tempFile.toFile(), jobIdentifier);
+
+        Map<String, String> entries = entriesOf(uploaded);
+        assertThat(entries.keySet()).containsExactly("file.txt", STREAMED_ARTIFACT_CHECKSUM_ENTRY);
+        assertThat(entries.get("file.txt")).isEqualTo(data);
+        Properties checksums = new Properties();
+        checksums.load(new StringReader(entries.get(STREAMED_ARTIFACT_CHECKSUM_ENTRY)));
+        Properties expected = new Properties();
+        expected.setProperty("dest/path/file.txt", DigestUtils.md5Hex(data));
+        assertThat(checksums).isEqualTo(expected);
+        verify(httpService, never()).upload(any(), anyLong(), any(), any());
+    }
+
+    @Test
+    public void shouldStreamChecksumsForADirectory() throws IOException {
+        String data = "Some text whose checksum can be asserted";
+        String secondData = "some more";
+        Files.writeString(tempFile, data, UTF_8);
+        Path anotherFile = artifactFolder.resolve("bond/james_bond/another_file");
+        Files.createDirectories(anotherFile.getParent());
+        Files.writeString(anotherFile, secondData, UTF_8);
+        ByteArrayOutputStream uploaded = new ByteArrayOutputStream();
+        when(httpService.uploadStream(any(), eq(FileUtils.sizeOfDirectory(artifactFolder.toFile())), any())).then(invocation -> {
+            invocation.<ContentProducer>getArgument(2).writeTo(uploaded);
+            return HttpURLConnection.HTTP_CREATED;
+        });
+
+        streamingArtifactsManipulator().publish(goPublisher, "dest", artifactFolder.toFile(), jobIdentifier);
+
+        Map<String, String> entries = entriesOf(uploaded);
+        assertThat(entries.keySet()).containsExactlyInAnyOrder("artifact_folder/file.txt", "artifact_folder/bond/james_bond/another_file", STREAMED_ARTIFACT_CHECKSUM_ENTRY);
+        assertThat(entries.keySet()).last().isEqualTo(STREAMED_ARTIFACT_CHECKSUM_ENTRY);
+        Properties checksums = new Properties();
+        checksums.load(new StringReader(entries.get(STREAMED_ARTIFACT_CHECKSUM_ENTRY)));
+        assertThat(checksums).isEqualTo(expectedProperties(data, secondData));
+    }
+
+    @Test
+    public void shouldRetryAStreamedUploadWhichFailed() throws IOException {
+        when(httpService.uploadStream(any(), eq(tempFile.toFile().length()), any()))
+            .thenThrow(new IOException("connection reset"))
+            .thenReturn(HttpURLConnection.HTTP_CREATED);
+
+        streamingArtifactsManipulator().publish(goPublisher, "dest", tempFile.toFile(), jobIdentifier);
+
+        verify(httpService, times(2)).uploadStream(any(), eq(tempFile.toFile().length()), any());
+    }
+
+    @Test
+    public void shouldGiveUpAStreamedUploadAfterTheMaximumNumberOfAttempts() throws IOException {
+        when(httpService.uploadStream(any(), eq(tempFile.toFile().length()), any())).thenReturn(HttpURLConnection.HTTP_INTERNAL_ERROR);
+
+        try {
+            streamingArtifactsManipulator().publish(goPublisher, "dest", tempFile.toFile(), jobIdentifier);
+            fail("should have failed to upload");
+        } catch (RuntimeException e) {
+            assertThat(e.getMessage()).contains("Failed to upload " + tempFile.toAbsolutePath() + ".  HTTP return code is 500");
+            verify(httpService, times(PUBLISH_MAX_RETRIES)).uploadStream(any(), eq(tempFile.toFile().length()), any());
+        }
+    }
+
+    @Test
+    public void shouldNotRetryAStreamedUploadDeniedForBeingTooLarge() throws IOException {
+        when(httpService.uploadStream(any(), eq(tempFile.toFile().length()), any())).thenReturn(HttpURLConnection.HTTP_ENTITY_TOO_LARGE);
+
+        try {
+            streamingArtifactsManipulator().publish(goPublisher, "dest", tempFile.toFile(), jobIdentifier);
+            fail("should have thrown request entity too large error");
+        } catch (RuntimeException e) {
+            assertThat(e.getMessage()).contains("was denied by the server");
+            verify(httpService, times(1)).uploadStream(any(), eq(tempFile.toFile().length()), any());
+        }
+    }
+
+    @Test
+    public void shouldNotStreamAFileNamedLikeTheStreamedChecksumsEntry() throws IOException {
+        Path clashing = artifactFolder.resolve(STREAMED_ARTIFACT_CHECKSUM_ENTRY);
+        Files.writeString(clashing, "not checksums", UTF_8);
+        when(httpService.upload(any(), eq(clashing.toFile().length()), any(), any())).thenReturn(HttpURLConnection.HTTP_CREATED);
+
+        streamingArtifactsManipulator().publish(goPublisher, "dest", clashing.toFile(), jobIdentifier);
+
+        verify(httpService).upload(any(), eq(clashing.toFile().length()), any(), any());
+        verify(httpService, never()).uploadStream(any(), anyLong(), any());
+    }
+
+    private GoArtifactsManipulator streamingArtifactsManipulator() {
+        SystemEnvironment systemEnvironment = mock(SystemEnvironment.class);
+        when(systemEnvironment.isAgentStreamingArtifactUploadEnabled()).thenReturn(true);
+        return new GoArtifactsManipulator(httpService, new URLService(), new ZipUtil(), systemEnvironment);
+    }
+
+    private static Map<String, String> entriesOf(ByteArrayOutputStream zip) throws IOException {
+        Map<String, String> entries = new LinkedHashMap<>();
+        try (ZipInputStream zipInputStream = new ZipInputStream(new ByteArrayInputStream(zip.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zipInputStream.getNextEntry()) != null) {
+                if (!entry.isDirectory()) {
+                    entries.put(entry.getName(), new String(zipInputStream.readAllBytes(), UTF_8));
+                }
+            }
+        }
+        return entries;
+    }
+
     private Properties expectedProperties(String data, String secondData) {
         Properties properties = new Properties();
         properties.setProperty("dest/artifact_folder/file.txt", DigestUtils.md5Hex(data));
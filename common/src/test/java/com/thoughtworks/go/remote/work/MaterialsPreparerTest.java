@@ -0,0 +1,117 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.remote.work;
+
+import com.thoughtworks.go.config.materials.git.GitMaterial;
+import com.thoughtworks.go.domain.MaterialRevision;
+import com.thoughtworks.go.domain.materials.MaterialAgent;
+import com.thoughtworks.go.helper.MaterialsMother;
+import com.thoughtworks.go.util.command.ConsoleOutputStreamConsumer;
+import com.thoughtworks.go.util.command.InMemoryStreamConsumer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class MaterialsPreparerTest {
+    @TempDir
+    File workingDirectory;
+
+    @Test
+    void shouldConsiderMaterialsInSeparateFoldersAsDistinct() {
+        MaterialsPreparer preparer = new MaterialsPreparer(workingDirectory, null, null, 4);
+
+        List<MaterialRevision> revisions = List.of(
+            new MaterialRevision(new GitMaterial("http://example.com/one", "main", "one")),
+            new MaterialRevision(new GitMaterial("http://example.com/two", "main", "two")),
+            new MaterialRevision(MaterialsMother.dependencyMaterial()));
+
+        assertThat(preparer.haveDistinctDestinations(revisions)).isTrue();
+    }
+
+    @Test
+    void shouldNotConsiderNestedOrSharedFoldersAsDistinct() {
+        MaterialsPreparer preparer = new MaterialsPreparer(workingDirectory, null, null, 4);
+
+        assertThat(preparer.haveDistinctDestinations(List.of(
+            new MaterialRevision(new GitMaterial("http://example.com/one", "main", "one")),
+            new MaterialRevision(new GitMaterial("http://example.com/two", "main", "one/two"))))).isFalse();
+
+        assertThat(preparer.haveDistinctDestinations(List.of(
+            new MaterialRevision(new GitMaterial("http://example.com/one", "main", "one")),
+            new MaterialRevision(new GitMaterial("http://example.com/two", "main", "./one"))))).isFalse();
+
+        assertThat(preparer.haveDistinctDestinations(List.of(
+            new MaterialRevision(new GitMaterial("http://example.com/one", "main", "one")),
+            new MaterialRevision(new GitMaterial("http://example.com/two"))))).isFalse();
+    }
+
+    @Test
+    void shouldDoNothingForMaterialsWhichAreNotCheckedOut() {
+        MaterialsPreparer preparer = new MaterialsPreparer(workingDirectory, null, null, 4);
+        InMemoryStreamConsumer consumer = new InMemoryStreamConsumer();
+
+        preparer.prepare(List.of(
+            new MaterialRevision(MaterialsMother.dependencyMaterial()),
+            new MaterialRevision(MaterialsMother.packageMaterial())), consumer);
+
+        assertThat(consumer.getAllOutput()).isEmpty();
+    }
+
+    @Test
+    void shouldUpdateMaterialsSideBySideAndRethrowTheFailureOnceAllHaveBeenAttempted() {
+        CountDownLatch allStarted = new CountDownLatch(3);
+        Set<String> updated = ConcurrentHashMap.newKeySet();
+        Set<String> threadNames = ConcurrentHashMap.newKeySet();
+        MaterialsPreparer preparer = new MaterialsPreparer(workingDirectory, null, null, 3) {
+            @Override
+            MaterialAgent createAgent(MaterialRevision revision, ConsoleOutputStreamConsumer consumer) {
+                String folder = revision.getMaterial().getFolder();
+                return () -> {
+                    threadNames.add(Thread.currentThread().getName());
+                    allStarted.countDown();
+                    try {
+                        assertThat(allStarted.await(10, TimeUnit.SECONDS)).as("materials updated side by side").isTrue();
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                    if ("two".equals(folder)) {
+                        throw new RuntimeException("failed to update two");
+                    }
+                    updated.add(folder);
+                };
+            }
+        };
+
+        assertThatThrownBy(() -> preparer.prepare(List.of(
+            new MaterialRevision(new GitMaterial("http://example.com/one", "main", "one")),
+            new MaterialRevision(new GitMaterial("http://example.com/two", "main", "two")),
+            new MaterialRevision(new GitMaterial("http://example.com/three", "main", "three"))), new InMemoryStreamConsumer()))
+            .isInstanceOf(RuntimeException.class)
+            .hasMessage("failed to update two");
+
+        assertThat(updated).containsExactlyInAnyOrder("one", "three");
+        assertThat(threadNames).hasSize(3).allMatch(name -> name.startsWith("material-preparer-"));
+    }
+}
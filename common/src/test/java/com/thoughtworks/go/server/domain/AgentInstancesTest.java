@@ -482,6 +482,43 @@ class AgentInstancesTest {
         assertThat(agentInstances.findAgentAndRefreshStatus(pending.getUuid())).isInstanceOf(NullAgentInstance.class);
     }
 
+    @Test
+    void shouldOnlyRefreshAgentsWhoseLostContactDeadlineHasPassed() {
+        AgentInstance due = mock(AgentInstance.class);
+        when(due.getAgent()).thenReturn(new Agent("due"));
+        AgentInstance notDue = mock(AgentInstance.class);
+        when(notDue.getAgent()).thenReturn(new Agent("not-due"));
+        when(notDue.lostContactDeadline()).thenReturn(Long.MAX_VALUE);
+
+        AgentInstances agentInstances = new AgentInstances(systemEnvironment, listener, due, notDue);
+        agentInstances.refresh();
+        agentInstances.refresh();
+
+        verify(due).refresh();
+        verify(notDue, never()).refresh();
+    }
+
+    @Test
+    void shouldChangeVersionOnlyWhenSomethingShownAboutTheAgentsChanges() {
+        AgentInstances agentInstances = new AgentInstances(systemEnvironment, listener, idle);
+        agentInstances.updateAgentRuntimeInfo(fromServer(idle.getAgent(), true, "/var/lib", 10L, "linux"));
+        String version = agentInstances.version();
+
+        agentInstances.updateAgentRuntimeInfo(fromServer(idle.getAgent(), true, "/var/lib", 10L, "linux"));
+        assertThat(agentInstances.version()).isEqualTo(version);
+
+        agentInstances.updateAgentRuntimeInfo(fromServer(idle.getAgent(), true, "/var/lib", 5L, "linux"));
+        assertThat(agentInstances.version()).isNotEqualTo(version);
+
+        version = agentInstances.version();
+        agentInstances.add(building);
+        assertThat(agentInstances.version()).isNotEqualTo(version);
+
+        version = agentInstances.version();
+        agentInstances.removeAgent(building.getUuid());
+        assertThat(agentInstances.version()).isNotEqualTo(version);
+    }
+
     @Test
     void buildingShouldRefreshAgentInstanceAndDelegateToBuildingMethodOfAgentInstance() {
         String uuid = "uuid";
@@ -0,0 +1,54 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.domain;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AgentLivenessTrackerTest {
+    private final AgentLivenessTracker tracker = new AgentLivenessTracker();
+
+    @Test
+    void shouldReturnAgentsWhoseDeadlineHasPassedInOrderOfDeadline() {
+        tracker.schedule("late", 30);
+        tracker.schedule("early", 10);
+        tracker.schedule("future", 100);
+
+        assertThat(tracker.due(5)).isEmpty();
+        assertThat(tracker.due(30)).containsExactly("early", "late");
+        assertThat(tracker.due(30)).isEmpty();
+        assertThat(tracker.size()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldKeepOnlyTheLatestDeadlineOfAnAgent() {
+        tracker.schedule("uuid", 10);
+        tracker.schedule("uuid", 50);
+
+        assertThat(tracker.due(20)).isEmpty();
+        assertThat(tracker.due(50)).containsExactly("uuid");
+    }
+
+    @Test
+    void shouldNotReturnAgentsWhichHaveBeenForgotten() {
+        tracker.schedule("uuid", 10);
+        tracker.forget("uuid");
+
+        assertThat(tracker.due(20)).isEmpty();
+        assertThat(tracker.size()).isZero();
+    }
+}
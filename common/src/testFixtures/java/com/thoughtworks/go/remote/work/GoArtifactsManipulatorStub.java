@@ -23,6 +23,7 @@ import com.thoughtworks.go.domain.builder.FetchArtifactBuilder;
 import com.thoughtworks.go.matchers.UploadEntry;
 import com.thoughtworks.go.publishers.GoArtifactsManipulator;
 import com.thoughtworks.go.remote.AgentIdentifier;
+import com.thoughtworks.go.util.SystemEnvironment;
 import com.thoughtworks.go.util.ZipUtil;
 import com.thoughtworks.go.work.DefaultGoPublisher;
 
@@ -37,17 +38,17 @@ public class GoArtifactsManipulatorStub extends GoArtifactsManipulator {
     private final List<UploadEntry> uploads = new ArrayList<>();
 
     public GoArtifactsManipulatorStub() {
-        super(new HttpServiceStub(), new URLService(), new ZipUtil());
+        super(new HttpServiceStub(), new URLService(), new ZipUtil(), new SystemEnvironment());
         consoleOuts = new ArrayList<>();
     }
 
     public GoArtifactsManipulatorStub(HttpService service) {
-        super(service, new URLService(), new ZipUtil());
+        super(service, new URLService(), new ZipUtil(), new SystemEnvironment());
         consoleOuts = new ArrayList<>();
     }
 
     public GoArtifactsManipulatorStub(List<String> consoleOuts, HttpService service, URLService urlService, ZipUtil zipUtil) {
-        super(service, urlService, zipUtil);
+        super(service, urlService, zipUtil, new SystemEnvironment());
         this.consoleOuts = consoleOuts;
     }
 
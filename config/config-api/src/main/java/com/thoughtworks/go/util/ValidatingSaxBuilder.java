@@ -15,19 +15,13 @@
  */
 package com.thoughtworks.go.util;
 
-import org.jdom2.input.sax.XMLReaders;
+import org.jdom2.input.sax.XMLReaderSchemaFactory;
 
-import java.net.URI;
+import javax.xml.validation.Schema;
 
 class ValidatingSaxBuilder extends SafeSaxBuilder {
-    public ValidatingSaxBuilder() {
+    public ValidatingSaxBuilder(Schema schema) {
         super();
-        this.setFeature("http://apache.org/xml/features/validation/schema", true);
-        this.setXMLReaderFactory(XMLReaders.XSDVALIDATING);
-    }
-
-    public ValidatingSaxBuilder(URI schemaLocation) {
-        this();
-        this.setProperty("http://apache.org/xml/properties/schema/external-noNamespaceSchemaLocation", schemaLocation.toString());
+        this.setXMLReaderFactory(new XMLReaderSchemaFactory(schema));
     }
 }
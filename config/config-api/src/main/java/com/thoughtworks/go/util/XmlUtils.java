@@ -15,17 +15,33 @@
  */
 package com.thoughtworks.go.util;
 
+import com.thoughtworks.go.config.GoConfigSchema;
 import org.jdom2.Document;
 import org.jdom2.Element;
 import org.jdom2.JDOMException;
+import org.jdom2.input.JDOMParseException;
 import org.jdom2.output.Format;
 import org.jdom2.output.XMLOutputter;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.XMLReader;
 
+import javax.xml.XMLConstants;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.transform.sax.SAXSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import javax.xml.validation.Validator;
 import java.io.*;
+import java.net.MalformedURLException;
 import java.net.URI;
 import java.util.regex.Pattern;
 
 public class XmlUtils {
+    private static volatile Schema currentConfigSchema;
+
     public static void writeXml(Document document, OutputStream outputStream) throws IOException {
         xmlOutputter().output(document, outputStream);
     }
@@ -52,7 +68,7 @@ public class XmlUtils {
     }
 
     public static Document buildValidatedXmlDocument(InputStream inputStream, URI schemaLocation) throws IOException, JDOMException {
-        ValidatingSaxBuilder builder = new ValidatingSaxBuilder(schemaLocation);
+        ValidatingSaxBuilder builder = new ValidatingSaxBuilder(schemaFor(schemaLocation));
         XsdErrorTranslator errorHandler = new XsdErrorTranslator();
         builder.setErrorHandler(errorHandler);
 
@@ -63,6 +79,62 @@ public class XmlUtils {
         return document;
     }
 
+    /**
+     * Validates XML against a schema as it is read, without building a document from it, for callers which only need
+     * to know whether it is valid. Errors are reported as {@link #buildValidatedXmlDocument(InputStream, URI)} reports
+     * them.
+     */
+    public static void validateXml(InputStream inputStream, URI schemaLocation) throws IOException, JDOMException {
+        XsdErrorTranslator errorHandler = new XsdErrorTranslator();
+        Validator validator = schemaFor(schemaLocation).newValidator();
+        validator.setErrorHandler(errorHandler);
+        try {
+            validator.validate(new SAXSource(safeXmlReader(), new InputSource(inputStream)));
+        } catch (SAXParseException e) {
+            throw new JDOMParseException("Error on line " + e.getLineNumber() + ": " + e.getMessage(), e);
+        } catch (SAXException e) {
+            throw new JDOMException(e.getMessage(), e);
+        }
+        if (errorHandler.hasValidationError()) {
+            throw new XsdValidationException(errorHandler.translate());
+        }
+    }
+
+    // Schemas are immutable and thread safe once compiled, and compiling the config schema is far from free. Only the
+    // current config schema is kept though: it is used on every load and save of the config, whereas the schemas of
+    // older versions are only needed while migrating, once each.
+    private static Schema schemaFor(URI schemaLocation) throws JDOMException {
+        if (!schemaLocation.equals(GoConfigSchema.getCurrentSchema())) {
+            return compile(schemaLocation);
+        }
+        Schema schema = currentConfigSchema;
+        if (schema == null) {
+            schema = compile(schemaLocation);
+            currentConfigSchema = schema;
+        }
+        return schema;
+    }
+
+    private static Schema compile(URI schemaLocation) throws JDOMException {
+        try {
+            return SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI).newSchema(schemaLocation.toURL());
+        } catch (SAXException | MalformedURLException e) {
+            throw new JDOMException("Unable to load schema " + schemaLocation, e);
+        }
+    }
+
+    private static XMLReader safeXmlReader() throws JDOMException {
+        try {
+            SAXParserFactory factory = SAXParserFactory.newInstance();
+            factory.setNamespaceAware(true);
+            // Disable DTDs entirely, as SafeSaxBuilder does
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            return factory.newSAXParser().getXMLReader();
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new JDOMException("Unable to create XML reader", e);
+        }
+    }
+
     public static boolean doesNotMatchUsingXsdRegex(Pattern pattern, String textToMatch) {
         return !matchUsingRegex(pattern, textToMatch);
     }
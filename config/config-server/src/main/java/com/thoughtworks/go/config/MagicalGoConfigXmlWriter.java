@@ -72,11 +72,15 @@ public class MagicalGoConfigXmlWriter {
         Document document = createEmptyCruiseConfigDocument();
         write(configForEdit, document.getRootElement(), registry);
 
-        LOGGER.debug("[Serializing Config] XSD and DOM validation.");
-        verifyXsdValid(document);
-        MagicalGoConfigXmlLoader.validateDom(document.getRootElement(), registry);
-        LOGGER.info("[Serializing Config] Generating config partial.");
-        XmlUtils.writeXml(document, output);
+        // serialized once: what is validated against the XSD is exactly what is written out
+        try (ByteArrayOutputStream buffer = new ByteArrayOutputStream(32 * 1024)) {
+            XmlUtils.writeXml(document, buffer);
+            LOGGER.debug("[Serializing Config] XSD and DOM validation.");
+            verifyXsdValid(buffer);
+            MagicalGoConfigXmlLoader.validateDom(document.getRootElement(), registry);
+            LOGGER.info("[Serializing Config] Generating config partial.");
+            buffer.writeTo(output);
+        }
         LOGGER.debug("[Serializing Config] Finished writing config partial.");
     }
 
@@ -98,12 +102,16 @@ public class MagicalGoConfigXmlWriter {
     public void verifyXsdValid(Document document) throws JDOMException {
         try (ByteArrayOutputStream buffer = new ByteArrayOutputStream(32 * 1024)) {
             XmlUtils.writeXml(document, buffer);
-            XmlUtils.buildValidatedXmlDocument(buffer.toInputStream(), GoConfigSchema.getCurrentSchema());
+            verifyXsdValid(buffer);
         } catch (IOException e) {
             throw new UncheckedIOException(e); // Unlikely to happen due to use of ByteArrayOutputStream
         }
     }
 
+    private void verifyXsdValid(ByteArrayOutputStream serializedDocument) throws JDOMException, IOException {
+        XmlUtils.validateXml(serializedDocument.toInputStream(), GoConfigSchema.getCurrentSchema());
+    }
+
     public String toXmlPartial(Object domainObject) {
         bombIf(!domainObject.getClass().isAnnotationPresent(ConfigTag.class), () -> "Object " + domainObject + " does not have a ConfigTag");
         Element element = elementFor(domainObject.getClass());
@@ -0,0 +1,163 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.config.parser;
+
+import com.thoughtworks.go.config.*;
+import com.thoughtworks.go.security.GoCipher;
+import org.jdom2.Element;
+
+import javax.annotation.PostConstruct;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.thoughtworks.go.config.preprocessor.ConcurrentFieldCache.nonStaticOrSyntheticFieldsFor;
+import static com.thoughtworks.go.util.ExceptionUtils.bomb;
+import static com.thoughtworks.go.util.ExceptionUtils.bombIfNull;
+
+/**
+ * Everything the config parser needs to know about a config class, worked out the first time an element of that class
+ * is parsed rather than for every element: its tags, whether it is a collection, its config fields, its
+ * {@link PostConstruct} methods and its constructor.
+ */
+final class ConfigClassBinding {
+    private static final ConcurrentMap<Class<?>, ConfigClassBinding> BINDINGS = new ConcurrentHashMap<>();
+
+    private final Class<?> type;
+    private final ConfigTag configTag;
+    private final AttributeAwareConfigTag attributeAwareConfigTag;
+    private final ConfigCollection configCollection;
+    private final ConfigReferenceCollection referenceCollection;
+    private final boolean configInterface;
+    private final boolean passwordEncrypter;
+    private final List<ConfigFieldBinding> fields;
+    private final List<Method> postConstructMethods;
+    private volatile Constructor<?> constructor;
+
+    static ConfigClassBinding of(Class<?> type) {
+        return BINDINGS.computeIfAbsent(type, ConfigClassBinding::new);
+    }
+
+    private ConfigClassBinding(Class<?> type) {
+        this.type = type;
+        this.configTag = type.getAnnotation(ConfigTag.class);
+        this.attributeAwareConfigTag = type.getAnnotation(AttributeAwareConfigTag.class);
+        this.configCollection = type.getAnnotation(ConfigCollection.class);
+        this.referenceCollection = type.getAnnotation(ConfigReferenceCollection.class);
+        this.configInterface = type.isInterface() && type.isAnnotationPresent(ConfigInterface.class);
+        this.passwordEncrypter = PasswordEncrypter.class.isAssignableFrom(type);
+        this.fields = type.isInterface() ? List.of() : configFieldsOf(type);
+        this.postConstructMethods = postConstructMethodsOf(type);
+    }
+
+    private static List<ConfigFieldBinding> configFieldsOf(Class<?> type) {
+        List<ConfigFieldBinding> fields = new ArrayList<>();
+        for (Field field : nonStaticOrSyntheticFieldsFor(type)) {
+            ConfigFieldBinding binding = ConfigFieldBinding.of(field);
+            if (binding != null) {
+                fields.add(binding);
+            }
+        }
+        return List.copyOf(fields);
+    }
+
+    private static List<Method> postConstructMethodsOf(Class<?> type) {
+        List<Method> methods = new ArrayList<>();
+        for (Method method : type.getMethods()) {
+            if (method.isAnnotationPresent(PostConstruct.class)) {
+                methods.add(method);
+            }
+        }
+        return List.copyOf(methods);
+    }
+
+    ConfigTag configTag() {
+        return configTag;
+    }
+
+    ConfigTag requiredConfigTag() {
+        bombIfNull(configTag, () -> "Invalid type '" + type + "' to autoload. Must have ConfigTag annotation.");
+        return configTag;
+    }
+
+    AttributeAwareConfigTag attributeAwareConfigTag() {
+        return attributeAwareConfigTag;
+    }
+
+    ConfigCollection configCollection() {
+        return configCollection;
+    }
+
+    ConfigReferenceCollection referenceCollection() {
+        return referenceCollection;
+    }
+
+    boolean isConfigCollection() {
+        return configCollection != null;
+    }
+
+    boolean isImplicitCollection() {
+        return isConfigCollection() && configTag == null && attributeAwareConfigTag == null;
+    }
+
+    boolean isConfigInterface() {
+        return configInterface;
+    }
+
+    List<ConfigFieldBinding> fields() {
+        return fields;
+    }
+
+    List<Method> postConstructMethods() {
+        return postConstructMethods;
+    }
+
+    /**
+     * @return whether the element is the tag of this class
+     */
+    boolean matches(Element e) {
+        if (attributeAwareConfigTag != null) {
+            return attributeAwareConfigTag.value().equals(e.getName()) &&
+                attributeAwareConfigTag.attributeValue().equals(e.getAttributeValue(attributeAwareConfigTag.attribute())) &&
+                e.getNamespace().getURI().equals(attributeAwareConfigTag.namespaceURI());
+        }
+        ConfigTag tag = requiredConfigTag();
+        return tag.value().equals(e.getName()) && e.getNamespace().getURI().equals(tag.namespaceURI());
+    }
+
+    Object newInstance(GoCipher goCipher) {
+        try {
+            return passwordEncrypter ? constructor().newInstance(goCipher) : constructor().newInstance();
+        } catch (Exception e) {
+            throw bomb("Error creating new instance of class " + type.getName(), e);
+        }
+    }
+
+    // looked up lazily, as interfaces, and the abstract classes which are only used as field types, have none
+    private Constructor<?> constructor() throws NoSuchMethodException {
+        Constructor<?> result = constructor;
+        if (result == null) {
+            result = passwordEncrypter ? type.getDeclaredConstructor(GoCipher.class) : type.getDeclaredConstructor();
+            result.setAccessible(true);
+            constructor = result;
+        }
+        return result;
+    }
+}
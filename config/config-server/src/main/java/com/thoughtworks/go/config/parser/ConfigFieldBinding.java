@@ -0,0 +1,144 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.config.parser;
+
+import com.thoughtworks.go.config.*;
+import org.springframework.beans.TypeMismatchException;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+
+import static com.thoughtworks.go.util.ExceptionUtils.bomb;
+import static java.text.MessageFormat.format;
+
+/**
+ * A config field of a config class, as the parser sees it: which of the config annotations it has, and how to set it.
+ * Fields without any of these annotations are not bound, as the parser leaves them alone.
+ */
+final class ConfigFieldBinding {
+    enum Kind {IMPLICIT_COLLECTION, SUBTAG, ATTRIBUTE, VALUE, REFERENCE}
+
+    private final Field field;
+    private final Kind kind;
+    private final ConfigSubtag subtag;
+    private final ConfigAttribute attribute;
+    private final ConfigReferenceElement referenceElement;
+    private final boolean attributeNamedAsTagAttribute;
+    private final ConfigAttributeValue attributeValue;
+    private final Constructor<?> attributeValueConstructor;
+
+    static ConfigFieldBinding of(Field field) {
+        Kind kind = kindOf(field);
+        return kind == null ? null : new ConfigFieldBinding(field, kind);
+    }
+
+    private static Kind kindOf(Field field) {
+        if (field.isAnnotationPresent(ConfigSubtag.class)) {
+            return GoConfigClassLoader.isImplicitCollection(field.getType()) ? Kind.IMPLICIT_COLLECTION : Kind.SUBTAG;
+        } else if (field.isAnnotationPresent(ConfigAttribute.class)) {
+            return Kind.ATTRIBUTE;
+        } else if (field.isAnnotationPresent(ConfigValue.class)) {
+            return Kind.VALUE;
+        } else if (field.isAnnotationPresent(ConfigReferenceElement.class)) {
+            return Kind.REFERENCE;
+        }
+        return null;
+    }
+
+    private ConfigFieldBinding(Field field, Kind kind) {
+        this.field = field;
+        this.kind = kind;
+        this.subtag = field.getAnnotation(ConfigSubtag.class);
+        this.attribute = field.getAnnotation(ConfigAttribute.class);
+        this.referenceElement = field.getAnnotation(ConfigReferenceElement.class);
+        AttributeAwareConfigTag tag = field.getDeclaringClass().getAnnotation(AttributeAwareConfigTag.class);
+        this.attributeNamedAsTagAttribute = tag != null && attribute != null && tag.attribute().equals(attribute.value());
+        this.attributeValue = field.getType().getAnnotation(ConfigAttributeValue.class);
+        this.attributeValueConstructor = attributeValue == null ? null : stringConstructorOf(field);
+        field.setAccessible(true);
+    }
+
+    private static Constructor<?> stringConstructorOf(Field field) {
+        try {
+            return field.getType().getConstructor(String.class);
+        } catch (NoSuchMethodException e) {
+            throw bomb("Error setting configField: " + field.getName() + " as " + field.getType(), e);
+        }
+    }
+
+    Kind kind() {
+        return kind;
+    }
+
+    Class<?> type() {
+        return field.getType();
+    }
+
+    String name() {
+        return field.getName();
+    }
+
+    Class<?> declaringClass() {
+        return field.getDeclaringClass();
+    }
+
+    ConfigSubtag subtag() {
+        return subtag;
+    }
+
+    ConfigAttribute attribute() {
+        return attribute;
+    }
+
+    ConfigReferenceElement referenceElement() {
+        return referenceElement;
+    }
+
+    /**
+     * @return whether this is a {@link ConfigAttribute} with the name of the attribute of the
+     * {@link AttributeAwareConfigTag} of its class, which is not allowed
+     */
+    boolean isAttributeNamedAsTagAttribute() {
+        return attributeNamedAsTagAttribute;
+    }
+
+    Object get(Object instance) {
+        try {
+            return field.get(instance);
+        } catch (IllegalAccessException e) {
+            throw bomb("Error getting configField: " + field.getName(), e);
+        }
+    }
+
+    void set(Object instance, Object val) {
+        try {
+            if (attributeValue != null) {
+                if (val != null || attributeValue.createForNull()) {
+                    field.set(instance, attributeValueConstructor.newInstance((String) val));
+                }
+            } else if (val != null) {
+                field.set(instance, GoConfigFieldTypeConverter.forThread().convertIfNecessary(val, field.getType()));
+            }
+        } catch (IllegalAccessException e) {
+            throw bomb("Error setting configField: " + field.getName(), e);
+        } catch (TypeMismatchException e) {
+            throw bomb(format("Could not set value [{0}] on field [{1}] of type [{2}] ", val, field.getName(), field.getType()), e);
+        } catch (InstantiationException | InvocationTargetException e) {
+            throw bomb("Error creating configAttribute: " + field.getName() + " as " + field.getType(), e);
+        }
+    }
+}
@@ -15,54 +15,38 @@
  */
 package com.thoughtworks.go.config.parser;
 
-import com.thoughtworks.go.config.AttributeAwareConfigTag;
 import com.thoughtworks.go.config.ConfigAttribute;
 import com.thoughtworks.go.util.ConfigUtil;
 import org.jdom2.Element;
 
-import java.lang.reflect.Field;
-import java.util.HashMap;
-import java.util.Map;
-
 import static com.thoughtworks.go.util.ExceptionUtils.bomb;
 
 public class GoConfigAttributeLoader {
-    private static final Map<Field, ConfigAttribute> isAttributes = new HashMap<>();
-
     private final Element e;
-    private final Field field;
-
-    public static boolean isAttribute(Field field) {
-        return findAttribute(field) != null;
-    }
-
-    private static ConfigAttribute findAttribute(Field field) {
-        return isAttributes.computeIfAbsent(field, f -> f.getAnnotation(ConfigAttribute.class));
-    }
+    private final ConfigFieldBinding field;
 
-    public static GoConfigAttributeLoader attributeParser(Element e, Field field) {
+    static GoConfigAttributeLoader attributeParser(Element e, ConfigFieldBinding field) {
         return new GoConfigAttributeLoader(e, field);
     }
 
-    private GoConfigAttributeLoader(Element e, Field field) {
+    private GoConfigAttributeLoader(Element e, ConfigFieldBinding field) {
         this.e = e;
         this.field = field;
     }
 
     public Object parse(Object defaultValue) {
-        ConfigAttribute attribute = findAttribute(field);
+        ConfigAttribute attribute = field.attribute();
         validateAttributeName(attribute);
         Object val = ConfigUtil.getAttribute(e, attribute);
         if (!attribute.allowNull() && val == null && defaultValue == null) {
-            bomb("Field '" + field.getName() + "' is still set to null. Must give a default value.");
+            bomb("Field '" + field.name() + "' is still set to null. Must give a default value.");
         }
         return val;
     }
 
     private void validateAttributeName(ConfigAttribute attribute) {
-        final AttributeAwareConfigTag annotation = field.getDeclaringClass().getAnnotation(AttributeAwareConfigTag.class);
-        if (annotation != null && attribute != null && annotation.attribute().equals(attribute.value())) {
-            throw bomb(String.format("Attribute `%s` is not allowed in %s. You cannot use @ConfigAttribute annotation with attribute name `%s` when @AttributeAwareConfigTag is configured with same name.", attribute.value(), field.getDeclaringClass().getName(), attribute.value()));
+        if (field.isAttributeNamedAsTagAttribute()) {
+            throw bomb(String.format("Attribute `%s` is not allowed in %s. You cannot use @ConfigAttribute annotation with attribute name `%s` when @AttributeAwareConfigTag is configured with same name.", attribute.value(), field.declaringClass().getName(), attribute.value()));
         }
     }
 }
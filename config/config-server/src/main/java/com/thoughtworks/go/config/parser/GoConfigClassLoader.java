@@ -16,7 +16,6 @@
 package com.thoughtworks.go.config.parser;
 
 import com.thoughtworks.go.config.*;
-import com.thoughtworks.go.config.preprocessor.ConcurrentFieldCache;
 import com.thoughtworks.go.config.registry.ConfigElementImplementationRegistry;
 import com.thoughtworks.go.security.GoCipher;
 import com.thoughtworks.go.util.ConfigUtil;
@@ -24,12 +23,8 @@ import org.jdom2.Element;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.annotation.PostConstruct;
-import java.lang.reflect.Field;
 import java.lang.reflect.Method;
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
 
 import static com.thoughtworks.go.config.parser.GoConfigFieldLoader.fieldParser;
 import static com.thoughtworks.go.util.ExceptionUtils.*;
@@ -41,6 +36,7 @@ public class GoConfigClassLoader<T> {
 
     private final Element e;
     private final Class<T> aClass;
+    private final ConfigClassBinding binding;
     private final GoCipher goCipher;
     private final ConfigElementImplementationRegistry registry;
     private final ConfigReferenceElements configReferenceElements;
@@ -52,6 +48,7 @@ public class GoConfigClassLoader<T> {
     private GoConfigClassLoader(Element e, Class<T> aClass, GoCipher goCipher, final ConfigElementImplementationRegistry registry, ConfigReferenceElements configReferenceElements) {
         this.e = e;
         this.aClass = aClass;
+        this.binding = ConfigClassBinding.of(aClass);
         this.goCipher = goCipher;
         this.registry = registry;
         this.configReferenceElements = configReferenceElements;
@@ -61,8 +58,8 @@ public class GoConfigClassLoader<T> {
     public T parse() {
         bombUnless(atElement(), () -> "Unable to parse element <" + e.getName() + "> for class " + aClass.getSimpleName());
         T o = createInstance();
-        if (aClass.isAnnotationPresent(ConfigReferenceCollection.class)) {
-            ConfigReferenceCollection referenceCollection = aClass.getAnnotation(ConfigReferenceCollection.class);
+        ConfigReferenceCollection referenceCollection = binding.referenceCollection();
+        if (referenceCollection != null) {
             String collectionName = referenceCollection.collectionName();
             String idFieldName = referenceCollection.idFieldName();
             if (e.getAttribute(idFieldName) != null) {
@@ -70,27 +67,25 @@ public class GoConfigClassLoader<T> {
                 configReferenceElements.add(collectionName, id, o);
             }
         }
-        for (GoConfigFieldLoader<?> field : allFields(o)) {
-            field.parse();
+        ConfigClassBinding instanceBinding = ConfigClassBinding.of(o.getClass());
+        for (ConfigFieldBinding field : instanceBinding.fields()) {
+            fieldParser(e, o, field, registry, configReferenceElements).parse();
         }
         if (isConfigCollection()) {
             parseCollection((Collection<Object>) o);
         }
         //check whether there are public PostConstruct methods and call them
-        postConstruct(o);
+        postConstruct(o, instanceBinding);
         return o;
     }
 
-    private void postConstruct(T o) {
-        Method[] methods = o.getClass().getMethods();
-        for (Method method : methods) {
-            if (method.isAnnotationPresent(PostConstruct.class)) {
-                try {
-                    method.invoke(o);
-                } catch (Exception e) {
-                    LOGGER.error("Failed to save config: ", e);
-                    throw bomb(e);
-                }
+    private void postConstruct(T o, ConfigClassBinding instanceBinding) {
+        for (Method method : instanceBinding.postConstructMethods()) {
+            try {
+                method.invoke(o);
+            } catch (Exception e) {
+                LOGGER.error("Failed to save config: ", e);
+                throw bomb(e);
             }
         }
     }
@@ -103,12 +98,12 @@ public class GoConfigClassLoader<T> {
     }
 
     private void parseCollection(Collection<Object> collection) {
-        ConfigCollection collectionAnnotation = aClass.getAnnotation(ConfigCollection.class);
+        ConfigCollection collectionAnnotation = binding.configCollection();
         Class<?> elementType = collectionAnnotation.value();
 
         for (Element childElement : e.getChildren()) {
-            if (isInCollection(childElement, elementType)) {
-                Class<?> collectionType = findConcreteType(childElement, elementType);
+            Class<?> collectionType = findConcreteType(childElement, elementType);
+            if (collectionType != null) {
                 collection.add(classParser(childElement, collectionType, new GoCipher(), registry, configReferenceElements).parse());
             }
         }
@@ -118,16 +113,8 @@ public class GoConfigClassLoader<T> {
                 + "Found " + collection.size() + ".");
     }
 
-    private <I> List<GoConfigFieldLoader<?>> allFields(I o) {
-        List<GoConfigFieldLoader<?>> fields = new ArrayList<>();
-        for (Field field : ConcurrentFieldCache.nonStaticOrSyntheticFieldsFor(o.getClass())) {
-            fields.add(fieldParser(e, o, field, registry, configReferenceElements));
-        }
-        return fields;
-    }
-
     private boolean atElement() {
-        AttributeAwareConfigTag attributeAwareConfigTag = aClass.getAnnotation(AttributeAwareConfigTag.class);
+        AttributeAwareConfigTag attributeAwareConfigTag = binding.attributeAwareConfigTag();
         if (attributeAwareConfigTag != null) {
             final String attribute = attributeAwareConfigTag.attribute();
             bombIf(isBlank(attribute), () -> format("Type '%s' has invalid configuration for @AttributeAwareConfigTag. It must have `attribute` with non blank value.", aClass.getName()));
@@ -135,7 +122,7 @@ public class GoConfigClassLoader<T> {
             return ConfigUtil.atTag(e, attributeAwareConfigTag.value());
         }
 
-        ConfigTag configTag = aClass.getAnnotation(ConfigTag.class);
+        ConfigTag configTag = binding.configTag();
 
         if (configTag == null) {
             return false;
@@ -149,35 +136,22 @@ public class GoConfigClassLoader<T> {
         return e.getAttribute(attribute) != null;
     }
 
+    @SuppressWarnings("unchecked")
     private T createInstance() {
-        return ConfigElementInstantiator.instantiateConfigElement(this.goCipher, typeToGenerate(e));
+        return (T) typeToGenerate(e).newInstance(this.goCipher);
     }
 
-    @SuppressWarnings("unchecked")
-    private Class<T> typeToGenerate(Element e) {
-        if (isImplicitCollection(aClass)) {
-            return aClass;
+    private ConfigClassBinding typeToGenerate(Element e) {
+        if (binding.isImplicitCollection()) {
+            return binding;
         }
-        Class<T> type = (Class<T>) findConcreteType(e, aClass);
+        Class<?> type = findConcreteType(e, aClass);
         bombIfNull(type, () -> format("Unable to determine type to generate. Type: %s Element: %s", aClass.getName(), ConfigUtil.elementOutput(e)));
-        return type;
+        return ConfigClassBinding.of(type);
     }
 
     public static boolean compare(Element e, Class<?> implementation) {
-        final AttributeAwareConfigTag attributeAwareConfigTag = implementation.getAnnotation(AttributeAwareConfigTag.class);
-
-        if (attributeAwareConfigTag != null) {
-            return compareAttributeAwareConfigTag(e, attributeAwareConfigTag);
-        }
-
-        ConfigTag configTag = configTag(implementation);
-        return configTag.value().equals(e.getName()) && e.getNamespace().getURI().equals(configTag.namespaceURI());
-    }
-
-    private static boolean compareAttributeAwareConfigTag(Element e, AttributeAwareConfigTag attributeAwareConfigTag) {
-        return attributeAwareConfigTag.value().equals(e.getName()) &&
-            attributeAwareConfigTag.attributeValue().equals(e.getAttributeValue(attributeAwareConfigTag.attribute())) &&
-            e.getNamespace().getURI().equals(attributeAwareConfigTag.namespaceURI());
+        return ConfigClassBinding.of(implementation).matches(e);
     }
 
     static boolean isImplicitCollection(Class<?> type) {
@@ -185,25 +159,19 @@ public class GoConfigClassLoader<T> {
     }
 
     public static ConfigTag configTag(Class<?> type) {
-        ConfigTag tag = type.getAnnotation(ConfigTag.class);
-        bombIfNull(tag, () -> "Invalid type '" + type + "' to autoload. Must have ConfigTag annotation.");
-        return tag;
+        return ConfigClassBinding.of(type).requiredConfigTag();
     }
 
     private boolean isConfigCollection() {
-        return isConfigCollection(aClass);
+        return binding.isConfigCollection();
     }
 
     private static boolean isConfigCollection(Class<?> type) {
         return type.isAnnotationPresent(ConfigCollection.class);
     }
 
-    private boolean isInCollection(Element e, Class<?> type) {
-        return findConcreteType(e, type) != null;
-    }
-
     private Class<?> findConcreteType(Element e, Class<?> type) {
-        if (type.isInterface() && type.isAnnotationPresent(ConfigInterface.class)) {
+        if (ConfigClassBinding.of(type).isConfigInterface()) {
             for (Class<?> implementation : registry.implementersOf(type)) {
                 if (compare(e, implementation)) {
                     return implementation;
@@ -15,44 +15,29 @@
  */
 package com.thoughtworks.go.config.parser;
 
-import com.thoughtworks.go.config.ConfigAttributeValue;
 import com.thoughtworks.go.config.ConfigReferenceElement;
-import com.thoughtworks.go.config.ConfigSubtag;
-import com.thoughtworks.go.config.ConfigValue;
 import com.thoughtworks.go.config.registry.ConfigElementImplementationRegistry;
 import com.thoughtworks.go.security.GoCipher;
 import org.jdom2.Attribute;
 import org.jdom2.Element;
-import org.springframework.beans.TypeMismatchException;
-
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 import static com.thoughtworks.go.config.parser.GoConfigAttributeLoader.attributeParser;
-import static com.thoughtworks.go.config.parser.GoConfigAttributeLoader.isAttribute;
-import static com.thoughtworks.go.config.parser.GoConfigSubtagLoader.isSubtag;
 import static com.thoughtworks.go.config.parser.GoConfigSubtagLoader.subtagParser;
 import static com.thoughtworks.go.util.ExceptionUtils.bomb;
-import static java.text.MessageFormat.format;
 
 public class GoConfigFieldLoader<T> {
-    private static final Map<Field, Boolean> isImplicitCollection = new ConcurrentHashMap<>();
-
     private final Element e;
     private final T instance;
-    private final Field field;
+    private final ConfigFieldBinding field;
     private final ConfigReferenceElements configReferenceElements;
     private final ConfigElementImplementationRegistry registry;
 
-    public static <T> GoConfigFieldLoader<T> fieldParser(Element e, T instance, Field field, final ConfigElementImplementationRegistry registry,
-                                                         ConfigReferenceElements configReferenceElements) {
+    static <T> GoConfigFieldLoader<T> fieldParser(Element e, T instance, ConfigFieldBinding field, final ConfigElementImplementationRegistry registry,
+                                                  ConfigReferenceElements configReferenceElements) {
         return new GoConfigFieldLoader<>(e, instance, field, registry, configReferenceElements);
     }
 
-    private GoConfigFieldLoader(Element e, T instance, Field field, final ConfigElementImplementationRegistry registry, ConfigReferenceElements configReferenceElements) {
+    private GoConfigFieldLoader(Element e, T instance, ConfigFieldBinding field, final ConfigElementImplementationRegistry registry, ConfigReferenceElements configReferenceElements) {
         this.e = e;
         this.instance = instance;
         this.field = field;
@@ -61,67 +46,28 @@ public class GoConfigFieldLoader<T> {
     }
 
     public void parse() {
-        if (isImplicitCollection()) {
-            field.setAccessible(true);
-            Object val = GoConfigClassLoader.classParser(e, field.getType(), new GoCipher(), registry, configReferenceElements).parseImplicitCollection();
-            setValue(val);
-        } else if (isSubtag(field)) {
-            field.setAccessible(true);
+        ConfigFieldBinding.Kind kind = field.kind();
+        if (kind == ConfigFieldBinding.Kind.IMPLICIT_COLLECTION) {
+            Object val = GoConfigClassLoader.classParser(e, field.type(), new GoCipher(), registry, configReferenceElements).parseImplicitCollection();
+            field.set(instance, val);
+        } else if (kind == ConfigFieldBinding.Kind.SUBTAG) {
             Object val = subtagParser(e, field, registry, configReferenceElements).parse();
-            setValue(val);
-        } else if (isAttribute(field)) {
-            field.setAccessible(true);
-            Object val = attributeParser(e, field).parse(defaultValue());
-            setValue(val);
-        } else if (field.isAnnotationPresent(ConfigValue.class)) {
-            field.setAccessible(true);
+            field.set(instance, val);
+        } else if (kind == ConfigFieldBinding.Kind.ATTRIBUTE) {
+            Object val = attributeParser(e, field).parse(field.get(instance));
+            field.set(instance, val);
+        } else if (kind == ConfigFieldBinding.Kind.VALUE) {
             Object val = e.getText();
-            setValue(val);
-        } else if (field.isAnnotationPresent(ConfigReferenceElement.class)) {
-            field.setAccessible(true);
-            ConfigReferenceElement referenceField = field.getAnnotation(ConfigReferenceElement.class);
+            field.set(instance, val);
+        } else if (kind == ConfigFieldBinding.Kind.REFERENCE) {
+            ConfigReferenceElement referenceField = field.referenceElement();
             Attribute attribute = e.getAttribute(referenceField.referenceAttribute());
             if (attribute == null) {
                 bomb(String.format("Expected attribute `%s` to be present for %s.", referenceField.referenceAttribute(), e.getName()));
             }
             String refId = attribute.getValue();
             Object referredObject = configReferenceElements.get(referenceField.referenceCollection(), refId);
-            setValue(referredObject);
-        }
-    }
-
-    private boolean isImplicitCollection() {
-        return isImplicitCollection.computeIfAbsent(field, f -> f.isAnnotationPresent(ConfigSubtag.class) && GoConfigClassLoader.isImplicitCollection(f.getType()));
-    }
-
-    private void setValue(Object val) {
-        try {
-            ConfigAttributeValue configAttributeValue = field.getType().getAnnotation(ConfigAttributeValue.class);
-            if (configAttributeValue != null) {
-                if (val != null || configAttributeValue.createForNull()) {
-                    Constructor<?> constructor = field.getType().getConstructor(String.class);
-                    field.set(instance, constructor.newInstance((String) val));
-                }
-            } else if (val != null) {
-                field.set(instance, GoConfigFieldTypeConverter.forThread().convertIfNecessary(val, field.getType()));
-            }
-        } catch (IllegalAccessException e) {
-            throw bomb("Error setting configField: " + field.getName(), e);
-        } catch (TypeMismatchException e) {
-            throw bomb(format("Could not set value [{0}] on field [{1}] of type [{2}] ", val, field.getName(), field.getType()), e);
-        } catch (NoSuchMethodException e) {
-            throw bomb("Error setting configField: " + field.getName() + " as " + field.getType(), e);
-        } catch (InstantiationException | InvocationTargetException e) {
-            throw bomb("Error creating configAttribute: " + field.getName() + " as " + field.getType(), e);
-        }
-    }
-
-    private Object defaultValue() {
-        try {
-            return field.get(instance);
-        } catch (IllegalAccessException e) {
-            throw bomb("Error getting configField: " + field.getName(), e);
+            field.set(instance, referredObject);
         }
     }
-
 }
@@ -15,42 +15,26 @@
  */
 package com.thoughtworks.go.config.parser;
 
-import com.thoughtworks.go.config.ConfigInterface;
-import com.thoughtworks.go.config.ConfigSubtag;
 import com.thoughtworks.go.config.ConfigTag;
 import com.thoughtworks.go.config.registry.ConfigElementImplementationRegistry;
 import com.thoughtworks.go.security.GoCipher;
 import com.thoughtworks.go.util.ConfigUtil;
 import org.jdom2.Element;
 
-import java.lang.reflect.Field;
-import java.util.HashMap;
-import java.util.Map;
-
 import static com.thoughtworks.go.util.ExceptionUtils.bomb;
 
 public class GoConfigSubtagLoader {
-    private static final Map<Field, ConfigSubtag> isSubTags = new HashMap<>();
-
     private final Element e;
-    private final Field field;
+    private final ConfigFieldBinding field;
     private final ConfigElementImplementationRegistry registry;
     private final ConfigReferenceElements configReferenceElements;
 
-    public static boolean isSubtag(Field field) {
-        return findSubTag(field) != null;
-    }
-
-    private static ConfigSubtag findSubTag(Field field) {
-        return isSubTags.computeIfAbsent(field, f -> f.getAnnotation(ConfigSubtag.class));
-    }
-
-    public static GoConfigSubtagLoader subtagParser(Element e, Field field, ConfigElementImplementationRegistry registry,
-                                                    ConfigReferenceElements configReferenceElements) {
+    static GoConfigSubtagLoader subtagParser(Element e, ConfigFieldBinding field, ConfigElementImplementationRegistry registry,
+                                             ConfigReferenceElements configReferenceElements) {
         return new GoConfigSubtagLoader(e, field, registry, configReferenceElements);
     }
 
-    private GoConfigSubtagLoader(Element e, Field field, ConfigElementImplementationRegistry registry, ConfigReferenceElements configReferenceElements) {
+    private GoConfigSubtagLoader(Element e, ConfigFieldBinding field, ConfigElementImplementationRegistry registry, ConfigReferenceElements configReferenceElements) {
         this.e = e;
         this.field = field;
         this.registry = registry;
@@ -61,8 +45,8 @@ public class GoConfigSubtagLoader {
         Class<?> type = findTypeOfField();
         if (type == null) { return null; }
 
-        ConfigTag tag = GoConfigClassLoader.configTag(type);
-        if (ConfigUtil.optionalAndMissingTag(e, tag, findSubTag(field).optional())) {
+        ConfigTag tag = ConfigClassBinding.of(type).requiredConfigTag();
+        if (ConfigUtil.optionalAndMissingTag(e, tag, field.subtag().optional())) {
             return null;
         }
 
@@ -70,7 +54,7 @@ public class GoConfigSubtagLoader {
     }
 
     private Class<?> findTypeOfField() {
-        Class<?> type = field.getType();
+        Class<?> type = field.type();
         if (isInterface(type)) {
             for (Element subElement : e.getChildren()) {
                 Class<?> concreteType = findConcreteTypeFrom(subElement, type);
@@ -78,12 +62,12 @@ public class GoConfigSubtagLoader {
                     return concreteType;
                 }
             }
-            boolean optional = field.getAnnotation(ConfigSubtag.class).optional();
+            boolean optional = field.subtag().optional();
             if (optional) { return null; }
             throw bomb("Unable to find a tag of type '" + type.getSimpleName() + "' under element '" + e.getName()
                     + "'");
         }
-        return field.getType();
+        return field.type();
     }
 
     private Class<?> findConcreteTypeFrom(Element element, Class<?> interfaceType) {
@@ -96,7 +80,7 @@ public class GoConfigSubtagLoader {
     }
 
     private boolean isInterface(Class<?> aClass) {
-        return aClass.isAnnotationPresent(ConfigInterface.class);
+        return ConfigClassBinding.of(aClass).isConfigInterface();
     }
 
 }
@@ -32,6 +32,7 @@ import org.eclipse.jgit.errors.MissingObjectException;
 import org.eclipse.jgit.lib.*;
 import org.eclipse.jgit.revwalk.RevCommit;
 import org.eclipse.jgit.revwalk.RevTree;
+import org.eclipse.jgit.revwalk.RevWalk;
 import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
 import org.eclipse.jgit.treewalk.CanonicalTreeParser;
 import org.jetbrains.annotations.NotNull;
@@ -74,6 +75,7 @@ public class ConfigRepository {
     private final File workingDir;
     private final Git git;
     private final Repository gitRepo;
+    private final ConfigRevisionIndex revisionIndex;
 
     @Autowired
     public ConfigRepository(SystemEnvironment systemEnvironment) throws IOException {
@@ -83,6 +85,7 @@ public class ConfigRepository {
         gitRepo = new FileRepositoryBuilder().setGitDir(configRepoDir).build();
         updateWithDefaults(gitRepo.getConfig());
         git = new Git(gitRepo);
+        revisionIndex = new ConfigRevisionIndex(gitRepo, REFS_MASTER);
     }
 
     private void updateWithDefaults(StoredConfig config) {
@@ -132,6 +135,7 @@ public class ConfigRepository {
                     git.commit().setAuthor(rev.getUsername(), COMMIT_EMAIL).setMessage(rev.getComment()).call();
                 }
             });
+            updateRevisionIndex();
         } catch (Exception e) {
             LOGGER.error("[CONFIG SAVE] Check-in failed for {}", rev.toString(), e);
             throw e;
@@ -160,25 +164,57 @@ public class ConfigRepository {
     public RevCommit getRevCommitForMd5(String md5) throws GitAPIException {
         Assert.notNull(md5, "md5 is required");
 
-        final String expectedPart = GoConfigRevision.Fragment.md5.represent(GoConfigRevision.esc(md5));
-        for (RevCommit revision : revisions()) {
-            String message = revision.getFullMessage();
-            if (message.endsWith(expectedPart)) {
+        String escapedMd5 = GoConfigRevision.esc(md5);
+        try {
+            ObjectId commitId = revisionIndex.commitFor(escapedMd5);
+            RevCommit revision = revisionWithMd5(commitId, escapedMd5);
+            if (commitId != null && revision == null) {
+                // the index is only a shortcut, and is not trusted over the repository itself
+                revisionIndex.rebuild();
+                revision = revisionWithMd5(revisionIndex.commitFor(escapedMd5), escapedMd5);
+            }
+            if (revision != null) {
                 return revision;
             }
+        } catch (IOException e) {
+            LOGGER.error("Could not look up config version with md5 '{}' in the config repository found at path '{}'", md5, workingDir.getAbsolutePath(), e);
+            throw new RuntimeException("Error while looking up a config version in the config repository.", e);
         }
         throw new IllegalArgumentException(String.format("There is no config version corresponding to md5: '%s'", md5));
     }
 
+    private RevCommit revisionWithMd5(ObjectId commitId, String escapedMd5) throws IOException {
+        if (commitId == null) {
+            return null;
+        }
+        try (RevWalk walk = new RevWalk(gitRepo)) {
+            RevCommit revision = walk.parseCommit(commitId);
+            return revision.getFullMessage().endsWith(GoConfigRevision.Fragment.md5.represent(escapedMd5)) ? revision : null;
+        } catch (MissingObjectException | IncorrectObjectTypeException e) {
+            return null;
+        }
+    }
+
     RevCommit getRevCommitForCommitSHA(String commitSHA) throws GitAPIException {
-        for (RevCommit revision : revisions()) {
-            if (revision.getName().equals(commitSHA)) {
-                return revision;
+        if (ObjectId.isId(commitSHA)) {
+            try (RevWalk walk = new RevWalk(gitRepo)) {
+                return walk.parseCommit(ObjectId.fromString(commitSHA));
+            } catch (IOException e) {
+                LOGGER.debug("[CONFIG REPOSITORY] Could not find commit {}", commitSHA, e);
             }
         }
         throw new IllegalArgumentException(String.format("There is no commit corresponding to SHA: '%s'", commitSHA));
     }
 
+    private void updateRevisionIndex() {
+        try {
+            revisionIndex.update();
+        } catch (IOException e) {
+            // not fatal, the index catches up on the next lookup
+            LOGGER.warn("[CONFIG REPOSITORY] Could not update the md5 index of the config repository", e);
+        }
+    }
+
     public GoConfigRevision getCurrentRevision() {
         return doLocked(() -> {
             RevCommit revision;
@@ -0,0 +1,191 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.service;
+
+import org.eclipse.jgit.errors.MissingObjectException;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Maps the md5 of each config revision on master to the commit which holds it, so that a revision can be found
+ * without walking, and parsing, the whole history of the config repository.
+ * <p>
+ * The index is kept in a file inside the git directory, one {@code <commit> <md5>} line per commit, oldest first, so
+ * that the last line is the commit the index was brought up to. New commits are appended as they are made; if the file
+ * is missing, unreadable, or no longer describes the history of master (e.g. the repository was restored from a
+ * backup), it is rebuilt from the history the first time it is needed.
+ */
+class ConfigRevisionIndex {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConfigRevisionIndex.class);
+
+    static final String FILE_NAME = "gocd-config-md5-index";
+    private static final String MD5_FRAGMENT = "md5:";
+
+    private final Repository gitRepo;
+    private final String branch;
+    private final Path file;
+    private final Map<String, ObjectId> commitsByMd5 = new HashMap<>();
+    private ObjectId indexedTip;
+    private boolean loaded;
+
+    ConfigRevisionIndex(Repository gitRepo, String branch) {
+        this.gitRepo = gitRepo;
+        this.branch = branch;
+        this.file = new File(gitRepo.getDirectory(), FILE_NAME).toPath();
+    }
+
+    /**
+     * @param escapedMd5 the md5, as it appears in commit messages
+     * @return the most recent commit on the branch for the md5, or null if there is none
+     */
+    synchronized ObjectId commitFor(String escapedMd5) throws IOException {
+        update();
+        return commitsByMd5.get(escapedMd5);
+    }
+
+    /**
+     * Brings the index up to the tip of the branch. Costs nothing more than resolving the branch when the index is
+     * already up-to-date, and only reads the new commits otherwise.
+     */
+    synchronized void update() throws IOException {
+        if (!loaded) {
+            load();
+        }
+        Ref ref = gitRepo.exactRef(branch);
+        ObjectId tip = ref == null ? null : ref.getObjectId();
+        if (tip == null || tip.equals(indexedTip)) {
+            return;
+        }
+        try (RevWalk walk = new RevWalk(gitRepo)) {
+            RevCommit tipCommit = walk.parseCommit(tip);
+            if (indexedTip != null && !isAncestor(walk, indexedTip, tipCommit)) {
+                LOGGER.info("[CONFIG REPOSITORY] The md5 index of the config repository does not match the history of {}, rebuilding it", branch);
+                reset();
+            }
+            walk.reset();
+            walk.markStart(tipCommit);
+            if (indexedTip != null) {
+                walk.markUninteresting(walk.parseCommit(indexedTip));
+            }
+            List<RevCommit> newCommits = new ArrayList<>();
+            for (RevCommit commit : walk) {
+                newCommits.add(commit);
+            }
+            append(newCommits.reversed());
+        }
+    }
+
+    synchronized void rebuild() throws IOException {
+        reset();
+        update();
+    }
+
+    int size() {
+        return commitsByMd5.size();
+    }
+
+    private boolean isAncestor(RevWalk walk, ObjectId ancestor, RevCommit tip) throws IOException {
+        try {
+            return walk.isMergedInto(walk.parseCommit(ancestor), tip);
+        } catch (MissingObjectException e) {
+            return false;
+        }
+    }
+
+    private void load() throws IOException {
+        loaded = true;
+        if (!Files.exists(file)) {
+            return;
+        }
+        try {
+            for (String line : Files.readAllLines(file, UTF_8)) {
+                int separator = line.indexOf(' ');
+                ObjectId commit = ObjectId.fromString(separator < 0 ? line : line.substring(0, separator));
+                if (separator >= 0) {
+                    commitsByMd5.put(line.substring(separator + 1), commit);
+                }
+                indexedTip = commit;
+            }
+        } catch (IllegalArgumentException e) {
+            LOGGER.warn("[CONFIG REPOSITORY] Could not read the md5 index of the config repository at {}, rebuilding it", file, e);
+            reset();
+        }
+    }
+
+    private void reset() throws IOException {
+        commitsByMd5.clear();
+        indexedTip = null;
+        loaded = true;
+        Files.deleteIfExists(file);
+    }
+
+    private void append(List<RevCommit> commits) throws IOException {
+        if (commits.isEmpty()) {
+            return;
+        }
+        // a rebuild is written aside and moved in place, so that a crash does not leave a partial index behind
+        boolean rebuilding = indexedTip == null;
+        Path target = rebuilding ? file.resolveSibling(FILE_NAME + ".tmp") : file;
+        try (BufferedWriter writer = Files.newBufferedWriter(target, UTF_8, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            rebuilding ? StandardOpenOption.TRUNCATE_EXISTING : StandardOpenOption.APPEND)) {
+            for (RevCommit commit : commits) {
+                String md5 = md5Of(commit.getFullMessage());
+                writer.write(commit.getName());
+                if (md5 != null) {
+                    writer.write(' ');
+                    writer.write(md5);
+                    commitsByMd5.put(md5, commit.copy());
+                }
+                writer.newLine();
+                indexedTip = commit.copy();
+            }
+        }
+        if (rebuilding) {
+            Files.move(target, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    /**
+     * @return the md5 at the end of a commit message (as {@code GoConfigRevision} writes it), still escaped
+     */
+    static String md5Of(String message) {
+        int start = message.lastIndexOf(MD5_FRAGMENT);
+        if (start < 0) {
+            return null;
+        }
+        String md5 = message.substring(start + MD5_FRAGMENT.length());
+        return md5.isEmpty() || md5.contains("\n") ? null : md5;
+    }
+}
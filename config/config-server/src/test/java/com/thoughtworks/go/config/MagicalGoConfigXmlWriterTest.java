@@ -97,6 +97,15 @@ public class MagicalGoConfigXmlWriterTest {
         XmlAssert.assertThat(output.toString()).and(xml).normalizeWhitespace().areIdentical();
     }
 
+    @Test
+    public void shouldWriteExactlyTheDocumentBuiltFromTheConfig() throws Exception {
+        CruiseConfig cruiseConfig = ConfigMigrator.loadWithMigration(ConfigFileFixture.TWO_PIPELINES).config;
+
+        xmlWriter.write(cruiseConfig, output, false);
+
+        assertThat(output.toString(UTF_8)).isEqualTo(xmlWriter.toString(xmlWriter.documentFrom(cruiseConfig)));
+    }
+
     @Test
     public void shouldThrowInvalidConfigWhenAttemptedToSaveMergedConfig() {
         String xml = ConfigFileFixture.TWO_PIPELINES;
@@ -0,0 +1,104 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.config.parser;
+
+import com.thoughtworks.go.config.ConfigAttribute;
+import com.thoughtworks.go.config.ConfigSubtag;
+import com.thoughtworks.go.config.ConfigTag;
+import com.thoughtworks.go.config.ConfigValue;
+import com.thoughtworks.go.config.registry.ConfigElementImplementationRegistry;
+import com.thoughtworks.go.security.GoCipher;
+import org.jdom2.Element;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.PostConstruct;
+import java.lang.reflect.Method;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+
+class ConfigClassBindingTest {
+    @Test
+    void shouldBindAClassOnlyOnce() {
+        ConfigClassBinding binding = ConfigClassBinding.of(Parent.class);
+
+        assertThat(ConfigClassBinding.of(Parent.class)).isSameAs(binding);
+    }
+
+    @Test
+    void shouldBindOnlyTheConfigFieldsOfAClass() {
+        ConfigClassBinding binding = ConfigClassBinding.of(Parent.class);
+
+        assertThat(binding.fields())
+            .extracting(ConfigFieldBinding::name, ConfigFieldBinding::kind)
+            .containsExactlyInAnyOrder(
+                tuple("name", ConfigFieldBinding.Kind.ATTRIBUTE),
+                tuple("child", ConfigFieldBinding.Kind.SUBTAG));
+        assertThat(binding.configTag().value()).isEqualTo("parent");
+        assertThat(binding.isConfigCollection()).isFalse();
+    }
+
+    @Test
+    void shouldFindThePostConstructMethodsOfAClass() {
+        assertThat(ConfigClassBinding.of(Parent.class).postConstructMethods())
+            .extracting(Method::getName)
+            .containsExactly("initialize");
+    }
+
+    @Test
+    void shouldParseManyElementsOfTheSameClass() {
+        ConfigElementImplementationRegistry registry = mock(ConfigElementImplementationRegistry.class);
+
+        Parent first = GoConfigClassLoader.classParser(parent("first", "one"), Parent.class, new GoCipher(), registry, new ConfigReferenceElements()).parse();
+        Parent second = GoConfigClassLoader.classParser(parent("second", "two"), Parent.class, new GoCipher(), registry, new ConfigReferenceElements()).parse();
+
+        assertThat(first.name).isEqualTo("first");
+        assertThat(first.child.value).isEqualTo("one");
+        assertThat(first.initialized).isTrue();
+        assertThat(second.name).isEqualTo("second");
+        assertThat(second.child.value).isEqualTo("two");
+        assertThat(second.initialized).isTrue();
+    }
+
+    private static Element parent(String name, String childValue) {
+        return new Element("parent")
+            .setAttribute("name", name)
+            .addContent(new Element("child").setText(childValue));
+    }
+
+    @ConfigTag("parent")
+    public static class Parent {
+        @ConfigAttribute("name")
+        private String name;
+
+        @ConfigSubtag
+        private Child child = new Child();
+
+        private boolean initialized;
+
+        @PostConstruct
+        public void initialize() {
+            initialized = true;
+        }
+    }
+
+    @ConfigTag("child")
+    public static class Child {
+        @ConfigValue
+        private String value;
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.config.parser;
+
+import com.thoughtworks.go.config.BasicCruiseConfig;
+import com.thoughtworks.go.config.CruiseConfig;
+import com.thoughtworks.go.config.registry.ConfigElementImplementationRegistry;
+import com.thoughtworks.go.security.GoCipher;
+import com.thoughtworks.go.util.ConfigElementImplementationRegistryMother;
+import com.thoughtworks.go.util.XmlUtils;
+import org.jdom2.Element;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.function.Supplier;
+
+import static com.thoughtworks.go.util.GoConstants.CONFIG_SCHEMA_VERSION;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Times turning the DOM of a large, synthetic cruise-config.xml into config objects, which is what the server does on
+ * startup and on every full reload of its config. The first parse also binds every config class; later ones only use
+ * the bindings. Run it with {@code -Dconfig.parser.benchmark=true}; the number of pipelines can be set with
+ * {@code -Dconfig.parser.benchmark.pipelines}. The results are logged at INFO level.
+ */
+@EnabledIfSystemProperty(named = "config.parser.benchmark", matches = "true")
+public class GoConfigClassLoaderBenchmarkTest {
+    private static final Logger LOGGER = LoggerFactory.getLogger(GoConfigClassLoaderBenchmarkTest.class);
+    private static final int PARSES = 5;
+
+    @Test
+    void parseALargeConfig() throws Exception {
+        int pipelines = Integer.getInteger("config.parser.benchmark.pipelines", 50_000);
+        String xml = largeConfig(pipelines);
+        Element root = XmlUtils.buildXmlDocument(xml).getRootElement();
+        ConfigElementImplementationRegistry registry = ConfigElementImplementationRegistryMother.withNoPlugins();
+        LOGGER.info(String.format("%-25s %10.1f MB (%d pipelines)", "config", xml.length() / 1e6, pipelines));
+
+        report("first parse", 1, () -> parse(root, registry), pipelines);
+        report("later parses", PARSES, () -> parse(root, registry), pipelines);
+    }
+
+    private CruiseConfig parse(Element root, ConfigElementImplementationRegistry registry) {
+        return GoConfigClassLoader.classParser(root, BasicCruiseConfig.class, new GoCipher(), registry, new ConfigReferenceElements()).parse();
+    }
+
+    private void report(String name, int times, Supplier<CruiseConfig> parse, int pipelines) {
+        long before = System.nanoTime();
+        for (int i = 0; i < times; i++) {
+            assertThat(parse.get().getAllPipelineConfigs()).hasSize(pipelines);
+        }
+        LOGGER.info(String.format("%-25s %10.3f ms per parse", name, (System.nanoTime() - before) / 1e6 / times));
+    }
+
+    private String largeConfig(int pipelines) {
+        StringBuilder xml = new StringBuilder();
+        xml.append("<cruise schemaVersion='").append(CONFIG_SCHEMA_VERSION).append("'>\n");
+        xml.append("<server artifactsdir='artifacts' serverId='benchmark'/>\n");
+        for (int i = 0; i < pipelines; i++) {
+            if (i % 100 == 0) {
+                xml.append(i == 0 ? "" : "</pipelines>\n").append("<pipelines group='group-").append(i / 100).append("'>\n");
+            }
+            xml.append("""
+                <pipeline name='pipeline-%1$d'>
+                  <environmentvariables>
+                    <variable name='PIPELINE'><value>pipeline-%1$d</value></variable>
+                  </environmentvariables>
+                  <materials>
+                    <git url='https://example.com/repo-%1$d.git' branch='main'/>
+                  </materials>
+                  <stage name='build'>
+                    <jobs>
+                      <job name='compile'>
+                        <tasks>
+                          <exec command='make'><arg>all</arg></exec>
+                        </tasks>
+                        <resources><resource>linux</resource></resources>
+                      </job>
+                      <job name='test'>
+                        <tasks>
+                          <exec command='make'><arg>test</arg></exec>
+                        </tasks>
+                      </job>
+                    </jobs>
+                  </stage>
+                </pipeline>
+                """.formatted(i));
+        }
+        xml.append(pipelines == 0 ? "" : "</pipelines>\n").append("</cruise>\n");
+        return xml.toString();
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.service;
+
+import com.thoughtworks.go.domain.GoConfigRevision;
+import com.thoughtworks.go.util.SystemEnvironment;
+import org.eclipse.jgit.lib.CommitBuilder;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.RefUpdate;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.TreeFormatter;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Compares looking up config revisions by md5 through the index with walking the history of the config repository, on
+ * a repository with a long history. Run it with {@code -Dconfig.repo.benchmark=true}; the number of commits can be set
+ * with {@code -Dconfig.repo.benchmark.commits}. The results are logged at INFO level, and the test fails if the index is
+ * not the faster of the two.
+ */
+@EnabledIfSystemProperty(named = "config.repo.benchmark", matches = "true")
+public class ConfigRepositoryBenchmarkTest {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConfigRepositoryBenchmarkTest.class);
+    private static final int LOOKUPS = 20;
+
+    @TempDir
+    File configRepoDir;
+
+    @Test
+    void compareIndexedLookupsWithWalkingTheHistory() throws Exception {
+        int commits = Integer.getInteger("config.repo.benchmark.commits", 100_000);
+        SystemEnvironment systemEnvironment = mock(SystemEnvironment.class);
+        when(systemEnvironment.getConfigRepoDir()).thenReturn(configRepoDir);
+        ConfigRepository configRepo = new ConfigRepository(systemEnvironment);
+        configRepo.initialize();
+        createHistory(configRepo.getGitRepo(), commits);
+        String oldest = "md5-0";
+
+        double walking = report("walking the history", () -> walkHistoryFor(configRepo, oldest));
+        long before = System.nanoTime();
+        configRepo.getRevCommitForMd5(oldest);
+        LOGGER.info(String.format("%-25s %10.3f ms (%d commits)", "building the index", (System.nanoTime() - before) / 1e6, commits));
+        double indexed = report("index", () -> configRepo.getRevCommitForMd5(oldest));
+
+        assertThat(indexed).isLessThan(walking);
+
+        configRepo.getGitRepo().close();
+    }
+
+    private double report(String name, Lookup lookup) throws Exception {
+        long before = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            assertThat(lookup.find().getFullMessage()).endsWith("md5:md5-0");
+        }
+        double millisPerLookup = (System.nanoTime() - before) / 1e6 / LOOKUPS;
+        LOGGER.info(String.format("%-25s %10.3f ms per lookup", name, millisPerLookup));
+        return millisPerLookup;
+    }
+
+    // how revisions were looked up before the index
+    private RevCommit walkHistoryFor(ConfigRepository configRepo, String md5) throws Exception {
+        String expectedPart = GoConfigRevision.Fragment.md5.represent(GoConfigRevision.esc(md5));
+        for (RevCommit revision : configRepo.revisions()) {
+            if (revision.getFullMessage().endsWith(expectedPart)) {
+                return revision;
+            }
+        }
+        throw new IllegalArgumentException(md5);
+    }
+
+    // commits are written directly, as going through checkin for each of them would take too long
+    private void createHistory(Repository repo, int commits) throws IOException {
+        PersonIdent author = new PersonIdent("user", "go-cd-dev@googlegroups.com");
+        ObjectId parent = null;
+        try (ObjectInserter inserter = repo.newObjectInserter()) {
+            for (int i = 0; i < commits; i++) {
+                ObjectId blob = inserter.insert(Constants.OBJ_BLOB, ("<cruise schemaVersion='" + i + "'/>").getBytes(UTF_8));
+                TreeFormatter tree = new TreeFormatter();
+                tree.append("cruise-config.xml", FileMode.REGULAR_FILE, blob);
+                CommitBuilder commit = new CommitBuilder();
+                commit.setTreeId(inserter.insert(tree));
+                commit.setAuthor(author);
+                commit.setCommitter(author);
+                commit.setMessage(String.format("user:user|timestamp:%d|schema_version:139|go_edition:OpenSource|go_version:26.1.0|md5:md5-%d", i, i));
+                if (parent != null) {
+                    commit.setParentId(parent);
+                }
+                parent = inserter.insert(commit);
+            }
+            inserter.flush();
+        }
+        RefUpdate update = repo.updateRef(Constants.R_HEADS + Constants.MASTER);
+        update.setNewObjectId(parent);
+        update.forceUpdate();
+    }
+
+    private interface Lookup {
+        RevCommit find() throws Exception;
+    }
+}
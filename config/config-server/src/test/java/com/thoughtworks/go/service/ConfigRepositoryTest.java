@@ -24,6 +24,7 @@ import com.thoughtworks.go.util.SystemEnvironment;
 import com.thoughtworks.go.util.TimeProvider;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.ListBranchCommand;
+import org.eclipse.jgit.api.ResetCommand;
 import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.errors.ConfigInvalidException;
 import org.eclipse.jgit.lib.ConfigConstants;
@@ -38,11 +39,13 @@ import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.Iterator;
 import java.util.List;
 import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -441,6 +444,78 @@ public class ConfigRepositoryTest {
         assertThat(configRepo.commitCountOnMaster()).isEqualTo(2L);
     }
 
+    @Test
+    public void shouldKeepAnIndexOfRevisionsOnMasterInTheGitDirectory() throws Exception {
+        configRepo.checkin(goConfigRevision("v1", "md5-1"));
+        configRepo.checkin(goConfigRevision("v2", "md5-2"));
+
+        assertThat(configRepo.getRevCommitForMd5("md5-1").getFullMessage()).endsWith("md5:md5-1");
+        List<String> index = Files.readAllLines(indexFile().toPath());
+        assertThat(index).hasSize(2);
+        assertThat(index.get(1)).isEqualTo(configRepo.getCurrentRevCommit().getName() + " md5-2");
+    }
+
+    @Test
+    public void shouldFindTheMostRecentRevisionForAnMd5() throws Exception {
+        configRepo.checkin(goConfigRevision("v1", "md5-1"));
+        configRepo.checkin(goConfigRevision("v2", "md5-2"));
+        configRepo.checkin(goConfigRevision("v1 again", "md5-1"));
+
+        assertThat(configRepo.getRevision("md5-1").getContent()).isEqualTo("v1 again");
+    }
+
+    @Test
+    public void shouldNotFindRevisionsWhichWereOnlyCommittedToOtherBranches() throws Exception {
+        configRepo.checkin(goConfigRevision("v1", "md5-1"));
+        configRepo.createBranch(ConfigRepository.BRANCH_AT_REVISION, configRepo.getCurrentRevCommit());
+        configRepo.checkinToBranch(ConfigRepository.BRANCH_AT_REVISION, goConfigRevision("v2", "md5-2"));
+        configRepo.cleanAndResetToMaster();
+
+        assertThatThrownBy(() -> configRepo.getRevCommitForMd5("md5-2"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("There is no config version corresponding to md5: 'md5-2'");
+    }
+
+    @Test
+    public void shouldRebuildTheIndexWhenItIsMissingOrUnreadable() throws Exception {
+        configRepo.checkin(goConfigRevision("v1", "md5-1"));
+        configRepo.checkin(goConfigRevision("v2", "md5-2"));
+
+        Files.delete(indexFile().toPath());
+        assertThat(reopen().getRevision("md5-1").getContent()).isEqualTo("v1");
+
+        Files.writeString(indexFile().toPath(), "not an index\n");
+        assertThat(reopen().getRevision("md5-2").getContent()).isEqualTo("v2");
+        assertThat(Files.readAllLines(indexFile().toPath())).hasSize(2);
+    }
+
+    @Test
+    public void shouldRebuildTheIndexWhenItDoesNotMatchTheHistoryOfMaster() throws Exception {
+        configRepo.checkin(goConfigRevision("v1", "md5-1"));
+        RevCommit first = configRepo.getCurrentRevCommit();
+        configRepo.checkin(goConfigRevision("v2", "md5-2"));
+        configRepo.getRevCommitForMd5("md5-2");
+
+        configRepoRawGit.reset().setMode(ResetCommand.ResetType.HARD).setRef(first.getName()).call();
+        configRepo.checkin(goConfigRevision("v3", "md5-3"));
+
+        assertThat(configRepo.getRevision("md5-3").getContent()).isEqualTo("v3");
+        assertThatThrownBy(() -> configRepo.getRevCommitForMd5("md5-2")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void shouldFindCommitsBySHA() throws Exception {
+        configRepo.checkin(goConfigRevision("v1", "md5-1"));
+        RevCommit commit = configRepo.getCurrentRevCommit();
+
+        assertThat(configRepo.getRevCommitForCommitSHA(commit.getName())).isEqualTo(commit);
+        assertThatThrownBy(() -> configRepo.getRevCommitForCommitSHA("not-a-sha"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("There is no commit corresponding to SHA: 'not-a-sha'");
+        assertThatThrownBy(() -> configRepo.getRevCommitForCommitSHA(commit.getTree().getName()))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
     @Test
     public void shouldStripTillLastOccurrenceOfGivenString() {
         assertThat(ConfigRepository.stripTillLastOccurrenceOf("HelloWorld@@\\nfoobar\\nquux@@keep_this", "@@")).isEqualTo("keep_this");
@@ -449,6 +524,19 @@ public class ConfigRepositoryTest {
         assertThat(ConfigRepository.stripTillLastOccurrenceOf("", "@@")).isEmpty();
     }
 
+    private File indexFile() {
+        return new File(configRepo.getGitRepo().getDirectory(), ConfigRevisionIndex.FILE_NAME);
+    }
+
+    private ConfigRepository reopen() throws IOException {
+        configRepoRawGit.close();
+        configRepo.getGitRepo().close();
+        configRepo = new ConfigRepository(systemEnvironment);
+        configRepo.initialize();
+        configRepoRawGit = configRepo.git();
+        return configRepo;
+    }
+
     private GoConfigRevision goConfigRevision(String fileContent, String md5) {
         return new GoConfigRevision(fileContent, md5, "user-1", "13.2", new TimeProvider());
     }
@@ -40,4 +40,34 @@ public class XmlUtilsTest {
                 .isInstanceOf(JDOMParseException.class)
                 .hasMessageContaining("Error on line 1: XML document structures must start and end within the same entity");
     }
+
+    @Test
+    public void shouldValidateXmlWithoutBuildingADocument() throws Exception {
+        String xmlContent = "<cruise schemaVersion='" + GoConstants.CONFIG_SCHEMA_VERSION + "'/>";
+        XmlUtils.validateXml(new ByteArrayInputStream(xmlContent.getBytes()), GoConfigSchema.getCurrentSchema());
+    }
+
+    @Test
+    public void shouldReportValidationErrorsAsWhenBuildingAValidatedDocument() {
+        String xmlContent = "<foo name='invalid'/>";
+        assertThatThrownBy(() -> XmlUtils.validateXml(new ByteArrayInputStream(xmlContent.getBytes()), GoConfigSchema.getCurrentSchema()))
+                .isInstanceOf(XsdValidationException.class)
+                .hasMessage("Cannot find the declaration of element 'foo'.");
+    }
+
+    @Test
+    public void shouldReportMalformedXmlAsWhenBuildingAValidatedDocument() {
+        String xmlContent = "<foo name='invalid'";
+        assertThatThrownBy(() -> XmlUtils.validateXml(new ByteArrayInputStream(xmlContent.getBytes()), GoConfigSchema.getCurrentSchema()))
+                .isInstanceOf(JDOMParseException.class)
+                .hasMessageContaining("Error on line 1: XML document structures must start and end within the same entity");
+    }
+
+    @Test
+    public void shouldNotAllowDoctypesWhenValidatingXml() {
+        String xmlContent = "<!DOCTYPE cruise [<!ENTITY x SYSTEM 'file:///etc/passwd'>]><cruise>&x;</cruise>";
+        assertThatThrownBy(() -> XmlUtils.validateXml(new ByteArrayInputStream(xmlContent.getBytes()), GoConfigSchema.getCurrentSchema()))
+                .isInstanceOf(JDOMParseException.class)
+                .hasMessageContaining("DOCTYPE is disallowed");
+    }
 }
@@ -22,6 +22,10 @@ import java.io.File;
 public interface BackupProcessor {
     void backup(File targetDir, DataSource dataSource, DbProperties dbProperties);
 
+    default void backup(File targetDir, DataSource dataSource, DbProperties dbProperties, BackupProgressListener progressListener) {
+        backup(targetDir, dataSource, dbProperties);
+    }
+
     boolean accepts(String url);
 
     default void throwBackupError(String command, int errorCode) {
@@ -54,7 +54,11 @@ public class ConnectionManager {
     }
 
     public void backup(File targetDir) {
-        getBackupProcessor().backup(targetDir, getDataSourceInstance(), getDbProperties());
+        backup(targetDir, BackupProgressListener.NONE);
+    }
+
+    public void backup(File targetDir, BackupProgressListener progressListener) {
+        getBackupProcessor().backup(targetDir, getDataSourceInstance(), getDbProperties(), progressListener);
     }
 
     private BasicDataSource createDataSource() {
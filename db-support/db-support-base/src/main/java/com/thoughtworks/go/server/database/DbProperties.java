@@ -47,6 +47,8 @@ public class DbProperties {
     @NonNull private String extraBackupCommandArgs;
     private Map<String, String> extraBackupEnv;
     private Properties connectionProperties;
+    private boolean h2OnlineBackup;
+    private long backupMaxBytesPerSecond;
 
     public DbProperties initializeFrom(Properties properties, Function<String, String> decrypter) {
         this.url = properties.getProperty("db.url", "");
@@ -56,6 +58,8 @@ public class DbProperties {
         this.maxTotal = Integer.parseInt(properties.getProperty("db.maxActive", "32"));
         this.password = findPassword(properties, decrypter);
         this.extraBackupCommandArgs = properties.getProperty("db.extraBackupCommandArgs", "");
+        this.h2OnlineBackup = Boolean.parseBoolean(properties.getProperty("db.h2.onlineBackup", "false"));
+        this.backupMaxBytesPerSecond = Long.parseLong(properties.getProperty("db.backup.maxBytesPerSecond", "0"));
 
         this.connectionProperties = new Properties();
         this.extraBackupEnv = new HashMap<>();
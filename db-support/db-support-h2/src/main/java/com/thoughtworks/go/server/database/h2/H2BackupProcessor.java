@@ -17,10 +17,12 @@
 package com.thoughtworks.go.server.database.h2;
 
 import com.thoughtworks.go.server.database.BackupProcessor;
+import com.thoughtworks.go.server.database.BackupProgressListener;
 import com.thoughtworks.go.server.database.DbProperties;
 
 import javax.sql.DataSource;
 import java.io.File;
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
@@ -29,13 +31,33 @@ public class H2BackupProcessor implements BackupProcessor {
 
     @Override
     public void backup(File targetDir, DataSource dataSource, DbProperties dbProperties) {
+        backup(targetDir, dataSource, dbProperties, BackupProgressListener.NONE);
+    }
+
+    @Override
+    public void backup(File targetDir, DataSource dataSource, DbProperties dbProperties, BackupProgressListener progressListener) {
+        if (dbProperties != null && dbProperties.h2OnlineBackup()) {
+            backupAsScript(targetDir, dataSource, dbProperties.backupMaxBytesPerSecond(), progressListener);
+            return;
+        }
+        File backupFile = new File(targetDir, "db.zip");
         try (Connection connection = dataSource.getConnection(); PreparedStatement statement = connection.prepareStatement("BACKUP TO ?")) {
-            File backupFile = new File(targetDir, "db.zip");
             statement.setString(1, backupFile.toString());
             statement.execute();
         } catch (SQLException e) {
             throwBackupError("H2db BACKUP TO", e.getErrorCode(), e);
         }
+        progressListener.bytesWritten(backupFile.length());
+    }
+
+    private void backupAsScript(File targetDir, DataSource dataSource, long maxBytesPerSecond, BackupProgressListener progressListener) {
+        try (Connection connection = dataSource.getConnection()) {
+            new H2ScriptBackup(maxBytesPerSecond, progressListener).backup(connection, targetDir);
+        } catch (SQLException e) {
+            throwBackupError("H2db SCRIPT", e.getErrorCode(), e);
+        } catch (IOException e) {
+            throwBackupError("H2db SCRIPT", e);
+        }
     }
 
     @Override
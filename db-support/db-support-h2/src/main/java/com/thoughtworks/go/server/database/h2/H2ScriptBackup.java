@@ -0,0 +1,154 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.database.h2;
+
+import com.thoughtworks.go.server.database.BackupProgressListener;
+
+import java.io.*;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Backs up an H2 database as an SQL script, read from the {@code SCRIPT} command and written out at a limited rate,
+ * instead of copying the whole database file at once as {@code BACKUP TO} does.
+ * <p>
+ * The data is scripted one table at a time ({@code SCRIPT TABLE ...}), so that no single command has to put together
+ * the whole database, and the throttled output catches up between tables. The tables are scripted in one transaction
+ * under snapshot isolation, so they are consistent with each other while other connections carry on reading and
+ * writing. The schema comes from {@code SCRIPT NODATA}: what creates the tables and their indexes goes before the data,
+ * and the other constraints, triggers, rights and comments after it, as in a script of the whole database.
+ * <p>
+ * The zip is laid out as {@code SCRIPT TO ... COMPRESSION ZIP} would, so it can be restored into an empty database
+ * with {@code RUNSCRIPT FROM '<file>' COMPRESSION ZIP}.
+ */
+class H2ScriptBackup {
+    static final String FILE_NAME = "db-script.zip";
+    static final String SCRIPT_ENTRY = "script.sql";
+    private static final int ROWS_PER_CHUNK = 1000;
+    // statements through which SCRIPT restores large objects a part at a time
+    private static final List<String> LOB_STATEMENT_MARKERS = List.of("SYSTEM_LOB_STREAM", "SYSTEM_COMBINE_");
+
+    private final long maxBytesPerSecond;
+    private final BackupProgressListener progressListener;
+
+    H2ScriptBackup(long maxBytesPerSecond, BackupProgressListener progressListener) {
+        this.maxBytesPerSecond = maxBytesPerSecond;
+        this.progressListener = progressListener;
+    }
+
+    void backup(Connection connection, File targetDir) throws SQLException, IOException {
+        boolean autoCommit = connection.getAutoCommit();
+        int isolation = connection.getTransactionIsolation();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET SESSION CHARACTERISTICS AS TRANSACTION ISOLATION LEVEL SNAPSHOT");
+            connection.setAutoCommit(false);
+            statement.setFetchSize(ROWS_PER_CHUNK);
+            try (ZipOutputStream zip = new ZipOutputStream(new ThrottledOutputStream(new BufferedOutputStream(new FileOutputStream(new File(targetDir, FILE_NAME))), maxBytesPerSecond, progressListener))) {
+                zip.putNextEntry(new ZipEntry(SCRIPT_ENTRY));
+                Writer writer = new BufferedWriter(new OutputStreamWriter(zip, UTF_8));
+                List<String> schema = script(statement, "SCRIPT NODATA");
+                int dataGoesAt = firstStatementAfterTheData(schema);
+                write(writer, schema.subList(0, dataGoesAt));
+                for (String table : tables(statement)) {
+                    writeData(statement, table, writer);
+                    // so that the throttled output has caught up with a table before the next one is scripted
+                    writer.flush();
+                }
+                write(writer, schema.subList(dataGoesAt, schema.size()));
+                writer.flush();
+                zip.closeEntry();
+            }
+        } finally {
+            connection.rollback();
+            connection.setAutoCommit(autoCommit);
+            connection.setTransactionIsolation(isolation);
+        }
+    }
+
+    private static List<String> tables(Statement statement) throws SQLException {
+        List<String> tables = new ArrayList<>();
+        try (ResultSet resultSet = statement.executeQuery("SELECT TABLE_SCHEMA, TABLE_NAME FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_TYPE = 'TABLE' ORDER BY TABLE_SCHEMA, TABLE_NAME")) {
+            while (resultSet.next()) {
+                tables.add(quote(resultSet.getString(1)) + "." + quote(resultSet.getString(2)));
+            }
+        }
+        return tables;
+    }
+
+    private static String quote(String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+
+    private static List<String> script(Statement statement, String command) throws SQLException {
+        List<String> lines = new ArrayList<>();
+        try (ResultSet script = statement.executeQuery(command)) {
+            while (script.next()) {
+                lines.add(script.getString(1));
+            }
+        }
+        return lines;
+    }
+
+    // a table's script also holds its schema, which the schema-only script already has, so only its data is kept
+    private static void writeData(Statement statement, String table, Writer writer) throws SQLException, IOException {
+        try (ResultSet script = statement.executeQuery("SCRIPT TABLE " + table)) {
+            while (script.next()) {
+                String line = script.getString(1);
+                if (isData(line)) {
+                    write(writer, line);
+                }
+            }
+        }
+    }
+
+    private static boolean isData(String line) {
+        return line.startsWith("INSERT INTO ") || LOB_STATEMENT_MARKERS.stream().anyMatch(line::contains);
+    }
+
+    /**
+     * SCRIPT creates each table, its primary key and indexes, then adds the other constraints, triggers, rights and
+     * comments once every table is filled: these have to come after the data, as they may check or act on it.
+     */
+    private static int firstStatementAfterTheData(List<String> schema) {
+        for (int i = 0; i < schema.size(); i++) {
+            String line = schema.get(i);
+            boolean constraint = line.startsWith("ALTER TABLE ") && line.contains(" ADD CONSTRAINT ") && !line.contains(" PRIMARY KEY");
+            if (constraint || line.startsWith("CREATE TRIGGER ") || line.startsWith("GRANT ") || line.startsWith("COMMENT ON ")) {
+                return i;
+            }
+        }
+        return schema.size();
+    }
+
+    private static void write(Writer writer, List<String> lines) throws IOException {
+        for (String line : lines) {
+            write(writer, line);
+        }
+    }
+
+    private static void write(Writer writer, String line) throws IOException {
+        writer.write(line);
+        writer.write(";\n");
+    }
+}
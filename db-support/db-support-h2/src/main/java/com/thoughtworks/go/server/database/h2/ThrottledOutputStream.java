@@ -0,0 +1,77 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.database.h2;
+
+import com.thoughtworks.go.server.database.BackupProgressListener;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds back writes so that, on average, no more than the given number of bytes are written per second, and tells
+ * the listener how many bytes have been written so far.
+ */
+class ThrottledOutputStream extends FilterOutputStream {
+    private final long maxBytesPerSecond;
+    private final BackupProgressListener progressListener;
+    private final long startedAt = System.nanoTime();
+    private long bytesWritten;
+
+    /**
+     * @param maxBytesPerSecond the limit, or 0 for no limit
+     */
+    ThrottledOutputStream(OutputStream out, long maxBytesPerSecond, BackupProgressListener progressListener) {
+        super(out);
+        this.maxBytesPerSecond = maxBytesPerSecond;
+        this.progressListener = progressListener;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        written(1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+        written(len);
+    }
+
+    private void written(int bytes) throws IOException {
+        bytesWritten += bytes;
+        progressListener.bytesWritten(bytesWritten);
+        if (maxBytesPerSecond <= 0) {
+            return;
+        }
+        long aheadByNanos = (long) (bytesWritten * 1e9 / maxBytesPerSecond) - (System.nanoTime() - startedAt);
+        if (aheadByNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(aheadByNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while throttling the database backup");
+            }
+        }
+    }
+
+    long bytesWritten() {
+        return bytesWritten;
+    }
+}
@@ -16,13 +16,20 @@
 
 package com.thoughtworks.go.server.database.h2;
 
+import com.thoughtworks.go.server.database.DbProperties;
 import org.apache.commons.dbcp2.BasicDataSource;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
 import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.ZipFile;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -36,15 +43,70 @@ class H2BackupProcessorTest {
         backupDir.mkdirs();
 
         assertThat(backupDir.listFiles()).isNullOrEmpty();
-        try (BasicDataSource ds = new BasicDataSource()) {
-            ds.setDriverClassName(org.h2.Driver.class.getName());
-            ds.setUrl("jdbc:h2:" + new File(originalDir, "test").getAbsoluteFile());
-            ds.setUsername("sa");
-            ds.setPassword("");
-
+        try (BasicDataSource ds = dataSource(new File(originalDir, "test"))) {
             new H2BackupProcessor().backup(backupDir, ds, null);
         }
 
         assertThat(backupDir.listFiles()).containsExactly(new File(backupDir, "db.zip"));
     }
+
+    @Test
+    void shouldTakeAnOnlineBackupAsAScriptWhichCanBeRestored(@TempDir Path tempDir) throws Exception {
+        File backupDir = tempDir.resolve("backupDir").toFile();
+        backupDir.mkdirs();
+        Properties properties = new Properties();
+        properties.setProperty("db.h2.onlineBackup", "true");
+        properties.setProperty("db.backup.maxBytesPerSecond", "1000000");
+        DbProperties dbProperties = new DbProperties().initializeFrom(properties, s -> s);
+        AtomicLong bytesWritten = new AtomicLong();
+
+        try (BasicDataSource ds = dataSource(tempDir.resolve("originalDb/test").toFile());
+             Connection connection = ds.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE pipelines(id INT PRIMARY KEY, name VARCHAR(255))");
+            statement.execute("INSERT INTO pipelines SELECT x, 'pipeline-' || x FROM SYSTEM_RANGE(1, 2500)");
+            statement.execute("CREATE TABLE artifacts(id INT PRIMARY KEY, pipelineId INT, content CLOB)");
+            statement.execute("CREATE INDEX idx_artifacts_pipeline ON artifacts(pipelineId)");
+            statement.execute("ALTER TABLE pipelines ADD COLUMN latestArtifactId INT");
+            statement.execute("INSERT INTO artifacts SELECT x, x, REPEAT('artifact-', 2000) FROM SYSTEM_RANGE(1, 10)");
+            statement.execute("UPDATE pipelines SET latestArtifactId = id WHERE id <= 10");
+            // each table refers to the other, so neither can be filled before its constraint is in place
+            statement.execute("ALTER TABLE artifacts ADD CONSTRAINT fk_artifacts_pipelines FOREIGN KEY (pipelineId) REFERENCES pipelines(id)");
+            statement.execute("ALTER TABLE pipelines ADD CONSTRAINT fk_pipelines_artifacts FOREIGN KEY (latestArtifactId) REFERENCES artifacts(id)");
+
+            new H2BackupProcessor().backup(backupDir, ds, dbProperties, bytesWritten::set);
+        }
+
+        File backupFile = new File(backupDir, H2ScriptBackup.FILE_NAME);
+        assertThat(backupDir.listFiles()).containsExactly(backupFile);
+        assertThat(bytesWritten.get()).isEqualTo(backupFile.length());
+        try (ZipFile zip = new ZipFile(backupFile)) {
+            assertThat(zip.getEntry(H2ScriptBackup.SCRIPT_ENTRY)).isNotNull();
+        }
+
+        try (BasicDataSource ds = dataSource(tempDir.resolve("restoredDb/test").toFile());
+             Connection connection = ds.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("RUNSCRIPT FROM '" + backupFile.getAbsolutePath() + "' COMPRESSION ZIP");
+            try (ResultSet resultSet = statement.executeQuery("SELECT COUNT(*), MAX(name) FROM pipelines")) {
+                resultSet.next();
+                assertThat(resultSet.getInt(1)).isEqualTo(2500);
+                assertThat(resultSet.getString(2)).isEqualTo("pipeline-999");
+            }
+            try (ResultSet resultSet = statement.executeQuery("SELECT COUNT(*), MIN(LENGTH(content)) FROM artifacts JOIN pipelines ON pipelines.latestArtifactId = artifacts.id")) {
+                resultSet.next();
+                assertThat(resultSet.getInt(1)).isEqualTo(10);
+                assertThat(resultSet.getInt(2)).isEqualTo(18000);
+            }
+        }
+    }
+
+    private static BasicDataSource dataSource(File database) {
+        BasicDataSource ds = new BasicDataSource();
+        ds.setDriverClassName(org.h2.Driver.class.getName());
+        ds.setUrl("jdbc:h2:" + database.getAbsoluteFile());
+        ds.setUsername("sa");
+        ds.setPassword("");
+        return ds;
+    }
 }
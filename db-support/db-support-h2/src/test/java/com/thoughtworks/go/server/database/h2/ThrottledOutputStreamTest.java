@@ -0,0 +1,55 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.database.h2;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ThrottledOutputStreamTest {
+
+    @Test
+    void shouldNotWriteFasterThanTheLimit() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long start = System.nanoTime();
+
+        try (ThrottledOutputStream throttled = new ThrottledOutputStream(out, 10_000, bytes -> {})) {
+            for (int i = 0; i < 4; i++) {
+                throttled.write(new byte[1000]);
+            }
+        }
+
+        assertThat(out.size()).isEqualTo(4000);
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(400_000_000L);
+    }
+
+    @Test
+    void shouldReportTheBytesWrittenSoFar() throws IOException {
+        List<Long> progress = new ArrayList<>();
+
+        try (ThrottledOutputStream throttled = new ThrottledOutputStream(new ByteArrayOutputStream(), 0, progress::add)) {
+            throttled.write(new byte[10]);
+            throttled.write(1);
+        }
+
+        assertThat(progress).containsExactly(10L, 11L);
+    }
+}
@@ -23,10 +23,12 @@ import com.thoughtworks.go.domain.MaterialInstance;
 import com.thoughtworks.go.domain.materials.*;
 import com.thoughtworks.go.domain.materials.git.GitCommand;
 import com.thoughtworks.go.domain.materials.git.GitMaterialInstance;
+import com.thoughtworks.go.domain.materials.git.GitReferenceRepositoryCache;
 import com.thoughtworks.go.domain.materials.git.GitVersion;
 import com.thoughtworks.go.domain.materials.svn.MaterialUrl;
 import com.thoughtworks.go.server.transaction.TransactionSynchronizationManager;
 import com.thoughtworks.go.util.GoConstants;
+import com.thoughtworks.go.util.SystemEnvironment;
 import com.thoughtworks.go.util.command.*;
 import org.apache.commons.io.FileUtils;
 import org.apache.http.client.utils.URIBuilder;
@@ -390,13 +392,22 @@ public class GitMaterial extends ScmMaterial implements PasswordAwareMaterial {
             if (executionContext.isServer()) {
                 returnValue = gitCommand.cloneWithNoCheckout(outputStreamConsumer, urlForCommandLine());
             } else {
-                returnValue = gitCommand.clone(outputStreamConsumer, urlForCommandLine(), cloneDepth);
+                returnValue = cloneOnAgent(gitCommand, outputStreamConsumer, cloneDepth);
             }
             bombUnless(returnValue == 0, "Failed to run git clone command");
         }
         return gitCommand;
     }
 
+    private int cloneOnAgent(GitCommand gitCommand, ConsoleOutputStreamConsumer outputStreamConsumer, int cloneDepth) {
+        Optional<GitReferenceRepositoryCache> cache = GitReferenceRepositoryCache.forAgent(new SystemEnvironment());
+        if (cache.isEmpty() || cloneDepth < Integer.MAX_VALUE) {
+            return gitCommand.clone(outputStreamConsumer, urlForCommandLine(), cloneDepth);
+        }
+        return cache.get().cloneUsingReference(urlForCommandLine(), outputStreamConsumer,
+            referenceRepository -> gitCommand.clone(outputStreamConsumer, urlForCommandLine(), cloneDepth, referenceRepository));
+    }
+
     private List<SecretRedactor> secrets() {
         return List.of(redactable -> redactable.next(redactable.value().replace(urlForCommandLine(), getUriForDisplay())));
     }
@@ -137,9 +137,16 @@ public class GitCommand extends SCMCommand {
     // Clone repository from url with specified depth.
     // Special depth 2147483647 (Integer.MAX_VALUE) are treated as full clone
     public int clone(ConsoleOutputStreamConsumer outputStreamConsumer, String url, int depth) {
+        return clone(outputStreamConsumer, url, depth, null);
+    }
+
+    // Same as above, but borrows objects from a local reference repository (if usable) to avoid fetching them over the
+    // network. The clone is dissociated from the reference afterwards, so the reference can be deleted at any time.
+    public int clone(ConsoleOutputStreamConsumer outputStreamConsumer, String url, int depth, File referenceRepository) {
         CommandLine gitClone = cloneCommand()
             .when(!hasRefSpec(), git -> git.withArgs("--branch", branch))
             .when(depth < Integer.MAX_VALUE, git -> git.withArg(format("--depth=%s", depth)))
+            .when(referenceRepository != null, git -> git.withArgs("--reference-if-able", referenceRepository.getAbsolutePath(), "--dissociate"))
             .withArg(new UrlArgument(url)).withArg(workingDir.getAbsolutePath());
 
         if (!hasRefSpec()) {
@@ -154,6 +161,19 @@ public class GitCommand extends SCMCommand {
         );
     }
 
+    public int initReferenceRepository(ConsoleOutputStreamConsumer outputStreamConsumer) {
+        return run(git().withArgs("init", "--bare", "--quiet", workingDir.getAbsolutePath()), outputStreamConsumer);
+    }
+
+    // The url is passed on every fetch rather than stored as a remote, so that credentials never end up in the
+    // reference repository's config.
+    public int fetchIntoReferenceRepository(ConsoleOutputStreamConsumer outputStreamConsumer, String url) {
+        CommandLine gitFetch = git_C().withArgs("fetch", "--prune", "--quiet")
+            .withArg(new UrlArgument(url))
+            .withArgs("+refs/heads/*:refs/heads/*", "+refs/tags/*:refs/tags/*");
+        return run(gitFetch, outputStreamConsumer);
+    }
+
     public List<Modification> latestModification() {
         return gitLog("-1", "--date=iso-strict", "--no-decorate", "--pretty=medium", "--no-color", remoteBranch());
 
@@ -0,0 +1,329 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.domain.materials.git;
+
+import com.thoughtworks.go.util.GoConstants;
+import com.thoughtworks.go.util.SystemEnvironment;
+import com.thoughtworks.go.util.command.ConsoleOutputStreamConsumer;
+import com.thoughtworks.go.util.command.UrlArgument;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.lang.String.format;
+
+/**
+ * An agent-wide cache of bare git repositories, one per (normalized) repository url, which is used as a
+ * {@code --reference} when cloning a git material into a pipeline sandbox. Objects already present in the cache are
+ * not fetched over the network again, no matter how many pipelines on the agent build from the same repository.
+ * <p>
+ * Updating a cached repository, or evicting it, takes an exclusive in-process lock and file lock on it; cloning from it
+ * only takes shared ones, so concurrent jobs (or agents sharing the cache folder) clone from the same repository side
+ * by side, but never while it is being updated or evicted. A repository in use is not updated, as a clone fetches
+ * whatever it lacks anyway. When the cache grows beyond its size limit, the least recently used repositories are
+ * deleted.
+ */
+public class GitReferenceRepositoryCache {
+    private static final Logger LOG = LoggerFactory.getLogger(GitReferenceRepositoryCache.class);
+    // walked when first seen and after each update of the repository, rather than every time the cache is used
+    private static final Map<File, Long> SIZES = new ConcurrentHashMap<>();
+    private static final String LAST_USED_MARKER = "gocd-last-used";
+    private static final Pattern URL_WITH_SCHEME = Pattern.compile("^([a-zA-Z][a-zA-Z0-9+.-]*://)([^/]*)(.*)$");
+    private static final Pattern SCP_LIKE_URL = Pattern.compile("^([^/@:]+@)?([^/:]+):(.*)$");
+
+    private final File cacheDir;
+    private final long maxSizeInBytes;
+
+    public GitReferenceRepositoryCache(File cacheDir, long maxSizeInBytes) {
+        this.cacheDir = cacheDir;
+        this.maxSizeInBytes = maxSizeInBytes;
+    }
+
+    /**
+     * @return the cache configured for this agent, or empty if the cache is not enabled
+     */
+    public static Optional<GitReferenceRepositoryCache> forAgent(SystemEnvironment systemEnvironment) {
+        String dir = systemEnvironment.getAgentGitReferenceCacheDir();
+        if (dir == null || dir.isBlank()) {
+            return Optional.empty();
+        }
+        return Optional.of(new GitReferenceRepositoryCache(new File(dir), systemEnvironment.getAgentGitReferenceCacheMaxSizeInMb() * FileUtils.ONE_MB));
+    }
+
+    /**
+     * Brings the reference repository for this url up to date ahead of a clone, e.g. while the agent is still busy
+     * with the job before.
+     */
+    public void warm(String url, ConsoleOutputStreamConsumer outputStreamConsumer) {
+        cloneUsingReference(url, outputStreamConsumer, referenceRepository -> 0);
+    }
+
+    public int cloneUsingReference(String url, ConsoleOutputStreamConsumer outputStreamConsumer, Function<File, Integer> clone) {
+        String key = keyFor(url);
+        File referenceRepository = new File(cacheDir, key);
+        RepositoryLock lock = RepositoryLock.acquire(referenceRepository);
+        try {
+            boolean usable = true;
+            // a clone fetches whatever the reference repository lacks by itself, so rather than wait for the clones
+            // already reading from the repository to finish, it is only updated when nobody else is using it
+            if (lock.exclusive().tryLock()) {
+                try {
+                    usable = updateIfUnused(key, referenceRepository, url, outputStreamConsumer);
+                    // taken before the exclusive lock is let go, so that no other thread gets to evict it in between
+                    lock.shared().lock();
+                } finally {
+                    lock.exclusive().unlock();
+                }
+            } else {
+                lock.shared().lock();
+            }
+            try {
+                evictIfRequired(key);
+                boolean shared = usable && lock.shareFileLock(() -> lockFileChannel(key));
+                try {
+                    // another agent sharing the cache folder could have evicted it before the shared file lock was taken
+                    boolean stillThere = shared && new File(referenceRepository, "HEAD").exists();
+                    return clone.apply(stillThere ? referenceRepository : null);
+                } finally {
+                    if (shared) {
+                        lock.unshareFileLock();
+                    }
+                }
+            } finally {
+                lock.shared().unlock();
+            }
+        } finally {
+            RepositoryLock.release(referenceRepository);
+        }
+    }
+
+    private boolean updateIfUnused(String key, File referenceRepository, String url, ConsoleOutputStreamConsumer outputStreamConsumer) {
+        try (FileChannel channel = lockFileChannel(key); FileLock fileLock = channel.tryLock()) {
+            if (fileLock == null) {
+                // used by another agent sharing the cache folder
+                return true;
+            }
+            boolean usable = refresh(referenceRepository, url, outputStreamConsumer);
+            if (referenceRepository.isDirectory()) {
+                SIZES.put(referenceRepository.getAbsoluteFile(), FileUtils.sizeOfDirectory(referenceRepository));
+            }
+            return usable;
+        } catch (IOException e) {
+            LOG.warn("Unable to lock git reference repository {}, cloning without it", referenceRepository, e);
+            return false;
+        }
+    }
+
+    private boolean refresh(File referenceRepository, String url, ConsoleOutputStreamConsumer outputStreamConsumer) {
+        GitCommand git = new GitCommand(null, referenceRepository, null, false, null);
+        try {
+            if (!new File(referenceRepository, "HEAD").exists()) {
+                FileUtils.deleteQuietly(referenceRepository);
+                if (git.initReferenceRepository(outputStreamConsumer) != 0) {
+                    return false;
+                }
+            }
+            outputStreamConsumer.stdOutput(format("[%s] Updating agent git cache for %s", GoConstants.PRODUCT_NAME, new UrlArgument(url).forDisplay()));
+            if (git.fetchIntoReferenceRepository(outputStreamConsumer, url) != 0) {
+                LOG.warn("Failed to update git reference repository {}", referenceRepository);
+            }
+            FileUtils.touch(new File(referenceRepository, LAST_USED_MARKER));
+            return true;
+        } catch (Exception e) {
+            LOG.warn("Failed to update git reference repository {}, cloning without it", referenceRepository, e);
+            return false;
+        }
+    }
+
+    void evictIfRequired(String justUsedKey) {
+        File[] repositories = cacheDir.listFiles(File::isDirectory);
+        if (repositories == null) {
+            return;
+        }
+        Set<File> present = new HashSet<>();
+        long totalSize = 0;
+        for (File repository : repositories) {
+            present.add(repository.getAbsoluteFile());
+            totalSize += sizeOf(repository);
+        }
+        // forget the repositories which another agent sharing the cache folder evicted
+        File absoluteCacheDir = cacheDir.getAbsoluteFile();
+        SIZES.keySet().removeIf(repository -> repository.getParentFile().equals(absoluteCacheDir) && !present.contains(repository));
+        if (totalSize <= maxSizeInBytes) {
+            return;
+        }
+
+        List<File> leastRecentlyUsedFirst = new ArrayList<>(Arrays.asList(repositories));
+        leastRecentlyUsedFirst.sort(Comparator.comparingLong(repository -> new File(repository, LAST_USED_MARKER).lastModified()));
+        for (File repository : leastRecentlyUsedFirst) {
+            if (totalSize <= maxSizeInBytes) {
+                break;
+            }
+            String key = repository.getName();
+            if (key.equals(justUsedKey)) {
+                continue;
+            }
+            long size = sizeOf(repository);
+            if (deleteIfUnused(key, repository)) {
+                LOG.info("Evicted git reference repository {} to keep the cache under {} bytes", repository, maxSizeInBytes);
+                totalSize -= size;
+            }
+        }
+    }
+
+    private static long sizeOf(File repository) {
+        return SIZES.computeIfAbsent(repository.getAbsoluteFile(), FileUtils::sizeOfDirectory);
+    }
+
+    private boolean deleteIfUnused(String key, File repository) {
+        RepositoryLock lock = RepositoryLock.acquire(repository);
+        try {
+            if (!lock.exclusive().tryLock()) {
+                return false;
+            }
+            try (FileChannel channel = lockFileChannel(key); FileLock fileLock = channel.tryLock()) {
+                if (fileLock == null) {
+                    return false;
+                }
+                FileUtils.deleteDirectory(repository);
+                SIZES.remove(repository.getAbsoluteFile());
+                return true;
+            } catch (IOException e) {
+                LOG.warn("Unable to delete git reference repository {}", repository, e);
+                return false;
+            } finally {
+                lock.exclusive().unlock();
+            }
+        } finally {
+            RepositoryLock.release(repository);
+        }
+    }
+
+    private FileChannel lockFileChannel(String key) throws IOException {
+        FileUtils.forceMkdir(cacheDir);
+        // shared locks need a channel open for reading
+        return FileChannel.open(new File(cacheDir, key + ".lock").toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    static String keyFor(String url) {
+        String normalized = lowerCaseSchemeAndHost(new UrlArgument(url).withoutCredentials().trim());
+        while (normalized.endsWith("/")) {
+            normalized = normalized.substring(0, normalized.length() - 1);
+        }
+        if (normalized.endsWith(".git")) {
+            normalized = normalized.substring(0, normalized.length() - ".git".length());
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(normalized.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // Only the scheme and host are case-insensitive; repository paths are case-sensitive on most git servers.
+    private static String lowerCaseSchemeAndHost(String url) {
+        Matcher withScheme = URL_WITH_SCHEME.matcher(url);
+        if (withScheme.matches()) {
+            return withScheme.group(1).toLowerCase(Locale.ROOT) + withScheme.group(2).toLowerCase(Locale.ROOT) + withScheme.group(3);
+        }
+        Matcher scpLike = SCP_LIKE_URL.matcher(url);
+        if (scpLike.matches()) {
+            return Objects.toString(scpLike.group(1), "") + scpLike.group(2).toLowerCase(Locale.ROOT) + ":" + scpLike.group(3);
+        }
+        return url;
+    }
+
+    private interface LockFileOpener {
+        FileChannel open() throws IOException;
+    }
+
+    /**
+     * Guards one cached repository within this JVM. As the JVM does not allow two locks on the same file at once, the
+     * clones in it share the one shared file lock, which is let go once the last of them is done. Instances are only
+     * kept while some thread uses them.
+     */
+    private static final class RepositoryLock {
+        private static final Map<File, RepositoryLock> LOCKS = new ConcurrentHashMap<>();
+
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private int users;
+        private int sharers;
+        private FileChannel sharedChannel;
+
+        static RepositoryLock acquire(File repository) {
+            return LOCKS.compute(repository.getAbsoluteFile(), (k, existing) -> {
+                RepositoryLock lock = existing == null ? new RepositoryLock() : existing;
+                lock.users++;
+                return lock;
+            });
+        }
+
+        static void release(File repository) {
+            LOCKS.computeIfPresent(repository.getAbsoluteFile(), (k, lock) -> --lock.users == 0 ? null : lock);
+        }
+
+        Lock exclusive() {
+            return lock.writeLock();
+        }
+
+        Lock shared() {
+            return lock.readLock();
+        }
+
+        synchronized boolean shareFileLock(LockFileOpener opener) {
+            if (sharers == 0) {
+                FileChannel channel = null;
+                try {
+                    channel = opener.open();
+                    channel.lock(0, Long.MAX_VALUE, true);
+                } catch (IOException | RuntimeException e) {
+                    IOUtils.closeQuietly(channel);
+                    LOG.warn("Unable to lock git reference repository, cloning without it", e);
+                    return false;
+                }
+                sharedChannel = channel;
+            }
+            sharers++;
+            return true;
+        }
+
+        synchronized void unshareFileLock() {
+            if (--sharers == 0) {
+                // closing the channel releases the file lock
+                IOUtils.closeQuietly(sharedChannel);
+                sharedChannel = null;
+            }
+        }
+    }
+}
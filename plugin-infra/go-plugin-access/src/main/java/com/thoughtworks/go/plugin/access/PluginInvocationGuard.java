@@ -0,0 +1,184 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.plugin.access;
+
+import com.thoughtworks.go.util.Clock;
+import com.thoughtworks.go.util.NamedDaemonThreadFactory;
+import com.thoughtworks.go.util.SystemEnvironment;
+import com.thoughtworks.go.util.SystemTimeClock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.lang.String.format;
+
+/**
+ * Keeps a plugin which is slow or failing from tying up the threads which call it. For each plugin, it
+ * <ul>
+ * <li>limits how many requests can be in flight at once, making further callers wait for a while, and then giving up;</li>
+ * <li>gives up waiting for an answer after a deadline, which can be configured per request name;</li>
+ * <li>stops sending requests for a while after a number of consecutive failures, then lets one request through to
+ * find out whether the plugin has recovered.</li>
+ * </ul>
+ * Requests with no deadline run on the caller's thread. Those with a deadline run on a separate thread, which keeps
+ * its slot in the plugin's concurrency limit until the plugin finally answers.
+ */
+public class PluginInvocationGuard {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PluginInvocationGuard.class);
+    private static final ExecutorService DEADLINE_EXECUTOR = Executors.newCachedThreadPool(new NamedDaemonThreadFactory("plugin-request"));
+
+    private final String extensionName;
+    private final SystemEnvironment systemEnvironment;
+    private final PluginRequestMetrics metrics;
+    private final Clock clock;
+    private final ConcurrentMap<String, Semaphore> bulkheads = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+    public PluginInvocationGuard(String extensionName) {
+        this(extensionName, new SystemEnvironment(), PluginRequestMetrics.instance(), new SystemTimeClock());
+    }
+
+    PluginInvocationGuard(String extensionName, SystemEnvironment systemEnvironment, PluginRequestMetrics metrics, Clock clock) {
+        this.extensionName = extensionName;
+        this.systemEnvironment = systemEnvironment;
+        this.metrics = metrics;
+        this.clock = clock;
+    }
+
+    public <T> T invoke(String pluginId, String requestName, Callable<T> request) throws Exception {
+        CircuitBreaker circuitBreaker = circuitBreakers.computeIfAbsent(pluginId, id -> new CircuitBreaker());
+        if (!circuitBreaker.allowRequest(clock.currentTimeMillis())) {
+            metrics.recordRejected(pluginId, requestName);
+            throw new PluginRequestRejectedException(format("Not sending '%s' to plugin '%s' implementing '%s' extension, since it has been failing. Will try again shortly.", requestName, pluginId, extensionName));
+        }
+
+        Semaphore bulkhead = bulkheadFor(pluginId);
+        if (bulkhead != null && !bulkhead.tryAcquire(systemEnvironment.getPluginBulkheadWaitInMillis(), TimeUnit.MILLISECONDS)) {
+            circuitBreaker.abandon();
+            metrics.recordRejected(pluginId, requestName);
+            throw new PluginRequestRejectedException(format("Not sending '%s' to plugin '%s' implementing '%s' extension, since it is busy with %s other requests.", requestName, pluginId, extensionName, systemEnvironment.getPluginMaxConcurrentRequests()));
+        }
+
+        long timeout = systemEnvironment.getPluginRequestTimeoutInMillis(requestName);
+        long startedAt = System.nanoTime();
+        boolean failed = true;
+        try {
+            T response = timeout > 0 ? invokeWithDeadline(pluginId, requestName, request, bulkhead, timeout) : request.call();
+            failed = false;
+            return response;
+        } finally {
+            metrics.recordCompleted(pluginId, requestName, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt), failed);
+            if (failed) {
+                if (circuitBreaker.recordFailure(clock.currentTimeMillis(), systemEnvironment.getPluginCircuitBreakerFailureThreshold(), systemEnvironment.getPluginCircuitBreakerOpenInMillis())) {
+                    LOGGER.warn("Plugin '{}' implementing '{}' extension has failed {} times in a row. No requests will be sent to it for {} ms.", pluginId, extensionName, systemEnvironment.getPluginCircuitBreakerFailureThreshold(), systemEnvironment.getPluginCircuitBreakerOpenInMillis());
+                }
+            } else {
+                circuitBreaker.recordSuccess();
+            }
+            if (bulkhead != null && timeout <= 0) {
+                bulkhead.release();
+            }
+        }
+    }
+
+    private <T> T invokeWithDeadline(String pluginId, String requestName, Callable<T> request, Semaphore bulkhead, long timeout) throws Exception {
+        AtomicBoolean started = new AtomicBoolean();
+        Future<T> future = DEADLINE_EXECUTOR.submit(() -> {
+            if (!started.compareAndSet(false, true)) {
+                return null;
+            }
+            try {
+                return request.call();
+            } finally {
+                if (bulkhead != null) {
+                    bulkhead.release();
+                }
+            }
+        });
+
+        try {
+            return future.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            // the slot is only given back here if the request never started; otherwise it is held until the plugin answers
+            if (started.compareAndSet(false, true) && bulkhead != null) {
+                bulkhead.release();
+            }
+            metrics.recordTimedOut(pluginId, requestName);
+            throw new PluginRequestTimeoutException(format("Plugin '%s' implementing '%s' extension did not answer '%s' within %s ms.", pluginId, extensionName, requestName, timeout));
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw (Error) e.getCause();
+        }
+    }
+
+    private Semaphore bulkheadFor(String pluginId) {
+        int maxConcurrentRequests = systemEnvironment.getPluginMaxConcurrentRequests();
+        if (maxConcurrentRequests <= 0) {
+            return null;
+        }
+        return bulkheads.computeIfAbsent(pluginId, id -> new Semaphore(maxConcurrentRequests, true));
+    }
+
+    private static class CircuitBreaker {
+        private int consecutiveFailures;
+        private long openUntil;
+        private boolean trialInFlight;
+
+        synchronized boolean allowRequest(long now) {
+            if (openUntil == 0) {
+                return true;
+            }
+            if (now < openUntil || trialInFlight) {
+                return false;
+            }
+            trialInFlight = true;
+            return true;
+        }
+
+        synchronized void abandon() {
+            trialInFlight = false;
+        }
+
+        synchronized void recordSuccess() {
+            consecutiveFailures = 0;
+            openUntil = 0;
+            trialInFlight = false;
+        }
+
+        /**
+         * @return true if the circuit was opened by this failure
+         */
+        synchronized boolean recordFailure(long now, int threshold, long openForMillis) {
+            boolean wasTrial = trialInFlight;
+            trialInFlight = false;
+            consecutiveFailures++;
+            if (threshold <= 0 || (consecutiveFailures < threshold && !wasTrial)) {
+                return false;
+            }
+            openUntil = now + openForMillis;
+            return !wasTrial;
+        }
+    }
+}
@@ -29,11 +29,17 @@ public class PluginRequestHelper {
     private final PluginManager pluginManager;
     private final List<String> goSupportedVersions;
     private final String extensionName;
+    private final PluginInvocationGuard invocationGuard;
 
     public PluginRequestHelper(PluginManager pluginManager, List<String> goSupportedVersions, String extensionName) {
+        this(pluginManager, goSupportedVersions, extensionName, new PluginInvocationGuard(extensionName));
+    }
+
+    PluginRequestHelper(PluginManager pluginManager, List<String> goSupportedVersions, String extensionName, PluginInvocationGuard invocationGuard) {
         this.pluginManager = pluginManager;
         this.goSupportedVersions = goSupportedVersions;
         this.extensionName = extensionName;
+        this.invocationGuard = invocationGuard;
     }
 
     public <T> T submitRequest(String pluginId, String requestName, PluginInteractionCallback<T> pluginInteractionCallback) {
@@ -46,7 +52,7 @@ public class PluginRequestHelper {
             apiRequest.setRequestBody(pluginInteractionCallback.requestBody(resolvedExtensionVersion));
             apiRequest.setRequestParams(pluginInteractionCallback.requestParams(resolvedExtensionVersion));
             apiRequest.setRequestHeaders(pluginInteractionCallback.requestHeaders(resolvedExtensionVersion));
-            GoPluginApiResponse response = pluginManager.submitTo(pluginId, extensionName, apiRequest);
+            GoPluginApiResponse response = invocationGuard.invoke(pluginId, requestName, () -> pluginManager.submitTo(pluginId, extensionName, apiRequest));
             if (response == null) {
                 throw new RuntimeException("The plugin sent a null response");
             }
@@ -0,0 +1,121 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.plugin.access;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * How long plugins take to answer each kind of request, and how often their requests fail, time out or are turned away.
+ * Kept for the lifetime of the process, across all extensions.
+ */
+public class PluginRequestMetrics {
+    private static final PluginRequestMetrics INSTANCE = new PluginRequestMetrics();
+    static final long[] BUCKETS_IN_MILLIS = {10, 50, 100, 500, 1000, 5000, 30_000};
+
+    private final ConcurrentMap<String, ConcurrentMap<String, RequestStats>> statsByPlugin = new ConcurrentHashMap<>();
+
+    PluginRequestMetrics() {
+    }
+
+    public static PluginRequestMetrics instance() {
+        return INSTANCE;
+    }
+
+    void recordCompleted(String pluginId, String requestName, long durationInMillis, boolean failed) {
+        RequestStats stats = statsFor(pluginId, requestName);
+        stats.observe(durationInMillis);
+        if (failed) {
+            stats.failures.increment();
+        }
+    }
+
+    void recordTimedOut(String pluginId, String requestName) {
+        statsFor(pluginId, requestName).timeouts.increment();
+    }
+
+    void recordRejected(String pluginId, String requestName) {
+        statsFor(pluginId, requestName).rejections.increment();
+    }
+
+    /**
+     * @return for each plugin, for each request name, the counts and the latency histogram of requests
+     */
+    public Map<String, Map<String, Map<String, Object>>> snapshot() {
+        Map<String, Map<String, Map<String, Object>>> snapshot = new TreeMap<>();
+        statsByPlugin.forEach((pluginId, statsByRequest) -> {
+            Map<String, Map<String, Object>> requests = new TreeMap<>();
+            statsByRequest.forEach((requestName, stats) -> requests.put(requestName, stats.snapshot()));
+            snapshot.put(pluginId, requests);
+        });
+        return snapshot;
+    }
+
+    private RequestStats statsFor(String pluginId, String requestName) {
+        return statsByPlugin.computeIfAbsent(pluginId, id -> new ConcurrentHashMap<>()).computeIfAbsent(requestName, name -> new RequestStats());
+    }
+
+    private static class RequestStats {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+        private final LongAdder rejections = new LongAdder();
+        private final LongAdder totalMillis = new LongAdder();
+        private final LongAccumulator maxMillis = new LongAccumulator(Math::max, 0);
+        private final LongAdder[] buckets = new LongAdder[BUCKETS_IN_MILLIS.length + 1];
+
+        RequestStats() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void observe(long durationInMillis) {
+            int bucket = 0;
+            while (bucket < BUCKETS_IN_MILLIS.length && durationInMillis > BUCKETS_IN_MILLIS[bucket]) {
+                bucket++;
+            }
+            buckets[bucket].increment();
+            count.increment();
+            totalMillis.add(durationInMillis);
+            maxMillis.accumulate(durationInMillis);
+        }
+
+        Map<String, Object> snapshot() {
+            Map<String, Object> snapshot = new LinkedHashMap<>();
+            long requests = count.sum();
+            snapshot.put("Requests", requests);
+            snapshot.put("Failures", failures.sum());
+            snapshot.put("Timeouts", timeouts.sum());
+            snapshot.put("Rejections", rejections.sum());
+            snapshot.put("Average (ms)", requests == 0 ? 0 : totalMillis.sum() / requests);
+            snapshot.put("Max (ms)", maxMillis.get());
+
+            Map<String, Long> histogram = new LinkedHashMap<>();
+            for (int i = 0; i < BUCKETS_IN_MILLIS.length; i++) {
+                histogram.put("<= " + BUCKETS_IN_MILLIS[i] + "ms", buckets[i].sum());
+            }
+            histogram.put("> " + BUCKETS_IN_MILLIS[BUCKETS_IN_MILLIS.length - 1] + "ms", buckets[BUCKETS_IN_MILLIS.length].sum());
+            snapshot.put("Latency", histogram);
+            return snapshot;
+        }
+    }
+}
@@ -16,11 +16,11 @@
 package com.thoughtworks.go.plugin.access.common;
 
 import com.thoughtworks.go.plugin.domain.common.PluginInfo;
-import com.thoughtworks.go.plugin.infra.PluginChangeListener;
 import com.thoughtworks.go.plugin.infra.PluginManager;
+import com.thoughtworks.go.plugin.infra.PluginMetadataChangeListener;
 import com.thoughtworks.go.plugin.infra.plugininfo.GoPluginDescriptor;
 
-public abstract class MetadataLoader<T extends PluginInfo> implements PluginChangeListener {
+public abstract class MetadataLoader<T extends PluginInfo> implements PluginMetadataChangeListener {
     private final PluginInfoBuilder<T> builder;
     protected final MetadataStore<T> metadataStore;
     protected final AbstractExtension extension;
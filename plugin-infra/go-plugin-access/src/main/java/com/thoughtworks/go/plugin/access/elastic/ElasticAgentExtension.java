@@ -21,6 +21,7 @@ import com.thoughtworks.go.plugin.access.ExtensionsRegistry;
 import com.thoughtworks.go.plugin.access.PluginRequestHelper;
 import com.thoughtworks.go.plugin.access.common.AbstractExtension;
 import com.thoughtworks.go.plugin.access.common.settings.PluginSettingsJsonMessageHandler1_0;
+import com.thoughtworks.go.plugin.access.elastic.models.AgentCreationRequest;
 import com.thoughtworks.go.plugin.access.elastic.models.AgentMetadata;
 import com.thoughtworks.go.plugin.access.elastic.models.ElasticAgentInformation;
 import com.thoughtworks.go.plugin.access.elastic.v4.ElasticAgentExtensionV4;
@@ -59,6 +60,14 @@ public class ElasticAgentExtension extends AbstractExtension {
         getVersionedElasticAgentExtension(pluginId).createAgent(pluginId, autoRegisterKey, environment, configuration, clusterProfileConfiguration, jobIdentifier);
     }
 
+    /**
+     * Asks the plugin to create agents for several jobs at once. Only plugins which say they
+     * {@link Capabilities#supportsBatchCreateAgents() support it} should be asked to do so.
+     */
+    public void createAgents(String pluginId, Map<String, String> configuration, Map<String, String> clusterProfileConfiguration, List<AgentCreationRequest> agents) {
+        getVersionedElasticAgentExtension(pluginId).createAgents(pluginId, configuration, clusterProfileConfiguration, agents);
+    }
+
     public void serverPing(final String pluginId, List<Map<String, String>> clusterProfiles) {
         getVersionedElasticAgentExtension(pluginId).serverPing(pluginId, clusterProfiles);
     }
@@ -18,6 +18,7 @@ package com.thoughtworks.go.plugin.access.elastic;
 import com.thoughtworks.go.domain.ClusterProfilesChangedStatus;
 import com.thoughtworks.go.domain.JobIdentifier;
 import com.thoughtworks.go.plugin.access.common.AbstractPluginRegistry;
+import com.thoughtworks.go.plugin.access.elastic.models.AgentCreationRequest;
 import com.thoughtworks.go.plugin.access.elastic.models.AgentMetadata;
 import com.thoughtworks.go.plugin.api.info.PluginDescriptor;
 import com.thoughtworks.go.plugin.infra.PluginManager;
@@ -46,6 +47,17 @@ public class ElasticAgentPluginRegistry extends AbstractPluginRegistry<ElasticAg
         }
     }
 
+    public void createAgents(String pluginId, Map<String, String> configuration, Map<String, String> clusterProfileConfiguration, List<AgentCreationRequest> agents) {
+        PluginDescriptor plugin = findPlugin(pluginId);
+        if (plugin != null) {
+            LOGGER.debug("Processing create agents for {} jobs for plugin: {} with elastic agent configuration: {} in cluster: {}", agents.size(), pluginId, configuration, clusterProfileConfiguration);
+            extension.createAgents(pluginId, configuration, clusterProfileConfiguration, agents);
+            LOGGER.debug("Done processing create agents for {} jobs for plugin: {} with elastic agent configuration: {} in cluster: {}", agents.size(), pluginId, configuration, clusterProfileConfiguration);
+        } else {
+            LOGGER.warn("Could not find plugin with id: {}", pluginId);
+        }
+    }
+
     public void serverPing(String pluginId, List<Map<String, String>> clusterProfiles) {
         LOGGER.debug("Processing server ping for plugin {} with clusters {}", pluginId, clusterProfiles);
         extension.serverPing(pluginId, clusterProfiles);
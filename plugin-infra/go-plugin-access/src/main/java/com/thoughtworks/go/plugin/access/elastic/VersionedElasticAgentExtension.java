@@ -17,6 +17,7 @@ package com.thoughtworks.go.plugin.access.elastic;
 
 import com.thoughtworks.go.domain.ClusterProfilesChangedStatus;
 import com.thoughtworks.go.domain.JobIdentifier;
+import com.thoughtworks.go.plugin.access.elastic.models.AgentCreationRequest;
 import com.thoughtworks.go.plugin.access.elastic.models.AgentMetadata;
 import com.thoughtworks.go.plugin.access.elastic.models.ElasticAgentInformation;
 import com.thoughtworks.go.plugin.api.response.validation.ValidationResult;
@@ -48,6 +49,12 @@ public interface VersionedElasticAgentExtension {
 
     void createAgent(String pluginId, String autoRegisterKey, String environment, Map<String, String> configuration, Map<String, String> clusterProfileConfiguration, JobIdentifier jobIdentifier);
 
+    default void createAgents(String pluginId, Map<String, String> configuration, Map<String, String> clusterProfileConfiguration, List<AgentCreationRequest> agents) {
+        for (AgentCreationRequest agent : agents) {
+            createAgent(pluginId, agent.autoRegisterKey(), agent.environment(), configuration, clusterProfileConfiguration, agent.jobIdentifier());
+        }
+    }
+
     void serverPing(String pluginId, List<Map<String, String>> clusterProfileConfigurations);
 
     boolean shouldAssignWork(String pluginId, AgentMetadata agent, String environment, Map<String, String> configuration, Map<String, String> clusterProfileProperties, JobIdentifier identifier);
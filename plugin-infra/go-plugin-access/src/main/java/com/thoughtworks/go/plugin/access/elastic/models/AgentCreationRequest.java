@@ -0,0 +1,27 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.plugin.access.elastic.models;
+
+import com.thoughtworks.go.domain.JobIdentifier;
+
+import java.io.Serializable;
+
+/**
+ * One agent to be created by a plugin, for a job, as part of a batch of agents which share the same elastic agent
+ * profile and cluster profile.
+ */
+public record AgentCreationRequest(String autoRegisterKey, String environment, JobIdentifier jobIdentifier) implements Serializable {
+}
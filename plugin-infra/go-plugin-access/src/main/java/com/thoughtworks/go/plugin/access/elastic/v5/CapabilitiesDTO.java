@@ -33,6 +33,10 @@ class CapabilitiesDTO {
     @SerializedName("supports_agent_status_report")
     private boolean supportsAgentStatusReport;
 
+    @Expose
+    @SerializedName("supports_batch_create_agents")
+    private boolean supportsBatchCreateAgents;
+
     public boolean supportsPluginStatusReport() {
         return supportsStatusReport;
     }
@@ -45,6 +49,10 @@ class CapabilitiesDTO {
         return supportsAgentStatusReport;
     }
 
+    public boolean supportsBatchCreateAgents() {
+        return supportsBatchCreateAgents;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -56,11 +64,12 @@ class CapabilitiesDTO {
         CapabilitiesDTO that = (CapabilitiesDTO) o;
         return supportsStatusReport == that.supportsStatusReport &&
                 supportsClusterStatusReport == that.supportsClusterStatusReport &&
-                supportsAgentStatusReport == that.supportsAgentStatusReport;
+                supportsAgentStatusReport == that.supportsAgentStatusReport &&
+                supportsBatchCreateAgents == that.supportsBatchCreateAgents;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(supportsStatusReport, supportsClusterStatusReport, supportsAgentStatusReport);
+        return Objects.hash(supportsStatusReport, supportsClusterStatusReport, supportsAgentStatusReport, supportsBatchCreateAgents);
     }
 }
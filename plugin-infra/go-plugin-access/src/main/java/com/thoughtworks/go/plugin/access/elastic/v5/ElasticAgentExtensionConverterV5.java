@@ -22,6 +22,7 @@ import com.thoughtworks.go.domain.JobIdentifier;
 import com.thoughtworks.go.plugin.access.common.handler.JSONResultMessageHandler;
 import com.thoughtworks.go.plugin.access.common.models.ImageDeserializer;
 import com.thoughtworks.go.plugin.access.common.models.PluginProfileMetadataKeys;
+import com.thoughtworks.go.plugin.access.elastic.models.AgentCreationRequest;
 import com.thoughtworks.go.plugin.access.elastic.models.AgentMetadata;
 import com.thoughtworks.go.plugin.access.elastic.models.ElasticAgentInformation;
 import com.thoughtworks.go.plugin.api.response.validation.ValidationResult;
@@ -51,6 +52,23 @@ class ElasticAgentExtensionConverterV5 {
         return JsonHelper.toJsonExposeOnly(jsonObject);
     }
 
+    String createAgentsRequestBody(Map<String, String> configuration, Map<String, String> clusterProfileProperties, List<AgentCreationRequest> agents) {
+        JsonObject jsonObject = new JsonObject();
+        jsonObject.add("elastic_agent_profile_properties", mapToJsonObject(configuration));
+        jsonObject.add("cluster_profile_properties", mapToJsonObject(clusterProfileProperties));
+        JsonArray agentsJson = new JsonArray();
+        for (AgentCreationRequest agent : agents) {
+            JsonObject agentJson = new JsonObject();
+            agentJson.addProperty("auto_register_key", agent.autoRegisterKey());
+            agentJson.addProperty("environment", agent.environment());
+            agentJson.add("job_identifier", jobIdentifierJson(agent.jobIdentifier()));
+            agentsJson.add(agentJson);
+        }
+        jsonObject.add("agents", agentsJson);
+
+        return JsonHelper.toJsonExposeOnly(jsonObject);
+    }
+
     String shouldAssignWorkRequestBody(AgentMetadata elasticAgent, String environment, Map<String, String> configuration, Map<String, String> clusterProfileProperties, JobIdentifier identifier) {
         JsonObject jsonObject = new JsonObject();
         jsonObject.addProperty("environment", environment);
@@ -20,6 +20,7 @@ import com.thoughtworks.go.domain.JobIdentifier;
 import com.thoughtworks.go.plugin.access.DefaultPluginInteractionCallback;
 import com.thoughtworks.go.plugin.access.PluginRequestHelper;
 import com.thoughtworks.go.plugin.access.elastic.VersionedElasticAgentExtension;
+import com.thoughtworks.go.plugin.access.elastic.models.AgentCreationRequest;
 import com.thoughtworks.go.plugin.access.elastic.models.AgentMetadata;
 import com.thoughtworks.go.plugin.access.elastic.models.ElasticAgentInformation;
 import com.thoughtworks.go.plugin.api.response.validation.ValidationResult;
@@ -147,6 +148,16 @@ public class ElasticAgentExtensionV5 implements VersionedElasticAgentExtension {
         });
     }
 
+    @Override
+    public void createAgents(String pluginId, Map<String, String> configuration, Map<String, String> clusterProfileConfiguration, List<AgentCreationRequest> agents) {
+        pluginRequestHelper.submitRequest(pluginId, REQUEST_CREATE_AGENTS, new DefaultPluginInteractionCallback<Void>() {
+            @Override
+            public String requestBody(String resolvedExtensionVersion) {
+                return elasticAgentExtensionConverterV5.createAgentsRequestBody(configuration, clusterProfileConfiguration, agents);
+            }
+        });
+    }
+
     @Override
     public void serverPing(final String pluginId, List<Map<String, String>> clusterProfileConfigurations) {
         pluginRequestHelper.submitRequest(pluginId, REQUEST_SERVER_PING, new DefaultPluginInteractionCallback<Void>() {
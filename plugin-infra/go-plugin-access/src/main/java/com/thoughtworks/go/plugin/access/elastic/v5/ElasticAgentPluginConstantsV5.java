@@ -19,6 +19,7 @@ public interface ElasticAgentPluginConstantsV5 {
     String REQUEST_PREFIX = "cd.go.elastic-agent";
 
     String REQUEST_CREATE_AGENT = REQUEST_PREFIX + ".create-agent";
+    String REQUEST_CREATE_AGENTS = REQUEST_PREFIX + ".create-agents";
     String REQUEST_SERVER_PING = REQUEST_PREFIX + ".server-ping";
     String REQUEST_SHOULD_ASSIGN_WORK = REQUEST_PREFIX + ".should-assign-work";
 
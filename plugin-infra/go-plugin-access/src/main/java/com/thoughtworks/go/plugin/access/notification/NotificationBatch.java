@@ -0,0 +1,42 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.plugin.access.notification;
+
+import java.io.Serializable;
+import java.util.List;
+
+import static java.util.stream.Collectors.joining;
+
+/**
+ * Notifications sent to a plugin in a single request, for plugins which register for a batched notification type
+ * (e.g. {@link NotificationExtension#STAGE_STATUS_BATCH_NOTIFICATION}). The request body is a JSON array of the
+ * request bodies the plugin would otherwise have received one at a time.
+ */
+public record NotificationBatch(List<NotificationPayload<?>> payloads) implements Serializable {
+    public NotificationBatch {
+        payloads = List.copyOf(payloads);
+    }
+
+    public int size() {
+        return payloads.size();
+    }
+
+    String requestBody(String resolvedExtensionVersion, JsonMessageHandler messageHandler) {
+        return payloads.stream()
+            .map(payload -> payload.requestBody(resolvedExtensionVersion, messageHandler))
+            .collect(joining(",", "[", "]"));
+    }
+}
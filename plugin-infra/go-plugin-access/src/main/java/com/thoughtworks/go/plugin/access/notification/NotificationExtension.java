@@ -44,8 +44,9 @@ public class NotificationExtension extends AbstractExtension {
     static final String REQUEST_NOTIFICATIONS_INTERESTED_IN = "notifications-interested-in";
     public static final String STAGE_STATUS_CHANGE_NOTIFICATION = "stage-status";
     public static final String AGENT_STATUS_CHANGE_NOTIFICATION = "agent-status";
+    public static final String STAGE_STATUS_BATCH_NOTIFICATION = "stage-status-batch";
 
-    static final List<String> VALID_NOTIFICATION_TYPES = List.of(STAGE_STATUS_CHANGE_NOTIFICATION, AGENT_STATUS_CHANGE_NOTIFICATION);
+    static final List<String> VALID_NOTIFICATION_TYPES = List.of(STAGE_STATUS_CHANGE_NOTIFICATION, AGENT_STATUS_CHANGE_NOTIFICATION, STAGE_STATUS_BATCH_NOTIFICATION);
 
     private Map<String, JsonMessageHandler> messageHandlerMap = new HashMap<>();
 
@@ -82,7 +83,11 @@ public class NotificationExtension extends AbstractExtension {
         return pluginRequestHelper.submitRequest(pluginId, requestName, new DefaultPluginInteractionCallback<>() {
             @Override
             public String requestBody(String resolvedExtensionVersion) {
-                return messageHandlerMap.get(resolvedExtensionVersion).requestMessageForNotify(data);
+                JsonMessageHandler messageHandler = messageHandlerMap.get(resolvedExtensionVersion);
+                if (data instanceof NotificationPayload<?> payload) {
+                    return payload.requestBody(resolvedExtensionVersion, messageHandler);
+                }
+                return messageHandler.requestMessageForNotify(data);
             }
 
             @Override
@@ -0,0 +1,68 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.plugin.access.notification;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The data of a notification, shared by the messages sent to every plugin interested in it, so that it is built once
+ * per event. The request body is also built once for each version of the notification extension the plugins talk, and
+ * reused for the other plugins talking the same version.
+ */
+public class NotificationPayload<T extends Serializable> implements Serializable {
+    private final T data;
+    private final Map<String, String> requestBodyByExtensionVersion = new ConcurrentHashMap<>();
+
+    public NotificationPayload(T data) {
+        this.data = data;
+    }
+
+    public T getData() {
+        return data;
+    }
+
+    String requestBody(String resolvedExtensionVersion, JsonMessageHandler messageHandler) {
+        return requestBodyByExtensionVersion.computeIfAbsent(resolvedExtensionVersion, version -> {
+            if (data instanceof NotificationBatch batch) {
+                return batch.requestBody(version, messageHandler);
+            }
+            return messageHandler.requestMessageForNotify(data);
+        });
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return data.equals(((NotificationPayload<?>) o).data);
+    }
+
+    @Override
+    public int hashCode() {
+        return data.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(data);
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.plugin.access;
+
+import com.thoughtworks.go.util.Clock;
+import com.thoughtworks.go.util.SystemEnvironment;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PluginInvocationGuardTest {
+    private SystemEnvironment systemEnvironment;
+    private Clock clock;
+    private PluginRequestMetrics metrics;
+    private PluginInvocationGuard guard;
+
+    @BeforeEach
+    void setUp() {
+        systemEnvironment = mock(SystemEnvironment.class);
+        clock = mock(Clock.class);
+        metrics = new PluginRequestMetrics();
+        when(systemEnvironment.getPluginMaxConcurrentRequests()).thenReturn(1);
+        when(systemEnvironment.getPluginBulkheadWaitInMillis()).thenReturn(10L);
+        when(systemEnvironment.getPluginCircuitBreakerFailureThreshold()).thenReturn(2);
+        when(systemEnvironment.getPluginCircuitBreakerOpenInMillis()).thenReturn(1000L);
+        guard = new PluginInvocationGuard("notification", systemEnvironment, metrics, clock);
+    }
+
+    @Test
+    void shouldGiveUpOnAPluginWhichDoesNotAnswerInTime() throws Exception {
+        when(systemEnvironment.getPluginRequestTimeoutInMillis("slow-request")).thenReturn(50L);
+        when(systemEnvironment.getPluginBulkheadWaitInMillis()).thenReturn(5000L);
+        CountDownLatch released = new CountDownLatch(1);
+
+        assertThatThrownBy(() -> guard.invoke("plugin", "slow-request", () -> released.await(10, TimeUnit.SECONDS)))
+            .isInstanceOf(PluginRequestTimeoutException.class)
+            .hasMessage("Plugin 'plugin' implementing 'notification' extension did not answer 'slow-request' within 50 ms.");
+
+        assertThat(guard.invoke("plugin", "fast-request", () -> "answer")).isEqualTo("answer");
+        assertThat(requestStats("slow-request")).containsEntry("Timeouts", 1L).containsEntry("Failures", 1L);
+    }
+
+    @Test
+    void shouldTurnAwayRequestsOnceAPluginIsBusyWithAsManyAsItIsAllowed() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread busy = new Thread(() -> {
+            try {
+                guard.invoke("plugin", "request", () -> {
+                    started.countDown();
+                    return release.await(10, TimeUnit.SECONDS);
+                });
+            } catch (Exception ignored) {
+            }
+        });
+        busy.start();
+        started.await(10, TimeUnit.SECONDS);
+
+        assertThatThrownBy(() -> guard.invoke("plugin", "request", () -> "answer"))
+            .isInstanceOf(PluginRequestRejectedException.class);
+        assertThat(guard.invoke("another-plugin", "request", () -> "answer")).isEqualTo("answer");
+
+        release.countDown();
+        busy.join();
+        assertThat(guard.invoke("plugin", "request", () -> "answer")).isEqualTo("answer");
+    }
+
+    @Test
+    void shouldStopSendingRequestsToAFailingPluginForAWhile() throws Exception {
+        when(clock.currentTimeMillis()).thenReturn(0L);
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> guard.invoke("plugin", "request", () -> {
+                throw new RuntimeException("boom");
+            })).hasMessage("boom");
+        }
+
+        assertThatThrownBy(() -> guard.invoke("plugin", "request", () -> "answer"))
+            .isInstanceOf(PluginRequestRejectedException.class);
+
+        when(clock.currentTimeMillis()).thenReturn(1001L);
+        assertThat(guard.invoke("plugin", "request", () -> "answer")).isEqualTo("answer");
+        assertThat(guard.invoke("plugin", "request", () -> "answer")).isEqualTo("answer");
+        assertThat(requestStats("request")).containsEntry("Requests", 4L).containsEntry("Failures", 2L).containsEntry("Rejections", 1L);
+    }
+
+    @Test
+    void shouldNotLimitHowManyRequestsAreInFlightWhenNoLimitIsSet() throws Exception {
+        when(systemEnvironment.getPluginMaxConcurrentRequests()).thenReturn(0);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread busy = new Thread(() -> {
+            try {
+                guard.invoke("plugin", "request", () -> {
+                    started.countDown();
+                    return release.await(10, TimeUnit.SECONDS);
+                });
+            } catch (Exception ignored) {
+            }
+        });
+        busy.start();
+        started.await(10, TimeUnit.SECONDS);
+
+        assertThat(guard.invoke("plugin", "request", () -> "answer")).isEqualTo("answer");
+
+        release.countDown();
+        busy.join();
+    }
+
+    @Test
+    void shouldKeepSendingRequestsToAFailingPluginWhenNoFailureThresholdIsSet() throws Exception {
+        when(systemEnvironment.getPluginCircuitBreakerFailureThreshold()).thenReturn(0);
+        when(clock.currentTimeMillis()).thenReturn(0L);
+        for (int i = 0; i < 10; i++) {
+            assertThatThrownBy(() -> guard.invoke("plugin", "request", () -> {
+                throw new RuntimeException("boom");
+            })).hasMessage("boom");
+        }
+
+        assertThat(guard.invoke("plugin", "request", () -> "answer")).isEqualTo("answer");
+        assertThat(requestStats("request")).containsEntry("Failures", 10L).containsEntry("Rejections", 0L);
+    }
+
+    @Test
+    void shouldNeitherLimitNorStopRequestsByDefault() {
+        SystemEnvironment defaults = new SystemEnvironment();
+
+        assertThat(defaults.getPluginMaxConcurrentRequests()).isZero();
+        assertThat(defaults.getPluginCircuitBreakerFailureThreshold()).isZero();
+        assertThat(defaults.getPluginRequestTimeoutInMillis("request")).isZero();
+    }
+
+    private Map<String, Object> requestStats(String requestName) {
+        return metrics.snapshot().get("plugin").get(requestName);
+    }
+}
@@ -21,6 +21,7 @@ import com.thoughtworks.go.domain.ClusterProfilesChangedStatus;
 import com.thoughtworks.go.domain.JobIdentifier;
 import com.thoughtworks.go.domain.config.*;
 import com.thoughtworks.go.plugin.access.elastic.ElasticAgentMetadataStore;
+import com.thoughtworks.go.plugin.access.elastic.models.AgentCreationRequest;
 import com.thoughtworks.go.plugin.access.elastic.models.AgentMetadata;
 import com.thoughtworks.go.plugin.access.elastic.models.ElasticAgentInformation;
 import com.thoughtworks.go.plugin.api.info.PluginDescriptor;
@@ -95,6 +96,34 @@ public class ElasticAgentExtensionConverterV5Test {
                 }""");
     }
 
+    @Test
+    public void shouldJSONizeCreateAgentsRequestBody() {
+        Map<String, String> configuration = Map.of("key1", "value1");
+        Map<String, String> clusterProfileConfiguration = Map.of("key2", "value2");
+
+        String json = new ElasticAgentExtensionConverterV5().createAgentsRequestBody(configuration, clusterProfileConfiguration, List.of(
+                new AgentCreationRequest("secret-key-1", "prod", jobIdentifier),
+                new AgentCreationRequest("secret-key-2", "staging", jobIdentifier)));
+
+        assertThatJson(json).isEqualTo("""
+                {
+                  "elastic_agent_profile_properties": {"key1": "value1"},
+                  "cluster_profile_properties": {"key2": "value2"},
+                  "agents": [
+                    {
+                      "auto_register_key": "secret-key-1",
+                      "environment": "prod",
+                      "job_identifier": {"pipeline_name": "test-pipeline", "pipeline_counter": 1, "pipeline_label": "Test Pipeline", "stage_name": "test-stage", "stage_counter": "1", "job_name": "test-job", "job_id": 100}
+                    },
+                    {
+                      "auto_register_key": "secret-key-2",
+                      "environment": "staging",
+                      "job_identifier": {"pipeline_name": "test-pipeline", "pipeline_counter": 1, "pipeline_label": "Test Pipeline", "stage_name": "test-stage", "stage_counter": "1", "job_name": "test-job", "job_id": 100}
+                    }
+                  ]
+                }""");
+    }
+
     @Test
     public void shouldAssignWorkRequestBody() {
         Map<String, String> configuration = new HashMap<>();
@@ -263,6 +292,17 @@ public class ElasticAgentExtensionConverterV5Test {
         assertTrue(capabilities.supportsPluginStatusReport());
         assertTrue(capabilities.supportsClusterStatusReport());
         assertTrue(capabilities.supportsAgentStatusReport());
+        assertFalse(capabilities.supportsBatchCreateAgents());
+    }
+
+    @Test
+    public void shouldGetBatchCreateAgentsCapabilityFromResponseBody() {
+        String responseBody = "{\"supports_batch_create_agents\":true}";
+
+        Capabilities capabilities = new ElasticAgentExtensionConverterV5().getCapabilitiesFromResponseBody(responseBody);
+
+        assertTrue(capabilities.supportsBatchCreateAgents());
+        assertFalse(capabilities.supportsPluginStatusReport());
     }
 
     @Test
@@ -41,6 +41,7 @@ import static com.thoughtworks.go.plugin.domain.common.PluginConstants.NOTIFICAT
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -149,6 +150,34 @@ public abstract class NotificationExtensionTestBase {
         assertSame(deserializedResponse, response);
     }
 
+    @Test
+    public void shouldBuildTheRequestBodyOfASharedPayloadOnlyOnce() {
+        StageNotificationData stageNotificationData = new StageNotificationData(new Stage(), BuildCause.createWithEmptyModifications(), "group");
+        NotificationPayload<StageNotificationData> payload = new NotificationPayload<>(stageNotificationData);
+        when(jsonMessageHandler().requestMessageForNotify(stageNotificationData)).thenReturn("{\"stage\":{}}");
+        when(jsonMessageHandler().responseMessageForNotify(RESPONSE_BODY)).thenReturn(new Result());
+
+        notificationExtension.notify(PLUGIN_ID, NotificationExtension.STAGE_STATUS_CHANGE_NOTIFICATION, payload);
+        notificationExtension.notify(PLUGIN_ID, NotificationExtension.STAGE_STATUS_CHANGE_NOTIFICATION, payload);
+
+        assertRequest(requestArgumentCaptor.getValue(), apiVersion(), NotificationExtension.STAGE_STATUS_CHANGE_NOTIFICATION, "{\"stage\":{}}");
+        verify(jsonMessageHandler(), times(1)).requestMessageForNotify(stageNotificationData);
+    }
+
+    @Test
+    public void shouldSendBatchedNotificationsAsAJsonArray() {
+        StageNotificationData first = new StageNotificationData(new Stage(), BuildCause.createWithEmptyModifications(), "group1");
+        StageNotificationData second = new StageNotificationData(new Stage(), BuildCause.createWithEmptyModifications(), "group2");
+        when(jsonMessageHandler().requestMessageForNotify(first)).thenReturn("{\"pipeline\":1}");
+        when(jsonMessageHandler().requestMessageForNotify(second)).thenReturn("{\"pipeline\":2}");
+        when(jsonMessageHandler().responseMessageForNotify(RESPONSE_BODY)).thenReturn(new Result());
+
+        NotificationBatch batch = new NotificationBatch(List.of(new NotificationPayload<>(first), new NotificationPayload<>(second)));
+        notificationExtension.notify(PLUGIN_ID, NotificationExtension.STAGE_STATUS_BATCH_NOTIFICATION, new NotificationPayload<>(batch));
+
+        assertRequest(requestArgumentCaptor.getValue(), apiVersion(), NotificationExtension.STAGE_STATUS_BATCH_NOTIFICATION, "[{\"pipeline\":1},{\"pipeline\":2}]");
+    }
+
     private void assertRequest(GoPluginApiRequest goPluginApiRequest, String version, String requestName, String requestBody) {
         assertThat(goPluginApiRequest.extension()).isEqualTo(com.thoughtworks.go.plugin.domain.common.PluginConstants.NOTIFICATION_EXTENSION);
         assertThat(goPluginApiRequest.extensionVersion()).isEqualTo(version);
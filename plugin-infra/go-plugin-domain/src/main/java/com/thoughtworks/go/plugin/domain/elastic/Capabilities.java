@@ -19,6 +19,7 @@ public class Capabilities {
     private boolean supportsPluginStatusReport;
     private boolean supportsClusterStatusReport;
     private boolean supportsAgentStatusReport;
+    private boolean supportsBatchCreateAgents;
 
     public Capabilities(boolean supportsPluginStatusReport) {
         this.supportsPluginStatusReport = supportsPluginStatusReport;
@@ -35,6 +36,11 @@ public class Capabilities {
         this.supportsAgentStatusReport = supportsAgentStatusReport;
     }
 
+    public Capabilities(boolean supportsPluginStatusReport, boolean supportsClusterStatusReport, boolean supportsAgentStatusReport, boolean supportsBatchCreateAgents) {
+        this(supportsPluginStatusReport, supportsClusterStatusReport, supportsAgentStatusReport);
+        this.supportsBatchCreateAgents = supportsBatchCreateAgents;
+    }
+
     public boolean supportsPluginStatusReport() {
         return supportsPluginStatusReport;
     }
@@ -47,6 +53,10 @@ public class Capabilities {
         return supportsAgentStatusReport;
     }
 
+    public boolean supportsBatchCreateAgents() {
+        return supportsBatchCreateAgents;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
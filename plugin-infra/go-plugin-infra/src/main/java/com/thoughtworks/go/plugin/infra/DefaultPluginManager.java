@@ -123,6 +123,7 @@ public class DefaultPluginManager implements PluginManager {
     public void stopInfrastructure() {
         goPluginOSGiFramework.stop();
         monitor.stop();
+        pluginLoader.stop();
         initializedPluginsWithTheirExtensionTypes.clear();
     }
 
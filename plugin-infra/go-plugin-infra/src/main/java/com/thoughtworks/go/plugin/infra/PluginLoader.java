@@ -17,6 +17,8 @@ package com.thoughtworks.go.plugin.infra;
 
 import com.thoughtworks.go.plugin.infra.plugininfo.GoPluginBundleDescriptor;
 import com.thoughtworks.go.plugin.infra.plugininfo.GoPluginDescriptor;
+import com.thoughtworks.go.util.NamedDaemonThreadFactory;
+import com.thoughtworks.go.util.SystemEnvironment;
 import org.osgi.framework.Bundle;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,7 +30,11 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static java.lang.String.format;
 
@@ -42,10 +48,17 @@ public class PluginLoader {
     private final Collection<PluginChangeListener> pluginChangeListeners = new ConcurrentLinkedQueue<>();
     private final List<PluginPostLoadHook> pluginPostLoadHooks = new ArrayList<>();
     private final GoPluginOSGiFramework pluginOSGiFramework;
+    private final ExecutorService pluginLoadedNotifier;
 
-    @Autowired
     public PluginLoader(GoPluginOSGiFramework pluginOSGiFramework) {
         this.pluginOSGiFramework = pluginOSGiFramework;
+        this.pluginLoadedNotifier = null;
+    }
+
+    @Autowired
+    public PluginLoader(GoPluginOSGiFramework pluginOSGiFramework, SystemEnvironment systemEnvironment) {
+        this.pluginOSGiFramework = pluginOSGiFramework;
+        this.pluginLoadedNotifier = systemEnvironment.getPluginLoadThreads() > 1 ? pluginLoadedNotifier(systemEnvironment.getPluginLoadThreads()) : null;
     }
 
     public void addPluginChangeListener(PluginChangeListener pluginChangeListener) {
@@ -108,8 +121,44 @@ public class PluginLoader {
         }
 
         if (!pluginBundleDescriptor.isInvalid()) {
-            pluginBundleDescriptor.descriptors().forEach(descriptor -> pluginChangeListeners.forEach(listener -> listener.pluginLoaded(descriptor)));
+            pluginBundleDescriptor.descriptors().forEach(this::notifyPluginLoaded);
+        }
+    }
+
+    /**
+     * Metadata listeners only fetch metadata from the plugin they are told about, for the extension they deal with, and
+     * do not depend on each other. So they are notified first, in parallel when there are threads to do so. The other
+     * listeners may depend on that metadata (e.g. to parse config repositories) and are then notified in order.
+     */
+    private void notifyPluginLoaded(GoPluginDescriptor descriptor) {
+        if (pluginLoadedNotifier == null) {
+            pluginChangeListeners.forEach(listener -> listener.pluginLoaded(descriptor));
+            return;
         }
+
+        CompletableFuture<?>[] notifications = pluginChangeListeners.stream()
+                .filter(listener -> listener instanceof PluginMetadataChangeListener)
+                .map(listener -> CompletableFuture.runAsync(() -> listener.pluginLoaded(descriptor), pluginLoadedNotifier))
+                .toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(notifications).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+
+        pluginChangeListeners.stream()
+                .filter(listener -> !(listener instanceof PluginMetadataChangeListener))
+                .forEach(listener -> listener.pluginLoaded(descriptor));
+    }
+
+    public void stop() {
+        if (pluginLoadedNotifier != null) {
+            pluginLoadedNotifier.shutdownNow();
+        }
+    }
+
+    private static ExecutorService pluginLoadedNotifier(int threads) {
+        return Executors.newFixedThreadPool(threads, new NamedDaemonThreadFactory("plugin-loaded-notifier"));
     }
 
     private void handlePluginInvalidation(GoPluginBundleDescriptor bundleDescriptor, File bundleLocation) {
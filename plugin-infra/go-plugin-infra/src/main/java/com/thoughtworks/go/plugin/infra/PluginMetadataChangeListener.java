@@ -0,0 +1,23 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.plugin.infra;
+
+/**
+ * A {@link PluginChangeListener} which only records metadata fetched from the plugins it is told about, and does not
+ * depend on what other listeners do. Such listeners may be notified of a loaded plugin concurrently.
+ */
+public interface PluginMetadataChangeListener extends PluginChangeListener {
+}
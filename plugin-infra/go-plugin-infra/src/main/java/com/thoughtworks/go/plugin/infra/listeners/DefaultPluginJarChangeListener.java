@@ -18,8 +18,9 @@ package com.thoughtworks.go.plugin.infra.listeners;
 import com.thoughtworks.go.CurrentGoCDVersion;
 import com.thoughtworks.go.plugin.infra.PluginLoader;
 import com.thoughtworks.go.plugin.infra.monitor.BundleOrPluginFileDetails;
-import com.thoughtworks.go.plugin.infra.monitor.PluginJarChangeListener;
+import com.thoughtworks.go.plugin.infra.monitor.PluginJarBatchChangeListener;
 import com.thoughtworks.go.plugin.infra.plugininfo.*;
+import com.thoughtworks.go.util.NamedDaemonThreadFactory;
 import com.thoughtworks.go.util.PerfTimer;
 import com.thoughtworks.go.util.SystemEnvironment;
 import com.thoughtworks.go.util.ZipUtil;
@@ -31,21 +32,39 @@ import org.springframework.stereotype.Component;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URL;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static com.thoughtworks.go.util.SystemEnvironment.PLUGIN_ACTIVATOR_JAR_PATH;
+import static com.thoughtworks.go.util.SystemEnvironment.PLUGIN_BUNDLE_CACHE_DIR;
 
 @Component
-public class DefaultPluginJarChangeListener implements PluginJarChangeListener {
+public class DefaultPluginJarChangeListener implements PluginJarBatchChangeListener {
     private static final String ACTIVATOR_JAR_NAME = GoPluginOSGiManifest.ACTIVATOR_JAR_NAME;
+    private static final long UNUSED_CACHED_BUNDLE_TTL_IN_MILLIS = TimeUnit.DAYS.toMillis(30);
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultPluginJarChangeListener.class);
     private final DefaultPluginRegistry registry;
     private final GoPluginOSGiManifestGenerator osgiManifestGenerator;
     private final PluginLoader pluginLoader;
     private final GoPluginBundleDescriptorBuilder goPluginBundleDescriptorBuilder;
     private final SystemEnvironment systemEnvironment;
+    private final Map<File, GoPluginBundleDescriptor> unpackedBundles = new ConcurrentHashMap<>();
 
     @Autowired
     public DefaultPluginJarChangeListener(DefaultPluginRegistry registry,
@@ -60,19 +79,60 @@ public class DefaultPluginJarChangeListener implements PluginJarChangeListener {
         this.systemEnvironment = systemEnvironment;
     }
 
+    /**
+     * Unpacks the newly found plugin jars into their bundle directories, in parallel. Loading the plugins is still done
+     * one after the other, in {@link #pluginJarAdded}, since validating a plugin depends on the ones already loaded, and
+     * the OSGi framework installs and starts bundles one at a time anyway.
+     */
+    @Override
+    public void beforePluginJarsAdded(Collection<BundleOrPluginFileDetails> addedPluginFiles) {
+        removeUnusedCachedBundles();
+
+        int threads = Math.min(systemEnvironment.getPluginLoadThreads(), addedPluginFiles.size());
+        if (threads <= 1) {
+            return;
+        }
+
+        PerfTimer timer = PerfTimer.start(LOGGER, "Unpacked " + addedPluginFiles.size() + " plugins ahead of loading them");
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new NamedDaemonThreadFactory("plugin-unpack"));
+        try {
+            List<Callable<Object>> tasks = addedPluginFiles.stream()
+                    .map(pluginFile -> Executors.callable(() -> unpackAheadOfLoading(pluginFile)))
+                    .toList();
+            executor.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+            timer.stop();
+        }
+    }
+
     @Override
     public void pluginJarAdded(BundleOrPluginFileDetails bundleOrPluginFileDetails) {
-        final GoPluginBundleDescriptor bundleDescriptor = goPluginBundleDescriptorBuilder.build(bundleOrPluginFileDetails);
+        final GoPluginBundleDescriptor unpackedBundleDescriptor = unpackedBundles.remove(bundleOrPluginFileDetails.file());
+        final GoPluginBundleDescriptor bundleDescriptor = unpackedBundleDescriptor != null ? unpackedBundleDescriptor : goPluginBundleDescriptorBuilder.build(bundleOrPluginFileDetails);
 
         PerfTimer timer = PerfTimer.start(LOGGER, "Plugin load finished: " + bundleOrPluginFileDetails.file());
         try {
             LOGGER.info("Plugin load starting: {}", bundleOrPluginFileDetails.file());
 
-            validateIfExternalPluginRemovingBundledPlugin(bundleDescriptor);
+            try {
+                validateIfExternalPluginRemovingBundledPlugin(bundleDescriptor);
+            } catch (RuntimeException e) {
+                if (unpackedBundleDescriptor != null) {
+                    FileUtils.deleteQuietly(unpackedBundleDescriptor.bundleLocation());
+                }
+                throw e;
+            }
             validatePluginCompatibilityWithCurrentOS(bundleDescriptor);
             validatePluginCompatibilityWithGoCD(bundleDescriptor);
             LOGGER.info("Plugin validated: {}", bundleOrPluginFileDetails.file());
-            addPlugin(bundleOrPluginFileDetails, bundleDescriptor);
+            if (unpackedBundleDescriptor == null) {
+                addPlugin(bundleOrPluginFileDetails, bundleDescriptor);
+            } else {
+                loadPlugin(bundleDescriptor);
+            }
         } finally {
             timer.stop();
         }
@@ -120,14 +180,36 @@ public class DefaultPluginJarChangeListener implements PluginJarChangeListener {
 
     private void addPlugin(BundleOrPluginFileDetails bundleOrPluginFileDetails,
                            GoPluginBundleDescriptor bundleDescriptor) {
+        unpack(bundleOrPluginFileDetails, bundleDescriptor);
+        loadPlugin(bundleDescriptor);
+    }
+
+    private void unpack(BundleOrPluginFileDetails bundleOrPluginFileDetails, GoPluginBundleDescriptor bundleDescriptor) {
         explodePluginJarToBundleDir(bundleOrPluginFileDetails.file(), bundleDescriptor.bundleLocation());
         LOGGER.info("Plugin unpacked: {}", bundleOrPluginFileDetails.file());
         installActivatorJarToBundleDir(bundleDescriptor.bundleLocation());
         LOGGER.info("Plugin activator installed: {}", bundleOrPluginFileDetails.file());
+    }
+
+    private void loadPlugin(GoPluginBundleDescriptor bundleDescriptor) {
         registry.loadPlugin(bundleDescriptor);
         refreshBundle(bundleDescriptor);
     }
 
+    private void unpackAheadOfLoading(BundleOrPluginFileDetails bundleOrPluginFileDetails) {
+        // a loaded plugin with a jar of the same name shares the bundle directory, so it is left to pluginJarAdded to reject or replace it
+        if (registry.getPluginByIdOrFileName(null, bundleOrPluginFileDetails.file().getName()) != null) {
+            return;
+        }
+        try {
+            GoPluginBundleDescriptor bundleDescriptor = goPluginBundleDescriptorBuilder.build(bundleOrPluginFileDetails);
+            unpack(bundleOrPluginFileDetails, bundleDescriptor);
+            unpackedBundles.put(bundleOrPluginFileDetails.file(), bundleDescriptor);
+        } catch (Exception e) {
+            LOGGER.debug("Could not unpack plugin {} ahead of loading it. It will be unpacked when it is loaded.", bundleOrPluginFileDetails.file(), e);
+        }
+    }
+
     private void removePlugin(GoPluginBundleDescriptor descriptor) {
         final GoPluginBundleDescriptor descriptorOfRemovedPlugin = registry.unloadPlugin(descriptor);
         pluginLoader.unloadPlugin(descriptorOfRemovedPlugin);
@@ -189,13 +271,72 @@ public class DefaultPluginJarChangeListener implements PluginJarChangeListener {
     void explodePluginJarToBundleDir(File file, File location) {
         try {
             wipePluginBundleDirectory(location);
-            ZipUtil zipUtil = new ZipUtil();
-            zipUtil.unzip(file, location);
+            File cachedBundle = cachedBundleOf(file);
+            if (cachedBundle == null) {
+                new ZipUtil().unzip(file, location);
+            } else {
+                FileUtils.copyDirectory(cachedBundle, location);
+            }
         } catch (IOException e) {
             throw new RuntimeException(String.format("Failed to copy plugin jar %s to bundle location %s", file, location), e);
         }
     }
 
+    /**
+     * Bundle directories are wiped when the server starts, so the jars are also kept unpacked in the bundle cache,
+     * under their checksum, to save unzipping the same jars again on each restart.
+     *
+     * @return the unpacked jar in the bundle cache, or null when the cache is disabled
+     */
+    private File cachedBundleOf(File pluginJar) throws IOException {
+        String cacheDir = systemEnvironment.get(PLUGIN_BUNDLE_CACHE_DIR);
+        if (cacheDir == null || cacheDir.isBlank()) {
+            return null;
+        }
+
+        File cachedBundle = new File(cacheDir, checksumOf(pluginJar));
+        if (!cachedBundle.isDirectory()) {
+            FileUtils.forceMkdir(new File(cacheDir));
+            File staging = Files.createTempDirectory(new File(cacheDir).toPath(), cachedBundle.getName() + ".").toFile();
+            try {
+                new ZipUtil().unzip(pluginJar, staging);
+                Files.move(staging.toPath(), cachedBundle.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileSystemException e) {
+                // unpacked by another thread in the meantime
+                if (!cachedBundle.isDirectory()) {
+                    throw e;
+                }
+            } finally {
+                FileUtils.deleteQuietly(staging);
+            }
+        }
+        cachedBundle.setLastModified(System.currentTimeMillis());
+        return cachedBundle;
+    }
+
+    private void removeUnusedCachedBundles() {
+        String cacheDir = systemEnvironment.get(PLUGIN_BUNDLE_CACHE_DIR);
+        File[] cachedBundles = cacheDir == null || cacheDir.isBlank() ? null : new File(cacheDir).listFiles();
+        if (cachedBundles == null) {
+            return;
+        }
+        long unusedSince = System.currentTimeMillis() - UNUSED_CACHED_BUNDLE_TTL_IN_MILLIS;
+        for (File cachedBundle : cachedBundles) {
+            if (cachedBundle.lastModified() < unusedSince) {
+                FileUtils.deleteQuietly(cachedBundle);
+            }
+        }
+    }
+
+    private static String checksumOf(File file) throws IOException {
+        try (DigestInputStream in = new DigestInputStream(Files.newInputStream(file.toPath()), MessageDigest.getInstance("SHA-256"))) {
+            in.transferTo(OutputStream.nullOutputStream());
+            return HexFormat.of().formatHex(in.getMessageDigest().digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     void installActivatorJarToBundleDir(File pluginBundleExplodedDir) {
         URL activatorJar = findAndValidateActivatorJar();
         File pluginActivatorJarDestination = new File(new File(pluginBundleExplodedDir, GoPluginOSGiManifest.PLUGIN_DEPENDENCY_DIR), ACTIVATOR_JAR_NAME);
@@ -25,6 +25,7 @@ import org.springframework.stereotype.Component;
 import java.io.File;
 import java.io.IOException;
 import java.lang.ref.WeakReference;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -203,13 +204,22 @@ public class DefaultPluginJarLocationMonitor implements PluginJarLocationMonitor
                     .collect(Collectors.toSet());
         }
 
-        public static class DoOnAllListeners implements PluginJarChangeListener {
+        public static class DoOnAllListeners implements PluginJarBatchChangeListener {
             private final List<WeakReference<PluginJarChangeListener>> listeners;
 
             public DoOnAllListeners(List<WeakReference<PluginJarChangeListener>> listeners) {
                 this.listeners = listeners;
             }
 
+            @Override
+            public void beforePluginJarsAdded(final Collection<BundleOrPluginFileDetails> addedPluginFiles) {
+                doOnAllPluginJarChangeListener(o -> {
+                    if (o instanceof PluginJarBatchChangeListener batchChangeListener) {
+                        batchChangeListener.beforePluginJarsAdded(addedPluginFiles);
+                    }
+                });
+            }
+
             @Override
             public void pluginJarAdded(final BundleOrPluginFileDetails bundleOrPluginFileDetails) {
                 doOnAllPluginJarChangeListener(o -> o.pluginJarAdded(bundleOrPluginFileDetails));
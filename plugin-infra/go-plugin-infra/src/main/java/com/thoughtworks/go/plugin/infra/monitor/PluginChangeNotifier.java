@@ -25,6 +25,11 @@ public class PluginChangeNotifier {
 
         oldPlugins.stream().filter(f -> !currentPluginFiles.contains(f)).forEach(listener::pluginJarRemoved);
 
+        List<BundleOrPluginFileDetails> addedPlugins = currentPluginFiles.stream().filter(f -> !oldPlugins.contains(f)).toList();
+        if (!addedPlugins.isEmpty() && listener instanceof PluginJarBatchChangeListener batchChangeListener) {
+            batchChangeListener.beforePluginJarsAdded(addedPlugins);
+        }
+
         currentPluginFiles.forEach(newPlugin -> {
             int index = oldPlugins.indexOf(newPlugin);
             if (index < 0) {
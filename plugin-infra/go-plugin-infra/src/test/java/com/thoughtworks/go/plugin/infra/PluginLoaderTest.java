@@ -17,6 +17,7 @@ package com.thoughtworks.go.plugin.infra;
 
 import com.thoughtworks.go.plugin.infra.plugininfo.GoPluginBundleDescriptor;
 import com.thoughtworks.go.plugin.infra.plugininfo.GoPluginDescriptor;
+import com.thoughtworks.go.util.SystemEnvironment;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -25,6 +26,7 @@ import org.osgi.framework.Bundle;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -243,6 +245,36 @@ class PluginLoaderTest {
             inOrder.verify(listener3, times(1)).pluginLoaded(pluginDescriptor);
         }
 
+        @Test
+        void shouldNotifyMetadataListenersBeforeTheOtherListenersWhichAreNotifiedInOrderWhenLoadingWithSeveralThreads() {
+            SystemEnvironment systemEnvironment = mock(SystemEnvironment.class);
+            when(systemEnvironment.getPluginLoadThreads()).thenReturn(4);
+            pluginLoader = new PluginLoader(pluginOSGiFramework, systemEnvironment);
+            GoPluginDescriptor pluginDescriptor = mock(GoPluginDescriptor.class);
+            GoPluginBundleDescriptor pluginBundleDescriptor = new GoPluginBundleDescriptor(pluginDescriptor);
+
+            List<String> notified = new CopyOnWriteArrayList<>();
+            PluginChangeListener listener1 = mock(PluginChangeListener.class);
+            PluginMetadataChangeListener metadataListener1 = mock(PluginMetadataChangeListener.class);
+            PluginChangeListener listener2 = mock(PluginChangeListener.class);
+            PluginMetadataChangeListener metadataListener2 = mock(PluginMetadataChangeListener.class);
+            doAnswer(invocation -> notified.add("listener1")).when(listener1).pluginLoaded(pluginDescriptor);
+            doAnswer(invocation -> notified.add("metadataListener1")).when(metadataListener1).pluginLoaded(pluginDescriptor);
+            doAnswer(invocation -> notified.add("listener2")).when(listener2).pluginLoaded(pluginDescriptor);
+            doAnswer(invocation -> notified.add("metadataListener2")).when(metadataListener2).pluginLoaded(pluginDescriptor);
+
+            pluginLoader.addPluginChangeListener(listener1);
+            pluginLoader.addPluginChangeListener(metadataListener1);
+            pluginLoader.addPluginChangeListener(listener2);
+            pluginLoader.addPluginChangeListener(metadataListener2);
+
+            pluginLoader.loadPlugin(pluginBundleDescriptor);
+
+            assertThat(notified).hasSize(4);
+            assertThat(notified.subList(0, 2)).containsExactlyInAnyOrder("metadataListener1", "metadataListener2");
+            assertThat(notified.subList(2, 4)).containsExactly("listener1", "listener2");
+        }
+
         @Test
         void shouldNotifyPluginPostLoadHooksAndChangeListenersForEachPluginInBundleOncePluginIsLoaded() {
             PluginChangeListener listener = mock(PluginChangeListener.class);
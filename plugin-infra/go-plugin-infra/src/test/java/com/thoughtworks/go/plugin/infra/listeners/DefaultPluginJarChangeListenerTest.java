@@ -31,8 +31,10 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import static com.thoughtworks.go.util.SystemEnvironment.PLUGIN_ACTIVATOR_JAR_PATH;
+import static com.thoughtworks.go.util.SystemEnvironment.PLUGIN_BUNDLE_CACHE_DIR;
 import static com.thoughtworks.go.util.SystemEnvironment.PLUGIN_WORK_DIR;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.*;
@@ -603,6 +605,101 @@ class DefaultPluginJarChangeListenerTest {
         when(goPluginBundleDescriptorBuilder.build(new BundleOrPluginFileDetails(pluginJarFile, true, pluginWorkDir))).thenReturn(new GoPluginBundleDescriptor(descriptor));
     }
 
+    @Test
+    void shouldUnpackPluginsAheadOfLoadingThemAndNotUnpackThemAgainWhenLoading() throws Exception {
+        when(systemEnvironment.getPluginLoadThreads()).thenReturn(2);
+        File pluginJarFile = new File(pluginWorkDir, PLUGIN_JAR_FILE_NAME);
+        File expectedBundleDirectory = new File(bundleDir, PLUGIN_JAR_FILE_NAME);
+        copyPluginToTheDirectory(pluginWorkDir, PLUGIN_JAR_FILE_NAME);
+        BundleOrPluginFileDetails pluginFileDetails = new BundleOrPluginFileDetails(pluginJarFile, true, pluginWorkDir);
+        BundleOrPluginFileDetails otherPluginFileDetails = new BundleOrPluginFileDetails(new File(pluginWorkDir, "does-not-exist.jar"), true, pluginWorkDir);
+        GoPluginBundleDescriptor descriptor = new GoPluginBundleDescriptor(GoPluginDescriptor.builder()
+                .id("testplugin.descriptorValidator")
+                .bundleLocation(expectedBundleDirectory)
+                .pluginJarFileLocation(pluginJarFile.getAbsolutePath())
+                .isBundledPlugin(true)
+                .build());
+        when(goPluginBundleDescriptorBuilder.build(pluginFileDetails)).thenReturn(descriptor);
+
+        listener.beforePluginJarsAdded(List.of(pluginFileDetails, otherPluginFileDetails));
+
+        assertThat(new File(expectedBundleDirectory, "lib/go-plugin-activator.jar")).exists();
+
+        DefaultPluginJarChangeListener spy = spy(listener);
+        spy.pluginJarAdded(pluginFileDetails);
+
+        verify(goPluginBundleDescriptorBuilder, times(1)).build(pluginFileDetails);
+        verify(spy, never()).explodePluginJarToBundleDir(any(), any());
+        verify(registry).loadPlugin(descriptor);
+        verify(osgiManifestGenerator).updateManifestOf(descriptor);
+        verify(pluginLoader).loadPlugin(descriptor);
+    }
+
+    @Test
+    void shouldNotUnpackAheadAPluginWhichSharesItsBundleDirectoryWithALoadedPlugin() {
+        when(systemEnvironment.getPluginLoadThreads()).thenReturn(2);
+        File pluginJarFile = new File(pluginWorkDir, PLUGIN_JAR_FILE_NAME);
+        BundleOrPluginFileDetails pluginFileDetails = new BundleOrPluginFileDetails(pluginJarFile, false, pluginWorkDir);
+        BundleOrPluginFileDetails otherPluginFileDetails = new BundleOrPluginFileDetails(new File(pluginWorkDir, "other.jar"), false, pluginWorkDir);
+        when(registry.getPluginByIdOrFileName(null, PLUGIN_JAR_FILE_NAME)).thenReturn(GoPluginDescriptor.builder().id("bundled").isBundledPlugin(true).build());
+
+        listener.beforePluginJarsAdded(List.of(pluginFileDetails, otherPluginFileDetails));
+
+        verify(goPluginBundleDescriptorBuilder, never()).build(pluginFileDetails);
+    }
+
+    @Test
+    void shouldUnpackPluginJarsFromTheBundleCacheWhenTheyHaveBeenUnpackedBefore() throws Exception {
+        File bundleCacheDir = temporaryFolder.newFolder("bundleCache");
+        when(systemEnvironment.get(PLUGIN_BUNDLE_CACHE_DIR)).thenReturn(bundleCacheDir.getAbsolutePath());
+        copyPluginToTheDirectory(pluginWorkDir, PLUGIN_JAR_FILE_NAME);
+        File pluginJarFile = new File(pluginWorkDir, PLUGIN_JAR_FILE_NAME);
+        File bundleLocation = new File(bundleDir, PLUGIN_JAR_FILE_NAME);
+
+        listener.explodePluginJarToBundleDir(pluginJarFile, bundleLocation);
+
+        File[] cachedBundles = bundleCacheDir.listFiles();
+        assertThat(cachedBundles).hasSize(1);
+        assertThat(cachedBundles[0].getName()).hasSize(64);
+        File cachedPluginXml = new File(cachedBundles[0], "plugin.xml");
+        assertThat(cachedPluginXml).exists();
+        assertThat(new File(bundleLocation, "plugin.xml")).hasSameTextualContentAs(cachedPluginXml);
+
+        Files.writeString(cachedPluginXml.toPath(), "from the cache", UTF_8);
+        listener.explodePluginJarToBundleDir(pluginJarFile, bundleLocation);
+
+        assertThat(new File(bundleLocation, "plugin.xml")).hasContent("from the cache");
+        assertThat(bundleCacheDir.listFiles()).hasSize(1);
+    }
+
+    @Test
+    void shouldUnpackPluginJarsWithoutTheBundleCacheWhenItsPathIsEmpty() throws Exception {
+        when(systemEnvironment.get(PLUGIN_BUNDLE_CACHE_DIR)).thenReturn("");
+        copyPluginToTheDirectory(pluginWorkDir, PLUGIN_JAR_FILE_NAME);
+        File pluginJarFile = new File(pluginWorkDir, PLUGIN_JAR_FILE_NAME);
+        File bundleLocation = new File(bundleDir, PLUGIN_JAR_FILE_NAME);
+
+        listener.explodePluginJarToBundleDir(pluginJarFile, bundleLocation);
+
+        assertThat(new File(bundleLocation, "plugin.xml")).exists();
+    }
+
+    @Test
+    void shouldRemoveBundlesWhichHaveNotBeenUsedForAWhileFromTheBundleCache() {
+        File bundleCacheDir = temporaryFolder.newFolder("bundleCache");
+        when(systemEnvironment.get(PLUGIN_BUNDLE_CACHE_DIR)).thenReturn(bundleCacheDir.getAbsolutePath());
+        File unusedBundle = new File(bundleCacheDir, "unused");
+        File recentlyUsedBundle = new File(bundleCacheDir, "recently-used");
+        unusedBundle.mkdirs();
+        recentlyUsedBundle.mkdirs();
+        unusedBundle.setLastModified(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(31));
+
+        listener.beforePluginJarsAdded(List.of());
+
+        assertThat(unusedBundle).doesNotExist();
+        assertThat(recentlyUsedBundle).exists();
+    }
+
     private void copyPluginToTheDirectory(File destinationDir, String destinationFilenameOfPlugin) throws IOException {
         FileUtils.copyFile(pathOfFileInDefaultFiles("descriptor-aware-test-plugin.jar"), new File(destinationDir, destinationFilenameOfPlugin));
     }
@@ -106,4 +106,20 @@ class PluginChangeNotifierTest {
         inOrder.verify(listener).pluginJarAdded(pluginTwo);
         verify(listener, never()).pluginJarUpdated(any());
     }
+
+    @Test
+    void shouldTellBatchListenersAboutAllAddedPluginsBeforeNotifyingThemOneByOne() {
+        final PluginJarBatchChangeListener listener = mock(PluginJarBatchChangeListener.class);
+        BundleOrPluginFileDetails pluginOne = mock(BundleOrPluginFileDetails.class);
+        BundleOrPluginFileDetails pluginTwo = mock(BundleOrPluginFileDetails.class);
+        BundleOrPluginFileDetails pluginThree = mock(BundleOrPluginFileDetails.class);
+
+        pluginChangeNotifier.notify(listener, List.of(pluginOne), List.of(pluginOne, pluginTwo, pluginThree));
+
+        InOrder inOrder = inOrder(listener);
+        inOrder.verify(listener).beforePluginJarsAdded(List.of(pluginTwo, pluginThree));
+        inOrder.verify(listener).pluginJarAdded(pluginTwo);
+        inOrder.verify(listener).pluginJarAdded(pluginThree);
+        verify(listener, never()).pluginJarAdded(pluginOne);
+    }
 }
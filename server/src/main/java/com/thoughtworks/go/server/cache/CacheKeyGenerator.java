@@ -37,7 +37,7 @@ public class CacheKeyGenerator {
     }
 
     public @NotNull String generate(@NotNull String identifier, String arg) {
-        return String.join(DELIMITER, clazz.getName(), identifier, toStringSafe(arg)).intern();
+        return String.join(DELIMITER, clazz.getName(), identifier, toStringSafe(arg));
     }
 
     public @NotNull String generate(@NotNull String identifier, String... arg) {
@@ -49,7 +49,7 @@ public class CacheKeyGenerator {
     }
 
     private @NotNull String generateFor(@NotNull String identifier, Stream<String> args) {
-        return Stream.concat(of(clazz.getName(), identifier), args).collect(Collectors.joining(DELIMITER)).intern();
+        return Stream.concat(of(clazz.getName(), identifier), args).collect(Collectors.joining(DELIMITER));
     }
 
     private static String toStringSafe(String arg) {
@@ -33,6 +33,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 
+import static com.thoughtworks.go.server.cache.LockRegistry.locks;
 import static com.thoughtworks.go.util.ExceptionUtils.bomb;
 import static org.apache.commons.lang3.StringUtils.splitByWholeSeparator;
 
@@ -143,7 +144,7 @@ public class GoCache {
     }
 
     public boolean remove(String key) {
-        synchronized (key.intern()) {
+        try (LockRegistry.Held ignored = locks().lock(key)) {
             Object value = getWithoutTransactionCheck(key);
             if (value instanceof KeyList keyList) {
                 for (String subKey : keyList) {
@@ -160,7 +161,7 @@ public class GoCache {
 
     public void put(String key, String subKey, Object value) {
         KeyList subKeys;
-        synchronized (key.intern()) {
+        try (LockRegistry.Held ignored = locks().lock(key)) {
             subKeys = subKeyFamily(key);
             if (subKeys == null) {
                 subKeys = new KeyList();
@@ -179,7 +180,7 @@ public class GoCache {
 
     public void removeAssociations(String key, Element element) {
         if (element.getObjectValue() instanceof KeyList keyList) {
-            synchronized (key.intern()) {
+            try (LockRegistry.Held ignored = locks().lock(key)) {
                 for (String subkey : keyList) {
                     remove(compositeKey(key, subkey));
                 }
@@ -188,7 +189,7 @@ public class GoCache {
             String[] parts = splitByWholeSeparator(key, SUB_KEY_DELIMITER);
             String parentKey = parts[0];
             String childKey = parts[1];
-            synchronized (parentKey.intern()) {
+            try (LockRegistry.Held ignored = locks().lock(parentKey)) {
                 Element parent = ehCache.get(parentKey);
                 if (parent == null) {
                     return;
@@ -216,7 +217,7 @@ public class GoCache {
     }
 
     public void remove(String key, String subKey) {
-        synchronized (key.intern()) {
+        try (LockRegistry.Held ignored = locks().lock(key)) {
             KeyList subKeys = subKeyFamily(key);
             if (subKeys == null) {
                 return;
@@ -24,6 +24,8 @@ import javax.annotation.PreDestroy;
 import java.util.Optional;
 import java.util.function.Supplier;
 
+import static com.thoughtworks.go.server.cache.LockRegistry.locks;
+
 public class LazyCache {
     private final Ehcache ehCache;
     private final TransactionSynchronizationManager transactionSynchronizationManager;
@@ -41,7 +43,7 @@ public class LazyCache {
             return (T) element.getObjectValue();
         }
 
-        synchronized (key.intern()) {
+        try (LockRegistry.Held ignored = locks().lock(key)) {
             element = ehCache.get(key);
             if (element != null) {
                 return (T) element.getObjectValue();
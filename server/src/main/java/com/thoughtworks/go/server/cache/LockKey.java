@@ -0,0 +1,59 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.cache;
+
+import java.util.Arrays;
+
+/**
+ * A key which only identifies a mutex, for locks which do not guard a cache entry. Compared to building, and interning,
+ * a string out of the same parts, it is cheap to create and its hash is computed once.
+ *
+ * @see LockRegistry
+ */
+public final class LockKey {
+    private final Class<?> owner;
+    private final String purpose;
+    private final Object[] parts;
+    private final int hash;
+
+    private LockKey(Class<?> owner, String purpose, Object[] parts) {
+        this.owner = owner;
+        this.purpose = purpose;
+        this.parts = parts;
+        this.hash = 31 * (31 * owner.hashCode() + purpose.hashCode()) + Arrays.hashCode(parts);
+    }
+
+    public static LockKey of(Class<?> owner, String purpose, Object... parts) {
+        return new LockKey(owner, purpose, parts.clone());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof LockKey that)) return false;
+        return hash == that.hash && owner == that.owner && purpose.equals(that.purpose) && Arrays.equals(parts, that.parts);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return owner.getSimpleName() + "." + purpose + Arrays.toString(parts);
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out one lock per key, for code which guards cache entries and other named resources. Keys are compared with
+ * {@link Object#equals(Object)}, so cache keys can be used as they are, and {@link LockKey}s for everything else.
+ * <p>
+ * Locks are only weakly referenced: a lock lives as long as a thread holds it or waits for it, and is then collected,
+ * so keys do not pile up the way interned strings do. Every key gets a lock of its own, rather than sharing a stripe
+ * with other keys, as callers take locks for more than one key at a time and sharing could make them deadlock.
+ * <p>
+ * Locks on the same key must be shared by all the components which take them, as interned strings were, hence the
+ * single, process wide instance.
+ */
+public class LockRegistry {
+    private static final LockRegistry INSTANCE = new LockRegistry();
+
+    private final Cache<Object, KeyLock> locks = Caffeine.newBuilder().weakValues().build();
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder contendedAcquisitions = new LongAdder();
+    private final LongAdder waitTimeInNanos = new LongAdder();
+
+    LockRegistry() {
+    }
+
+    public static LockRegistry locks() {
+        return INSTANCE;
+    }
+
+    /**
+     * Acquires the lock for the key, to be released by closing what is returned, in a try-with-resources block. Locks
+     * are reentrant.
+     */
+    public Held lock(Object key) {
+        KeyLock lock = locks.get(key, KeyLock::new);
+        acquisitions.increment();
+        if (!lock.tryLock()) {
+            contendedAcquisitions.increment();
+            long start = System.nanoTime();
+            lock.lock();
+            waitTimeInNanos.add(System.nanoTime() - start);
+        }
+        return lock;
+    }
+
+    public Stats stats() {
+        return new Stats(locks.estimatedSize(), acquisitions.sum(), contendedAcquisitions.sum(), TimeUnit.NANOSECONDS.toMillis(waitTimeInNanos.sum()));
+    }
+
+    public interface Held extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    public record Stats(long liveLocks, long acquisitions, long contendedAcquisitions, long waitTimeInMillis) {
+    }
+
+    // keeps the key, so that a lock found in a heap dump or a debugger says what it is for
+    private static class KeyLock extends ReentrantLock implements Held {
+        private final Object key;
+
+        private KeyLock(Object key) {
+            this.key = key;
+        }
+
+        @Override
+        public void close() {
+            unlock();
+        }
+
+        @Override
+        public String toString() {
+            return super.toString() + "[" + key + "]";
+        }
+    }
+}
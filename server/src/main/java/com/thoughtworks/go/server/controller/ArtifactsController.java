@@ -20,6 +20,8 @@ import com.thoughtworks.go.domain.JobIdentifier;
 import com.thoughtworks.go.domain.StageIdentifier;
 import com.thoughtworks.go.domain.exception.IllegalArtifactLocationException;
 import com.thoughtworks.go.remote.StandardHeaders;
+import com.thoughtworks.go.server.cache.LockKey;
+import com.thoughtworks.go.server.cache.LockRegistry;
 import com.thoughtworks.go.server.cache.ZipArtifactCache;
 import com.thoughtworks.go.server.dao.JobInstanceDao;
 import com.thoughtworks.go.server.security.ConfirmationConstraint;
@@ -45,13 +47,12 @@ import org.springframework.web.servlet.ModelAndView;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import java.io.File;
-import java.io.IOException;
-import java.io.InputStream;
+import java.io.*;
 import java.nio.charset.Charset;
 import java.util.HashMap;
 import java.util.Map;
 
+import static com.thoughtworks.go.server.cache.LockRegistry.locks;
 import static com.thoughtworks.go.util.ArtifactUtil.*;
 import static com.thoughtworks.go.util.GoConstants.*;
 import static java.net.HttpURLConnection.HTTP_BAD_REQUEST;
@@ -177,20 +178,78 @@ public class ArtifactsController {
         }
     }
 
+    @RequestMapping(value = "/repository/restful/artifact/POST/*", method = RequestMethod.POST, consumes = STREAMED_ARTIFACT_CONTENT_TYPE)
+    public ModelAndView postStreamedArtifact(@RequestParam("pipelineName") String pipelineName,
+                                             @RequestParam("pipelineCounter") String pipelineCounter,
+                                             @RequestParam("stageName") String stageName,
+                                             @RequestParam(value = "stageCounter", required = false) String stageCounter,
+                                             @RequestParam("buildName") String buildName,
+                                             @RequestParam(value = "buildId", required = false) Long buildId,
+                                             @RequestParam("filePath") String filePath,
+                                             @RequestParam(value = "attempt", required = false) Integer attempt,
+                                             HttpServletRequest request) throws IOException {
+        JobIdentifier jobIdentifier;
+        if (!confirmationConstraint.isSatisfied(request)) {
+            return ResponseCodeView.create(HTTP_BAD_REQUEST, String.format("Missing required header '%s'", StandardHeaders.REQUEST_CONFIRM_MODIFICATION));
+        }
+        if (!isValidStageCounter(stageCounter)) {
+            return buildNotFound(pipelineName, pipelineCounter, stageName, stageCounter, buildName);
+        }
+        try {
+            jobIdentifier = restfulService.findJob(pipelineName, pipelineCounter, stageName, stageCounter, buildName, buildId);
+        } catch (Exception e) {
+            return buildNotFound(pipelineName, pipelineCounter, stageName, stageCounter, buildName);
+        }
+
+        int convertedAttempt = attempt == null ? 1 : attempt;
+
+        try {
+            File artifact = artifactsService.findArtifact(jobIdentifier, filePath);
+            if (artifact.exists() && artifact.isFile()) {
+                return FileModelAndView.fileAlreadyExists(filePath);
+            }
+
+            ByteArrayOutputStream checksums = new ByteArrayOutputStream();
+            boolean success;
+            try (InputStream inputStream = request.getInputStream()) {
+                success = artifactsService.saveZipStream(artifact, inputStream, checksums, convertedAttempt);
+            }
+
+            if (!success) {
+                return FileModelAndView.errorSavingFile(filePath);
+            }
+
+            if (checksums.size() == 0) {
+                LOGGER.warn("[Artifacts Upload] Checksum file not uploaded for artifact at path '{}'", filePath);
+            } else if (!appendToChecksumFile(jobIdentifier, new ByteArrayInputStream(checksums.toByteArray()))) {
+                return FileModelAndView.errorSavingChecksumFile(filePath);
+            }
+
+            return FileModelAndView.fileCreated(filePath);
+
+        } catch (IllegalArtifactLocationException e) {
+            return FileModelAndView.forbiddenUrl(filePath);
+        }
+    }
+
     private boolean updateChecksumFile(MultipartHttpServletRequest request, JobIdentifier jobIdentifier, String filePath) throws IOException, IllegalArtifactLocationException {
         MultipartFile checksumMultipartFile = getChecksumFile(request);
         if (checksumMultipartFile != null) {
-            String checksumFilePath = String.format("%s/%s/%s", artifactsService.findArtifactRoot(jobIdentifier), CRUISE_OUTPUT_FOLDER, MD5_CHECKSUM_FILENAME);
-            File checksumFile = artifactsService.getArtifactLocation(checksumFilePath);
-            synchronized (checksumFilePath.intern()) {
-                return artifactsService.saveOrAppendFile(checksumFile, checksumMultipartFile.getInputStream());
-            }
+            return appendToChecksumFile(jobIdentifier, checksumMultipartFile.getInputStream());
         } else {
             LOGGER.warn("[Artifacts Upload] Checksum file not uploaded for artifact at path '{}'", filePath);
         }
         return true;
     }
 
+    private boolean appendToChecksumFile(JobIdentifier jobIdentifier, InputStream checksums) throws IllegalArtifactLocationException {
+        String checksumFilePath = String.format("%s/%s/%s", artifactsService.findArtifactRoot(jobIdentifier), CRUISE_OUTPUT_FOLDER, MD5_CHECKSUM_FILENAME);
+        File checksumFile = artifactsService.getArtifactLocation(checksumFilePath);
+        try (LockRegistry.Held ignored = locks().lock(LockKey.of(ArtifactsController.class, "checksums", checksumFilePath))) {
+            return artifactsService.saveOrAppendFile(checksumFile, checksums);
+        }
+    }
+
     private boolean saveFile(int convertedAttempt, File artifact, MultipartFile multipartFile, boolean shouldUnzip) throws IOException {
         try (InputStream inputStream = multipartFile.getInputStream()) {
             return artifactsService.saveFile(artifact, inputStream, shouldUnzip, convertedAttempt);
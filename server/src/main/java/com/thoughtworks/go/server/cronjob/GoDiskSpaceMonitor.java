@@ -33,9 +33,7 @@ public class GoDiskSpaceMonitor {
     private ServerHealthService serverHealthService;
     private EmailSender emailSender;
     private SystemDiskSpaceChecker systemDiskSpaceChecker;
-    private ArtifactsService artifactsService;
-    private StageService stageService;
-    private ConfigDbStateRepository configDbStateRepository;
+    private ArtifactsRetentionEngine artifactsRetentionEngine;
     private DiskSpaceChecker[] checkers;
     private volatile boolean lowOnDisk;
     private DatabaseDiskSpaceFullChecker databaseDiskSpaceFullChecker;
@@ -46,22 +44,18 @@ public class GoDiskSpaceMonitor {
                               SystemEnvironment systemEnvironment,
                               ServerHealthService serverHealthService,
                               EmailSender emailSender,
-                              ArtifactsService artifactsService,
-                              StageService stageService,
-                              ConfigDbStateRepository configDbStateRepository) {
-        this(goConfigService, systemEnvironment, serverHealthService, emailSender, new SystemDiskSpaceChecker(), artifactsService, stageService, configDbStateRepository);
+                              ArtifactsRetentionEngine artifactsRetentionEngine) {
+        this(goConfigService, systemEnvironment, serverHealthService, emailSender, new SystemDiskSpaceChecker(), artifactsRetentionEngine);
     }
 
     public GoDiskSpaceMonitor(GoConfigService goConfigService, SystemEnvironment systemEnvironment, ServerHealthService serverHealthService, EmailSender emailSender,
-                              SystemDiskSpaceChecker systemDiskSpaceChecker, ArtifactsService artifactsService, StageService stageService, ConfigDbStateRepository configDbStateRepository) {
+                              SystemDiskSpaceChecker systemDiskSpaceChecker, ArtifactsRetentionEngine artifactsRetentionEngine) {
         this.goConfigService = goConfigService;
         this.systemEnvironment = systemEnvironment;
         this.serverHealthService = serverHealthService;
         this.emailSender = emailSender;
         this.systemDiskSpaceChecker = systemDiskSpaceChecker;
-        this.artifactsService = artifactsService;
-        this.stageService = stageService;
-        this.configDbStateRepository = configDbStateRepository;
+        this.artifactsRetentionEngine = artifactsRetentionEngine;
     }
 
     public void initialize() {
@@ -73,7 +67,7 @@ public class GoDiskSpaceMonitor {
                 new ArtifactsDiskSpaceWarningChecker(systemEnvironment, emailSender, goConfigService, systemDiskSpaceChecker, serverHealthService),
                 databaseDiskSpaceFullChecker,
                 new DatabaseDiskSpaceWarningChecker(emailSender, systemEnvironment, goConfigService, systemDiskSpaceChecker, serverHealthService),
-                new ArtifactsDiskCleaner(systemEnvironment, goConfigService, systemDiskSpaceChecker, artifactsService, stageService, configDbStateRepository)};
+                new ArtifactsDiskCleaner(systemEnvironment, goConfigService, systemDiskSpaceChecker, artifactsRetentionEngine)};
     }
 
     //Note: This method is called from a Spring timer task
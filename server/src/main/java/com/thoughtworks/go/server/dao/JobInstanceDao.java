@@ -32,10 +32,14 @@ public interface JobInstanceDao {
 
     JobInstance save(long stageId, JobInstance jobInstance);
 
+    void saveAll(long stageId, List<JobInstance> jobInstances);
+
     JobInstance updateAssignedInfo(JobInstance jobInstance);
 
     JobInstance updateStateAndResult(JobInstance jobInstance);
 
+    void updateStatesAndResults(List<JobInstance> jobInstances);
+
     void ignore(JobInstance job);
 
     JobInstance getLatestInProgressBuildByAgentUuid(String uuid);
@@ -23,6 +23,7 @@ import com.thoughtworks.go.domain.*;
 import com.thoughtworks.go.server.cache.CacheKeyGenerator;
 import com.thoughtworks.go.server.cache.GoCache;
 import com.thoughtworks.go.server.cache.LazyCache;
+import com.thoughtworks.go.server.cache.LockRegistry;
 import com.thoughtworks.go.server.domain.JobStatusListener;
 import com.thoughtworks.go.server.persistence.ArtifactPlanRepository;
 import com.thoughtworks.go.server.persistence.ResourceRepository;
@@ -38,6 +39,7 @@ import net.sf.ehcache.config.CacheConfiguration;
 import net.sf.ehcache.config.Configuration;
 import net.sf.ehcache.config.PersistenceConfiguration;
 import net.sf.ehcache.store.MemoryStoreEvictionPolicy;
+import org.apache.commons.collections4.ListUtils;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.jetbrains.annotations.VisibleForTesting;
 import org.slf4j.Logger;
@@ -51,11 +53,13 @@ import org.springframework.transaction.support.TransactionSynchronizationAdapter
 import javax.annotation.PreDestroy;
 import java.util.*;
 
+import static com.thoughtworks.go.server.cache.LockRegistry.locks;
 import static com.thoughtworks.go.util.IBatisUtil.arguments;
 
 @Component
 public class JobInstanceSqlMapDao extends SqlMapClientDaoSupport implements JobInstanceDao, JobStatusListener {
     private static final Logger LOG = LoggerFactory.getLogger(JobInstanceSqlMapDao.class);
+    private static final int BATCH_SIZE_NUM_JOBS_TO_UPDATE = 500;
     private final LazyCache latestCompletedCache;
     private final CacheKeyGenerator cacheKeyGenerator;
     private final Cache buildDurationCache;
@@ -109,7 +113,7 @@ public class JobInstanceSqlMapDao extends SqlMapClientDaoSupport implements JobI
     @Override
     public JobInstance buildByIdWithTransitions(long buildInstanceId) {
         String cacheKey = cacheKeyForJobInstanceWithTransitions(buildInstanceId);
-        synchronized (cacheKey) {
+        try (LockRegistry.Held ignored = locks().lock(cacheKey)) {
             JobInstance instance = goCache.get(cacheKey);
             if (instance == null) {
                 instance = job(buildInstanceId, "buildByIdWithTransitions");
@@ -167,6 +171,35 @@ public class JobInstanceSqlMapDao extends SqlMapClientDaoSupport implements JobI
 
     }
 
+    /**
+     * Bulk equivalent of {@link #save(long, JobInstance)} used when a stage is scheduled. The jobs and then their
+     * transitions are inserted as JDBC batches, and caches are cleared in a single after-commit callback. The insert
+     * already stores the state and result of a job, so unlike {@link #save(long, JobInstance)} nothing is updated.
+     */
+    @Override
+    public void saveAll(long stageId, List<JobInstance> jobInstances) {
+        if (jobInstances.isEmpty()) {
+            return;
+        }
+        jobInstances.forEach(jobInstance -> jobInstance.setStageId(stageId));
+        transactionTemplate.execute((TransactionCallback<JobInstance>) status -> {
+            removeCachedJobsOnCommit(jobInstances);
+            latestCompletedCache.flushOnCommit();
+            for (List<JobInstance> batch : ListUtils.partition(jobInstances, BATCH_SIZE_NUM_JOBS_TO_UPDATE)) {
+                getSqlMapClientTemplate().insertBatch("batchInsertBuild", batch);
+            }
+            saveTransitions(jobInstances);
+            return null;
+        });
+
+        for (JobInstance jobInstance : jobInstances) {
+            JobPlan plan = jobInstance.getPlan();
+            if (plan != null) {
+                save(jobInstance.getId(), plan);
+            }
+        }
+    }
+
     @Override
     public void save(long jobId, JobPlan jobPlan) {
         for (Resource resource : jobPlan.getResources()) {
@@ -222,7 +255,7 @@ public class JobInstanceSqlMapDao extends SqlMapClientDaoSupport implements JobI
 
         JobIdentifier jobIdentifier = goCache.get(key);
         if (jobIdentifier == null) {
-            synchronized (key) {
+            try (LockRegistry.Held ignored = locks().lock(key)) {
                 jobIdentifier = goCache.get(key);
                 if (jobIdentifier == null) {
                     Map<String, Object> params =
@@ -298,14 +331,14 @@ public class JobInstanceSqlMapDao extends SqlMapClientDaoSupport implements JobI
                 @Override
                 public void afterCommit() {
                     // Methods not extracted in order to make synchronization visible.
-                    synchronized (cacheKeyForJobPlan(jobInstance.getId())) {
+                    try (LockRegistry.Held ignored = locks().lock(cacheKeyForJobPlan(jobInstance.getId()))) {
                         removeCachedJobPlan(jobInstance);
                     }
-                    synchronized (cacheKeyForActiveJobIds()) {
+                    try (LockRegistry.Held ignored = locks().lock(cacheKeyForActiveJobIds())) {
                         goCache.remove(cacheKeyForActiveJobIds());
                     }
                     String activeJobKey = cacheKeyForActiveJob(jobInstance.getId());
-                    synchronized (activeJobKey) {
+                    try (LockRegistry.Held ignored = locks().lock(activeJobKey)) {
                         goCache.remove(activeJobKey);
                     }
                     removeCachedJobInstance(jobInstance);
@@ -319,9 +352,82 @@ public class JobInstanceSqlMapDao extends SqlMapClientDaoSupport implements JobI
 
     }
 
+    /**
+     * Bulk equivalent of {@link #updateStateAndResult(JobInstance)} used when many jobs of a stage change state together
+     * (e.g. cancelling a run-on-all-agents stage). Jobs are updated with one statement per distinct state/result pair,
+     * their new transitions are inserted as one JDBC batch, and caches are cleared in a single after-commit callback.
+     */
+    @Override
+    public void updateStatesAndResults(final List<JobInstance> jobInstances) {
+        if (jobInstances.isEmpty()) {
+            return;
+        }
+        transactionTemplate.execute(status -> {
+            removeCachedJobsOnCommit(jobInstances);
+            logIfAnyJobIsCompleted(jobInstances);
+            latestCompletedCache.flushOnCommit();
+
+            Map<StateAndResult, List<Long>> jobIdsByStateAndResult = new LinkedHashMap<>();
+            for (JobInstance jobInstance : jobInstances) {
+                jobIdsByStateAndResult.computeIfAbsent(new StateAndResult(jobInstance.getState(), jobInstance.getResult()), k -> new ArrayList<>()).add(jobInstance.getId());
+            }
+            jobIdsByStateAndResult.forEach((stateAndResult, jobIds) -> {
+                for (List<Long> batch : ListUtils.partition(jobIds, BATCH_SIZE_NUM_JOBS_TO_UPDATE)) {
+                    getSqlMapClientTemplate().update("updateStatusAndResultForJobs",
+                        arguments("state", stateAndResult.state())
+                            .and("result", stateAndResult.result())
+                            .and("jobIds", batch)
+                            .asMap());
+                }
+            });
+            saveTransitions(jobInstances);
+            return null;
+        });
+    }
+
+    private void removeCachedJobsOnCommit(List<JobInstance> jobInstances) {
+        transactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                try (LockRegistry.Held ignored = locks().lock(cacheKeyForActiveJobIds())) {
+                    goCache.remove(cacheKeyForActiveJobIds());
+                }
+                for (JobInstance jobInstance : jobInstances) {
+                    try (LockRegistry.Held ignored = locks().lock(cacheKeyForJobPlan(jobInstance.getId()))) {
+                        removeCachedJobPlan(jobInstance);
+                    }
+                    String activeJobKey = cacheKeyForActiveJob(jobInstance.getId());
+                    try (LockRegistry.Held ignored = locks().lock(activeJobKey)) {
+                        goCache.remove(activeJobKey);
+                    }
+                    removeCachedJobInstance(jobInstance);
+                }
+            }
+        });
+    }
+
+    private record StateAndResult(JobState state, JobResult result) {
+    }
+
+    private void logIfAnyJobIsCompleted(List<JobInstance> jobInstances) {
+        List<Long> jobIds = jobInstances.stream().filter(job -> !job.isCopy()).map(JobInstance::getId).toList();
+        Set<Long> completedJobIds = new HashSet<>();
+        for (List<Long> batch : ListUtils.partition(jobIds, BATCH_SIZE_NUM_JOBS_TO_UPDATE)) {
+            completedJobIds.addAll(getSqlMapClientTemplate().<Long>queryForList("completedJobIdsAmong", arguments("jobIds", batch).asMap()));
+        }
+        for (JobInstance jobInstance : jobInstances) {
+            if (completedJobIds.contains(jobInstance.getId())) {
+                String message = String.format(
+                    "State change for a completed Job is not allowed. Job %s is currently State=%s, Result=%s",
+                    jobInstance.getIdentifier(), jobInstance.getState(), jobInstance.getResult());
+                LOG.warn(message, new Exception().fillInStackTrace());
+            }
+        }
+    }
+
     private void removeCachedJobInstance(JobInstance jobInstance) {
         String cacheKeyOfJob = cacheKeyForJobInstanceWithTransitions(jobInstance.getId());
-        synchronized (cacheKeyOfJob) {
+        try (LockRegistry.Held ignored = locks().lock(cacheKeyOfJob)) {
             goCache.remove(cacheKeyOfJob);
         }
     }
@@ -408,7 +514,7 @@ public class JobInstanceSqlMapDao extends SqlMapClientDaoSupport implements JobI
         List<JobPlan> plans = new ArrayList<>();
         for (Long jobId : jobIds) {
             String cacheKey = cacheKeyForJobPlan(jobId);
-            synchronized (cacheKey) {
+            try (LockRegistry.Held ignored = locks().lock(cacheKey)) {
                 JobPlan jobPlan = goCache.get(cacheKey);
                 if (jobPlan == null) {
                     jobPlan = _loadJobPlan(jobId);
@@ -473,6 +579,27 @@ public class JobInstanceSqlMapDao extends SqlMapClientDaoSupport implements JobI
         }
     }
 
+    private void saveTransitions(List<JobInstance> jobInstances) {
+        List<JobStateTransition> unsavedTransitions = new ArrayList<>();
+        for (JobInstance jobInstance : jobInstances) {
+            for (JobStateTransition transition : jobInstance.getTransitions()) {
+                if (!transition.hasId()) {
+                    transition.setJobId(jobInstance.getId());
+                    transition.setStageId(jobInstance.getStageId());
+                    unsavedTransitions.add(transition);
+                }
+            }
+            if (jobInstance.getIdentifier() != null) {
+                String pipelineName = jobInstance.getIdentifier().getPipelineName();
+                String stageName = jobInstance.getIdentifier().getStageName();
+                buildDurationCache.flushEntry(jobInstance.getBuildDurationKey(pipelineName, stageName));
+            }
+        }
+        for (List<JobStateTransition> batch : ListUtils.partition(unsavedTransitions, BATCH_SIZE_NUM_JOBS_TO_UPDATE)) {
+            getSqlMapClientTemplate().insertBatch("batchInsertTransition", batch);
+        }
+    }
+
     private void saveTransition(JobInstance jobInstance, JobStateTransition transition) {
         transition.setJobId(jobInstance.getId());
         transition.setStageId(jobInstance.getStageId());
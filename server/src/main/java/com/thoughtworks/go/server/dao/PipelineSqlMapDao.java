@@ -28,6 +28,7 @@ import com.thoughtworks.go.presentation.pipelinehistory.PipelineInstanceModels;
 import com.thoughtworks.go.server.cache.CacheKeyGenerator;
 import com.thoughtworks.go.server.cache.GoCache;
 import com.thoughtworks.go.server.cache.LazyCache;
+import com.thoughtworks.go.server.cache.LockRegistry;
 import com.thoughtworks.go.server.database.Database;
 import com.thoughtworks.go.server.domain.StageStatusListener;
 import com.thoughtworks.go.server.initializers.Initializer;
@@ -60,6 +61,7 @@ import org.springframework.transaction.support.TransactionSynchronizationAdapter
 
 import java.util.*;
 
+import static com.thoughtworks.go.server.cache.LockRegistry.locks;
 import static com.thoughtworks.go.util.IBatisUtil.arguments;
 import static org.apache.commons.lang3.StringUtils.isBlank;
 
@@ -202,7 +204,7 @@ public class PipelineSqlMapDao extends SqlMapClientDaoSupport implements Initial
         String cacheKey = cacheKeyForBuildCauseByNameAndCounter(name, counter);
         BuildCause buildCause = goCache.get(cacheKey);
         if (buildCause == null) {
-            synchronized (cacheKey) {
+            try (LockRegistry.Held ignored = locks().lock(cacheKey)) {
                 buildCause = goCache.get(cacheKey);
                 if (buildCause == null) {
                     Pipeline pipeline = findPipelineByNameAndCounter(name, counter);
@@ -226,7 +228,7 @@ public class PipelineSqlMapDao extends SqlMapClientDaoSupport implements Initial
         if (stage.passed()) {
             StageIdentifier identifier = stage.getIdentifier();
             String cacheKey = latestSuccessfulStageCacheKey(identifier.getPipelineName(), identifier.getStageName());
-            synchronized (cacheKey) {
+            try (LockRegistry.Held ignored = locks().lock(cacheKey)) {
                 goCache.put(cacheKey, identifier);
             }
         }
@@ -336,7 +338,7 @@ public class PipelineSqlMapDao extends SqlMapClientDaoSupport implements Initial
         String cacheKey = cacheKeyForPipelineHistoryByNameAndCounter(pipelineName, pipelineCounter);
         PipelineInstanceModel instanceModel = goCache.get(cacheKey);
         if (instanceModel == null) {
-            synchronized (cacheKey) {
+            try (LockRegistry.Held ignored = locks().lock(cacheKey)) {
                 instanceModel = goCache.get(cacheKey);
                 if (instanceModel == null) {
                     instanceModel = getSqlMapClientTemplate().queryForObject("getPipelineHistoryByNameAndCounter",
@@ -425,7 +427,7 @@ public class PipelineSqlMapDao extends SqlMapClientDaoSupport implements Initial
         String cacheKey = pipelineHistoryCacheKey(id);
         PipelineInstanceModel result = goCache.get(cacheKey);
         if (result == null) {
-            synchronized (cacheKey) {
+            try (LockRegistry.Held ignored = locks().lock(cacheKey)) {
                 result = goCache.get(cacheKey);
                 if (result == null) {
                     result = getSqlMapClientTemplate().queryForObject("getPipelineHistoryById", arguments("id", id).asMap());
@@ -513,7 +515,7 @@ public class PipelineSqlMapDao extends SqlMapClientDaoSupport implements Initial
             String cacheKey = cacheKeyForLatestPipelineIdByPipelineName(pipelineName);
             List<Long> ids = goCache.get(cacheKey);
             if (ids == null) {
-                synchronized (cacheKey) {
+                try (LockRegistry.Held ignored = locks().lock(cacheKey)) {
                     ids = goCache.get(cacheKey);
                     if (ids == null) {
                         ids = fetchPipelineIds(pipelineName, limit, offset);
@@ -597,7 +599,7 @@ public class PipelineSqlMapDao extends SqlMapClientDaoSupport implements Initial
 
     public void pause(String pipelineName, String pauseCause, String pauseBy) {
         String cacheKey = cacheKeyForPauseState(pipelineName);
-        synchronized (cacheKey) {
+        try (LockRegistry.Held ignored = locks().lock(cacheKey)) {
             Map<String, Object> args = arguments("pipelineName", pipelineName)
                 .and("pauseCause", pauseCause)
                 .and("pauseBy", pauseBy)
@@ -615,7 +617,7 @@ public class PipelineSqlMapDao extends SqlMapClientDaoSupport implements Initial
 
     public void unpause(String pipelineName) {
         String cacheKey = cacheKeyForPauseState(pipelineName);
-        synchronized (cacheKey) {
+        try (LockRegistry.Held ignored = locks().lock(cacheKey)) {
             Map<String, Object> args = arguments("pipelineName", pipelineName)
                 .and("pauseCause", null)
                 .and("pauseBy", null)
@@ -630,7 +632,7 @@ public class PipelineSqlMapDao extends SqlMapClientDaoSupport implements Initial
         String cacheKey = cacheKeyForPauseState(pipelineName);
         PipelinePauseInfo result = goCache.get(cacheKey);
         if (result == null) {
-            synchronized (cacheKey) {
+            try (LockRegistry.Held ignored = locks().lock(cacheKey)) {
                 result = goCache.get(cacheKey);
                 if (result == null) {
                     result = getSqlMapClientTemplate().queryForObject("getPipelinePauseState", pipelineName);
@@ -655,7 +657,7 @@ public class PipelineSqlMapDao extends SqlMapClientDaoSupport implements Initial
         String cacheKey = cacheKeyForLatestPassedStage(pipelineId, stage);
         StageIdentifier result = goCache.get(cacheKey);
         if (result == null) {
-            synchronized (cacheKey) {
+            try (LockRegistry.Held ignored = locks().lock(cacheKey)) {
                 result = goCache.get(cacheKey);
                 if (result == null) {
                     result = getSqlMapClientTemplate().queryForObject("latestPassedStageForPipelineId", arguments("id", pipelineId).and("stage", stage).asMap());
@@ -673,7 +675,7 @@ public class PipelineSqlMapDao extends SqlMapClientDaoSupport implements Initial
         String cacheKey = cacheKeyForPipelineInstancesTriggeredWithDependencyMaterial(pipelineName, dependencyPipelineIdentifier.getName(), dependencyPipelineIdentifier.getCounter());
         List<PipelineIdentifier> pipelineIdentifiers = goCache.get(cacheKey);
         if (pipelineIdentifiers == null) {
-            synchronized (cacheKey) {
+            try (LockRegistry.Held ignored = locks().lock(cacheKey)) {
                 pipelineIdentifiers = goCache.get(cacheKey);
                 if (pipelineIdentifiers == null) {
                     pipelineIdentifiers = getSqlMapClientTemplate().queryForList("pipelineInstancesTriggeredOutOfDependencyMaterial",
@@ -694,7 +696,7 @@ public class PipelineSqlMapDao extends SqlMapClientDaoSupport implements Initial
         String cacheKey = cacheKeyForPipelineInstancesTriggeredWithDependencyMaterial(pipelineName, materialInstance.getFingerprint(), revision);
         List<PipelineIdentifier> pipelineIdentifiers = goCache.get(cacheKey);
         if (pipelineIdentifiers == null) {
-            synchronized (cacheKey) {
+            try (LockRegistry.Held ignored = locks().lock(cacheKey)) {
                 pipelineIdentifiers = goCache.get(cacheKey);
                 if (pipelineIdentifiers == null) {
                     pipelineIdentifiers = getSqlMapClientTemplate().queryForList("pipelineInstancesTriggeredOffOfMaterialRevision",
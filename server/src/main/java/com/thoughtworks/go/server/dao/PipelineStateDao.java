@@ -21,6 +21,7 @@ import com.thoughtworks.go.domain.Stage;
 import com.thoughtworks.go.domain.StageIdentifier;
 import com.thoughtworks.go.server.cache.CacheKeyGenerator;
 import com.thoughtworks.go.server.cache.GoCache;
+import com.thoughtworks.go.server.cache.LockRegistry;
 import com.thoughtworks.go.server.database.Database;
 import com.thoughtworks.go.server.domain.StageStatusListener;
 import com.thoughtworks.go.server.transaction.AfterCompletionCallback;
@@ -43,6 +44,8 @@ import org.springframework.transaction.support.TransactionSynchronizationAdapter
 
 import java.util.List;
 
+import static com.thoughtworks.go.server.cache.LockRegistry.locks;
+
 @Component
 public class PipelineStateDao extends SqlMapClientDaoSupport implements StageStatusListener {
     private TransactionTemplate transactionTemplate;
@@ -71,7 +74,7 @@ public class PipelineStateDao extends SqlMapClientDaoSupport implements StageSta
     }
 
     public void lockPipeline(final Pipeline pipeline, AfterCompletionCallback... callbacks) {
-        synchronized (pipelineLockStateCacheKey(pipeline.getName())) {
+        try (LockRegistry.Held ignored = locks().lock(pipelineLockStateCacheKey(pipeline.getName()))) {
             transactionTemplate.execute(new TransactionCallbackWithoutResult() {
                 @Override
                 protected void doInTransactionWithoutResult(TransactionStatus status) {
@@ -112,7 +115,7 @@ public class PipelineStateDao extends SqlMapClientDaoSupport implements StageSta
     }
 
     public void unlockPipeline(final String pipelineName, AfterCompletionCallback... afterCompletionCallbacks) {
-        synchronized (pipelineLockStateCacheKey(pipelineName)) {
+        try (LockRegistry.Held ignored = locks().lock(pipelineLockStateCacheKey(pipelineName))) {
             transactionTemplate.execute(new TransactionCallbackWithoutResult() {
                 @Override
                 protected void doInTransactionWithoutResult(TransactionStatus status) {
@@ -151,7 +154,7 @@ public class PipelineStateDao extends SqlMapClientDaoSupport implements StageSta
         if (pipelineState != null) {
             return pipelineState.equals(PipelineState.NOT_LOCKED) ? null : pipelineState;
         }
-        synchronized (cacheKey) {
+        try (LockRegistry.Held ignored = locks().lock(cacheKey)) {
             pipelineState = goCache.get(cacheKey);
             if (pipelineState != null) {
                 return pipelineState.equals(PipelineState.NOT_LOCKED) ? null : pipelineState;
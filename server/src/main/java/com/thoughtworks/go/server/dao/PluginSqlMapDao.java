@@ -19,6 +19,7 @@ import com.thoughtworks.go.domain.NullPlugin;
 import com.thoughtworks.go.domain.Plugin;
 import com.thoughtworks.go.server.cache.CacheKeyGenerator;
 import com.thoughtworks.go.server.cache.GoCache;
+import com.thoughtworks.go.server.cache.LockRegistry;
 import com.thoughtworks.go.server.transaction.TransactionTemplate;
 import org.hibernate.Query;
 import org.hibernate.SessionFactory;
@@ -33,6 +34,8 @@ import org.springframework.transaction.support.TransactionCallbackWithoutResult;
 
 import java.util.List;
 
+import static com.thoughtworks.go.server.cache.LockRegistry.locks;
+
 @Component
 public class PluginSqlMapDao extends HibernateDaoSupport implements PluginDao {
     private final CacheKeyGenerator cacheKeyGenerator;
@@ -52,7 +55,7 @@ public class PluginSqlMapDao extends HibernateDaoSupport implements PluginDao {
     @Override
     public void saveOrUpdate(final Plugin plugin) {
         String cacheKey = cacheKeyForPluginSettings(plugin.getPluginId());
-        synchronized (cacheKey) {
+        try (LockRegistry.Held ignored = locks().lock(cacheKey)) {
             transactionTemplate.execute(new TransactionCallbackWithoutResult() {
                 @Override
                 protected void doInTransactionWithoutResult(TransactionStatus status) {
@@ -70,7 +73,7 @@ public class PluginSqlMapDao extends HibernateDaoSupport implements PluginDao {
         if (plugin != null) {
             return plugin;
         }
-        synchronized (cacheKey) {
+        try (LockRegistry.Held ignored = locks().lock(cacheKey)) {
             plugin = goCache.get(cacheKey);
             if (plugin != null) {
                 return plugin;
@@ -125,7 +128,7 @@ public class PluginSqlMapDao extends HibernateDaoSupport implements PluginDao {
             return;
         }
 
-        synchronized (cacheKey) {
+        try (LockRegistry.Held ignored = locks().lock(cacheKey)) {
             Plugin found = this.findPlugin(pluginId);
             if (found instanceof NullPlugin) {
                 return;
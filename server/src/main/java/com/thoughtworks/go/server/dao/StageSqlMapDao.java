@@ -29,6 +29,7 @@ import com.thoughtworks.go.presentation.pipelinehistory.StageInstanceModel;
 import com.thoughtworks.go.presentation.pipelinehistory.StageInstanceModels;
 import com.thoughtworks.go.server.cache.CacheKeyGenerator;
 import com.thoughtworks.go.server.cache.GoCache;
+import com.thoughtworks.go.server.cache.LockRegistry;
 import com.thoughtworks.go.server.domain.JobStatusListener;
 import com.thoughtworks.go.server.domain.StageIdentity;
 import com.thoughtworks.go.server.domain.StageStatusListener;
@@ -56,6 +57,7 @@ import java.time.Duration;
 import java.util.*;
 import java.util.function.Supplier;
 
+import static com.thoughtworks.go.server.cache.LockRegistry.locks;
 import static com.thoughtworks.go.util.IBatisUtil.arguments;
 import static java.lang.String.format;
 
@@ -193,7 +195,7 @@ public class StageSqlMapDao extends SqlMapClientDaoSupport implements StageDao,
     public Stage findStageWithIdentifier(StageIdentifier identifier) {
         String cacheKey = cacheKeyForStageIdentifier(identifier);
         String cacheKeyForIdentifiers = cacheKeyForListOfStageIdentifiers(identifier);
-        synchronized (cacheKeyForIdentifiers) {
+        try (LockRegistry.Held ignored = locks().lock(cacheKeyForIdentifiers)) {
             Stage stage = (Stage) goCache.get(cacheKeyForIdentifiers, cacheKey);
             if (stage == null) {
                 IBatisUtil.IBatisArgument argument = IBatisUtil.arguments("pipelineName", identifier.getPipelineName())
@@ -368,7 +370,7 @@ public class StageSqlMapDao extends SqlMapClientDaoSupport implements StageDao,
     @Override
     public Stages getAllRunsOfStageForPipelineInstance(String pipelineName, int pipelineCounter, String stageName) {
         String cacheKeyForAllStages = cacheKeyForAllStageOfPipeline(pipelineName, pipelineCounter, stageName);
-        synchronized (cacheKeyForAllStages) {
+        try (LockRegistry.Held ignored = locks().lock(cacheKeyForAllStages)) {
             List<Stage> stages = goCache.get(cacheKeyForAllStages);
             if (stages == null) {
                 Map<String, Object> toGet = arguments("pipelineName", pipelineName).and("pipelineCounter", pipelineCounter).and("stageName", stageName).asMap();
@@ -400,7 +402,7 @@ public class StageSqlMapDao extends SqlMapClientDaoSupport implements StageDao,
         String key = cacheKeyForStageCountForGraph(pipelineName, stageName);
         Integer total = goCache.get(key);
         if (total == null) {
-            synchronized (key) {
+            try (LockRegistry.Held ignored = locks().lock(key)) {
                 Map<String, Object> toGet = arguments("pipelineName", pipelineName).and("stageName", stageName).asMap();
                 total = getSqlMapClientTemplate().queryForObject("getTotalStageCountForChart", toGet);
                 goCache.put(key, total);
@@ -414,7 +416,7 @@ public class StageSqlMapDao extends SqlMapClientDaoSupport implements StageDao,
         String key = cacheKeyForLatestStageInstances();
         List<StageIdentity> stageIdentities = goCache.get(key);
         if (stageIdentities == null) {
-            synchronized (key) {
+            try (LockRegistry.Held ignored = locks().lock(key)) {
                 stageIdentities = goCache.get(key);
                 if (stageIdentities == null) {
                     stageIdentities = getSqlMapClientTemplate().queryForList("latestStageInstances");
@@ -516,7 +518,7 @@ public class StageSqlMapDao extends SqlMapClientDaoSupport implements StageDao,
 
     @VisibleForTesting
     String mutexForStageHistory(String pipelineName, String stageName) {
-        return format("%s_stageHistoryMutex_%s_<>_%s", getClass().getName(), pipelineName, stageName).intern();
+        return format("%s_stageHistoryMutex_%s_<>_%s", getClass().getName(), pipelineName, stageName);
     }
 
     @VisibleForTesting
@@ -558,7 +560,7 @@ public class StageSqlMapDao extends SqlMapClientDaoSupport implements StageDao,
 
     @VisibleForTesting
     String cacheKeyForStageOffset(Stage stage) {
-        return cacheKeyGenerator.generate("stageOffsetMap", stage.getIdentifier().getPipelineName(), stage.getIdentifier().getStageName()).intern();
+        return cacheKeyGenerator.generate("stageOffsetMap", stage.getIdentifier().getPipelineName(), stage.getIdentifier().getStageName());
     }
 
     @Override
@@ -602,7 +604,7 @@ public class StageSqlMapDao extends SqlMapClientDaoSupport implements StageDao,
         if (id != null) {
             return id;
         }
-        synchronized (key) {
+        try (LockRegistry.Held ignored = locks().lock(key)) {
             id = goCache.get(key);
             if (id != null) {
                 return id;
@@ -631,7 +633,7 @@ public class StageSqlMapDao extends SqlMapClientDaoSupport implements StageDao,
         Stage stage = goCache.get(key);
 
         if (stage == null) {
-            synchronized (key) {
+            try (LockRegistry.Held ignored = locks().lock(key)) {
                 stage = goCache.get(key);
                 if (stage == null) {
                     stage = getSqlMapClientTemplate().queryForObject("getStageById", id);
@@ -653,7 +655,7 @@ public class StageSqlMapDao extends SqlMapClientDaoSupport implements StageDao,
     @Override
     public boolean isStageActive(String pipelineName, String stageName) {
         String cacheKey = cacheKeyForPipelineAndStage(pipelineName, stageName);
-        synchronized (cacheKey) {
+        try (LockRegistry.Held ignored = locks().lock(cacheKey)) {
             Boolean isActive = goCache.get(cacheKey);
             if (isActive == null) {
                 final Map<String, Object> toGet = arguments("pipelineName", pipelineName).and("stageName", stageName).asMap();
@@ -693,7 +695,7 @@ public class StageSqlMapDao extends SqlMapClientDaoSupport implements StageDao,
         String key = cacheKeyForPipelineAndCounter(pipelineName, counter);
         List<Stage> stages = goCache.get(key);
         if (stages == null) {
-            synchronized (key) {
+            try (LockRegistry.Held ignored = locks().lock(key)) {
                 stages = goCache.get(key);
                 if (stages == null) {
                     Map<String, Object> params = arguments("pipelineName", pipelineName).and("pipelineCounter", counter).asMap();
@@ -725,6 +727,15 @@ public class StageSqlMapDao extends SqlMapClientDaoSupport implements StageDao,
         clearJobStatusDependentCaches(job.getStageId(), job.getIdentifier().getStageIdentifier());
     }
 
+    @Override
+    public void jobStatusesChanged(List<JobInstance> jobs) {
+        Map<Long, StageIdentifier> distinctStages = new LinkedHashMap<>();
+        for (JobInstance job : jobs) {
+            distinctStages.putIfAbsent(job.getStageId(), job.getIdentifier().getStageIdentifier());
+        }
+        distinctStages.forEach(this::clearJobStatusDependentCaches);
+    }
+
     private void clearJobStatusDependentCaches(long stageId, StageIdentifier stageIdentifier) {
         removeFromCache(cacheKeyForStageById(stageId));
         clearCachedStage(stageIdentifier);
@@ -741,9 +752,8 @@ public class StageSqlMapDao extends SqlMapClientDaoSupport implements StageDao,
         return cacheKeyGenerator.generate("totalStageCountForChart", pipelineName, stageName);
     }
 
-    @SuppressWarnings("SynchronizationOnLocalVariableOrMethodParameter") // keys here have always been internred by CacheKeyGenerator
     private void removeFromCache(String key) {
-        synchronized (key) {
+        try (LockRegistry.Held ignored = locks().lock(key)) {
             goCache.remove(key);
         }
     }
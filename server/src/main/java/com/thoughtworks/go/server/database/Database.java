@@ -29,6 +29,7 @@ import org.springframework.stereotype.Component;
 import java.io.File;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 
 @Component
@@ -38,6 +39,7 @@ public class Database {
     private final ConnectionManager connectionManager;
     private final SystemEnvironment systemEnvironment;
     private final DatabaseMigrator databaseMigrator;
+    private final AtomicLong backupBytesWritten = new AtomicLong();
 
     @Autowired
     public Database(SystemEnvironment systemEnvironment) {
@@ -76,7 +78,18 @@ public class Database {
     }
 
     public void backup(File targetDir) {
-        connectionManager.backup(targetDir);
+        try {
+            connectionManager.backup(targetDir, backupBytesWritten::set);
+        } finally {
+            backupBytesWritten.set(0);
+        }
+    }
+
+    /**
+     * @return how many bytes the database backup which is running has written so far, or 0 if none is running
+     */
+    public long backupBytesWritten() {
+        return backupBytesWritten.get();
     }
 
     public QueryExtensions getQueryExtensions() {
@@ -18,7 +18,10 @@ package com.thoughtworks.go.server.domain;
 import com.thoughtworks.go.domain.PersistentObject;
 import lombok.EqualsAndHashCode;
 
+import java.util.Collections;
 import java.util.Date;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -32,6 +35,8 @@ public class ServerBackup extends PersistentObject {
     private BackupStatus status;
     private String message;
     private BackupProgressStatus backupProgressStatus;
+    // not persisted: only known while, and just after, the backup runs
+    private final transient Map<BackupProgressStatus, Long> stepDurationsInMillis = new EnumMap<>(BackupProgressStatus.class);
 
     private ServerBackup() {
     }
@@ -99,6 +104,14 @@ public class ServerBackup extends PersistentObject {
         this.message = status.getMessage();
     }
 
+    public synchronized void recordStepDuration(BackupProgressStatus step, long durationInMillis) {
+        stepDurationsInMillis.put(step, durationInMillis);
+    }
+
+    public synchronized Map<BackupProgressStatus, Long> getStepDurationsInMillis() {
+        return Collections.unmodifiableMap(new EnumMap<>(stepDurationsInMillis));
+    }
+
     public void markCompleted() {
         this.status = BackupStatus.COMPLETED;
     }
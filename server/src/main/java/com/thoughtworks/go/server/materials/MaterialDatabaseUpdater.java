@@ -24,6 +24,8 @@ import com.thoughtworks.go.domain.MaterialInstance;
 import com.thoughtworks.go.domain.MaterialRevisions;
 import com.thoughtworks.go.domain.materials.Material;
 import com.thoughtworks.go.domain.materials.Modifications;
+import com.thoughtworks.go.server.cache.LockKey;
+import com.thoughtworks.go.server.cache.LockRegistry;
 import com.thoughtworks.go.server.persistence.MaterialRepository;
 import com.thoughtworks.go.server.service.GoConfigService;
 import com.thoughtworks.go.server.service.MaterialExpansionService;
@@ -43,6 +45,7 @@ import java.io.File;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import static com.thoughtworks.go.server.cache.LockRegistry.locks;
 import static org.apache.commons.text.StringEscapeUtils.escapeHtml4;
 
 /**
@@ -50,7 +53,6 @@ import static org.apache.commons.text.StringEscapeUtils.escapeHtml4;
  */
 @Component
 public class MaterialDatabaseUpdater {
-    public static final String MATERIALS_MUTEX_FORMAT = MaterialDatabaseUpdater.class.getName() + "_MaterialMutex_%s_%s";
     private static final Logger LOGGER = LoggerFactory.getLogger(MaterialDatabaseUpdater.class);
     static final int STAGES_PER_PAGE = 100;
 
@@ -80,14 +82,14 @@ public class MaterialDatabaseUpdater {
     }
 
     public void updateMaterial(final Material material) {
-        String materialMutex = mutexForMaterial(material);
+        LockKey materialMutex = mutexForMaterial(material);
         HealthStateScope scope = HealthStateScope.forMaterial(material);
         try {
             MaterialInstance materialInstance = materialRepository.findMaterialInstance(material);
             if (materialInstance == null) {
                 LOGGER.debug("[Material Update] Material repository not found, creating with latest revision from {}", material);
 
-                synchronized (materialMutex) {
+                try (LockRegistry.Held ignored = locks().lock(materialMutex)) {
                     if (materialRepository.findMaterialInstance(material) == null) {
                         transactionTemplate.executeWithExceptionHandling(new TransactionCallback() {
                             @Override
@@ -101,7 +103,7 @@ public class MaterialDatabaseUpdater {
             } else {
                 LOGGER.debug("[Material Update] Existing material repository, fetching new revisions from {} in flyweight {}", material, materialInstance.getFlyweightName());
 
-                synchronized (materialMutex) {
+                try (LockRegistry.Held ignored = locks().lock(materialMutex)) {
                     transactionTemplate.executeWithExceptionHandling(new TransactionCallback() {
                         @Override
                         public Object doInTransaction(TransactionStatus status) {
@@ -183,11 +185,11 @@ public class MaterialDatabaseUpdater {
         updater.addNewMaterialWithModifications(expanded, folder);
     }
 
-    private String mutexForMaterial(Material material) {
+    private LockKey mutexForMaterial(Material material) {
         if (material instanceof DependencyMaterial dep) {
-            return String.format(MATERIALS_MUTEX_FORMAT, dep.getPipelineName().toLower(), dep.getStageName().toLower()).intern();
+            return LockKey.of(MaterialDatabaseUpdater.class, "dependencyMaterial", dep.getPipelineName(), dep.getStageName());
         } else {
-            return String.format(MATERIALS_MUTEX_FORMAT, material.getFingerprint(), "-this-lock-should-not-be-acquired-by-anyone-else-inadvertently").intern();
+            return LockKey.of(MaterialDatabaseUpdater.class, "material", material.getFingerprint());
         }
     }
 }
@@ -25,20 +25,29 @@ import com.thoughtworks.go.remote.work.Work;
 import com.thoughtworks.go.server.messaging.scheduling.WorkAssignments;
 import com.thoughtworks.go.server.perf.WorkAssignmentPerformanceLogger;
 import com.thoughtworks.go.server.service.AgentRuntimeInfo;
+import com.thoughtworks.go.server.service.BuildAssignmentService;
+import com.thoughtworks.go.util.SystemEnvironment;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @Component
 public class BuildRepositoryMessageProducer implements BuildRepositoryRemote {
     private final BuildRepositoryRemoteImpl buildRepository;
     private final WorkAssignments workAssignments;
     private final WorkAssignmentPerformanceLogger workAssignmentPerformanceLogger;
+    private final BuildAssignmentService buildAssignmentService;
+    private final SystemEnvironment systemEnvironment;
 
     @Autowired
-    public BuildRepositoryMessageProducer(BuildRepositoryRemoteImpl buildRepository, WorkAssignments workAssignments, WorkAssignmentPerformanceLogger workAssignmentPerformanceLogger) {
+    public BuildRepositoryMessageProducer(BuildRepositoryRemoteImpl buildRepository, WorkAssignments workAssignments, WorkAssignmentPerformanceLogger workAssignmentPerformanceLogger,
+                                          BuildAssignmentService buildAssignmentService, SystemEnvironment systemEnvironment) {
         this.buildRepository = buildRepository;
         this.workAssignments = workAssignments;
         this.workAssignmentPerformanceLogger = workAssignmentPerformanceLogger;
+        this.buildAssignmentService = buildAssignmentService;
+        this.systemEnvironment = systemEnvironment;
     }
 
     @Override
@@ -66,6 +75,19 @@ public class BuildRepositoryMessageProducer implements BuildRepositoryRemote {
         buildRepository.reportCompleting(agentRuntimeInfo, jobIdentifier, result);
     }
 
+    /**
+     * Reports completing and, if the agent asks for it and the server allows it, reserves the agent's next job.
+     *
+     * @return the urls of the git materials of the reserved job, which the agent can fetch while it uploads artifacts
+     */
+    public List<String> reportCompleting(AgentRuntimeInfo agentRuntimeInfo, JobIdentifier jobIdentifier, JobResult result, boolean prefetchNextWork) {
+        reportCompleting(agentRuntimeInfo, jobIdentifier, result);
+        if (prefetchNextWork && systemEnvironment.isServerNextWorkPrefetchEnabled()) {
+            return buildAssignmentService.reserveNextJob(agentRuntimeInfo.getIdentifier());
+        }
+        return List.of();
+    }
+
     @Override
     public boolean isIgnored(AgentRuntimeInfo agentRuntimeInfo, JobIdentifier jobIdentifier) {
         return buildRepository.isIgnored(jobIdentifier);
@@ -84,4 +106,19 @@ public class BuildRepositoryMessageProducer implements BuildRepositoryRemote {
 
         workAssignmentPerformanceLogger.agentReportedCompletion(agentRuntimeInfo, jobId, startTime, System.currentTimeMillis());
     }
+
+    /**
+     * Reports completion and hands over the job reserved for the agent when it reported completing, if any.
+     */
+    public Work reportCompleted(AgentRuntimeInfo agentRuntimeInfo, JobIdentifier jobId, JobResult result, boolean prefetchNextWork) {
+        reportCompleted(agentRuntimeInfo, jobId, result);
+        if (!prefetchNextWork || !systemEnvironment.isServerNextWorkPrefetchEnabled()) {
+            return BuildAssignmentService.NO_WORK;
+        }
+
+        long startTime = System.currentTimeMillis();
+        Work work = buildAssignmentService.assignReservedWork(agentRuntimeInfo.getIdentifier());
+        workAssignmentPerformanceLogger.retrievedWorkForAgent(agentRuntimeInfo, work, startTime, System.currentTimeMillis());
+        return work;
+    }
 }
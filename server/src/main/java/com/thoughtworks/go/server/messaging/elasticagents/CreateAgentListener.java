@@ -18,16 +18,26 @@ package com.thoughtworks.go.server.messaging.elasticagents;
 import com.thoughtworks.go.plugin.access.elastic.ElasticAgentPluginRegistry;
 import com.thoughtworks.go.server.messaging.GoMessageListener;
 
+import java.util.List;
+
 public class CreateAgentListener implements GoMessageListener<CreateAgentMessage> {
 
     private final ElasticAgentPluginRegistry elasticAgentPluginRegistry;
+    private final InFlightAgentCreations inFlightAgentCreations;
 
-    public CreateAgentListener(ElasticAgentPluginRegistry elasticAgentPluginRegistry) {
+    public CreateAgentListener(ElasticAgentPluginRegistry elasticAgentPluginRegistry, InFlightAgentCreations inFlightAgentCreations) {
         this.elasticAgentPluginRegistry = elasticAgentPluginRegistry;
+        this.inFlightAgentCreations = inFlightAgentCreations;
     }
 
     @Override
     public void onMessage(CreateAgentMessage message) {
-        elasticAgentPluginRegistry.createAgent(message.pluginId(), message.autoregisterKey(), message.environment(), message.configuration(), message.getClusterProfileConfiguration(), message.jobIdentifier());
+        List<Long> jobIds = List.of(message.jobIdentifier().getBuildId());
+        inFlightAgentCreations.started(jobIds);
+        try {
+            elasticAgentPluginRegistry.createAgent(message.pluginId(), message.autoregisterKey(), message.environment(), message.configuration(), message.getClusterProfileConfiguration(), message.jobIdentifier());
+        } finally {
+            inFlightAgentCreations.completed(jobIds);
+        }
     }
 }
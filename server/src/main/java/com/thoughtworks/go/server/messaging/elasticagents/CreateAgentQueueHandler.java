@@ -29,7 +29,7 @@ public class CreateAgentQueueHandler extends PluginAwareMessageQueueHandler<Crea
     final static String QUEUE_NAME_PREFIX = CreateAgentQueueHandler.class.getSimpleName() + ".";
 
     @Autowired
-    public CreateAgentQueueHandler(final MessagingService<GoMessage> messaging, final ElasticAgentPluginRegistry elasticAgentPluginRegistry, ElasticAgentExtension elasticAgentExtension, PluginManager pluginManager, final SystemEnvironment systemEnvironment) {
+    public CreateAgentQueueHandler(final MessagingService<GoMessage> messaging, final ElasticAgentPluginRegistry elasticAgentPluginRegistry, ElasticAgentExtension elasticAgentExtension, PluginManager pluginManager, final SystemEnvironment systemEnvironment, final InFlightAgentCreations inFlightAgentCreations) {
         super(elasticAgentExtension, messaging, pluginManager, new QueueFactory<CreateAgentMessage>() {
             @Override
             public PluginAwareMessageQueue<CreateAgentMessage> create(GoPluginDescriptor pluginDescriptor) {
@@ -37,7 +37,7 @@ public class CreateAgentQueueHandler extends PluginAwareMessageQueueHandler<Crea
             }
 
             public ListenerFactory<CreateAgentMessage> listener() {
-                return () -> new CreateAgentListener(elasticAgentPluginRegistry);
+                return () -> new CreateAgentListener(elasticAgentPluginRegistry, inFlightAgentCreations);
             }
         });
     }
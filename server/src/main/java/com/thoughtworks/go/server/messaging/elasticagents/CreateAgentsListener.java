@@ -0,0 +1,43 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.messaging.elasticagents;
+
+import com.thoughtworks.go.plugin.access.elastic.ElasticAgentPluginRegistry;
+import com.thoughtworks.go.server.messaging.GoMessageListener;
+
+import java.util.List;
+
+public class CreateAgentsListener implements GoMessageListener<CreateAgentsMessage> {
+
+    private final ElasticAgentPluginRegistry elasticAgentPluginRegistry;
+    private final InFlightAgentCreations inFlightAgentCreations;
+
+    public CreateAgentsListener(ElasticAgentPluginRegistry elasticAgentPluginRegistry, InFlightAgentCreations inFlightAgentCreations) {
+        this.elasticAgentPluginRegistry = elasticAgentPluginRegistry;
+        this.inFlightAgentCreations = inFlightAgentCreations;
+    }
+
+    @Override
+    public void onMessage(CreateAgentsMessage message) {
+        List<Long> jobIds = message.jobIds();
+        inFlightAgentCreations.started(jobIds);
+        try {
+            elasticAgentPluginRegistry.createAgents(message.pluginId(), message.configuration(), message.getClusterProfileConfiguration(), message.agents());
+        } finally {
+            inFlightAgentCreations.completed(jobIds);
+        }
+    }
+}
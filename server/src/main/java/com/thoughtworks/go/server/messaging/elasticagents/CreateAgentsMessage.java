@@ -0,0 +1,88 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.messaging.elasticagents;
+
+import com.thoughtworks.go.plugin.access.elastic.models.AgentCreationRequest;
+import com.thoughtworks.go.server.messaging.PluginAwareMessage;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+public class CreateAgentsMessage implements PluginAwareMessage {
+    private final String pluginId;
+    private final Map<String, String> configuration;
+    private final Map<String, String> clusterProfile;
+    private final List<AgentCreationRequest> agents;
+
+    public CreateAgentsMessage(String pluginId, Map<String, String> configuration, Map<String, String> clusterProfile, List<AgentCreationRequest> agents) {
+        this.pluginId = pluginId;
+        this.configuration = configuration;
+        this.clusterProfile = clusterProfile;
+        this.agents = agents;
+    }
+
+    @Override
+    public String pluginId() {
+        return pluginId;
+    }
+
+    public Map<String, String> configuration() {
+        return configuration;
+    }
+
+    public Map<String, String> getClusterProfileConfiguration() {
+        return clusterProfile;
+    }
+
+    public List<AgentCreationRequest> agents() {
+        return agents;
+    }
+
+    public List<Long> jobIds() {
+        return agents.stream().map(agent -> agent.jobIdentifier().getBuildId()).toList();
+    }
+
+    @Override
+    public String toString() {
+        return "CreateAgentsMessage{" +
+                "pluginId='" + pluginId + '\'' +
+                ", configuration=" + configuration +
+                ", clusterProfile=" + clusterProfile +
+                ", jobs=" + agents.stream().map(AgentCreationRequest::jobIdentifier).toList() +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        CreateAgentsMessage that = (CreateAgentsMessage) o;
+        return Objects.equals(pluginId, that.pluginId) &&
+                Objects.equals(configuration, that.configuration) &&
+                Objects.equals(clusterProfile, that.clusterProfile) &&
+                Objects.equals(agents, that.agents);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(pluginId, configuration, clusterProfile, agents);
+    }
+}
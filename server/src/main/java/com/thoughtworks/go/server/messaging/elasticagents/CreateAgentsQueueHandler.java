@@ -0,0 +1,61 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.messaging.elasticagents;
+
+import com.thoughtworks.go.plugin.access.elastic.ElasticAgentExtension;
+import com.thoughtworks.go.plugin.access.elastic.ElasticAgentPluginRegistry;
+import com.thoughtworks.go.plugin.access.elastic.models.AgentCreationRequest;
+import com.thoughtworks.go.plugin.infra.PluginManager;
+import com.thoughtworks.go.plugin.infra.plugininfo.GoPluginDescriptor;
+import com.thoughtworks.go.server.messaging.*;
+import com.thoughtworks.go.util.SystemEnvironment;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Queues the agents to be created, in batches, for plugins which can create several agents with a single request.
+ */
+@Component
+public class CreateAgentsQueueHandler extends PluginAwareMessageQueueHandler<CreateAgentsMessage> {
+    final static String QUEUE_NAME_PREFIX = CreateAgentsQueueHandler.class.getSimpleName() + ".";
+    private final SystemEnvironment systemEnvironment;
+
+    @Autowired
+    public CreateAgentsQueueHandler(final MessagingService<GoMessage> messaging, final ElasticAgentPluginRegistry elasticAgentPluginRegistry, ElasticAgentExtension elasticAgentExtension, PluginManager pluginManager, final SystemEnvironment systemEnvironment, final InFlightAgentCreations inFlightAgentCreations) {
+        super(elasticAgentExtension, messaging, pluginManager, new QueueFactory<CreateAgentsMessage>() {
+            @Override
+            public PluginAwareMessageQueue<CreateAgentsMessage> create(GoPluginDescriptor pluginDescriptor) {
+                return new PluginAwareMessageQueue<>(messaging, QUEUE_NAME_PREFIX + pluginDescriptor.id(), systemEnvironment.get(SystemEnvironment.GO_ELASTIC_PLUGIN_CREATE_AGENT_THREADS), listener());
+            }
+
+            public ListenerFactory<CreateAgentsMessage> listener() {
+                return () -> new CreateAgentsListener(elasticAgentPluginRegistry, inFlightAgentCreations);
+            }
+        });
+        this.systemEnvironment = systemEnvironment;
+    }
+
+    public void post(String pluginId, Map<String, String> configuration, Map<String, String> clusterProfileConfiguration, List<AgentCreationRequest> agents, long timeToLive) {
+        int batchSize = Math.max(1, systemEnvironment.get(SystemEnvironment.GO_ELASTIC_PLUGIN_CREATE_AGENTS_BATCH_SIZE));
+        for (int from = 0; from < agents.size(); from += batchSize) {
+            List<AgentCreationRequest> batch = List.copyOf(agents.subList(from, Math.min(agents.size(), from + batchSize)));
+            post(new CreateAgentsMessage(pluginId, configuration, clusterProfileConfiguration, batch), timeToLive);
+        }
+    }
+}
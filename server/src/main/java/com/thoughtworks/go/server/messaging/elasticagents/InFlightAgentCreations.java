@@ -0,0 +1,71 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.messaging.elasticagents;
+
+import com.thoughtworks.go.util.TimeProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The jobs for which an elastic agent has been asked for, and not yet been created. A job is in flight from the time
+ * its create agent message is posted until the message expires, or, once a listener picks the message up, until the
+ * plugin has answered. Jobs in flight are not asked for again, even if they have been waiting for longer than the
+ * starvation threshold, so that a slow plugin is not asked to create several agents for the same job.
+ */
+@Component
+public class InFlightAgentCreations {
+    private static final long UNTIL_COMPLETED = Long.MAX_VALUE;
+
+    private final TimeProvider timeProvider;
+    private final ConcurrentMap<Long, Long> expiryByJobId = new ConcurrentHashMap<>();
+
+    @Autowired
+    public InFlightAgentCreations(TimeProvider timeProvider) {
+        this.timeProvider = timeProvider;
+    }
+
+    public void requested(long jobId, long timeToLive) {
+        expiryByJobId.put(jobId, timeProvider.currentTimeMillis() + timeToLive);
+    }
+
+    public void started(Collection<Long> jobIds) {
+        jobIds.forEach(jobId -> expiryByJobId.put(jobId, UNTIL_COMPLETED));
+    }
+
+    public void completed(Collection<Long> jobIds) {
+        jobIds.forEach(expiryByJobId::remove);
+    }
+
+    public boolean isInFlight(long jobId) {
+        Long expiry = expiryByJobId.get(jobId);
+        if (expiry == null) {
+            return false;
+        }
+        if (expiry <= timeProvider.currentTimeMillis()) {
+            expiryByJobId.remove(jobId, expiry);
+            return false;
+        }
+        return true;
+    }
+
+    public int size() {
+        return expiryByJobId.size();
+    }
+}
@@ -15,6 +15,7 @@
  */
 package com.thoughtworks.go.server.messaging.notifications;
 
+import com.thoughtworks.go.plugin.access.notification.NotificationPayload;
 import com.thoughtworks.go.server.messaging.PluginAwareMessage;
 
 import java.io.Serializable;
@@ -23,12 +24,16 @@ import java.util.Objects;
 public class PluginNotificationMessage<T extends Serializable> implements PluginAwareMessage {
     private String pluginId;
     private final String requestName;
-    private final T data;
+    private final NotificationPayload<T> payload;
 
     public PluginNotificationMessage(String pluginId, String requestName, T data) {
+        this(pluginId, requestName, new NotificationPayload<>(data));
+    }
+
+    public PluginNotificationMessage(String pluginId, String requestName, NotificationPayload<T> payload) {
         this.pluginId = pluginId;
         this.requestName = requestName;
-        this.data = data;
+        this.payload = payload;
     }
 
     public String getRequestName() {
@@ -36,7 +41,11 @@ public class PluginNotificationMessage<T extends Serializable> implements Plugin
     }
 
     public T getData() {
-        return data;
+        return payload.getData();
+    }
+
+    public NotificationPayload<T> getPayload() {
+        return payload;
     }
 
     @Override
@@ -50,13 +59,13 @@ public class PluginNotificationMessage<T extends Serializable> implements Plugin
         PluginNotificationMessage<?> that = (PluginNotificationMessage<?>) o;
         return Objects.equals(pluginId, that.pluginId) &&
                 Objects.equals(requestName, that.requestName) &&
-                Objects.equals(data, that.data);
+                Objects.equals(payload, that.payload);
     }
 
     @Override
     public int hashCode() {
 
-        return Objects.hash(pluginId, requestName, data);
+        return Objects.hash(pluginId, requestName, payload);
     }
 
     @Override
@@ -69,7 +78,7 @@ public class PluginNotificationMessage<T extends Serializable> implements Plugin
         return "PluginNotificationMessage{" +
                 "pluginId='" + pluginId + '\'' +
                 ", requestName='" + requestName + '\'' +
-                ", data=" + data +
+                ", data=" + payload +
                 '}';
     }
 }
@@ -44,7 +44,7 @@ public class PluginNotificationMessageListener implements GoMessageListener<Plug
             if (LOGGER.isDebugEnabled()) {
                 LOGGER.debug("Sending {} notification message {} for plugin {}", message.getRequestName(), message, message.pluginId());
             }
-            Result result = notificationExtension.notify(message.pluginId(), message.getRequestName(), message.getData());
+            Result result = notificationExtension.notify(message.pluginId(), message.getRequestName(), message.getPayload());
 
             if (result.isSuccessful()) {
                 serverHealthService.removeByScope(scope);
@@ -23,7 +23,9 @@ import com.thoughtworks.go.domain.StageIdentifier;
 import com.thoughtworks.go.domain.buildcause.BuildCause;
 import com.thoughtworks.go.domain.notificationdata.AgentNotificationData;
 import com.thoughtworks.go.domain.notificationdata.StageNotificationData;
+import com.thoughtworks.go.plugin.access.notification.NotificationBatch;
 import com.thoughtworks.go.plugin.access.notification.NotificationExtension;
+import com.thoughtworks.go.plugin.access.notification.NotificationPayload;
 import com.thoughtworks.go.plugin.access.notification.NotificationPluginRegistry;
 import com.thoughtworks.go.server.dao.PipelineDao;
 import com.thoughtworks.go.server.dao.StageDao;
@@ -33,11 +35,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.io.Serializable;
-import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
 
+import static com.thoughtworks.go.util.SystemEnvironment.NOTIFICATION_PLUGIN_BATCH_SIZE;
 import static com.thoughtworks.go.util.SystemEnvironment.NOTIFICATION_PLUGIN_MESSAGES_TTL_IN_MILLIS;
 
 @Component
@@ -49,6 +49,8 @@ public class PluginNotificationService {
     private final StageDao stageDao;
     private final SystemEnvironment systemEnvironment;
     private final Map<String, NotificationDataCreator<?, ?>> notificationCreators = new HashMap<>();
+    private final Map<String, String> batchedRequestNames = Map.of(NotificationExtension.STAGE_STATUS_CHANGE_NOTIFICATION, NotificationExtension.STAGE_STATUS_BATCH_NOTIFICATION);
+    private final Map<String, List<NotificationPayload<?>>> pendingBatchesByPlugin = new HashMap<>();
 
     @Autowired
     public PluginNotificationService(NotificationPluginRegistry notificationPluginRegistry,
@@ -73,13 +75,60 @@ public class PluginNotificationService {
         notify(NotificationExtension.STAGE_STATUS_CHANGE_NOTIFICATION, stage);
     }
 
+    /**
+     * Sends out the notifications waiting to be batched, whether or not the batches are full. Called periodically.
+     */
+    public void flushBatches() {
+        Map<String, List<NotificationPayload<?>>> batches;
+        synchronized (pendingBatchesByPlugin) {
+            batches = new HashMap<>(pendingBatchesByPlugin);
+            pendingBatchesByPlugin.clear();
+        }
+        long timeToLive = systemEnvironment.get(NOTIFICATION_PLUGIN_MESSAGES_TTL_IN_MILLIS);
+        batches.forEach((pluginId, payloads) -> postBatch(pluginId, payloads, timeToLive));
+    }
+
     private void notify(String requestName, Object instance) {
         Set<String> interestedPlugins = notificationPluginRegistry.getPluginsInterestedIn(requestName);
+        String batchedRequestName = batchedRequestNames.get(requestName);
+        Set<String> batchingPlugins = batchedRequestName == null ? Set.of() : notificationPluginRegistry.getPluginsInterestedIn(batchedRequestName);
         long timeToLive = systemEnvironment.get(NOTIFICATION_PLUGIN_MESSAGES_TTL_IN_MILLIS);
+        if (interestedPlugins.isEmpty() && batchingPlugins.isEmpty()) {
+            return;
+        }
+
+        // built once and shared by the messages to all plugins, since building it can take a few queries
+        @SuppressWarnings("unchecked") NotificationPayload<?> payload = new NotificationPayload<>(((NotificationDataCreator<Object, ?>) notificationCreators.get(requestName)).notificationDataFor(instance));
         for (String pluginId : interestedPlugins) {
-            @SuppressWarnings("unchecked") PluginNotificationMessage<?> message = new PluginNotificationMessage<>(pluginId, requestName, ((NotificationDataCreator<Object, ?>) notificationCreators.get(requestName)).notificationDataFor(instance));
-            pluginNotificationsQueueHandler.post(message, timeToLive);
+            if (!batchingPlugins.contains(pluginId)) {
+                pluginNotificationsQueueHandler.post(messageFor(pluginId, requestName, payload), timeToLive);
+            }
         }
+        for (String pluginId : batchingPlugins) {
+            addToBatch(pluginId, payload, timeToLive);
+        }
+    }
+
+    private void addToBatch(String pluginId, NotificationPayload<?> payload, long timeToLive) {
+        List<NotificationPayload<?>> fullBatch = null;
+        synchronized (pendingBatchesByPlugin) {
+            List<NotificationPayload<?>> batch = pendingBatchesByPlugin.computeIfAbsent(pluginId, k -> new ArrayList<>());
+            batch.add(payload);
+            if (batch.size() >= systemEnvironment.get(NOTIFICATION_PLUGIN_BATCH_SIZE)) {
+                fullBatch = pendingBatchesByPlugin.remove(pluginId);
+            }
+        }
+        if (fullBatch != null) {
+            postBatch(pluginId, fullBatch, timeToLive);
+        }
+    }
+
+    private void postBatch(String pluginId, List<NotificationPayload<?>> payloads, long timeToLive) {
+        pluginNotificationsQueueHandler.post(new PluginNotificationMessage<>(pluginId, NotificationExtension.STAGE_STATUS_BATCH_NOTIFICATION, new NotificationBatch(payloads)), timeToLive);
+    }
+
+    private static <T extends Serializable> PluginNotificationMessage<T> messageFor(String pluginId, String requestName, NotificationPayload<T> payload) {
+        return new PluginNotificationMessage<T>(pluginId, requestName, payload);
     }
 
     private static class AgentNotificationDataCreator implements NotificationDataCreator<AgentInstance, AgentNotificationData> {
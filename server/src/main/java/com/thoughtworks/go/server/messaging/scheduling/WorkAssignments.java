@@ -18,6 +18,8 @@ package com.thoughtworks.go.server.messaging.scheduling;
 import com.thoughtworks.go.remote.AgentIdentifier;
 import com.thoughtworks.go.remote.work.NoWork;
 import com.thoughtworks.go.remote.work.Work;
+import com.thoughtworks.go.server.cache.LockKey;
+import com.thoughtworks.go.server.cache.LockRegistry;
 import com.thoughtworks.go.server.messaging.GoMessageChannel;
 import com.thoughtworks.go.server.messaging.GoMessageListener;
 import com.thoughtworks.go.server.service.AgentRuntimeInfo;
@@ -27,6 +29,8 @@ import org.springframework.stereotype.Service;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
+import static com.thoughtworks.go.server.cache.LockRegistry.locks;
+
 @Service
 public class WorkAssignments implements GoMessageListener<WorkAssignedMessage> {
     private GoMessageChannel<IdleAgentMessage> idleAgentsTopic;
@@ -43,7 +47,7 @@ public class WorkAssignments implements GoMessageListener<WorkAssignedMessage> {
 
     public Work getWork(AgentRuntimeInfo runtimeInfo) {
         AgentIdentifier agent = runtimeInfo.getIdentifier();
-        synchronized (agentMutex(agent)) {
+        try (LockRegistry.Held ignored = locks().lock(agentMutex(agent))) {
             Work work = assignments.get(agent);
             if (work == null) {
                 assignments.put(agent, NO_WORK);
@@ -59,8 +63,8 @@ public class WorkAssignments implements GoMessageListener<WorkAssignedMessage> {
         }
     }
 
-    private String agentMutex(AgentIdentifier agent) {
-        return agent.getUuid().intern();
+    private LockKey agentMutex(AgentIdentifier agent) {
+        return LockKey.of(WorkAssignments.class, "agent", agent.getUuid());
     }
 
     @Override
@@ -68,11 +72,11 @@ public class WorkAssignments implements GoMessageListener<WorkAssignedMessage> {
         AgentIdentifier agentIdentifier = message.getAgent();
         Work work = message.getWork();
         if (work instanceof NoWork) {
-            synchronized (agentMutex(agentIdentifier)) {
+            try (LockRegistry.Held ignored = locks().lock(agentMutex(agentIdentifier))) {
                 assignments.remove(agentIdentifier);
             }
         } else {
-            synchronized (agentMutex(agentIdentifier)) {
+            try (LockRegistry.Held ignored = locks().lock(agentMutex(agentIdentifier))) {
                 assignments.replace(agentIdentifier, NO_WORK, work);
             }
         }
@@ -15,6 +15,7 @@
  */
 package com.thoughtworks.go.server.newsecurity.filters;
 
+import com.thoughtworks.go.server.cache.LockRegistry;
 import com.thoughtworks.go.server.newsecurity.models.*;
 import com.thoughtworks.go.server.newsecurity.providers.AnonymousAuthenticationProvider;
 import com.thoughtworks.go.server.newsecurity.providers.PasswordBasedPluginAuthenticationProvider;
@@ -34,6 +35,8 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 
+import static com.thoughtworks.go.server.cache.LockRegistry.locks;
+
 public abstract class AbstractReAuthenticationFilter extends OncePerRequestFilter {
     protected final Logger LOGGER = LoggerFactory.getLogger(getClass());
     protected final SecurityService securityService;
@@ -80,7 +83,7 @@ public abstract class AbstractReAuthenticationFilter extends OncePerRequestFilte
     private void performReauthentication(HttpServletRequest request,
                                          HttpServletResponse response,
                                          FilterChain filterChain) throws IOException, ServletException {
-        synchronized (SessionUtils.sessionIdMonitorFor(request)) {
+        try (LockRegistry.Held ignored = locks().lock(SessionUtils.sessionIdMonitorFor(request))) {
             if (SessionUtils.isAuthenticated(request, clock, systemEnvironment)) {
                 LOGGER.debug("Continuing chain because user is authenticated.");
                 filterChain.doFilter(request, response);
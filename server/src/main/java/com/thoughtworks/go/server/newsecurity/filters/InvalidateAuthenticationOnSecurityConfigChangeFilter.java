@@ -20,6 +20,7 @@ import com.thoughtworks.go.config.SecurityConfig;
 import com.thoughtworks.go.listener.ConfigChangedListener;
 import com.thoughtworks.go.listener.PluginRoleChangeListener;
 import com.thoughtworks.go.listener.SecurityConfigChangeListener;
+import com.thoughtworks.go.server.cache.LockRegistry;
 import com.thoughtworks.go.server.newsecurity.models.AuthenticationToken;
 import com.thoughtworks.go.server.newsecurity.utils.SessionUtils;
 import com.thoughtworks.go.server.service.AuthorizationExtensionCacheService;
@@ -41,6 +42,8 @@ import java.util.Objects;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
+import static com.thoughtworks.go.server.cache.LockRegistry.locks;
+
 @Component
 public class InvalidateAuthenticationOnSecurityConfigChangeFilter extends OncePerRequestFilter implements ConfigChangedListener, PluginRoleChangeListener {
     public static final String SECURITY_CONFIG_LAST_CHANGE = "GOCD_SECURITY_CONFIG_LAST_CHANGED_TIME";
@@ -92,7 +95,7 @@ public class InvalidateAuthenticationOnSecurityConfigChangeFilter extends OncePe
         }
 
         final AuthenticationToken<?> authenticationToken = Objects.requireNonNull(SessionUtils.getAuthenticationToken(request), "Authentication token must not be null.");
-        synchronized (SessionUtils.sessionIdMonitorFor(request)) {
+        try (LockRegistry.Held ignored = locks().lock(SessionUtils.sessionIdMonitorFor(request))) {
             long lastChanged = lastChangedTime.longValue();
             Long previousLastChangedTime = (Long) request.getSession().getAttribute(SECURITY_CONFIG_LAST_CHANGE);
             if (previousLastChangedTime == null) {
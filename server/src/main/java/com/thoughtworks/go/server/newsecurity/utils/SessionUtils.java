@@ -15,6 +15,7 @@
  */
 package com.thoughtworks.go.server.newsecurity.utils;
 
+import com.thoughtworks.go.server.cache.LockKey;
 import com.thoughtworks.go.server.domain.Username;
 import com.thoughtworks.go.server.newsecurity.models.AnonymousCredential;
 import com.thoughtworks.go.server.newsecurity.models.AuthenticationToken;
@@ -182,7 +183,7 @@ public class SessionUtils {
         return getCurrentUser().asUsernameObject();
     }
 
-    public static @NotNull String sessionIdMonitorFor(HttpServletRequest request) {
-        return request.getSession(false).getId().intern();
+    public static @NotNull LockKey sessionIdMonitorFor(HttpServletRequest request) {
+        return LockKey.of(SessionUtils.class, "session", request.getSession(false).getId());
     }
 }
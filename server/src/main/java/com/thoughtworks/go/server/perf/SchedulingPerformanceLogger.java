@@ -21,11 +21,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 
 @Component
 public class SchedulingPerformanceLogger {
     private final Logger performanceLogger;
     private final AtomicLong currentTrackingId = new AtomicLong(0);
+    private final LongAdder pipelinesTakenFromToBeScheduledQueue = new LongAdder();
+    private final LongAdder toBeScheduledQueueWaitTimeInMillis = new LongAdder();
+    private final LongAccumulator maxToBeScheduledQueueWaitTimeInMillis = new LongAccumulator(Math::max, 0);
 
     @Autowired
     public SchedulingPerformanceLogger(PerformanceLogger performanceLogger) {
@@ -104,9 +109,25 @@ public class SchedulingPerformanceLogger {
         }
     }
 
+    public void pipelineTakenFromToBeScheduledQueue(CaseInsensitiveString pipelineName, long waitTimeInMillis) {
+        pipelinesTakenFromToBeScheduledQueue.increment();
+        toBeScheduledQueueWaitTimeInMillis.add(waitTimeInMillis);
+        maxToBeScheduledQueueWaitTimeInMillis.accumulate(waitTimeInMillis);
+        if (performanceLogger.isDebugEnabled()) {
+            performanceLogger.debug("SCH-TO-BE-SCHEDULED-QUEUE-WAIT {} {}", pipelineName, waitTimeInMillis);
+        }
+    }
+
+    public QueueWaitTimes toBeScheduledQueueWaitTimes() {
+        return new QueueWaitTimes(pipelinesTakenFromToBeScheduledQueue.sum(), toBeScheduledQueueWaitTimeInMillis.sum(), maxToBeScheduledQueueWaitTimeInMillis.get());
+    }
+
     public void scheduledPipeline(CaseInsensitiveString pipelineName, int toBeScheduledQueueSize, long schedulePipelineStartTime, long schedulePipelineEndTime) {
         if (performanceLogger.isDebugEnabled()) {
             performanceLogger.debug("SCH-SCHEDULED {} {} {} {}", pipelineName, toBeScheduledQueueSize, schedulePipelineStartTime, schedulePipelineEndTime);
         }
     }
+
+    public record QueueWaitTimes(long pipelines, long totalWaitTimeInMillis, long maxWaitTimeInMillis) {
+    }
 }
@@ -24,6 +24,7 @@ import com.thoughtworks.go.domain.materials.*;
 import com.thoughtworks.go.domain.materials.dependency.DependencyMaterialInstance;
 import com.thoughtworks.go.server.cache.CacheKeyGenerator;
 import com.thoughtworks.go.server.cache.GoCache;
+import com.thoughtworks.go.server.cache.LockRegistry;
 import com.thoughtworks.go.server.dao.FeedModifier;
 import com.thoughtworks.go.server.database.Database;
 import com.thoughtworks.go.server.database.QueryExtensions;
@@ -56,6 +57,7 @@ import java.math.BigInteger;
 import java.util.*;
 import java.util.stream.Collectors;
 
+import static com.thoughtworks.go.server.cache.LockRegistry.locks;
 import static com.thoughtworks.go.server.persistence.MaterialQueries.loadModificationQuery;
 import static com.thoughtworks.go.util.ExceptionUtils.bomb;
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
@@ -252,7 +254,7 @@ public class MaterialRepository extends HibernateDaoSupport {
 
     public List<PipelineMaterialRevision> findPipelineMaterialRevisions(long pipelineId) {
         String cacheKey = pipelinePmrsKey(pipelineId);
-        synchronized (cacheKey) {
+        try (LockRegistry.Held ignored = locks().lock(cacheKey)) {
             List<PipelineMaterialRevision> results = goCache.get(cacheKey);
             if (results != null) {
                 return results;
@@ -352,7 +354,7 @@ public class MaterialRepository extends HibernateDaoSupport {
     }
 
     private String pipelinePmrsKey(long pipelineId) {
-        return (MaterialRepository.class.getName() + "_pipelinePMRs_" + pipelineId).intern();
+        return (MaterialRepository.class.getName() + "_pipelinePMRs_" + pipelineId);
     }
 
     @SuppressWarnings("unchecked")
@@ -365,7 +367,7 @@ public class MaterialRepository extends HibernateDaoSupport {
         String cacheKey = pmrModificationsKey(pmr);
         List<Modification> modifications = goCache.get(cacheKey);
         if (modifications == null) {
-            synchronized (cacheKey) {
+            try (LockRegistry.Held ignored = locks().lock(cacheKey)) {
                 modifications = goCache.get(cacheKey);
                 if (modifications == null) {
                     modifications = (List<Modification>) getHibernateTemplate().find(
@@ -379,8 +381,7 @@ public class MaterialRepository extends HibernateDaoSupport {
     }
 
     private String pmrModificationsKey(PipelineMaterialRevision pmr) {
-        // we intern() it because we might synchronize on the returned String
-        return (MaterialRepository.class.getName() + "_pmrModifications_" + pmr.getId()).intern();
+        return (MaterialRepository.class.getName() + "_pmrModifications_" + pmr.getId());
     }
 
     private List<String> pmrModificationsKey(Modification modification, List<PipelineMaterialRevision> pmrs) {
@@ -400,18 +401,15 @@ public class MaterialRepository extends HibernateDaoSupport {
     }
 
     String latestMaterialModificationsKey(MaterialInstance materialInstance) {
-        // we intern() it because we might synchronize on the returned String
-        return (MaterialRepository.class.getName() + "_latestMaterialModifications_" + materialInstance.getId()).intern();
+        return (MaterialRepository.class.getName() + "_latestMaterialModifications_" + materialInstance.getId());
     }
 
     String materialModificationCountKey(MaterialInstance materialInstance) {
-        // we intern() it because we might synchronize on the returned String
-        return (MaterialRepository.class.getName() + "_materialModificationCount_" + materialInstance.getId()).intern();
+        return (MaterialRepository.class.getName() + "_materialModificationCount_" + materialInstance.getId());
     }
 
     String materialModificationsWithPaginationKey(MaterialInstance materialInstance) {
-        // we intern() it because we might synchronize on the returned String
-        return (MaterialRepository.class.getName() + "_materialModificationsWithPagination_" + materialInstance.getId()).intern();
+        return (MaterialRepository.class.getName() + "_materialModificationsWithPagination_" + materialInstance.getId());
     }
 
     String materialModificationsWithPaginationSubKey(Pagination pagination) {
@@ -420,7 +418,7 @@ public class MaterialRepository extends HibernateDaoSupport {
 
     public void saveOrUpdate(MaterialInstance materialInstance) {
         String cacheKey = materialKey(materialInstance.getFingerprint());
-        synchronized (cacheKey) {
+        try (LockRegistry.Held ignored = locks().lock(cacheKey)) {
             getHibernateTemplate().saveOrUpdate(materialInstance);
             goCache.remove(cacheKey);
             goCache.put(cacheKey, materialInstance);
@@ -455,7 +453,7 @@ public class MaterialRepository extends HibernateDaoSupport {
 
     public MaterialInstance findOrCreateFrom(@NotNull Material material) {
         String cacheKey = materialKey(material);
-        synchronized (cacheKey) {
+        try (LockRegistry.Held ignored = locks().lock(cacheKey)) {
             MaterialInstance materialInstance = findMaterialInstance(material);
             if (materialInstance == null) {
                 LOGGER.debug("Material instance for material '{}' not found in the database, creating a new instance now.", material);
@@ -471,15 +469,14 @@ public class MaterialRepository extends HibernateDaoSupport {
     }
 
     private @NotNull String materialKey(String fingerprint) {
-        // we intern() it because we synchronize on the returned String
-        return (MaterialRepository.class.getName() + "_materialInstance_" + fingerprint).intern();
+        return (MaterialRepository.class.getName() + "_materialInstance_" + fingerprint);
     }
 
     public MaterialInstance findMaterialInstance(@NotNull Material material) {
         String cacheKey = materialKey(material);
         MaterialInstance materialInstance = goCache.get(cacheKey);
         if (materialInstance == null) {
-            synchronized (cacheKey) {
+            try (LockRegistry.Held ignored = locks().lock(cacheKey)) {
                 materialInstance = goCache.get(cacheKey);
                 if (materialInstance == null) {
                     DetachedCriteria hibernateCriteria = DetachedCriteria.forClass(material.getInstanceType());
@@ -494,7 +491,7 @@ public class MaterialRepository extends HibernateDaoSupport {
         String cacheKey = materialKey(materialConfig.getFingerprint());
         MaterialInstance materialInstance = goCache.get(cacheKey);
         if (materialInstance == null) {
-            synchronized (cacheKey) {
+            try (LockRegistry.Held ignored = locks().lock(cacheKey)) {
                 materialInstance = goCache.get(cacheKey);
                 if (materialInstance == null) {
                     DetachedCriteria hibernateCriteria = DetachedCriteria.forClass(materialConfigConverter.getInstanceType(materialConfig));
@@ -600,7 +597,7 @@ public class MaterialRepository extends HibernateDaoSupport {
             @Override
             public void afterCommit() {
                 String key = cacheKeyForLatestPmrForPipelineKey(pipelineMaterialRevision.getMaterialId(), pipelineName.toLowerCase());
-                synchronized (key) {
+                try (LockRegistry.Held ignored = locks().lock(key)) {
                     goCache.remove(key);
                 }
             }
@@ -633,7 +630,7 @@ public class MaterialRepository extends HibernateDaoSupport {
     public List<Modification> findModificationsSince(Material material, MaterialRevision revision) {
         MaterialInstance materialInstance = findOrCreateFrom(material);
         String cacheKey = latestMaterialModificationsKey(materialInstance);
-        synchronized (cacheKey) {
+        try (LockRegistry.Held ignored = locks().lock(cacheKey)) {
             long sinceModificationId = revision.getLatestModification().getId();
             Modifications modifications = cachedModifications(materialInstance);
             if (!modificationExists(sinceModificationId, modifications)) {
@@ -669,7 +666,7 @@ public class MaterialRepository extends HibernateDaoSupport {
             @Override
             public void afterCommit() {
                 String cacheKey = latestMaterialModificationsKey(materialInstance);
-                synchronized (cacheKey) {
+                try (LockRegistry.Held ignored = locks().lock(cacheKey)) {
                     goCache.remove(cacheKey);
                 }
             }
@@ -681,7 +678,7 @@ public class MaterialRepository extends HibernateDaoSupport {
             @Override
             public void afterCommit() {
                 String key = materialModificationCountKey(materialInstance);
-                synchronized (key) {
+                try (LockRegistry.Held ignored = locks().lock(key)) {
                     goCache.remove(key);
                 }
             }
@@ -693,7 +690,7 @@ public class MaterialRepository extends HibernateDaoSupport {
             @Override
             public void afterCommit() {
                 String key = materialModificationsWithPaginationKey(materialInstance);
-                synchronized (key) {
+                try (LockRegistry.Held ignored = locks().lock(key)) {
                     goCache.remove(key);
                 }
             }
@@ -728,7 +725,7 @@ public class MaterialRepository extends HibernateDaoSupport {
             return modifications.getFirst();
         }
         String cacheKey = latestMaterialModificationsKey(expandedInstance);
-        synchronized (cacheKey) {
+        try (LockRegistry.Held ignored = locks().lock(cacheKey)) {
             Modification modification = (Modification) getHibernateTemplate().execute(session -> {
                 Query query = session.createQuery("FROM Modification WHERE materialId = ? ORDER BY id DESC");
                 query.setMaxResults(1);
@@ -813,7 +810,7 @@ public class MaterialRepository extends HibernateDaoSupport {
         String key = cacheKeyForModificationWithRevision(materialId, revision);
         modification = goCache.get(key);
         if (modification == null) {
-            synchronized (key) {
+            try (LockRegistry.Held ignored = locks().lock(key)) {
                 modification = goCache.get(key);
                 if (modification == null) {
                     Query query = session.createQuery("FROM Modification WHERE materialId = ? and revision = ? ORDER BY id DESC");
@@ -914,7 +911,7 @@ public class MaterialRepository extends HibernateDaoSupport {
         String key = cacheKeyForModificationsForStageLocator(stageIdentifier);
         List<Modification> modifications = goCache.get(key);
         if (modifications == null) {
-            synchronized (key) {
+            try (LockRegistry.Held ignored = locks().lock(key)) {
                 modifications = goCache.get(key);
                 if (modifications == null) {
                     modifications = getHibernateTemplate().execute(session -> {
@@ -935,7 +932,7 @@ public class MaterialRepository extends HibernateDaoSupport {
         String key = materialModificationCountKey(materialInstance);
         Long totalCount = goCache.get(key);
         if (totalCount == null || totalCount == 0) {
-            synchronized (key) {
+            try (LockRegistry.Held ignored = locks().lock(key)) {
                 totalCount = goCache.get(key);
                 if (totalCount == null || totalCount == 0) {
                     totalCount = getHibernateTemplate().execute(session -> {
@@ -955,7 +952,7 @@ public class MaterialRepository extends HibernateDaoSupport {
         String subKey = materialModificationsWithPaginationSubKey(pagination);
         Modifications modifications = (Modifications) goCache.get(key, subKey);
         if (modifications == null) {
-            synchronized (key) {
+            try (LockRegistry.Held ignored = locks().lock(key)) {
                 modifications = (Modifications) goCache.get(key, subKey);
                 if (modifications == null) {
                     @SuppressWarnings("unchecked") List<Modification> modificationsList = getHibernateTemplate().execute(session -> {
@@ -980,7 +977,7 @@ public class MaterialRepository extends HibernateDaoSupport {
         String key = cacheKeyForLatestPmrForPipelineKey(materialId, pipelineName.toLower());
         Long modificationId = goCache.get(key);
         if (modificationId == null) {
-            synchronized (key) {
+            try (LockRegistry.Held ignored = locks().lock(key)) {
                 modificationId = goCache.get(key);
                 if (modificationId == null) {
                     modificationId = (Long) getHibernateTemplate().execute(session -> {
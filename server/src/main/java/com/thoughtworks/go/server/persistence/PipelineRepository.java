@@ -17,6 +17,7 @@ package com.thoughtworks.go.server.persistence;
 
 import com.thoughtworks.go.domain.PipelineTimelineEntry;
 import com.thoughtworks.go.server.cache.GoCache;
+import com.thoughtworks.go.server.cache.LockRegistry;
 import com.thoughtworks.go.server.database.Database;
 import com.thoughtworks.go.server.database.QueryExtensions;
 import com.thoughtworks.go.server.domain.PipelineTimeline;
@@ -35,6 +36,7 @@ import org.springframework.stereotype.Component;
 import java.math.BigInteger;
 import java.util.*;
 
+import static com.thoughtworks.go.server.cache.LockRegistry.locks;
 import static org.apache.commons.lang3.StringUtils.isEmpty;
 
 /**
@@ -205,7 +207,7 @@ public class PipelineRepository extends HibernateDaoSupport {
             return goCache.get(key);
         }
 
-        synchronized (key) {
+        try (LockRegistry.Held ignored = locks().lock(key)) {
             if (goCache.isKeyInCache(key)) {
                 return goCache.get(key);
             }
@@ -236,7 +238,7 @@ public class PipelineRepository extends HibernateDaoSupport {
         if (goCache.isKeyInCache(key)) {
             return goCache.get(key);
         }
-        synchronized (key) {
+        try (LockRegistry.Held ignored = locks().lock(key)) {
             if (goCache.isKeyInCache(key)) {
                 return goCache.get(key);
             }
@@ -250,23 +252,23 @@ public class PipelineRepository extends HibernateDaoSupport {
 
     private void removePipelineSelectionFromCacheForCookie(PipelineSelections pipelineSelections) {
         String pipelineSelectionCookieKey = pipelineSelectionForCookieKey(pipelineSelections.getId());
-        synchronized (pipelineSelectionCookieKey) {
+        try (LockRegistry.Held ignored = locks().lock(pipelineSelectionCookieKey)) {
             goCache.remove(pipelineSelectionCookieKey);
         }
     }
 
     private void removePipelineSelectionFromCacheForUserId(PipelineSelections pipelineSelections) {
         String pipelineSelectionUserIdKey = pipelineSelectionForUserIdKey(pipelineSelections.userId());
-        synchronized (pipelineSelectionUserIdKey) {
+        try (LockRegistry.Held ignored = locks().lock(pipelineSelectionUserIdKey)) {
             goCache.remove(pipelineSelectionUserIdKey);
         }
     }
 
     String pipelineSelectionForUserIdKey(Long userId) {
-        return (PipelineRepository.class.getName() + "_userIdPipelineSelection_" + userId).intern();
+        return (PipelineRepository.class.getName() + "_userIdPipelineSelection_" + userId);
     }
 
     String pipelineSelectionForCookieKey(long id) {
-        return (PipelineRepository.class.getName() + "_cookiePipelineSelection_" + id).intern();
+        return (PipelineRepository.class.getName() + "_cookiePipelineSelection_" + id);
     }
 }
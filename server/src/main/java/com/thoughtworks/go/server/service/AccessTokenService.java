@@ -46,13 +46,15 @@ public class AccessTokenService {
 
     private final AccessTokenDao accessTokenDao;
     private final SecurityService securityService;
+    private final VerifiedAccessTokenCache verifiedAccessTokenCache;
     private final ConcurrentMap<Long, Timestamp> accessTokenIdToLastUsedTimestampCache = new ConcurrentHashMap<>();
 
     @Autowired
-    public AccessTokenService(AccessTokenDao accessTokenDao, Clock clock, SecurityService securityService) {
+    public AccessTokenService(AccessTokenDao accessTokenDao, Clock clock, SecurityService securityService, VerifiedAccessTokenCache verifiedAccessTokenCache) {
         this.accessTokenDao = accessTokenDao;
         this.timeProvider = clock;
         this.securityService = securityService;
+        this.verifiedAccessTokenCache = verifiedAccessTokenCache;
     }
 
     public AccessToken.AccessTokenWithDisplayValue create(String description, String username, String authConfigId) {
@@ -96,6 +98,12 @@ public class AccessTokenService {
             throw new InvalidAccessTokenException();
         }
 
+        AccessToken verified = verifiedAccessTokenCache.getIfPresent(actualToken);
+        if (verified != null) {
+            return verified;
+        }
+
+        long cacheGeneration = verifiedAccessTokenCache.generation();
         String saltId = substring(actualToken, 0, 8);
 
         AccessToken token = accessTokenDao.findAccessTokenBySaltId(saltId);
@@ -113,6 +121,7 @@ public class AccessTokenService {
             throw new RevokedAccessTokenException(token.getRevokedAt());
         }
 
+        verifiedAccessTokenCache.put(actualToken, token, cacheGeneration);
         return token;
     }
 
@@ -136,6 +145,7 @@ public class AccessTokenService {
         ACCESS_TOKEN_LOGGER.debug("[Access Token] Revoking access token with id: '{}' for user '{}' with revoked cause '{}'.", fetchedAccessToken.getId(), username, revokeCause);
         fetchedAccessToken.revoke(username, revokeCause, timeProvider.currentSqlTimestamp());
         accessTokenDao.saveOrUpdate(fetchedAccessToken);
+        verifiedAccessTokenCache.invalidate(fetchedAccessToken.getId());
 
         ACCESS_TOKEN_LOGGER.debug("[Access Token] Done revoking access token with id: '{}' for user '{}' with revoked cause '{}'.", fetchedAccessToken.getId(), username, revokeCause);
 
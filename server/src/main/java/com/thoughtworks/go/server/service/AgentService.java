@@ -49,6 +49,8 @@ import org.springframework.util.LinkedMultiValueMap;
 
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.Function;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -81,6 +83,7 @@ public class AgentService implements DatabaseEntityChangeListener<Agent> {
     private final AgentDao agentDao;
     private final AgentInstances agentInstances;
     private final Set<AgentChangeListener> listeners = new HashSet<>();
+    private final ConcurrentMap<String, String> pendingIpAddressChanges = new ConcurrentHashMap<>();
 
     @Autowired
     public AgentService(SystemEnvironment systemEnvironment, AgentDao agentDao, UuidGenerator uuidGenerator,
@@ -212,16 +215,19 @@ public class AgentService implements DatabaseEntityChangeListener<Agent> {
 
     public void updateRuntimeInfo(AgentRuntimeInfo agentRuntimeInfo) {
         bombIfAgentDoesNotHaveCookie(agentRuntimeInfo);
-        bombIfAgentHasDuplicateCookie(agentRuntimeInfo);
 
         AgentInstance agentInstance = findAgentAndRefreshStatus(agentRuntimeInfo.getUUId());
+        bombIfAgentHasDuplicateCookie(agentRuntimeInfo, agentInstance);
+
         if (agentInstance.isIpChangeRequired(agentRuntimeInfo.getIpAddress())) {
-            LOGGER.warn("Agent with UUID [{}] changed IP Address from [{}] to [{}]", agentRuntimeInfo.getUUId(), agentInstance.getAgent().getIpaddress(), agentRuntimeInfo.getIpAddress());
+            String previousIpAddress = agentInstance.getAgent().getIpaddress();
             Agent agent = agentInstance.isRegistered() ? agentInstance.getAgent() : null;
             bombIfNull(agent, () -> "Unable to set agent ipAddress; Agent [" + agentInstance.getAgent().getUuid() + "] not found.");
             //noinspection DataFlowIssue
             agent.setIpaddress(agentRuntimeInfo.getIpAddress());
-            saveOrUpdate(agent);
+            if (!Objects.equals(agentRuntimeInfo.getIpAddress(), pendingIpAddressChanges.put(agentRuntimeInfo.getUUId(), agentRuntimeInfo.getIpAddress()))) {
+                LOGGER.warn("Agent with UUID [{}] changed IP Address from [{}] to [{}]", agentRuntimeInfo.getUUId(), previousIpAddress, agentRuntimeInfo.getIpAddress());
+            }
         }
 
         agentInstances.updateAgentRuntimeInfo(agentRuntimeInfo);
@@ -290,6 +296,48 @@ public class AgentService implements DatabaseEntityChangeListener<Agent> {
         addWarningForAgentsStuckInCancel();
     }
 
+    /**
+     * called from spring timer
+     * <p>
+     * Writes the IP address changes reported by agent pings since the last call, all in one go. The agent instances
+     * already have the new addresses, so nothing but the database lags behind; should the write fail, the changes are
+     * tried again on the next call.
+     */
+    public void flushPendingAgentUpdates() {
+        Map<String, String> changes = new HashMap<>();
+        for (String uuid : pendingIpAddressChanges.keySet()) {
+            String ipAddress = pendingIpAddressChanges.remove(uuid);
+            if (ipAddress != null) {
+                changes.put(uuid, ipAddress);
+            }
+        }
+
+        List<Agent> agents = new ArrayList<>();
+        changes.forEach((uuid, ipAddress) -> {
+            // the instance holds the latest copy of the agent, so that changes made by users since the ping are kept
+            AgentInstance agentInstance = agentInstances.findAgent(uuid);
+            if (agentInstance.isRegistered()) {
+                Agent agent = agentInstance.getAgent();
+                agent.setIpaddress(ipAddress);
+                agent.validate();
+                if (!agent.hasErrors()) {
+                    agents.add(agent);
+                }
+            }
+        });
+
+        if (agents.isEmpty()) {
+            return;
+        }
+
+        try {
+            agentDao.bulkUpdateAgents(agents);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Unable to save IP address changes of {} agent(s), will try again.", agents.size(), e);
+            changes.forEach(pendingIpAddressChanges::putIfAbsent);
+        }
+    }
+
     private void addWarningForAgentsStuckInCancel() {
         agentInstances.agentsStuckInCancel().forEach(agentInstance -> serverHealthService.update(warning(format("Agent `%s` is stuck in cancel.", agentInstance.getHostname()),
                 format("Looks like the agent is stuck cancelling a job, the job was cancelled %s minutes ago.", cancelledForMins(agentInstance.cancelledAt())),
@@ -489,11 +537,13 @@ public class AgentService implements DatabaseEntityChangeListener<Agent> {
         return agentInstance.getAgent().getEnvironmentsAsStream().sorted().collect(toList());
     }
 
-    private void bombIfAgentHasDuplicateCookie(AgentRuntimeInfo agentRuntimeInfo) {
-        if (agentRuntimeInfo.hasDuplicateCookie(agentDao.cookieFor(agentRuntimeInfo.getIdentifier()))) {
+    private void bombIfAgentHasDuplicateCookie(AgentRuntimeInfo agentRuntimeInfo, AgentInstance agentInstance) {
+        // registered agent instances are kept in sync with the database, cookie included, so there is no need to look it up there
+        String cookie = agentInstance.isRegistered() ? agentInstance.getAgent().getCookie() : null;
+        if (agentRuntimeInfo.hasDuplicateCookie(cookie)) {
             LOGGER.warn("Found agent [{}] with duplicate uuid. Please check the agent installation.", agentRuntimeInfo.agentInfoDebugString());
             serverHealthService.update(
-                    warning(format("[%s] has duplicate unique identifier which conflicts with [%s]", agentRuntimeInfo.agentInfoForDisplay(), findAgentAndRefreshStatus(agentRuntimeInfo.getUUId()).agentInfoForDisplay()),
+                    warning(format("[%s] has duplicate unique identifier which conflicts with [%s]", agentRuntimeInfo.agentInfoForDisplay(), agentInstance.agentInfoForDisplay()),
                             "Please check the agent installation. Click <a href='" + docsUrl("/faq/agent_guid_issue.html") + "' target='_blank'>here</a> for more info.",
                             HealthStateType.duplicateAgent(HealthStateScope.forAgent(agentRuntimeInfo.getCookie())), Timeout.THIRTY_SECONDS));
             throw new AgentWithDuplicateUUIDException(format("Agent [%s] has invalid cookie", agentRuntimeInfo.agentInfoDebugString()));
@@ -0,0 +1,65 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers how many bytes of purgeable artifacts each stage holds, keyed by stage locator, so that purges can be
+ * planned without walking the artifacts directory. Sizes are counted as artifacts are uploaded, or measured the first
+ * time they are needed for stages uploaded before the server started. Uploaded zips are counted as they are sent, so
+ * the size of extracted directories is underestimated. The least recently used sizes are dropped past
+ * {@value #MAX_STAGES} stages (e.g. stages whose artifacts may never be purged); they are measured again if needed.
+ */
+@Component
+public class ArtifactSizeIndex {
+    static final int MAX_STAGES = 100_000;
+
+    private final ConcurrentMap<String, LongAdder> sizes = Caffeine.newBuilder()
+        .maximumSize(MAX_STAGES)
+        .<String, LongAdder>build()
+        .asMap();
+
+    public void uploaded(String stageLocator, long bytes) {
+        sizes.computeIfAbsent(stageLocator, locator -> new LongAdder()).add(bytes);
+    }
+
+    /**
+     * @return the size of the artifacts of the stage, or -1 if it has not been counted or measured
+     */
+    public long sizeOf(String stageLocator) {
+        LongAdder size = sizes.get(stageLocator);
+        return size == null ? -1 : size.sum();
+    }
+
+    public void measured(String stageLocator, long bytes) {
+        LongAdder size = new LongAdder();
+        size.add(bytes);
+        sizes.putIfAbsent(stageLocator, size);
+    }
+
+    public void purged(String stageLocator) {
+        sizes.remove(stageLocator);
+    }
+
+    public long size() {
+        return sizes.size();
+    }
+}
@@ -16,79 +16,28 @@
 package com.thoughtworks.go.server.service;
 
 import com.thoughtworks.go.config.ServerConfig;
-import com.thoughtworks.go.domain.Stage;
 import com.thoughtworks.go.server.messaging.SendEmailMessage;
 import com.thoughtworks.go.server.service.result.OperationResult;
 import com.thoughtworks.go.server.service.result.ServerHealthStateOperationResult;
 import com.thoughtworks.go.util.GoConstants;
 import com.thoughtworks.go.util.SystemEnvironment;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
-import java.util.List;
 
+/**
+ * Asks the {@link ArtifactsRetentionEngine} to purge old artifacts straight away when the artifacts disk is full,
+ * rather than waiting for its next check.
+ */
 public class ArtifactsDiskCleaner extends DiskSpaceChecker {
-    private static final Logger LOGGER = LoggerFactory.getLogger(ArtifactsDiskCleaner.class);
-    private final Object triggerCleanup = new Object();
-    private final Thread cleaner;
-    private final ArtifactsService artifactService;
-    private final StageService stageService;
-    private final ConfigDbStateRepository configDbStateRepository;
+    private final ArtifactsRetentionEngine retentionEngine;
 
-    public ArtifactsDiskCleaner(SystemEnvironment systemEnvironment, GoConfigService goConfigService, final SystemDiskSpaceChecker diskSpaceChecker, ArtifactsService artifactService,
-                                StageService stageService, ConfigDbStateRepository configDbStateRepository) {
+    public ArtifactsDiskCleaner(SystemEnvironment systemEnvironment, GoConfigService goConfigService, final SystemDiskSpaceChecker diskSpaceChecker,
+                                ArtifactsRetentionEngine retentionEngine) {
         super(null, systemEnvironment, goConfigService.artifactsDir(), goConfigService, ArtifactsDiskSpaceFullChecker.ARTIFACTS_DISK_FULL_ID, diskSpaceChecker);
-        this.artifactService = artifactService;
-        this.stageService = stageService;
-        this.configDbStateRepository = configDbStateRepository;
-        cleaner = new Thread(() -> {
-            try {
-                while (true) {
-                    synchronized (triggerCleanup) {
-                        triggerCleanup.wait();
-                    }
-                    deleteOldArtifacts();
-                }
-            } catch (Exception e) {
-                LOGGER.error("Artifact disk cleanup task aborted. Error encountered: '{}'", e.getMessage());//logging not tested
-                throw new RuntimeException(e);
-            }
-        }, "goArtifactsDiskCleaner");
-        cleaner.setDaemon(true);
-        cleaner.start();
-    }
-
-    void deleteOldArtifacts() {
-        ServerConfig serverConfig = goConfigService.serverConfig();
-        Double requiredSpaceInGb = serverConfig.getPurgeUpto();
-        if (serverConfig.isArtifactPurgingAllowed()) {
-            double requiredSpace = requiredSpaceInGb * GoConstants.GIGA_BYTE;
-            LOGGER.info("Clearing old artifacts as the disk space is low. Current space: '{}'. Need to clear till we hit: '{}'.", availableSpace(), requiredSpace);
-            List<Stage> stages;
-            int numberOfStagesPurged = 0;
-            do {
-                configDbStateRepository.flushConfigState();
-                stages = stageService.oldestStagesWithDeletableArtifacts();
-                for (Stage stage : stages) {
-                    if (availableSpace() > requiredSpace) {
-                        break;
-                    }
-                    numberOfStagesPurged++;
-                    artifactService.purgeArtifactsForStage(stage);
-                }
-            } while (availableSpace() < requiredSpace && !stages.isEmpty());
-            if (availableSpace() < requiredSpace) {
-                LOGGER.warn("Ran out of stages to clear artifacts from but the disk space is still low");
-            }
-            LOGGER.info("Finished clearing old artifacts. Deleted artifacts for '{}' stages. Current space: '{}'", numberOfStagesPurged, availableSpace());
-        }
+        this.retentionEngine = retentionEngine;
     }
 
     @Override
     protected void createFailure(OperationResult result, long size, long availableSpace) {
-        synchronized (triggerCleanup) {
-            triggerCleanup.notify();
-        }
+        retentionEngine.requestPurge();
     }
 
     @Override
@@ -0,0 +1,229 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service;
+
+import com.thoughtworks.go.config.ServerConfig;
+import com.thoughtworks.go.domain.Stage;
+import com.thoughtworks.go.util.GoConstants;
+import com.thoughtworks.go.util.NamedDaemonThreadFactory;
+import com.thoughtworks.go.util.SystemEnvironment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Purges the artifacts of the oldest stages, in the background, once the space left on the artifacts disk gets close
+ * to the configured purge start; that is, within {@code go.artifacts.retention.headroom.percent} of it. Enough stages
+ * to get back to the configured purge target are picked at once, going by the size of their artifacts, and their
+ * artifacts are deleted in parallel.
+ */
+@Component
+public class ArtifactsRetentionEngine {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ArtifactsRetentionEngine.class);
+
+    private final GoConfigService goConfigService;
+    private final StageService stageService;
+    private final ArtifactsService artifactsService;
+    private final ConfigDbStateRepository configDbStateRepository;
+    private final SystemEnvironment systemEnvironment;
+    private final SystemDiskSpaceChecker diskSpaceChecker;
+    private final ExecutorService runner;
+    private final ExecutorService deleters;
+    private final AtomicBoolean purgeRequested = new AtomicBoolean();
+
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder stagesPurged = new LongAdder();
+    private final LongAdder bytesReclaimed = new LongAdder();
+    private final AtomicInteger stagesPendingDeletion = new AtomicInteger();
+    private volatile long backlogInBytes;
+
+    @Autowired
+    public ArtifactsRetentionEngine(GoConfigService goConfigService, StageService stageService, ArtifactsService artifactsService,
+                                    ConfigDbStateRepository configDbStateRepository, SystemEnvironment systemEnvironment) {
+        this(goConfigService, stageService, artifactsService, configDbStateRepository, systemEnvironment, new SystemDiskSpaceChecker(),
+            daemonThreads("goArtifactsRetention", 1), daemonThreads("goArtifactsRetentionDeleter", systemEnvironment.getArtifactsRetentionThreads()));
+    }
+
+    ArtifactsRetentionEngine(GoConfigService goConfigService, StageService stageService, ArtifactsService artifactsService,
+                             ConfigDbStateRepository configDbStateRepository, SystemEnvironment systemEnvironment, SystemDiskSpaceChecker diskSpaceChecker,
+                             ExecutorService runner, ExecutorService deleters) {
+        this.goConfigService = goConfigService;
+        this.stageService = stageService;
+        this.artifactsService = artifactsService;
+        this.configDbStateRepository = configDbStateRepository;
+        this.systemEnvironment = systemEnvironment;
+        this.diskSpaceChecker = diskSpaceChecker;
+        this.runner = runner;
+        this.deleters = deleters;
+    }
+
+    //Note: This method is called from a Spring timer task
+    public void onTimer() {
+        requestPurge();
+    }
+
+    /**
+     * Checks, in the background, whether artifacts need to be purged, and purges them. Requests made while a check is
+     * already waiting to run are folded into it.
+     */
+    public void requestPurge() {
+        if (purgeRequested.compareAndSet(false, true)) {
+            runner.submit(() -> {
+                purgeRequested.set(false);
+                try {
+                    purgeIfNeeded();
+                } catch (Exception e) {
+                    LOGGER.error("Artifact disk cleanup failed. Error encountered: '{}'", e.getMessage(), e);
+                }
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+        deleters.shutdownNow();
+    }
+
+    synchronized void purgeIfNeeded() {
+        ServerConfig serverConfig = goConfigService.serverConfig();
+        if (!serverConfig.isArtifactPurgingAllowed()) {
+            backlogInBytes = 0;
+            return;
+        }
+        long target = (long) (serverConfig.getPurgeUpto() * GoConstants.GIGA_BYTE);
+        long start = Math.min(target, (long) (serverConfig.getPurgeStart() * GoConstants.GIGA_BYTE * (100 + systemEnvironment.getArtifactsRetentionHeadroomPercent()) / 100));
+        long available = availableSpace();
+        if (available >= start) {
+            backlogInBytes = 0;
+            return;
+        }
+
+        runs.increment();
+        LOGGER.info("Clearing old artifacts as the disk space is low. Current space: '{}'. Need to clear till we hit: '{}'.", available, target);
+        int numberOfStagesPurged = 0;
+        while (available < target) {
+            backlogInBytes = target - available;
+            configDbStateRepository.flushConfigState();
+            List<Stage> stages = stageService.oldestStagesWithDeletableArtifacts();
+            if (stages.isEmpty()) {
+                break;
+            }
+            int purged = purge(plan(stages, target - available));
+            if (purged == 0) {
+                LOGGER.warn("Could not purge the artifacts of any of the oldest stages, giving up until the next check");
+                break;
+            }
+            numberOfStagesPurged += purged;
+            long availableAfterPurge = availableSpace();
+            bytesReclaimed.add(Math.max(0, availableAfterPurge - available));
+            available = availableAfterPurge;
+        }
+        backlogInBytes = Math.max(0, target - available);
+        if (available < target) {
+            LOGGER.warn("Ran out of stages to clear artifacts from but the disk space is still low");
+        }
+        LOGGER.info("Finished clearing old artifacts. Deleted artifacts for '{}' stages. Current space: '{}'", numberOfStagesPurged, available);
+    }
+
+    /**
+     * @return the oldest of the stages whose artifacts, together, take up the space to be freed; all the stages if
+     * they do not take up enough of it
+     */
+    List<Stage> plan(List<Stage> oldestStages, long bytesToFree) {
+        List<Stage> plan = new ArrayList<>();
+        long planned = 0;
+        for (Stage stage : oldestStages) {
+            if (planned >= bytesToFree) {
+                break;
+            }
+            plan.add(stage);
+            planned += artifactsService.sizeOfPurgeableArtifacts(stage);
+        }
+        return plan;
+    }
+
+    private int purge(List<Stage> stages) {
+        stagesPendingDeletion.set(stages.size());
+        List<Future<?>> deletions = new ArrayList<>();
+        for (Stage stage : stages) {
+            deletions.add(deleters.submit(() -> {
+                try {
+                    artifactsService.purgeArtifactsForStage(stage);
+                } finally {
+                    stagesPendingDeletion.decrementAndGet();
+                }
+            }));
+        }
+        int purged = 0;
+        for (int i = 0; i < deletions.size(); i++) {
+            try {
+                deletions.get(i).get();
+                purged++;
+                stagesPurged.increment();
+            } catch (ExecutionException e) {
+                LOGGER.error("Could not purge the artifacts of stage '{}'", stages.get(i).getIdentifier().entityLocator(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }
+        return purged;
+    }
+
+    private long availableSpace() {
+        return diskSpaceChecker.getUsableSpace(goConfigService.artifactsDir());
+    }
+
+    public long runs() {
+        return runs.sum();
+    }
+
+    public long stagesPurged() {
+        return stagesPurged.sum();
+    }
+
+    public long bytesReclaimed() {
+        return bytesReclaimed.sum();
+    }
+
+    /**
+     * @return how many bytes are still to be freed to get back to the purge target, as of the last check
+     */
+    public long backlogInBytes() {
+        return backlogInBytes;
+    }
+
+    public int stagesPendingDeletion() {
+        return stagesPendingDeletion.get();
+    }
+
+    private static ExecutorService daemonThreads(String name, int threads) {
+        return Executors.newFixedThreadPool(threads, new NamedDaemonThreadFactory(name));
+    }
+}
@@ -26,12 +26,18 @@ import com.thoughtworks.go.server.view.artifacts.BuildIdArtifactLocator;
 import com.thoughtworks.go.server.view.artifacts.PathBasedArtifactsLocator;
 import com.thoughtworks.go.util.*;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.input.BoundedInputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.zip.ZipInputStream;
 
 import static java.lang.String.format;
@@ -44,19 +50,26 @@ public class ArtifactsService implements ArtifactUrlReader {
     private final JobResolverService jobResolverService;
     private final StageDao stageDao;
     private final ArtifactDirectoryChooser chooser;
+    private final ArtifactSizeIndex artifactSizeIndex;
 
-    @Autowired
     public ArtifactsService(JobResolverService jobResolverService, StageDao stageDao,
                             ArtifactsDirHolder artifactsDirHolder, ZipUtil zipUtil) {
-        this(jobResolverService, stageDao, artifactsDirHolder, zipUtil, new ArtifactDirectoryChooser());
+        this(jobResolverService, stageDao, artifactsDirHolder, zipUtil, new ArtifactSizeIndex());
+    }
+
+    @Autowired
+    public ArtifactsService(JobResolverService jobResolverService, StageDao stageDao,
+                            ArtifactsDirHolder artifactsDirHolder, ZipUtil zipUtil, ArtifactSizeIndex artifactSizeIndex) {
+        this(jobResolverService, stageDao, artifactsDirHolder, zipUtil, new ArtifactDirectoryChooser(), artifactSizeIndex);
     }
 
     protected ArtifactsService(JobResolverService jobResolverService, StageDao stageDao,
-                               ArtifactsDirHolder artifactsDirHolder, ZipUtil zipUtil, ArtifactDirectoryChooser chooser) {
+                               ArtifactsDirHolder artifactsDirHolder, ZipUtil zipUtil, ArtifactDirectoryChooser chooser, ArtifactSizeIndex artifactSizeIndex) {
         this.artifactsDirHolder = artifactsDirHolder;
         this.zipUtil = zipUtil;
         this.jobResolverService = jobResolverService;
         this.stageDao = stageDao;
+        this.artifactSizeIndex = artifactSizeIndex;
 
         //This is a Chain of Responsibility to decide which view should be shown for a particular artifact URL
         this.chooser = chooser;
@@ -72,13 +85,15 @@ public class ArtifactsService implements ArtifactUrlReader {
         String destPath = dest.getAbsolutePath();
         try {
             LOGGER.trace("Saving file [{}]", destPath);
+            BoundedInputStream counted = counting(stream);
             if (shouldUnzip) {
-                zipUtil.unzip(new ZipInputStream(new BufferedInputStream(stream)), dest);
+                zipUtil.unzip(new ZipInputStream(new BufferedInputStream(counted)), dest);
             } else {
                 try (FileOutputStream out = FileUtils.openOutputStream(dest, true)) {
-                    stream.transferTo(out);
+                    counted.transferTo(out);
                 }
             }
+            uploaded(dest, counted.getCount());
             LOGGER.trace("File [{}] saved.", destPath);
             return true;
         } catch (IOException e) {
@@ -96,12 +111,79 @@ public class ArtifactsService implements ArtifactUrlReader {
         }
     }
 
+    /**
+     * Extracts a zip streamed by an agent into the destination, copying the checksums sent along as the last zip entry
+     * into {@code checksums} instead of extracting them. The zip is extracted next to the destination first and only
+     * moved into place once the checksums entry has arrived, so a broken stream leaves no partial artifacts behind.
+     */
+    public boolean saveZipStream(File dest, InputStream stream, OutputStream checksums, int attempt) {
+        String destPath = dest.getAbsolutePath();
+        File staging = new File(dest.getParentFile(), "." + dest.getName() + ".streaming-" + UUID.randomUUID());
+        try {
+            LOGGER.trace("Saving streamed zip to [{}]", destPath);
+            BoundedInputStream counted = counting(stream);
+            AtomicBoolean checksumsReceived = new AtomicBoolean();
+            zipUtil.unzip(new ZipInputStream(new BufferedInputStream(counted)), staging, (entry, entryStream) -> {
+                if (checksumsReceived.get()) {
+                    throw new IOException(format("Streamed zip has entry [%s] after its checksums", entry.getName()));
+                }
+                if (!GoConstants.STREAMED_ARTIFACT_CHECKSUM_ENTRY.equals(entry.getName())) {
+                    return false;
+                }
+                entryStream.transferTo(checksums);
+                checksumsReceived.set(true);
+                return true;
+            });
+            if (!checksumsReceived.get()) {
+                throw new IOException("Streamed zip ended before its checksums were received");
+            }
+            moveInto(staging, dest);
+            uploaded(dest, counted.getCount());
+            LOGGER.trace("Streamed zip saved to [{}].", destPath);
+            return true;
+        } catch (IOException e) {
+            final String message = format("Failed to save the file to: [%s]", destPath);
+            if (attempt < GoConstants.PUBLISH_MAX_RETRIES) {
+                LOGGER.warn(message, e);
+            } else {
+                LOGGER.error(message, e);
+            }
+            return false;
+        } catch (IllegalPathException e) {
+            final String message = format("Failed to save the file to: [%s]", destPath);
+            LOGGER.error(message, e);
+            return false;
+        } finally {
+            FileUtils.deleteQuietly(staging);
+        }
+    }
+
+    // Renames the source into place, merging it into the destination when earlier uploads already created it
+    private static void moveInto(File source, File dest) throws IOException {
+        if (!dest.exists()) {
+            Files.move(source.toPath(), dest.toPath());
+            return;
+        }
+        File[] children = source.listFiles();
+        if (children == null) {
+            throw new IOException(format("Failed to list [%s]", source.getAbsolutePath()));
+        }
+        for (File child : children) {
+            File target = new File(dest, child.getName());
+            if (child.isDirectory() && target.isDirectory()) {
+                moveInto(child, target);
+            } else {
+                Files.move(child.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
     public boolean saveOrAppendFile(File dest, InputStream stream) {
         String destPath = dest.getAbsolutePath();
         try {
             LOGGER.trace("Appending file [{}]", destPath);
             try (FileOutputStream out = FileUtils.openOutputStream(dest, true)) {
-                stream.transferTo(out);
+                uploaded(dest, stream.transferTo(out));
             }
             LOGGER.trace("File [{}] appended.", destPath);
             return true;
@@ -166,11 +248,66 @@ public class ArtifactsService implements ArtifactUrlReader {
             LOGGER.error("Error occurred while clearing artifacts for '{}'. Error: '{}'", stageIdentifier.entityLocator(), e.getMessage(), e);
         }
         stageDao.markArtifactsDeletedFor(stage);
+        artifactSizeIndex.purged(stageIdentifier.stageLocator());
         if (LOGGER.isDebugEnabled()) {
             LOGGER.debug("Marked stage '{}' as artifacts deleted.", stageIdentifier.entityLocator());
         }
     }
 
+    /**
+     * @return the size of the artifacts which purging the stage would delete, as counted when they were uploaded, or
+     * else measured on disk
+     */
+    public long sizeOfPurgeableArtifacts(Stage stage) {
+        String stageLocator = stage.getIdentifier().stageLocator();
+        long size = artifactSizeIndex.sizeOf(stageLocator);
+        if (size >= 0) {
+            return size;
+        }
+        try {
+            File[] jobs = chooser.findArtifact(stage.getIdentifier(), "").listFiles();
+            size = 0;
+            for (File jobRoot : jobs == null ? new File[0] : jobs) {
+                File[] artifacts = jobRoot.listFiles();
+                for (File artifact : artifacts == null ? new File[0] : artifacts) {
+                    if (shouldDeleteArtifact(artifact)) {
+                        size += FileUtils.sizeOf(artifact);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.warn("Could not measure the artifacts of stage '{}'", stageLocator, e);
+            return 0;
+        }
+        artifactSizeIndex.measured(stageLocator, size);
+        return size;
+    }
+
+    private BoundedInputStream counting(InputStream stream) throws IOException {
+        return BoundedInputStream.builder().setInputStream(stream).get();
+    }
+
+    // artifacts are kept at pipelines/<pipeline>/<counter>/<stage>/<stage counter>/<job>/...
+    private void uploaded(File dest, long bytes) {
+        File artifactsDir = artifactsDirHolder.getArtifactsDir();
+        if (artifactsDir == null) {
+            return;
+        }
+        Path root = artifactsDir.toPath().toAbsolutePath().normalize();
+        Path path = dest.toPath().toAbsolutePath().normalize();
+        if (!path.startsWith(root)) {
+            return;
+        }
+        Path relative = root.relativize(path);
+        if (relative.getNameCount() < 6 || !"pipelines".equals(relative.getName(0).toString())) {
+            return;
+        }
+        if (relative.getNameCount() > 7 && ArtifactUtil.artifactDirectoryIsSystemManaged(relative.getName(6).toString())) {
+            return; // never purged, e.g. console logs and checksums
+        }
+        artifactSizeIndex.uploaded(relative.subpath(1, 5).toString().replace(File.separatorChar, '/'), bytes);
+    }
+
     private boolean deleteNonSystemManagedArtifacts(File stageRoot) throws IOException {
         File[] jobs = stageRoot.listFiles();
         if (jobs == null) {  // null if security restricted
@@ -31,9 +31,11 @@ import com.thoughtworks.go.server.messaging.StartServerBackupMessage;
 import com.thoughtworks.go.server.persistence.ServerBackupRepository;
 import com.thoughtworks.go.server.service.backup.BackupStatusUpdater;
 import com.thoughtworks.go.server.service.backup.BackupUpdateListener;
+import com.thoughtworks.go.server.service.backup.IncrementalZipBackup;
 import com.thoughtworks.go.server.web.BackupStatusProvider;
 import com.thoughtworks.go.service.ConfigRepository;
 import com.thoughtworks.go.util.Dates;
+import com.thoughtworks.go.util.NamedDaemonThreadFactory;
 import com.thoughtworks.go.util.SystemEnvironment;
 import com.thoughtworks.go.util.TimeProvider;
 import com.thoughtworks.go.util.VoidThrowingFn;
@@ -50,6 +52,11 @@ import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -95,6 +102,10 @@ public class BackupService implements BackupStatusProvider {
 
     private static final Object BACKUP_MUTEX = new Object();
 
+    private interface BackupStep {
+        void run() throws Exception;
+    }
+
     @Autowired
     public BackupService(ArtifactsDirHolder artifactsDirHolder,
                          GoConfigService goConfigService,
@@ -173,10 +184,15 @@ public class BackupService implements BackupStatusProvider {
                     return backup;
                 }
                 backupVersion(destDir, backupUpdateListeners);
-                backupConfig(destDir, backupUpdateListeners);
-                boolean backedUpWrapperConfig = backupWrapperConfig(destDir, backupUpdateListeners);
-                backupConfigRepo(backupUpdateListeners, destDir);
-                backupDb(destDir, backupUpdateListeners);
+                Optional<String> wrapperConfigDirPath = wrapperConfigDirPath(backupUpdateListeners);
+                boolean backedUpWrapperConfig = wrapperConfigDirPath.isPresent();
+                Map<BackupProgressStatus, BackupStep> steps = new LinkedHashMap<>();
+                steps.put(BackupProgressStatus.BACKUP_CONFIG, () -> backupConfig(destDir));
+                wrapperConfigDirPath.ifPresent(path -> steps.put(BackupProgressStatus.BACKUP_WRAPPER_CONFIG, () -> backupWrapperConfig(destDir, path)));
+                steps.put(BackupProgressStatus.BACKUP_CONFIG_REPO, () -> backupConfigRepo(destDir));
+                steps.put(BackupProgressStatus.BACKUP_DATABASE, () -> databaseStrategy.backup(destDir));
+                performInParallel(backup, steps, backupUpdateListeners);
+                LOGGER.info("[Backup] Time taken by each step, in milliseconds: {}", backup.getStepDurationsInMillis());
                 boolean passed = executePostBackupScript(backup.getUsername(), initiatedBy, backup, backupUpdateListeners);
                 if (passed) {
                     sendBackupSuccessEmail(backup.getUsername(), mailSender, destDir);
@@ -202,27 +218,61 @@ public class BackupService implements BackupStatusProvider {
         return serverBackup;
     }
 
-    private void backupConfigRepo(List<BackupUpdateListener> backupUpdateListeners, File destDir) throws IOException {
-        notifyUpdateToListeners(backupUpdateListeners, BackupProgressStatus.BACKUP_CONFIG_REPO);
+    /**
+     * Runs the steps, which write to different files, side by side; the first one to fail fails the backup.
+     */
+    private void performInParallel(ServerBackup backup, Map<BackupProgressStatus, BackupStep> steps, List<BackupUpdateListener> backupUpdateListeners) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(steps.size(), systemEnvironment.getBackupThreads()), new NamedDaemonThreadFactory("goBackup"));
+        try {
+            List<Future<?>> running = new ArrayList<>();
+            steps.forEach((step, fn) -> running.add(executor.submit(() -> {
+                notifyUpdateToListeners(backupUpdateListeners, step);
+                long start = System.currentTimeMillis();
+                fn.run();
+                backup.recordStepDuration(step, System.currentTimeMillis() - start);
+                return null;
+            })));
+            for (Future<?> step : running) {
+                try {
+                    step.get();
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof Exception cause ? cause : e;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+            // do not let steps which are still running write to the backup directory while it is being deleted
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    private void backupConfigRepo(File destDir) throws IOException {
+        File previousBackup = systemEnvironment.isBackupIncremental() ? lastSuccessfulBackupDir().orElse(null) : null;
         configRepository.doLocked(new VoidThrowingFn<IOException>() {
             @Override
             public void run() throws IOException {
-                File configRepoDir = systemEnvironment.getConfigRepoDir();
-                try (ZipOutputStream configRepoZipStream = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(new File(destDir, CONFIG_REPOSITORY_BACKUP_ZIP))))) {
-                    new DirectoryStructureWalker(configRepoDir.getAbsolutePath(), configRepoZipStream).walk();
-                }
+                new IncrementalZipBackup(systemEnvironment.getConfigRepoDir(), CONFIG_REPOSITORY_BACKUP_ZIP)
+                    .backup(destDir, previousBackup, systemEnvironment.getBackupIncrementalFullEvery());
             }
         });
     }
 
+    private Optional<File> lastSuccessfulBackupDir() {
+        return serverBackupRepository.lastSuccessfulBackup().map(backup -> new File(backup.getPath())).filter(File::isDirectory);
+    }
+
     private void notifyUpdateToListeners(List<BackupUpdateListener> listeners, BackupProgressStatus status) {
         LOGGER.debug(status.getMessage());
-        listeners.forEach(backupUpdateListener -> backupUpdateListener.updateStep(status));
+        synchronized (listeners) {
+            listeners.forEach(backupUpdateListener -> backupUpdateListener.updateStep(status));
+        }
     }
 
     private void notifyErrorToListeners(List<BackupUpdateListener> listeners, String message) {
         LOGGER.debug(message);
-        listeners.forEach(backupUpdateListener -> backupUpdateListener.error(message));
+        synchronized (listeners) {
+            listeners.forEach(backupUpdateListener -> backupUpdateListener.error(message));
+        }
     }
 
     private void notifyCompletionToListeners(List<BackupUpdateListener> listeners, boolean backedUpWrapperConfig) {
@@ -296,25 +346,23 @@ public class BackupService implements BackupStatusProvider {
         Files.writeString(versionFile.toPath(), CurrentGoCDVersion.getInstance().formatted(), UTF_8);
     }
 
-    private boolean backupWrapperConfig(File backupDir, List<BackupUpdateListener> backupUpdateListeners) throws IOException {
+    private Optional<String> wrapperConfigDirPath(List<BackupUpdateListener> backupUpdateListeners) {
         Optional<String> wrapperConfigDirPath = systemEnvironment.wrapperConfigDirPath();
 
         if (wrapperConfigDirPath.isEmpty()) {
             notifyErrorToListeners(backupUpdateListeners, "Skipping wrapper config backups.");
             LOGGER.warn("[Backup] Not backing up Wrapper Config dir as `WRAPPER_CONF_DIR` env variable not set.");
-
-            return false;
         }
+        return wrapperConfigDirPath;
+    }
 
-        notifyUpdateToListeners(backupUpdateListeners, BackupProgressStatus.BACKUP_WRAPPER_CONFIG);
+    private void backupWrapperConfig(File backupDir, String wrapperConfigDirPath) throws IOException {
         try (ZipOutputStream configZip = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(new File(backupDir, WRAPPER_CONFIG_BACKUP_ZIP))))) {
-            new DirectoryStructureWalker(wrapperConfigDirPath.get(), configZip).walk();
+            new DirectoryStructureWalker(wrapperConfigDirPath, configZip).walk();
         }
-        return true;
     }
 
-    private void backupConfig(File backupDir, List<BackupUpdateListener> backupUpdateListeners) throws IOException {
-        notifyUpdateToListeners(backupUpdateListeners, BackupProgressStatus.BACKUP_CONFIG);
+    private void backupConfig(File backupDir) throws IOException {
         String configDirectory = systemEnvironment.getConfigDir();
         try (ZipOutputStream configZip = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(new File(backupDir, CONFIG_BACKUP_ZIP))))) {
             File cruiseConfigFile = new File(systemEnvironment.getCruiseConfigFile());
@@ -338,11 +386,6 @@ public class BackupService implements BackupStatusProvider {
         }
     }
 
-    private void backupDb(File backupDir, List<BackupUpdateListener> backupUpdateListener) {
-        notifyUpdateToListeners(backupUpdateListener, BackupProgressStatus.BACKUP_DATABASE);
-        databaseStrategy.backup(backupDir);
-    }
-
     public String backupLocation() {
         return artifactsDirHolder.getBackupsDir().getAbsolutePath();
     }
@@ -376,6 +419,20 @@ public class BackupService implements BackupStatusProvider {
         return Optional.empty();
     }
 
+    @Override
+    public Optional<String> backupProgress() {
+        ServerBackup backup = runningBackup;
+        if (backup == null) {
+            return Optional.empty();
+        }
+        String step = backup.getBackupProgressStatus().map(BackupProgressStatus::getMessage).orElse(backup.getMessage());
+        long databaseBytesWritten = databaseStrategy.backupBytesWritten();
+        if (databaseBytesWritten > 0) {
+            return Optional.of(String.format("%s (%s of the database backed up)", step, FileUtils.byteCountToDisplaySize(databaseBytesWritten)));
+        }
+        return Optional.of(step);
+    }
+
     public String availableDiskSpace() {
         File artifactsDir = artifactsDirHolder.getArtifactsDir();
         return FileUtils.byteCountToDisplaySize(artifactsDir.getUsableSpace());
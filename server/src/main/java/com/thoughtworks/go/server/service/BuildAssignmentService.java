@@ -19,9 +19,13 @@ import com.thoughtworks.go.config.*;
 import com.thoughtworks.go.config.exceptions.RecordNotFoundException;
 import com.thoughtworks.go.config.materials.PackageMaterial;
 import com.thoughtworks.go.config.materials.PluggableSCMMaterial;
+import com.thoughtworks.go.config.materials.git.GitMaterial;
+import com.thoughtworks.go.config.materials.git.GitMaterialConfig;
 import com.thoughtworks.go.domain.*;
 import com.thoughtworks.go.domain.builder.Builder;
 import com.thoughtworks.go.domain.materials.Material;
+import com.thoughtworks.go.domain.materials.MaterialConfig;
+import com.thoughtworks.go.listener.AgentChangeListener;
 import com.thoughtworks.go.listener.ConfigChangedListener;
 import com.thoughtworks.go.listener.EntityConfigChangedListener;
 import com.thoughtworks.go.plugin.access.exceptions.SecretResolutionFailureException;
@@ -41,14 +45,13 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
+import java.util.function.Predicate;
 
 import static com.thoughtworks.go.util.command.EnvironmentVariableContext.GO_ENVIRONMENT_NAME;
 import static java.lang.String.format;
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
 import static java.util.stream.StreamSupport.stream;
 
 
@@ -56,7 +59,7 @@ import static java.util.stream.StreamSupport.stream;
  * Understands how to assign work to agents
  */
 @Service
-public class BuildAssignmentService implements ConfigChangedListener {
+public class BuildAssignmentService implements ConfigChangedListener, AgentChangeListener {
     private static final Logger LOGGER = LoggerFactory.getLogger(BuildAssignmentService.class.getName());
     public static final NoWork NO_WORK = new NoWork();
     public static final String GO_PIPELINE_GROUP_NAME = "GO_PIPELINE_GROUP_NAME";
@@ -80,6 +83,14 @@ public class BuildAssignmentService implements ConfigChangedListener {
     private final ConsoleService consoleService;
 
     private List<JobPlan> jobPlans = new ArrayList<>();
+    private final Map<String, Reservation> reservations = new HashMap<>();
+
+    /**
+     * A job taken out of the queue for an agent which is about to finish its current job, so that the agent can be
+     * handed the job as soon as it reports completion instead of waiting for its next work request.
+     */
+    private record Reservation(JobPlan jobPlan, long expiresAt) {
+    }
 
     @Autowired
     public BuildAssignmentService(GoConfigService goConfigService, JobInstanceService jobInstanceService,
@@ -110,6 +121,19 @@ public class BuildAssignmentService implements ConfigChangedListener {
     public void initialize() {
         goConfigService.register(this);
         goConfigService.register(pipelineConfigChangedListener());
+        agentService.registerAgentChangeListeners(this);
+    }
+
+    @Override
+    public void agentChanged(Agent agent) {
+        if (agent.isDisabled()) {
+            releaseReservationOf(agent.getUuid());
+        }
+    }
+
+    @Override
+    public void agentDeleted(Agent agent) {
+        releaseReservationOf(agent.getUuid());
     }
 
 
@@ -120,6 +144,7 @@ public class BuildAssignmentService implements ConfigChangedListener {
                 LOGGER.info("[Configuration Changed] Removing deleted jobs for pipeline {}.", pipelineConfig.name());
 
                 synchronized (BuildAssignmentService.this) {
+                    jobPlans.addAll(releaseReservations(jobPlan -> new CaseInsensitiveString(jobPlan.getPipelineName()).equals(pipelineConfig.name())));
                     List<JobPlan> jobsToRemove;
                     if (goConfigService.hasPipelineNamed(pipelineConfig.name())) {
                         jobsToRemove = getMismatchingJobPlansFromUpdatedPipeline(pipelineConfig, jobPlans);
@@ -179,7 +204,8 @@ public class BuildAssignmentService implements ConfigChangedListener {
             }
             //check if agent already has assigned build, if so, reschedule it
             scheduleService.rescheduleAbandonedBuildIfNecessary(agent.getAgentIdentifier());
-            final JobPlan job = findMatchingJob(agent);
+            JobPlan reserved = takeReservation(agent.getUuid());
+            final JobPlan job = reserved != null ? reserved : findMatchingJob(agent);
             if (job != null) {
                 Work buildWork = createWork(agent, job);
                 AgentBuildingInfo buildingInfo = new AgentBuildingInfo(job.getIdentifier().buildLocatorForDisplay(), job.getIdentifier().buildLocator());
@@ -193,6 +219,108 @@ public class BuildAssignmentService implements ConfigChangedListener {
         return NO_WORK;
     }
 
+    /**
+     * Takes the next job this agent would be assigned out of the queue, while the agent is still completing its
+     * current job. Only static agents get reservations: elastic agents are usually not reused.
+     *
+     * @return the urls of the git materials of the reserved job, which the agent may start fetching early
+     */
+    public List<String> reserveNextJob(AgentIdentifier agentIdentifier) {
+        if (maintenanceModeService.isMaintenanceMode()) {
+            return List.of();
+        }
+        AgentInstance agent = agentService.findAgent(agentIdentifier.getUuid());
+        if (agent == null || !agent.isRegistered() || agent.isDisabled() || agent.isElastic()) {
+            return List.of();
+        }
+
+        JobPlan job;
+        synchronized (this) {
+            Reservation existing = reservations.get(agent.getUuid());
+            if (existing != null) {
+                job = existing.jobPlan();
+            } else {
+                job = findMatchingJob(agent);
+                if (job == null) {
+                    return List.of();
+                }
+                reservations.put(agent.getUuid(), new Reservation(job, System.currentTimeMillis() + systemEnvironment.getServerPrefetchReservationTimeoutInMillis()));
+                LOGGER.info("[Agent Assignment] Reserved job [{}] for agent [{}]", job.getIdentifier(), agent.getAgentIdentifier());
+            }
+        }
+        return gitMaterialUrlsOf(job);
+    }
+
+    /**
+     * @return the job reserved for this agent, or {@link #NO_WORK} if there is none
+     */
+    public Work assignReservedWork(AgentIdentifier agentIdentifier) {
+        synchronized (this) {
+            if (!reservations.containsKey(agentIdentifier.getUuid())) {
+                return NO_WORK;
+            }
+        }
+        return assignWorkToAgent(agentIdentifier);
+    }
+
+    private JobPlan takeReservation(String agentUuid) {
+        Reservation reservation = reservations.remove(agentUuid);
+        if (reservation == null) {
+            return null;
+        }
+        if (reservation.expiresAt() < System.currentTimeMillis()) {
+            // the job is picked up again, like any other scheduled job, on the next reload
+            LOGGER.info("[Agent Assignment] Reservation of job [{}] for agent [{}] has expired", reservation.jobPlan().getIdentifier(), agentUuid);
+            return null;
+        }
+        return reservation.jobPlan();
+    }
+
+    /**
+     * Puts the job reserved for an agent which can no longer take it (e.g. it was disabled or deleted) back in the
+     * queue, so that another agent can be assigned it right away.
+     */
+    private synchronized void releaseReservationOf(String agentUuid) {
+        Reservation reservation = reservations.remove(agentUuid);
+        if (reservation != null) {
+            LOGGER.info("[Agent Assignment] Released reservation of job [{}] for agent [{}]", reservation.jobPlan().getIdentifier(), agentUuid);
+            jobPlans.add(reservation.jobPlan());
+        }
+    }
+
+    private List<JobPlan> releaseReservations(Predicate<JobPlan> predicate) {
+        List<JobPlan> released = new ArrayList<>();
+        reservations.values().removeIf(reservation -> {
+            if (predicate.test(reservation.jobPlan())) {
+                released.add(reservation.jobPlan());
+                return true;
+            }
+            return false;
+        });
+        return released;
+    }
+
+    // Only urls without credentials are handed out, as they end up in the agent's logs and processes. The agent could
+    // not warm its cache from a url with the password masked anyway.
+    private List<String> gitMaterialUrlsOf(JobPlan job) {
+        try {
+            PipelineConfig pipelineConfig = goConfigService.pipelineConfigNamed(new CaseInsensitiveString(job.getPipelineName()));
+            List<String> urls = new ArrayList<>();
+            for (MaterialConfig materialConfig : pipelineConfig.materialConfigs()) {
+                if (materialConfig instanceof GitMaterialConfig gitMaterialConfig) {
+                    GitMaterial material = new GitMaterial(gitMaterialConfig);
+                    String url = material.getUriForDisplay();
+                    if (!material.hasSecretParams() && url.equals(material.urlForCommandLine())) {
+                        urls.add(url);
+                    }
+                }
+            }
+            return urls;
+        } catch (RecordNotFoundException e) {
+            return List.of();
+        }
+    }
+
     @VisibleForTesting
     JobPlan findMatchingJob(AgentInstance agent) {
         List<JobPlan> filteredJobPlans = environmentConfigService.filterJobsByAgent(jobPlans, agent.getUuid());
@@ -238,20 +366,40 @@ public class BuildAssignmentService implements ConfigChangedListener {
     private void reloadJobPlans() {
         synchronized (this) {
             if (jobPlans == null) {
-                jobPlans = jobInstanceService.orderedScheduledBuilds();
+                jobPlans = withoutReservedJobs(jobInstanceService.orderedScheduledBuilds());
                 elasticAgentPluginService.createAgentsFor(jobPlans, new ArrayList<>());
             } else {
                 List<JobPlan> old = jobPlans;
-                List<JobPlan> newPlan = jobInstanceService.orderedScheduledBuilds();
+                List<JobPlan> newPlan = withoutReservedJobs(jobInstanceService.orderedScheduledBuilds());
                 jobPlans = newPlan;
                 elasticAgentPluginService.createAgentsFor(old, newPlan);
             }
         }
     }
 
+    private List<JobPlan> withoutReservedJobs(List<JobPlan> scheduledJobs) {
+        if (reservations.isEmpty()) {
+            return scheduledJobs;
+        }
+        long now = System.currentTimeMillis();
+        Set<Long> scheduledJobIds = scheduledJobs.stream().map(JobPlan::getJobId).collect(toSet());
+        // jobs which are no longer scheduled (e.g. cancelled) lose their reservation, as do expired reservations and
+        // reservations of agents which can no longer take them
+        reservations.entrySet().removeIf(entry -> entry.getValue().expiresAt() < now
+                || !scheduledJobIds.contains(entry.getValue().jobPlan().getJobId())
+                || !canTakeReservedJob(agentService.findAgent(entry.getKey())));
+        Set<Long> reservedJobIds = reservations.values().stream().map(reservation -> reservation.jobPlan().getJobId()).collect(toSet());
+        return scheduledJobs.stream().filter(jobPlan -> !reservedJobIds.contains(jobPlan.getJobId())).collect(toList());
+    }
+
+    private static boolean canTakeReservedJob(AgentInstance agent) {
+        return !agent.isNullAgent() && agent.isRegistered() && !agent.isDisabled() && agent.getStatus() != AgentStatus.LostContact;
+    }
+
     @Override
     public void onConfigChange(CruiseConfig cruiseConfig) {
         synchronized (this) {
+            jobPlans.addAll(releaseReservations(jobPlan -> !cruiseConfig.hasBuildPlan(new CaseInsensitiveString(jobPlan.getPipelineName()), new CaseInsensitiveString(jobPlan.getStageName()), jobPlan.getName(), true)));
             if (jobPlans.isEmpty()) {
                 return;
             }
@@ -262,7 +410,7 @@ public class BuildAssignmentService implements ConfigChangedListener {
                     jobsToRemove.add(jobPlan);
                 }
             }
-            jobsToRemove.forEach(this::tryRemoveJob);
+            tryRemoveJobs(jobsToRemove);
         }
     }
 
@@ -287,6 +435,28 @@ public class BuildAssignmentService implements ConfigChangedListener {
         }
     }
 
+    private void tryRemoveJobs(List<JobPlan> jobsToRemove) {
+        if (jobsToRemove.isEmpty()) {
+            return;
+        }
+        try {
+            jobPlans.removeAll(jobsToRemove);
+            LOGGER.info("Removing job plans {} that no longer exist in the config", jobsToRemove);
+            List<JobInstance> instances = new ArrayList<>();
+            for (JobPlan jobPlan : jobsToRemove) {
+                JobInstance instance = jobInstanceService.buildByIdWithTransitions(jobPlan.getJobId());
+                //#2846 - remove this hack
+                instance.setIdentifier(jobPlan.getIdentifier());
+                instances.add(instance);
+            }
+
+            scheduleService.cancelJobs(instances);
+            LOGGER.info("Successfully removed job plans {} that no longer exist in the config", jobsToRemove);
+        } catch (Exception e) {
+            LOGGER.warn("Unable to remove plans {} from queue that no longer exist in the config ({})", jobsToRemove, e.toString());
+        }
+    }
+
     private Work createWork(final AgentInstance agent, final JobPlan job) {
         try {
             return (Work) transactionTemplate.transactionSurrounding(() -> {
@@ -0,0 +1,136 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.thoughtworks.go.config.SecretConfig;
+import com.thoughtworks.go.plugin.access.secrets.SecretsExtension;
+import com.thoughtworks.go.plugin.domain.secrets.Secret;
+import com.thoughtworks.go.util.SystemEnvironment;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Looks up secrets from secrets plugins on behalf of {@link SecretParamResolver}, so that jobs and materials being
+ * resolved at the same time do not ask the plugin for the same secrets over and over:
+ * <ul>
+ * <li>a key which is already being looked up, with the same secret config, is waited for rather than asked for again;</li>
+ * <li>the remaining keys of a secret config are asked for in a single request;</li>
+ * <li>if {@code go.secrets.cache.ttl.seconds} is set, values are reused for that long. They are only ever kept in memory.</li>
+ * </ul>
+ */
+@Component
+public class CoalescingSecretLookup {
+    private final SecretsExtension secretsExtension;
+    private final ConcurrentMap<SecretKey, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+    private final Cache<SecretKey, String> cache;
+    private final boolean cacheEnabled;
+
+    @Autowired
+    public CoalescingSecretLookup(SecretsExtension secretsExtension, SystemEnvironment systemEnvironment) {
+        this(secretsExtension, systemEnvironment, Ticker.systemTicker());
+    }
+
+    CoalescingSecretLookup(SecretsExtension secretsExtension, SystemEnvironment systemEnvironment, Ticker ticker) {
+        this.secretsExtension = secretsExtension;
+        int ttl = systemEnvironment.getSecretsCacheTtlInSeconds();
+        this.cacheEnabled = ttl > 0;
+        this.cache = Caffeine.newBuilder()
+            .ticker(ticker)
+            .expireAfterWrite(Math.max(0, ttl), TimeUnit.SECONDS)
+            .maximumSize(10_000)
+            .build();
+    }
+
+    public List<Secret> lookupSecrets(SecretConfig secretConfig, Set<String> keys) {
+        Map<String, CompletableFuture<String>> values = new LinkedHashMap<>();
+        Map<String, CompletableFuture<String>> toLookup = new LinkedHashMap<>();
+        for (String key : keys) {
+            SecretKey secretKey = new SecretKey(secretConfig, key);
+            String cached = cacheEnabled ? cache.getIfPresent(secretKey) : null;
+            if (cached != null) {
+                values.put(key, CompletableFuture.completedFuture(cached));
+                continue;
+            }
+
+            CompletableFuture<String> lookup = new CompletableFuture<>();
+            CompletableFuture<String> alreadyInFlight = inFlight.putIfAbsent(secretKey, lookup);
+            if (alreadyInFlight == null) {
+                toLookup.put(key, lookup);
+                values.put(key, lookup);
+            } else {
+                values.put(key, alreadyInFlight);
+            }
+        }
+
+        if (!toLookup.isEmpty()) {
+            lookup(secretConfig, toLookup);
+        }
+
+        List<Secret> secrets = new ArrayList<>();
+        values.forEach((key, value) -> {
+            String resolved = await(value);
+            if (resolved != null) {
+                secrets.add(new Secret(key, resolved));
+            }
+        });
+        return secrets;
+    }
+
+    private void lookup(SecretConfig secretConfig, Map<String, CompletableFuture<String>> lookups) {
+        try {
+            Map<String, String> resolved = new HashMap<>();
+            secretsExtension.lookupSecrets(secretConfig.getPluginId(), secretConfig, lookups.keySet())
+                .forEach(secret -> resolved.put(secret.getKey(), secret.getValue()));
+
+            lookups.forEach((key, lookup) -> {
+                String value = resolved.get(key);
+                if (cacheEnabled && value != null) {
+                    cache.put(new SecretKey(secretConfig, key), value);
+                }
+                lookup.complete(value);
+            });
+        } catch (RuntimeException e) {
+            lookups.values().forEach(lookup -> lookup.completeExceptionally(e));
+            throw e;
+        } finally {
+            lookups.keySet().forEach(key -> inFlight.remove(new SecretKey(secretConfig, key)));
+        }
+    }
+
+    private static String await(CompletableFuture<String> value) {
+        try {
+            return value.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record SecretKey(SecretConfig secretConfig, String key) {
+    }
+}
@@ -24,6 +24,7 @@ import com.thoughtworks.go.domain.JobInstance;
 import com.thoughtworks.go.domain.JobPlan;
 import com.thoughtworks.go.plugin.access.elastic.ElasticAgentMetadataStore;
 import com.thoughtworks.go.plugin.access.elastic.ElasticAgentPluginRegistry;
+import com.thoughtworks.go.plugin.access.elastic.models.AgentCreationRequest;
 import com.thoughtworks.go.plugin.access.elastic.models.AgentMetadata;
 import com.thoughtworks.go.plugin.access.exceptions.SecretResolutionFailureException;
 import com.thoughtworks.go.plugin.api.info.PluginDescriptor;
@@ -37,6 +38,8 @@ import com.thoughtworks.go.server.messaging.JobStatusMessage;
 import com.thoughtworks.go.server.messaging.JobStatusTopic;
 import com.thoughtworks.go.server.messaging.elasticagents.CreateAgentMessage;
 import com.thoughtworks.go.server.messaging.elasticagents.CreateAgentQueueHandler;
+import com.thoughtworks.go.server.messaging.elasticagents.CreateAgentsQueueHandler;
+import com.thoughtworks.go.server.messaging.elasticagents.InFlightAgentCreations;
 import com.thoughtworks.go.server.messaging.elasticagents.ServerPingMessage;
 import com.thoughtworks.go.server.messaging.elasticagents.ServerPingQueueHandler;
 import com.thoughtworks.go.serverhealth.HealthStateScope;
@@ -85,6 +88,8 @@ public class ElasticAgentPluginService {
     private final SecretParamResolver secretParamResolver;
     private final JobInstanceSqlMapDao jobInstanceSqlMapDao;
     private final JobStatusTopic jobStatusTopic;
+    private final CreateAgentsQueueHandler createAgentsQueue;
+    private final InFlightAgentCreations inFlightAgentCreations;
 
     @Value("${go.elasticplugin.heartbeat.interval}")
     private long elasticPluginHeartBeatInterval;
@@ -104,11 +109,12 @@ public class ElasticAgentPluginService {
             GoConfigService goConfigService, TimeProvider timeProvider, ClusterProfilesService clusterProfilesService,
             ServerHealthService serverHealthService, JobInstanceSqlMapDao jobInstanceSqlMapDao, ScheduleService scheduleService,
             ConsoleService consoleService, EphemeralAutoRegisterKeyService ephemeralAutoRegisterKeyService, SecretParamResolver secretParamResolver,
-            JobStatusTopic jobStatusTopic) {
+            JobStatusTopic jobStatusTopic, CreateAgentsQueueHandler createAgentsQueue, InFlightAgentCreations inFlightAgentCreations) {
 
         this(pluginManager, elasticAgentPluginRegistry, agentService, environmentConfigService, createAgentQueue,
                 serverPingQueue, goConfigService, timeProvider, serverHealthService, ElasticAgentMetadataStore.instance(),
-                clusterProfilesService, jobInstanceSqlMapDao, scheduleService, consoleService, ephemeralAutoRegisterKeyService, secretParamResolver, jobStatusTopic);
+                clusterProfilesService, jobInstanceSqlMapDao, scheduleService, consoleService, ephemeralAutoRegisterKeyService, secretParamResolver, jobStatusTopic,
+                createAgentsQueue, inFlightAgentCreations);
     }
 
     ElasticAgentPluginService(
@@ -119,7 +125,8 @@ public class ElasticAgentPluginService {
             ElasticAgentMetadataStore elasticAgentMetadataStore, ClusterProfilesService clusterProfilesService,
             JobInstanceSqlMapDao jobInstanceSqlMapDao, ScheduleService scheduleService, ConsoleService consoleService,
             EphemeralAutoRegisterKeyService ephemeralAutoRegisterKeyService,
-            SecretParamResolver secretParamResolver, JobStatusTopic jobStatusTopic) {
+            SecretParamResolver secretParamResolver, JobStatusTopic jobStatusTopic,
+            CreateAgentsQueueHandler createAgentsQueue, InFlightAgentCreations inFlightAgentCreations) {
         this.pluginManager = pluginManager;
         this.elasticAgentPluginRegistry = elasticAgentPluginRegistry;
         this.agentService = agentService;
@@ -137,6 +144,8 @@ public class ElasticAgentPluginService {
         this.ephemeralAutoRegisterKeyService = ephemeralAutoRegisterKeyService;
         this.secretParamResolver = secretParamResolver;
         this.jobStatusTopic = jobStatusTopic;
+        this.createAgentsQueue = createAgentsQueue;
+        this.inFlightAgentCreations = inFlightAgentCreations;
     }
 
     public void heartbeat() {
@@ -205,8 +214,13 @@ public class ElasticAgentPluginService {
         List<JobPlan> plansThatRequireElasticAgent = jobsThatRequireAgent.stream().filter(isElasticAgent()).toList();
 //      messageTimeToLive is lesser than the starvation threshold to ensure there are no duplicate create agent message
         long messageTimeToLive = goConfigService.elasticJobStarvationThreshold() - 10000;
+        Map<Demand, List<AgentCreationRequest>> batchedDemand = new LinkedHashMap<>();
 
         for (JobPlan plan : plansThatRequireElasticAgent) {
+            if (inFlightAgentCreations.isInFlight(plan.getJobId())) {
+                LOGGER.debug("An elastic agent has already been asked for job {}, and is yet to be created.", plan.getIdentifier());
+                continue;
+            }
             jobCreationTimeMap.put(plan.getJobId(), timeProvider.currentTimeMillis());
             ElasticProfile elasticProfile = plan.getElasticProfile();
             ClusterProfile clusterProfile = plan.getClusterProfile();
@@ -225,7 +239,13 @@ public class ElasticAgentPluginService {
                 String environment = environmentConfigService.envForPipeline(plan.getPipelineName());
                 try {
                     resolveSecrets(clusterProfile, elasticProfile);
-                    createAgentQueue.post(new CreateAgentMessage(ephemeralAutoRegisterKeyService.autoRegisterKey(), environment, elasticProfile, clusterProfile, jobIdentifier), messageTimeToLive);
+                    if (supportsBatchCreateAgents(clusterProfile.getPluginId())) {
+                        batchedDemand.computeIfAbsent(new Demand(elasticProfile, clusterProfile), demand -> new ArrayList<>())
+                                .add(new AgentCreationRequest(ephemeralAutoRegisterKeyService.autoRegisterKey(), environment, jobIdentifier));
+                    } else {
+                        createAgentQueue.post(new CreateAgentMessage(ephemeralAutoRegisterKeyService.autoRegisterKey(), environment, elasticProfile, clusterProfile, jobIdentifier), messageTimeToLive);
+                    }
+                    inFlightAgentCreations.requested(plan.getJobId(), messageTimeToLive);
                     serverHealthService.removeByScope(scopeForJob(jobIdentifier));
                 } catch (RulesViolationException | SecretResolutionFailureException e) {
                     JobInstance jobInstance = jobInstanceSqlMapDao.buildById(plan.getJobId());
@@ -247,6 +267,13 @@ public class ElasticAgentPluginService {
                 LOGGER.error(description);
             }
         }
+
+        batchedDemand.forEach((demand, agents) -> createAgentsQueue.post(demand.pluginId(), demand.configuration(), demand.clusterProfileConfiguration(), agents, messageTimeToLive));
+    }
+
+    private boolean supportsBatchCreateAgents(String pluginId) {
+        ElasticAgentPluginInfo pluginInfo = elasticAgentMetadataStore.getPluginInfo(pluginId);
+        return pluginInfo != null && pluginInfo.getCapabilities() != null && pluginInfo.getCapabilities().supportsBatchCreateAgents();
     }
 
     public boolean shouldAssignWork(ElasticAgentMetadata metadata, String environment, ElasticProfile elasticProfile, ClusterProfile clusterProfile, JobIdentifier identifier) {
@@ -380,6 +407,17 @@ public class ElasticAgentPluginService {
         return true;
     }
 
+    /**
+     * Jobs waiting for agents with the same elastic agent profile, in the same cluster, whose agents can be asked for
+     * with a single request. Profiles are compared by their resolved configuration, as jobs keep the profiles they were
+     * scheduled with.
+     */
+    private record Demand(String pluginId, Map<String, String> configuration, Map<String, String> clusterProfileConfiguration) {
+        Demand(ElasticProfile elasticProfile, ClusterProfile clusterProfile) {
+            this(clusterProfile.getPluginId(), elasticProfile.getConfigurationAsMap(true, true), clusterProfile.getConfigurationAsMap(true, true));
+        }
+    }
+
     private void resolveSecrets(ClusterProfile clusterProfile, ElasticProfile elasticProfile) {
         if (clusterProfile != null) {
             secretParamResolver.resolve(clusterProfile);
@@ -43,6 +43,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -64,6 +65,7 @@ public class EnvironmentConfigService implements ConfigChangedListener, AgentCha
 
     private EnvironmentsConfig environments;
     private EnvironmentPipelineMatchers matchers;
+    private final AtomicLong version = new AtomicLong();
 
     public EnvironmentConfigService() {
     }
@@ -263,12 +265,14 @@ public class EnvironmentConfigService implements ConfigChangedListener, AgentCha
         addAgentToNewlyAssociatedEnvironments(uuid, envsToAdd.stream());
 
         matchers = environments.matchers();
+        version.incrementAndGet();
     }
 
     @Override
     public void agentDeleted(Agent agent) {
         removeAgentFromCurrentlyAssociatedEnvironments(agent.getUuid(), agent.getEnvironmentsAsStream());
         matchers = environments.matchers();
+        version.incrementAndGet();
     }
 
     void syncEnvironments(EnvironmentsConfig envsConfig) {
@@ -276,9 +280,17 @@ public class EnvironmentConfigService implements ConfigChangedListener, AgentCha
             environments = envsConfig;
             agentService.getAgentInstances().forEach(this::syncAssociatedAgentFromDB);
             matchers = envsConfig.matchers();
+            version.incrementAndGet();
         }
     }
 
+    /**
+     * @return a number which changes whenever the environments, or the agents associated with them, change
+     */
+    public long version() {
+        return version.get();
+    }
+
     @Override
     public void onConfigChange(CruiseConfig newCruiseConfig) {
         syncEnvironments(newCruiseConfig.getEnvironments());
@@ -46,6 +46,7 @@ import org.springframework.transaction.TransactionStatus;
 import org.springframework.transaction.support.TransactionCallbackWithoutResult;
 import org.springframework.transaction.support.TransactionSynchronizationAdapter;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -132,6 +133,35 @@ public class JobInstanceService implements JobPlanLoader, ConfigChangedListener
         });
     }
 
+    public void updateStatesAndResults(final List<JobInstance> jobs) {
+        transactionTemplate.execute(new TransactionCallbackWithoutResult() {
+            @Override
+            protected void doInTransactionWithoutResult(TransactionStatus status) {
+                jobInstanceDao.updateStatesAndResults(jobs);
+
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("job statuses updated {}", jobs);
+                }
+                notifyJobStatusChangeListeners(jobs);
+            }
+        });
+    }
+
+    private void notifyJobStatusChangeListeners(final List<JobInstance> jobs) {
+        transactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                for (JobStatusListener jobStatusListener : listeners) {
+                    try {
+                        jobStatusListener.jobStatusesChanged(jobs);
+                    } catch (Exception e) {
+                        LOGGER.error("error notifying listener for jobs {}", jobs, e);
+                    }
+                }
+            }
+        });
+    }
+
     private void notifyJobStatusChangeListeners(final JobInstance job) {
         transactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
             @Override
@@ -193,6 +223,21 @@ public class JobInstanceService implements JobPlanLoader, ConfigChangedListener
         }
     }
 
+    public void cancelJobs(final List<JobInstance> jobs) {
+        List<JobInstance> cancelledJobs = new ArrayList<>();
+        for (JobInstance job : jobs) {
+            LOGGER.info("cancelling job [{}]", job);
+            if (job.cancel()) {
+                cancelledJobs.add(job);
+            }
+        }
+        if (cancelledJobs.isEmpty()) {
+            return;
+        }
+        updateStatesAndResults(cancelledJobs);
+        cancelledJobs.forEach(this::notifyJobCancelled);
+    }
+
     private void notifyJobCancelled(final JobInstance instance) {
         if (instance.isAssignedToAgent()) {
             transactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
@@ -211,6 +256,14 @@ public class JobInstanceService implements JobPlanLoader, ConfigChangedListener
         notifyJobStatusChangeListeners(job);
     }
 
+    public void saveAll(StageIdentifier stageIdentifier, long stageId, final List<JobInstance> jobs) {
+        jobInstanceDao.saveAll(stageId, jobs);
+        for (JobInstance job : jobs) {
+            job.setIdentifier(new JobIdentifier(stageIdentifier, job));
+            notifyJobStatusChangeListeners(job);
+        }
+    }
+
     public List<JobInstance> allRunningJobs() {
         return jobInstanceDao.getRunningJobs();
     }
@@ -19,6 +19,8 @@ import com.thoughtworks.go.server.service.result.OperationResult;
 import com.thoughtworks.go.serverhealth.HealthStateScope;
 import com.thoughtworks.go.serverhealth.HealthStateType;
 
+import java.util.function.Predicate;
+
 import static java.lang.String.format;
 
 /**
@@ -26,17 +28,21 @@ import static java.lang.String.format;
  */
 public class PipelineLockChecker implements SchedulingChecker {
     private final String pipelineName;
-    private final PipelineLockService pipelineLockService;
+    private final Predicate<String> isLocked;
 
     public PipelineLockChecker(String pipelineName, PipelineLockService pipelineLockService) {
+        this(pipelineName, name -> pipelineLockService.isLocked(name));
+    }
+
+    public PipelineLockChecker(String pipelineName, Predicate<String> isLocked) {
         this.pipelineName = pipelineName;
-        this.pipelineLockService = pipelineLockService;
+        this.isLocked = isLocked;
     }
 
     @Override
     public void check(OperationResult result) {
         HealthStateType healthStateType = HealthStateType.general(HealthStateScope.forPipeline(pipelineName));
-        if (pipelineLockService.isLocked(pipelineName)) {
+        if (isLocked.test(pipelineName)) {
             String message = format("Pipeline %s cannot be scheduled", pipelineName);
             String description = format("Pipeline %s is locked as another instance of this pipeline is running.", pipelineName);
             result.conflict(message, description, healthStateType);
@@ -19,19 +19,25 @@ import com.thoughtworks.go.server.service.result.OperationResult;
 import com.thoughtworks.go.serverhealth.HealthStateScope;
 import com.thoughtworks.go.serverhealth.HealthStateType;
 
+import java.util.function.Predicate;
+
 public class PipelinePauseChecker implements SchedulingChecker {
-    private String pipelineName;
-    private PipelinePauseService pipelinePauseService;
+    private final String pipelineName;
+    private final Predicate<String> isPaused;
 
     public PipelinePauseChecker(String pipelineName, PipelinePauseService pipelinePauseService) {
+        this(pipelineName, name -> pipelinePauseService.isPaused(name));
+    }
+
+    public PipelinePauseChecker(String pipelineName, Predicate<String> isPaused) {
         this.pipelineName = pipelineName;
-        this.pipelinePauseService = pipelinePauseService;
+        this.isPaused = isPaused;
     }
 
     @Override
     public void check(OperationResult result) {
         HealthStateType id = HealthStateType.general(HealthStateScope.forPipeline(pipelineName));
-        if (pipelinePauseService.isPaused(pipelineName)) {
+        if (isPaused.test(pipelineName)) {
             String message = String.format("Failed to trigger pipeline [%s]", pipelineName);
             result.conflict(message, String.format("Pipeline %s is paused", pipelineName), id);
         } else {
@@ -21,6 +21,8 @@ import com.thoughtworks.go.config.PipelineConfig;
 import com.thoughtworks.go.config.exceptions.EntityType;
 import com.thoughtworks.go.domain.PipelinePauseInfo;
 import com.thoughtworks.go.i18n.LocalizedMessage;
+import com.thoughtworks.go.server.cache.LockKey;
+import com.thoughtworks.go.server.cache.LockRegistry;
 import com.thoughtworks.go.server.dao.PipelineSqlMapDao;
 import com.thoughtworks.go.server.domain.PipelinePauseChangeListener;
 import com.thoughtworks.go.server.domain.Username;
@@ -35,6 +37,7 @@ import org.springframework.stereotype.Service;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 
+import static com.thoughtworks.go.server.cache.LockRegistry.locks;
 import static com.thoughtworks.go.serverhealth.HealthStateScope.forPipeline;
 import static com.thoughtworks.go.serverhealth.HealthStateType.forbiddenForPipeline;
 import static com.thoughtworks.go.serverhealth.HealthStateType.general;
@@ -122,8 +125,8 @@ public class PipelinePauseService {
     }
 
     private void pausePipeline(String pipelineName, String pauseCause, Username pauseBy) {
-        String mutexPipelineName = mutexForPausePipeline(pipelineName);
-        synchronized (mutexPipelineName) {
+        LockKey mutexPipelineName = mutexForPausePipeline(pipelineName);
+        try (LockRegistry.Held ignored = locks().lock(mutexPipelineName)) {
             String sanitizedPauseCause = pauseCause.substring(0, Math.min(255, pauseCause.length()));
             String pauseByDisplayName = pauseBy.getDisplayName();
             String sanitizedPauseBy = pauseByDisplayName.substring(0, Math.min(255, pauseByDisplayName.length()));
@@ -153,8 +156,8 @@ public class PipelinePauseService {
     }
 
     private void unpausePipeline(String pipelineName, Username unpausedBy) {
-        String mutextPipelineName = mutexForPausePipeline(pipelineName);
-        synchronized (mutextPipelineName) {
+        LockKey mutextPipelineName = mutexForPausePipeline(pipelineName);
+        try (LockRegistry.Held ignored = locks().lock(mutextPipelineName)) {
             pipelineSqlMapDao.unpause(pipelineName);
             LOGGER.info("[Pipeline Unpause] Pipeline [{}] is unpaused by [{}]", pipelineName, unpausedBy);
             notifyListeners(PipelinePauseChangeListener.Event.unPause(pipelineName, unpausedBy));
@@ -165,8 +168,8 @@ public class PipelinePauseService {
      * Mutex shared between PipelinePauseService and PipelineService. This is to avoid constraint violation when
      * updateCounter() and pause() are trying to insert pipeline row if one doesn't exist
      */
-    public static String mutexForPausePipeline(String pipelineName) {
-        return (PipelineSqlMapDao.class.getName() + "_mutexForPausePipeline_" + pipelineName).intern();
+    public static LockKey mutexForPausePipeline(String pipelineName) {
+        return LockKey.of(PipelinePauseService.class, "pausePipeline", pipelineName);
     }
 
     private void notifyListeners(PipelinePauseChangeListener.Event event) {
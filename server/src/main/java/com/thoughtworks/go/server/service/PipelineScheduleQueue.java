@@ -22,6 +22,8 @@ import com.thoughtworks.go.domain.Pipeline;
 import com.thoughtworks.go.domain.SchedulingContext;
 import com.thoughtworks.go.domain.buildcause.BuildCause;
 import com.thoughtworks.go.domain.buildcause.BuildCauseOutOfDateException;
+import com.thoughtworks.go.server.cache.LockKey;
+import com.thoughtworks.go.server.cache.LockRegistry;
 import com.thoughtworks.go.server.transaction.TransactionTemplate;
 import com.thoughtworks.go.util.Clock;
 import org.jetbrains.annotations.TestOnly;
@@ -34,6 +36,8 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
+import static com.thoughtworks.go.server.cache.LockRegistry.locks;
+
 @Component
 public class PipelineScheduleQueue {
     private static final Logger LOGGER = LoggerFactory.getLogger(PipelineScheduleQueue.class);
@@ -42,6 +46,7 @@ public class PipelineScheduleQueue {
     private TransactionTemplate transactionTemplate;
     private Map<CaseInsensitiveString, BuildCause> toBeScheduled = new ConcurrentHashMap<>();
     private Map<CaseInsensitiveString, BuildCause> mostRecentScheduled = new ConcurrentHashMap<>();
+    private Map<CaseInsensitiveString, Long> timeQueued = new ConcurrentHashMap<>();
     private InstanceFactory instanceFactory;
 
     @Autowired
@@ -52,7 +57,7 @@ public class PipelineScheduleQueue {
     }
 
     public BuildCause mostRecentScheduled(CaseInsensitiveString pipelineName) {
-        synchronized (mutexForPipelineName(pipelineName)) {
+        try (LockRegistry.Held ignored = locks().lock(mutexForPipelineName(pipelineName))) {
             BuildCause buildCause = mostRecentScheduled.get(pipelineName);
             if (buildCause != null) {
                 return buildCause;
@@ -69,17 +74,19 @@ public class PipelineScheduleQueue {
     }
 
     public void schedule(CaseInsensitiveString pipelineName, BuildCause buildCause) {
-        synchronized (mutexForPipelineName(pipelineName)) {
+        try (LockRegistry.Held ignored = locks().lock(mutexForPipelineName(pipelineName))) {
             BuildCause current = toBeScheduled.get(pipelineName);
             if (current == null || buildCause.trumps(current)) {
                 toBeScheduled.put(pipelineName, buildCause);
+                timeQueued.putIfAbsent(pipelineName, System.currentTimeMillis());
             }
         }
     }
 
     public void cancelSchedule(CaseInsensitiveString pipelineName) {
-        synchronized (mutexForPipelineName(pipelineName)) {
+        try (LockRegistry.Held ignored = locks().lock(mutexForPipelineName(pipelineName))) {
             toBeScheduled.remove(pipelineName);
+            timeQueued.remove(pipelineName);
         }
     }
 
@@ -87,19 +94,28 @@ public class PipelineScheduleQueue {
         return new HashMap<>(toBeScheduled);
     }
 
+    /**
+     * @return when a build cause was first queued for the pipeline, since it was last scheduled, or null if none is
+     */
+    public Long timeQueued(CaseInsensitiveString pipelineName) {
+        return timeQueued.get(pipelineName);
+    }
+
     public void finishSchedule(CaseInsensitiveString pipelineName, BuildCause buildCause, BuildCause newCause) {
-        synchronized (mutexForPipelineName(pipelineName)) {
+        try (LockRegistry.Held ignored = locks().lock(mutexForPipelineName(pipelineName))) {
             if (buildCause.equals(toBeScheduled.get(pipelineName))) {
                 toBeScheduled.remove(pipelineName);
+                timeQueued.remove(pipelineName);
             }
             mostRecentScheduled.put(pipelineName, newCause);
         }
     }
 
     public void clearPipeline(CaseInsensitiveString pipelineName) {
-        synchronized (mutexForPipelineName(pipelineName)) {
+        try (LockRegistry.Held ignored = locks().lock(mutexForPipelineName(pipelineName))) {
             toBeScheduled.remove(pipelineName);
             mostRecentScheduled.remove(pipelineName);
+            timeQueued.remove(pipelineName);
         }
     }
 
@@ -110,7 +126,7 @@ public class PipelineScheduleQueue {
     }
 
     public boolean hasForcedBuildCause(CaseInsensitiveString pipelineName) {
-        synchronized (mutexForPipelineName(pipelineName)) {
+        try (LockRegistry.Held ignored = locks().lock(mutexForPipelineName(pipelineName))) {
             BuildCause buildCause = toBeScheduled.get(pipelineName);
             return buildCause != null && buildCause.isForced();
         }
@@ -120,6 +136,7 @@ public class PipelineScheduleQueue {
     public void clear() {
         mostRecentScheduled.clear();
         toBeScheduled.clear();
+        timeQueued.clear();
     }
 
     public Pipeline createPipeline(final BuildCause buildCause, final PipelineConfig pipelineConfig, final SchedulingContext context, final String md5, final Clock clock) {
@@ -148,8 +165,8 @@ public class PipelineScheduleQueue {
         return !buildCause.isForced() && buildCause.isSameAs(mostRecentScheduled(pipelineName));
     }
 
-    private String mutexForPipelineName(CaseInsensitiveString pipelineName) {
-        return String.format("%s-%s", PipelineScheduleQueue.class.getName(), pipelineName.toLower()).intern();
+    private LockKey mutexForPipelineName(CaseInsensitiveString pipelineName) {
+        return LockKey.of(PipelineScheduleQueue.class, "pipeline", pipelineName);
     }
 
 }
@@ -24,6 +24,8 @@ import com.thoughtworks.go.domain.*;
 import com.thoughtworks.go.domain.buildcause.BuildCause;
 import com.thoughtworks.go.domain.materials.Material;
 import com.thoughtworks.go.domain.materials.dependency.DependencyMaterialRevision;
+import com.thoughtworks.go.server.cache.LockKey;
+import com.thoughtworks.go.server.cache.LockRegistry;
 import com.thoughtworks.go.server.dao.PipelineSqlMapDao;
 import com.thoughtworks.go.server.domain.PipelineConfigDependencyGraph;
 import com.thoughtworks.go.server.domain.PipelineTimeline;
@@ -39,6 +41,7 @@ import java.util.OptionalInt;
 import java.util.Queue;
 import java.util.function.IntSupplier;
 
+import static com.thoughtworks.go.server.cache.LockRegistry.locks;
 import static com.thoughtworks.go.util.SystemEnvironment.RESOLVE_FANIN_MAX_BACK_TRACK_LIMIT;
 import static java.lang.String.format;
 import static org.apache.commons.lang3.StringUtils.isNumeric;
@@ -77,8 +80,8 @@ public class PipelineService implements UpstreamPipelineResolver {
     }
 
     public Pipeline save(final Pipeline pipeline) {
-        String mutexPipelineName = PipelinePauseService.mutexForPausePipeline(pipeline.getName());
-        synchronized (mutexPipelineName) {
+        LockKey mutexPipelineName = PipelinePauseService.mutexForPausePipeline(pipeline.getName());
+        try (LockRegistry.Held ignored = locks().lock(mutexPipelineName)) {
             return transactionTemplate.execute(status -> {
                 if (pipeline instanceof NullPipeline) {
                     return pipeline;
@@ -26,6 +26,8 @@ import com.thoughtworks.go.plugin.api.response.validation.ValidationError;
 import com.thoughtworks.go.plugin.api.response.validation.ValidationResult;
 import com.thoughtworks.go.plugin.domain.common.PluginInfo;
 import com.thoughtworks.go.plugin.infra.PluginManager;
+import com.thoughtworks.go.server.cache.LockKey;
+import com.thoughtworks.go.server.cache.LockRegistry;
 import com.thoughtworks.go.server.dao.PluginDao;
 import com.thoughtworks.go.server.domain.PluginSettings;
 import com.thoughtworks.go.server.domain.Username;
@@ -42,6 +44,7 @@ import java.util.List;
 import java.util.Map;
 
 import static com.thoughtworks.go.CurrentGoCDVersion.apiDocsUrl;
+import static com.thoughtworks.go.server.cache.LockRegistry.locks;
 
 @Service
 public class PluginService {
@@ -86,8 +89,8 @@ public class PluginService {
     }
 
     public void createPluginSettings(PluginSettings newPluginSettings, Username currentUser, LocalizedOperationResult result) {
-        final String keyToLockOn = keyToLockOn(newPluginSettings.getPluginId());
-        synchronized (keyToLockOn) {
+        final LockKey keyToLockOn = keyToLockOn(newPluginSettings.getPluginId());
+        try (LockRegistry.Held ignored = locks().lock(keyToLockOn)) {
             if (hasPermission(currentUser, newPluginSettings.getPluginId(), result)) {
                 final Plugin plugin = pluginDao.findPlugin(newPluginSettings.getPluginId());
                 if (plugin instanceof NullPlugin) {
@@ -103,8 +106,8 @@ public class PluginService {
     public void updatePluginSettings(PluginSettings newPluginSettings, Username currentUser, LocalizedOperationResult result, String digest) {
         final String pluginId = newPluginSettings.getPluginId();
 
-        final String keyToLockOn = keyToLockOn(pluginId);
-        synchronized (keyToLockOn) {
+        final LockKey keyToLockOn = keyToLockOn(pluginId);
+        try (LockRegistry.Held ignored = locks().lock(keyToLockOn)) {
             if (hasPermission(currentUser, newPluginSettings.getPluginId(), result)) {
                 final PluginSettings pluginSettingsFromDB = getPluginSettings(pluginId);
                 if (pluginSettingsFromDB == null) {
@@ -157,7 +160,7 @@ public class PluginService {
     }
 
     private void updatePluginSettingsAndNotifyPluginSettingsChangeListeners(LocalizedOperationResult result, PluginSettings pluginSettings) {
-        synchronized (keyToLockOn(pluginSettings.getPluginId())) {
+        try (LockRegistry.Held ignored = locks().lock(keyToLockOn(pluginSettings.getPluginId()))) {
             try {
                 validatePluginSettings(pluginSettings);
                 if (pluginSettings.hasErrors()) {
@@ -195,8 +198,8 @@ public class PluginService {
         }
     }
 
-    private String keyToLockOn(String pluginId) {
-        return (getClass().getName() + "_plugin_settings_" + pluginId).intern();
+    private LockKey keyToLockOn(String pluginId) {
+        return LockKey.of(PluginService.class, "pluginSettings", pluginId);
     }
 
     private GoPluginExtension findExtensionWhichCanHandleSettingsFor(String pluginId) {
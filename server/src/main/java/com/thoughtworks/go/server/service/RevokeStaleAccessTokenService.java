@@ -32,12 +32,14 @@ import java.util.stream.Collectors;
 public class RevokeStaleAccessTokenService extends EntityConfigChangedListener<SecurityAuthConfig> {
     private GoConfigService goConfigService;
     private AccessTokenService accessTokenService;
+    private VerifiedAccessTokenCache verifiedAccessTokenCache;
     private SecurityAuthConfigs existingSecurityAuthConfigs;
 
     @Autowired
-    public RevokeStaleAccessTokenService(GoConfigService goConfigService, AccessTokenService accessTokenService) {
+    public RevokeStaleAccessTokenService(GoConfigService goConfigService, AccessTokenService accessTokenService, VerifiedAccessTokenCache verifiedAccessTokenCache) {
         this.goConfigService = goConfigService;
         this.accessTokenService = accessTokenService;
+        this.verifiedAccessTokenCache = verifiedAccessTokenCache;
 
         this.goConfigService.register(this);
     }
@@ -65,6 +67,8 @@ public class RevokeStaleAccessTokenService extends EntityConfigChangedListener<S
 
     private void removeAccessTokensFromStaleAuthConfigs(SecurityAuthConfigs updatedSecurityAuthConfigs) {
         if (this.existingSecurityAuthConfigs != null && !this.existingSecurityAuthConfigs.equals(updatedSecurityAuthConfigs)) {
+            // tokens verified against an auth config which has since changed must be verified again
+            this.verifiedAccessTokenCache.invalidateAll();
             List<String> existing = getIds(existingSecurityAuthConfigs);
             List<String> updated = getIds(updatedSecurityAuthConfigs);
             List<String> removed = existing.stream().filter(id -> !updated.contains(id)).toList();
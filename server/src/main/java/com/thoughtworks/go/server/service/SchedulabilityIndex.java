@@ -0,0 +1,129 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service;
+
+import com.thoughtworks.go.domain.Stage;
+import com.thoughtworks.go.server.domain.PipelineLockStatusChangeListener;
+import com.thoughtworks.go.server.domain.PipelinePauseChangeListener;
+import com.thoughtworks.go.server.domain.StageStatusListener;
+import org.jetbrains.annotations.TestOnly;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Answers, from memory, what is asked about every pipeline considered for scheduling: whether it is paused, whether
+ * it is locked and whether one of its stages is running. An answer is looked up the first time it is needed, and
+ * dropped when the pause, lock or stage status of the pipeline changes; pipelines which have not changed are checked
+ * without going to the cache or the database.
+ */
+@Component
+public class SchedulabilityIndex implements PipelinePauseChangeListener, PipelineLockStatusChangeListener {
+    private final PipelinePauseService pipelinePauseService;
+    private final PipelineLockService pipelineLockService;
+    private final StageService stageService;
+
+    private final Map<String, Boolean> paused = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> locked = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> activeStages = new ConcurrentHashMap<>();
+    // counts changes, so that an answer looked up while the state was changing is not kept
+    private final AtomicLong changes = new AtomicLong();
+
+    @Autowired
+    public SchedulabilityIndex(PipelinePauseService pipelinePauseService, PipelineLockService pipelineLockService, StageService stageService) {
+        this.pipelinePauseService = pipelinePauseService;
+        this.pipelineLockService = pipelineLockService;
+        this.stageService = stageService;
+        pipelinePauseService.registerListener(this);
+        pipelineLockService.registerListener(this);
+        stageService.addStageStatusListener(stageStatusChangedListener());
+    }
+
+    public boolean isPaused(String pipelineName) {
+        return answer(paused, pipelineKey(pipelineName), () -> pipelinePauseService.isPaused(pipelineName));
+    }
+
+    public boolean isLocked(String pipelineName) {
+        return answer(locked, pipelineKey(pipelineName), () -> pipelineLockService.isLocked(pipelineName));
+    }
+
+    public boolean isStageActive(String pipelineName, String stageName) {
+        return answer(activeStages, stageKey(pipelineName, stageName), () -> stageService.isStageActive(pipelineName, stageName));
+    }
+
+    @Override
+    public void pauseStatusChanged(PipelinePauseChangeListener.Event event) {
+        changed(paused, pipelineKey(event.pipelineName()));
+    }
+
+    @Override
+    public void lockStatusChanged(PipelineLockStatusChangeListener.Event event) {
+        changed(locked, pipelineKey(event.pipelineName()));
+    }
+
+    // registered with StageService rather than implemented by this class, as StageService is given every
+    // StageStatusListener bean when it is created and this class needs StageService to be created first
+    private StageStatusListener stageStatusChangedListener() {
+        return this::stageStatusChanged;
+    }
+
+    private void stageStatusChanged(Stage stage) {
+        String pipelineName = stage.getIdentifier().getPipelineName();
+        changed(activeStages, stageKey(pipelineName, stage.getName()));
+        // the pipeline lock is looked up again whenever a stage changes, as PipelineStateDao does
+        changed(locked, pipelineKey(pipelineName));
+    }
+
+    @TestOnly
+    public void clear() {
+        changes.incrementAndGet();
+        paused.clear();
+        locked.clear();
+        activeStages.clear();
+    }
+
+    private boolean answer(Map<String, Boolean> answers, String key, BooleanSupplier lookup) {
+        Boolean answer = answers.get(key);
+        if (answer != null) {
+            return answer;
+        }
+        long changesBefore = changes.get();
+        boolean lookedUp = lookup.getAsBoolean();
+        if (changes.get() == changesBefore) {
+            answers.putIfAbsent(key, lookedUp);
+        }
+        return lookedUp;
+    }
+
+    private void changed(Map<String, Boolean> answers, String key) {
+        // counted before the answer is dropped, so that a lookup racing with this change either sees the count change
+        // or has its answer dropped
+        changes.incrementAndGet();
+        answers.remove(key);
+    }
+
+    private static String pipelineKey(String pipelineName) {
+        return pipelineName.toLowerCase();
+    }
+
+    private static String stageKey(String pipelineName, String stageName) {
+        return pipelineName.toLowerCase() + "/" + stageName.toLowerCase();
+    }
+}
@@ -27,6 +27,8 @@ import com.thoughtworks.go.domain.activity.AgentAssignment;
 import com.thoughtworks.go.domain.buildcause.BuildCause;
 import com.thoughtworks.go.remote.AgentIdentifier;
 import com.thoughtworks.go.remote.work.InvalidAgentException;
+import com.thoughtworks.go.server.cache.LockKey;
+import com.thoughtworks.go.server.cache.LockRegistry;
 import com.thoughtworks.go.server.dao.JobInstanceDao;
 import com.thoughtworks.go.server.dao.PipelineDao;
 import com.thoughtworks.go.server.dao.StageDao;
@@ -41,6 +43,8 @@ import com.thoughtworks.go.serverhealth.HealthStateScope;
 import com.thoughtworks.go.serverhealth.HealthStateType;
 import com.thoughtworks.go.serverhealth.ServerHealthService;
 import com.thoughtworks.go.serverhealth.ServerHealthState;
+import com.thoughtworks.go.util.NamedDaemonThreadFactory;
+import com.thoughtworks.go.util.SystemEnvironment;
 import com.thoughtworks.go.util.TimeProvider;
 import org.apache.commons.lang3.Strings;
 import org.jetbrains.annotations.TestOnly;
@@ -52,11 +56,20 @@ import org.springframework.transaction.TransactionStatus;
 import org.springframework.transaction.support.TransactionCallbackWithoutResult;
 import org.springframework.transaction.support.TransactionSynchronizationAdapter;
 
+import javax.annotation.PreDestroy;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
+import static com.thoughtworks.go.server.cache.LockRegistry.locks;
 import static com.thoughtworks.go.util.GoConstants.DEFAULT_APPROVED_BY;
 import static java.lang.String.join;
 
@@ -91,6 +104,8 @@ public class ScheduleService {
     private SchedulingPerformanceLogger schedulingPerformanceLogger;
     private ElasticProfileService elasticProfileService;
     private ClusterProfilesService clusterProfilesService;
+    private SystemEnvironment systemEnvironment;
+    private volatile ExecutorService pipelineSchedulingExecutor;
 
     protected ScheduleService() {
     }
@@ -120,7 +135,8 @@ public class ScheduleService {
                            InstanceFactory instanceFactory,
                            SchedulingPerformanceLogger schedulingPerformanceLogger,
                            ElasticProfileService elasticProfileService,
-                           ClusterProfilesService clusterProfilesService
+                           ClusterProfilesService clusterProfilesService,
+                           SystemEnvironment systemEnvironment
     ) {
         this.goConfigService = goConfigService;
         this.pipelineService = pipelineService;
@@ -147,32 +163,80 @@ public class ScheduleService {
         this.schedulingPerformanceLogger = schedulingPerformanceLogger;
         this.elasticProfileService = elasticProfileService;
         this.clusterProfilesService = clusterProfilesService;
+        this.systemEnvironment = systemEnvironment;
     }
 
     //Note: This is called from a Spring timer
     public void autoSchedulePipelinesFromRequestBuffer() {
         synchronized (autoScheduleMutex) {
             try {
-                for (Entry<CaseInsensitiveString, BuildCause> entry : pipelineScheduleQueue.toBeScheduled().entrySet()) {
-                    CaseInsensitiveString pipelineName = entry.getKey();
-                    BuildCause buildCause = entry.getValue();
-
-                    LOGGER.info("[Pipeline Schedule] Scheduling pipeline {} with build cause {}", pipelineName, buildCause);
-
-                    long schedulingStartTime = System.currentTimeMillis();
-                    Pipeline pipeline = schedulePipeline(pipelineName, buildCause);
-                    long schedulingEndTime = System.currentTimeMillis();
+                Map<CaseInsensitiveString, BuildCause> toBeScheduled = pipelineScheduleQueue.toBeScheduled();
+                if (toBeScheduled.size() <= 1 || systemEnvironment.getPipelineSchedulingThreads() <= 1) {
+                    for (Entry<CaseInsensitiveString, BuildCause> entry : toBeScheduled.entrySet()) {
+                        autoSchedulePipeline(entry.getKey(), entry.getValue());
+                    }
+                    return;
+                }
 
-                    if (pipeline != null) {
-                        schedulingPerformanceLogger.scheduledPipeline(pipelineName, pipelineScheduleQueue.toBeScheduled().size(), schedulingStartTime, schedulingEndTime);
+                // Each pipeline is queued once, so the pipelines scheduled together are all different from each other.
+                // Scheduling one only locks that pipeline, and its stages, so they can be created side by side.
+                List<CaseInsensitiveString> pipelineNames = new ArrayList<>();
+                List<Callable<Void>> tasks = new ArrayList<>();
+                for (Entry<CaseInsensitiveString, BuildCause> entry : toBeScheduled.entrySet()) {
+                    pipelineNames.add(entry.getKey());
+                    tasks.add(() -> {
+                        autoSchedulePipeline(entry.getKey(), entry.getValue());
+                        return null;
+                    });
+                }
+                List<Future<Void>> scheduled = pipelineSchedulingExecutor().invokeAll(tasks);
+                for (int i = 0; i < scheduled.size(); i++) {
+                    try {
+                        scheduled.get(i).get();
+                    } catch (ExecutionException e) {
+                        LOGGER.error("[Pipeline Schedule] An exception occurred while scheduling the pipeline {}.", pipelineNames.get(i), e.getCause());
                     }
                 }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             } catch (Throwable e) {
                 LOGGER.error("[Pipeline Schedule] An exception occurred while scheduling the pipeline.", e);
             }
         }
     }
 
+    private void autoSchedulePipeline(CaseInsensitiveString pipelineName, BuildCause buildCause) {
+        LOGGER.info("[Pipeline Schedule] Scheduling pipeline {} with build cause {}", pipelineName, buildCause);
+
+        long schedulingStartTime = System.currentTimeMillis();
+        Long timeQueued = pipelineScheduleQueue.timeQueued(pipelineName);
+        if (timeQueued != null) {
+            schedulingPerformanceLogger.pipelineTakenFromToBeScheduledQueue(pipelineName, schedulingStartTime - timeQueued);
+        }
+        Pipeline pipeline = schedulePipeline(pipelineName, buildCause);
+        long schedulingEndTime = System.currentTimeMillis();
+
+        if (pipeline != null) {
+            schedulingPerformanceLogger.scheduledPipeline(pipelineName, pipelineScheduleQueue.toBeScheduled().size(), schedulingStartTime, schedulingEndTime);
+        }
+    }
+
+    // only called while holding the auto schedule mutex
+    private ExecutorService pipelineSchedulingExecutor() {
+        if (pipelineSchedulingExecutor == null) {
+            pipelineSchedulingExecutor = Executors.newFixedThreadPool(systemEnvironment.getPipelineSchedulingThreads(), new NamedDaemonThreadFactory("pipeline-scheduler"));
+        }
+        return pipelineSchedulingExecutor;
+    }
+
+    @PreDestroy
+    public void shutdownPipelineSchedulingExecutor() {
+        ExecutorService executor = pipelineSchedulingExecutor;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
     Pipeline schedulePipeline(final CaseInsensitiveString pipelineName, final BuildCause buildCause) {
         try {
             PipelineConfig pipelineConfig = goConfigService.pipelineConfigNamed(pipelineName);
@@ -294,7 +358,7 @@ public class ScheduleService {
     }
 
     private Stage lockAndRerunStage(String pipelineName, int counter, String stageName, StageInstanceCreator creator, final ErrorConditionHandler errorHandler) {
-        synchronized (mutexForPipeline(pipelineName)) {
+        try (LockRegistry.Held ignored = locks().lock(mutexForPipeline(pipelineName))) {
             OperationResult result = new ServerHealthStateOperationResult();
             if (!schedulingChecker.canSchedule(result)) {
                 errorHandler.cantSchedule(result.getServerHealthState().getDescription(), pipelineName, stageName);
@@ -383,9 +447,8 @@ public class ScheduleService {
         return rerunJobs(stage, jobNames, result);
     }
 
-    private String mutexForPipeline(String pipelineName) {
-        String s = String.format("%s_forPipeline_%s", getClass().getName(), pipelineName);
-        return s.intern(); // interned because we synchronize on it
+    private LockKey mutexForPipeline(String pipelineName) {
+        return LockKey.of(ScheduleService.class, "forPipeline", pipelineName);
     }
 
     private void triggerNextStageInPipeline(Pipeline pipeline, String stageName, String approvedBy) {
@@ -488,8 +551,8 @@ public class ScheduleService {
             return stageForId;
         }
 
-        String stageMutex = mutexForStageInstance(stageForId.getIdentifier());
-        synchronized (stageMutex) {
+        LockKey stageMutex = mutexForStageInstance(stageForId.getIdentifier());
+        try (LockRegistry.Held ignored = locks().lock(stageMutex)) {
             // reload stage so we see committed state after acquiring mutex
             final Stage stage = stageService.stageById(stageId);
 
@@ -541,9 +604,9 @@ public class ScheduleService {
 
     public void updateJobStatus(final JobIdentifier jobIdentifier, final JobState jobState) {
         // have to synchronize at stage-level because cancellation happens at stage-level
-        final String stageMutex = mutexForStageInstance(jobIdentifier);
-        synchronized (stageMutex) {
-            synchronized (mutexForJob(jobIdentifier)) {
+        final LockKey stageMutex = mutexForStageInstance(jobIdentifier);
+        try (LockRegistry.Held stageLock = locks().lock(stageMutex)) {
+            try (LockRegistry.Held jobLock = locks().lock(mutexForJob(jobIdentifier))) {
                 final JobInstance job = jobInstanceService.buildByIdWithTransitions(jobIdentifier.getBuildId());
 
                 transactionTemplate.executeWithExceptionHandling(new com.thoughtworks.go.server.transaction.TransactionCallbackWithoutResult() {
@@ -587,17 +650,16 @@ public class ScheduleService {
         }
     }
 
-    private String mutexForStageInstance(StageIdentifier id) {
+    private LockKey mutexForStageInstance(StageIdentifier id) {
         return mutexForStageInstance(id.getPipelineName(), id.getPipelineCounter(), id.getStageName(), id.getStageCounter());
     }
 
-    private String mutexForStageInstance(JobIdentifier id) {
+    private LockKey mutexForStageInstance(JobIdentifier id) {
         return mutexForStageInstance(id.getPipelineName(), id.getPipelineCounter(), id.getStageName(), id.getStageCounter());
     }
 
-    private String mutexForStageInstance(String pipelineName, int pipelineCounter, String stageName, String stageCounter) {
-        String s = String.format("%s_forStageInstance_%s_%s_%s_%s", getClass().getName(), pipelineName, pipelineCounter, stageName, stageCounter);
-        return s.intern(); // interned because we synchronize on it
+    private LockKey mutexForStageInstance(String pipelineName, int pipelineCounter, String stageName, String stageCounter) {
+        return LockKey.of(ScheduleService.class, "forStageInstance", pipelineName, pipelineCounter, stageName, stageCounter);
     }
 
     //Note: This is called from a Spring timer
@@ -654,8 +716,8 @@ public class ScheduleService {
     //synchronized for updating job
     public void rescheduleJob(final JobInstance toBeRescheduled) {
         final JobIdentifier jobIdentifier = toBeRescheduled.getIdentifier();
-        synchronized (mutexForStageInstance(jobIdentifier)) {
-            synchronized (mutexForJob(jobIdentifier)) {
+        try (LockRegistry.Held stageLock = locks().lock(mutexForStageInstance(jobIdentifier))) {
+            try (LockRegistry.Held jobLock = locks().lock(mutexForJob(jobIdentifier))) {
                 transactionTemplate.execute(new TransactionCallbackWithoutResult() {
                     @Override
                     protected void doInTransactionWithoutResult(TransactionStatus status) {
@@ -685,15 +747,29 @@ public class ScheduleService {
     }
 
     public void cancelJob(final JobInstance instance) {
-        synchronized (mutexForStageInstance(instance.getIdentifier())) {
+        try (LockRegistry.Held ignored = locks().lock(mutexForStageInstance(instance.getIdentifier()))) {
             stageService.cancelJob(instance);
         }
     }
 
+    /**
+     * Cancels several jobs, possibly of different stages. Jobs of the same stage instance are cancelled together,
+     * in a single transaction and with a single update of that stage.
+     */
+    public void cancelJobs(final List<JobInstance> instances) {
+        Map<StageIdentifier, List<JobInstance>> jobsByStage = instances.stream()
+                .collect(Collectors.groupingBy(instance -> instance.getIdentifier().getStageIdentifier(), LinkedHashMap::new, Collectors.toList()));
+        for (Entry<StageIdentifier, List<JobInstance>> stageJobs : jobsByStage.entrySet()) {
+            try (LockRegistry.Held ignored = locks().lock(mutexForStageInstance(stageJobs.getKey()))) {
+                stageService.cancelJobs(stageJobs.getKey(), stageJobs.getValue());
+            }
+        }
+    }
+
     public void jobCompleting(JobIdentifier jobIdentifier, JobResult result, String agentUuid) {
         // have to synchronize at stage-level because cancellation happens at stage-level
-        synchronized (mutexForStageInstance(jobIdentifier)) {
-            synchronized (mutexForJob(jobIdentifier)) {
+        try (LockRegistry.Held stageLock = locks().lock(mutexForStageInstance(jobIdentifier))) {
+            try (LockRegistry.Held jobLock = locks().lock(mutexForJob(jobIdentifier))) {
                 JobInstance jobInstance = jobInstanceService.buildByIdWithTransitions(jobIdentifier.getBuildId());
                 if (jobInstance.isNull() || jobInstance.getResult() == JobResult.Cancelled || jobInstance.getState() == JobState.Rescheduled) {
                     return;
@@ -714,7 +790,7 @@ public class ScheduleService {
     public boolean updateAssignedInfo(String agentUuid, JobPlan job) {
         // have to synchronize at stage-level because cancellation happens at stage-level
         JobIdentifier jobIdentifier = job.getIdentifier();
-        synchronized (mutexForStageInstance(jobIdentifier)) {
+        try (LockRegistry.Held ignored = locks().lock(mutexForStageInstance(jobIdentifier))) {
             JobInstance instance = jobInstanceService.buildByIdWithTransitions(job.getJobId());
             if (instance.getState() == JobState.Completed) {
                 LOGGER.info("[Agent Assignment] Not assigning a completed job [{}] to agent {}", instance.getIdentifier(), agentUuid);
@@ -726,8 +802,8 @@ public class ScheduleService {
         }
     }
 
-    public String mutexForJob(JobIdentifier jobIdentifier) {
-        return String.format("%s_forJobInstance_%s", getClass().getName(), jobIdentifier.buildLocator()).intern();
+    public LockKey mutexForJob(JobIdentifier jobIdentifier) {
+        return LockKey.of(ScheduleService.class, "forJobInstance", jobIdentifier.buildLocator());
     }
 
     public void cancelJob(JobIdentifier jobIdentifier) {
@@ -735,7 +811,7 @@ public class ScheduleService {
     }
 
     public void failJob(JobInstance instance) {
-        synchronized (mutexForStageInstance(instance.getIdentifier())) {
+        try (LockRegistry.Held ignored = locks().lock(mutexForStageInstance(instance.getIdentifier()))) {
             stageService.failJob(instance);
         }
     }
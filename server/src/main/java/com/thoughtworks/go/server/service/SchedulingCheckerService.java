@@ -43,7 +43,7 @@ public class SchedulingCheckerService {
     private final PipelineScheduleQueue pipelineScheduleQueue;
     private final PipelineService pipelineService;
     private final OutOfDiskSpaceChecker outOfDiskSpaceChecker;
-    private PipelinePauseService pipelinePauseService;
+    private final SchedulabilityIndex schedulabilityIndex;
 
     @Autowired
     public SchedulingCheckerService(GoConfigService goConfigService,
@@ -51,16 +51,17 @@ public class SchedulingCheckerService {
                                     SecurityService securityService,
                                     PipelineLockService pipelineLockService,
                                     TriggerMonitor triggerMonitor, PipelineScheduleQueue pipelineScheduleQueue,
-                                    PipelinePauseService pipelinePauseService, PipelineService pipelineService, OutOfDiskSpaceChecker outOfDiskSpaceChecker) {
+                                    PipelineService pipelineService, OutOfDiskSpaceChecker outOfDiskSpaceChecker,
+                                    SchedulabilityIndex schedulabilityIndex) {
         this.goConfigService = goConfigService;
         this.stageService = stageService;
         this.securityService = securityService;
         this.pipelineLockService = pipelineLockService;
         this.triggerMonitor = triggerMonitor;
         this.pipelineScheduleQueue = pipelineScheduleQueue;
-        this.pipelinePauseService = pipelinePauseService;
         this.pipelineService = pipelineService;
         this.outOfDiskSpaceChecker = outOfDiskSpaceChecker;
+        this.schedulabilityIndex = schedulabilityIndex;
     }
 
     public boolean canTriggerManualPipeline(String pipelineName, String username, OperationResult result) {
@@ -113,8 +114,8 @@ public class SchedulingCheckerService {
         OperationResult result = new ServerHealthStateOperationResult();
         String pipelineName = CaseInsensitiveString.str(pipelineConfig.name());
         String stageName = CaseInsensitiveString.str(pipelineConfig.getFirstStageConfig().name());
-        SchedulingChecker checker = buildScheduleCheckers(List.of(new PipelinePauseChecker(pipelineName, pipelinePauseService), new PipelineLockChecker(pipelineName, pipelineLockService),
-                new StageActiveChecker(pipelineName, stageName, stageService)));
+        SchedulingChecker checker = buildScheduleCheckers(List.of(new PipelinePauseChecker(pipelineName, schedulabilityIndex::isPaused), new PipelineLockChecker(pipelineName, schedulabilityIndex::isLocked),
+                new StageActiveChecker(pipelineName, stageName, schedulabilityIndex::isStageActive)));
         checker.check(result);
         return result.getServerHealthState().isSuccess();
     }
@@ -123,10 +124,10 @@ public class SchedulingCheckerService {
         String pipelineName = CaseInsensitiveString.str(pipelineConfig.name());
 
         SchedulingChecker checker = buildScheduleCheckers(List.of(
-                new PipelineLockChecker(pipelineName, pipelineLockService),
+                new PipelineLockChecker(pipelineName, schedulabilityIndex::isLocked),
                 new ManualPipelineChecker(pipelineConfig),
-                new PipelinePauseChecker(pipelineName, pipelinePauseService),
-                new StageActiveChecker(pipelineName, CaseInsensitiveString.str(pipelineConfig.getFirstStageConfig().name()), stageService)));
+                new PipelinePauseChecker(pipelineName, schedulabilityIndex::isPaused),
+                new StageActiveChecker(pipelineName, CaseInsensitiveString.str(pipelineConfig.getFirstStageConfig().name()), schedulabilityIndex::isStageActive)));
         checker.check(operationResult);
     }
 
@@ -136,9 +137,9 @@ public class SchedulingCheckerService {
 
         SchedulingChecker canRerunChecker = buildScheduleCheckers(List.of(
                 new StageAuthorizationChecker(pipelineName, stageName, username, securityService),
-                new PipelinePauseChecker(pipelineName, pipelinePauseService),
+                new PipelinePauseChecker(pipelineName, schedulabilityIndex::isPaused),
                 new PipelineActiveChecker(stageService, pipelineIdentifier),
-                new StageActiveChecker(pipelineName, stageName, stageService),
+                new StageActiveChecker(pipelineName, stageName, schedulabilityIndex::isStageActive),
                 diskCheckers()));
         canRerunChecker.check(result);
         return result.getServerHealthState().isSuccess();
@@ -151,9 +152,9 @@ public class SchedulingCheckerService {
         CompositeChecker checker = buildScheduleCheckers(List.of(
                 new StageAuthorizationChecker(pipelineName, stageName, username, securityService),
                 new StageLockChecker(pipelineIdentifier, pipelineLockService),
-                new PipelinePauseChecker(pipelineName, pipelinePauseService),
+                new PipelinePauseChecker(pipelineName, schedulabilityIndex::isPaused),
                 new PipelineActiveChecker(stageService, pipelineIdentifier),
-                new StageActiveChecker(pipelineName, stageName, stageService),
+                new StageActiveChecker(pipelineName, stageName, schedulabilityIndex::isStageActive),
                 new StageManualTriggerChecker(pipelineName, pipelineIdentifier.getCounter(), stageName, this, pipelineService),
                 diskCheckers()));
         checker.check(result);
@@ -208,9 +209,9 @@ public class SchedulingCheckerService {
 
         return new CompositeChecker(
                 new AboutToBeTriggeredChecker(pipelineConfig.name(), triggerMonitor, pipelineScheduleQueue),
-                new PipelinePauseChecker(pipelineName, pipelinePauseService),
-                new StageActiveChecker(pipelineName, stageName, stageService),
-                new PipelineLockChecker(pipelineName, pipelineLockService),
+                new PipelinePauseChecker(pipelineName, schedulabilityIndex::isPaused),
+                new StageActiveChecker(pipelineName, stageName, schedulabilityIndex::isStageActive),
+                new PipelineLockChecker(pipelineName, schedulabilityIndex::isLocked),
                 diskCheckers());
     }
 
@@ -25,7 +25,6 @@ import com.thoughtworks.go.domain.materials.Material;
 import com.thoughtworks.go.domain.packagerepository.PackageDefinition;
 import com.thoughtworks.go.domain.packagerepository.PackageRepository;
 import com.thoughtworks.go.domain.scm.SCM;
-import com.thoughtworks.go.plugin.access.secrets.SecretsExtension;
 import com.thoughtworks.go.plugin.domain.secrets.Secret;
 import com.thoughtworks.go.remote.work.BuildAssignment;
 import org.slf4j.Logger;
@@ -45,13 +44,13 @@ import static java.util.stream.Collectors.groupingBy;
 @Component
 public class SecretParamResolver {
     private static final Logger LOGGER = LoggerFactory.getLogger(SecretParamResolver.class);
-    private final SecretsExtension secretsExtension;
+    private final CoalescingSecretLookup secretLookup;
     private final GoConfigService goConfigService;
     private final RulesService rulesService;
 
     @Autowired
-    public SecretParamResolver(SecretsExtension secretsExtension, GoConfigService goConfigService, RulesService rulesService) {
-        this.secretsExtension = secretsExtension;
+    public SecretParamResolver(CoalescingSecretLookup secretLookup, GoConfigService goConfigService, RulesService rulesService) {
+        this.secretLookup = secretLookup;
         this.goConfigService = goConfigService;
         this.rulesService = rulesService;
     }
@@ -186,7 +185,7 @@ public class SecretParamResolver {
             if (LOGGER.isDebugEnabled()) {
                 LOGGER.debug("Resolving secret params '{}' using secret config '{}'", secretParamMap.keySet(), secretConfig.getId());
             }
-            List<Secret> resolvedSecrets = secretsExtension.lookupSecrets(secretConfig.getPluginId(), secretConfig, secretParamMap.keySet());
+            List<Secret> resolvedSecrets = secretLookup.lookupSecrets(secretConfig, secretParamMap.keySet());
             if (LOGGER.isDebugEnabled()) {
                 LOGGER.debug("Resolved secret size '{}'", resolvedSecrets.size());
                 LOGGER.debug("Updating secret params '{}' with values.", secretParamMap.keySet());
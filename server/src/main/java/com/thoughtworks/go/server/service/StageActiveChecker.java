@@ -19,21 +19,27 @@ import com.thoughtworks.go.server.service.result.OperationResult;
 import com.thoughtworks.go.serverhealth.HealthStateScope;
 import com.thoughtworks.go.serverhealth.HealthStateType;
 
+import java.util.function.BiPredicate;
+
 public class StageActiveChecker implements SchedulingChecker {
     private final String pipelineName;
     private final String stageName;
-    private final StageService stageService;
+    private final BiPredicate<String, String> isStageActive;
 
     public StageActiveChecker(String pipelineName, String stageName, StageService stageService) {
+        this(pipelineName, stageName, (pipeline, stage) -> stageService.isStageActive(pipeline, stage));
+    }
+
+    public StageActiveChecker(String pipelineName, String stageName, BiPredicate<String, String> isStageActive) {
         this.pipelineName = pipelineName;
         this.stageName = stageName;
-        this.stageService = stageService;
+        this.isStageActive = isStageActive;
     }
 
     @Override
     public void check(OperationResult result) {
         HealthStateType healthStateType = HealthStateType.general(HealthStateScope.forPipeline(pipelineName));
-        if (stageService.isStageActive(pipelineName, stageName)) {
+        if (isStageActive.test(pipelineName, stageName)) {
             String message = String.format("Failed to trigger pipeline [%s]", pipelineName);
             result.conflict(message, String.format("Stage [%s] in pipeline [%s] is still in progress", stageName, pipelineName), healthStateType);
         } else {
@@ -31,6 +31,8 @@ import com.thoughtworks.go.presentation.pipelinehistory.StageHistoryPage;
 import com.thoughtworks.go.presentation.pipelinehistory.StageInstanceModels;
 import com.thoughtworks.go.server.cache.CacheKeyGenerator;
 import com.thoughtworks.go.server.cache.GoCache;
+import com.thoughtworks.go.server.cache.LockKey;
+import com.thoughtworks.go.server.cache.LockRegistry;
 import com.thoughtworks.go.server.dao.FeedModifier;
 import com.thoughtworks.go.server.dao.PipelineDao;
 import com.thoughtworks.go.server.dao.StageDao;
@@ -65,6 +67,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
 
+import static com.thoughtworks.go.server.cache.LockRegistry.locks;
 import static com.thoughtworks.go.server.service.HistoryUtil.validateCursor;
 
 @Service
@@ -222,9 +225,7 @@ public class StageService implements StageFinder {
         transactionTemplate.execute(new TransactionCallbackWithoutResult() {
             @Override
             protected void doInTransactionWithoutResult(TransactionStatus status) {
-                for (JobInstance job : stage.getJobInstances()) {
-                    jobInstanceService.cancelJob(job);
-                }
+                jobInstanceService.cancelJobs(stage.getJobInstances());
                 updateStageWithoutNotifications(stage, username);
             }
         });
@@ -275,23 +276,23 @@ public class StageService implements StageFinder {
     }
 
     // Because current stage order is defined by existing order(for rerun) or Max(order)+1 (for the first run), so we
-    // need to synchronize this method call to make sure no concurrent issues.
-    private synchronized Stage persistStage(Pipeline pipeline, Stage stage) {
+    // need to synchronize this method call, per pipeline instance, to make sure no concurrent issues.
+    private Stage persistStage(Pipeline pipeline, Stage stage) {
         long pipelineId = pipeline.getId();
-        stage.setOrderId(resolveStageOrder(pipelineId, stage.getName()));
-        Stage savedStage = stageDao.save(pipeline, stage);
+        try (LockRegistry.Held ignored = locks().lock(LockKey.of(StageService.class, "stageOrder", pipelineId))) {
+            stage.setOrderId(resolveStageOrder(pipelineId, stage.getName()));
+            Stage savedStage = stageDao.save(pipeline, stage);
 
-        savedStage.setIdentifier(new StageIdentifier(pipeline.getName(), pipeline.getCounter(), pipeline.getLabel(), stage.getName(), String.valueOf(stage.getCounter())));
-        for (JobInstance jobInstance : savedStage.getJobInstances()) {
-            jobInstance.setIdentifier(new JobIdentifier(pipeline, savedStage, jobInstance));
+            savedStage.setIdentifier(new StageIdentifier(pipeline.getName(), pipeline.getCounter(), pipeline.getLabel(), stage.getName(), String.valueOf(stage.getCounter())));
+            for (JobInstance jobInstance : savedStage.getJobInstances()) {
+                jobInstance.setIdentifier(new JobIdentifier(pipeline, savedStage, jobInstance));
+            }
+            return savedStage;
         }
-        return savedStage;
     }
 
     private void persistJobs(Stage stage) {
-        for (JobInstance job : stage.getJobInstances()) {
-            jobInstanceService.save(stage.getIdentifier(), stage.getId(), job);
-        }
+        jobInstanceService.saveAll(stage.getIdentifier(), stage.getId(), stage.getJobInstances());
     }
 
     //stage order definition: 1) if stage has been scheduled, copy existing order 2) if not, increase the max existing
@@ -331,7 +332,7 @@ public class StageService implements StageFinder {
         String key = cacheKeyForLatestStageFeedForPipeline(pipelineName);
         List<StageFeedEntry> feedEntries = goCache.get(key);
         if (feedEntries == null) {
-            synchronized (key) {
+            try (LockRegistry.Held ignored = locks().lock(key)) {
                 feedEntries = goCache.get(key);//Double check locking is done because the query is expensive (takes about 2 seconds)
                 if (feedEntries == null) {
                     feedEntries = stageDao.findCompletedStagesFor(pipelineName, FeedModifier.Latest, -1, FEED_PAGE_SIZE);
@@ -356,7 +357,7 @@ public class StageService implements StageFinder {
         List<StageFeedEntry> feedEntries = goCache.get(key);
 
         if (feedEntries == null) {
-            synchronized (key) {
+            try (LockRegistry.Held ignored = locks().lock(key)) {
                 feedEntries = goCache.get(key);
                 if (feedEntries == null) {
                     feedEntries = stageDao.findStageFeedBy(pipelineName, null, null, FEED_PAGE_SIZE);
@@ -379,12 +380,12 @@ public class StageService implements StageFinder {
 
     private void clearCachedCompletedStageFeeds(String pipelineName) {
         String key = cacheKeyForLatestStageFeedForPipeline(pipelineName);
-        synchronized (key) {
+        try (LockRegistry.Held ignored = locks().lock(key)) {
             goCache.remove(key);
         }
 
         key = cacheKeyForLatestStageFeedForPipelineSortedByPipelineCounter(pipelineName);
-        synchronized (key) {
+        try (LockRegistry.Held ignored = locks().lock(key)) {
             goCache.remove(key);
         }
     }
@@ -492,23 +493,30 @@ public class StageService implements StageFinder {
      * Go through ScheduleService.cancelJob so that stageLevel synchronization is done
      */
     void cancelJob(final JobInstance jobInstance) {
-        changeJob(() -> jobInstanceService.cancelJob(jobInstance), jobInstance.getIdentifier());
+        changeJob(() -> jobInstanceService.cancelJob(jobInstance), jobInstance.getIdentifier().getStageIdentifier());
+    }
+
+    /**
+     * Go through ScheduleService.cancelJobs so that stageLevel synchronization is done
+     */
+    void cancelJobs(final StageIdentifier stageIdentifier, final List<JobInstance> jobInstances) {
+        changeJob(() -> jobInstanceService.cancelJobs(jobInstances), stageIdentifier);
     }
 
     /**
      * Go through ScheduleService.failJob so that stageLevel synchronization is done
      */
     void failJob(final JobInstance jobInstance) {
-        changeJob(() -> jobInstanceService.failJob(jobInstance), jobInstance.getIdentifier());
+        changeJob(() -> jobInstanceService.failJob(jobInstance), jobInstance.getIdentifier().getStageIdentifier());
     }
 
-    private void changeJob(final JobOperation jobOperation, final JobIdentifier identifier) {
+    private void changeJob(final JobOperation jobOperation, final StageIdentifier stageIdentifier) {
         transactionTemplate.execute(new TransactionCallbackWithoutResult() {
             @Override
             protected void doInTransactionWithoutResult(TransactionStatus status) {
                 jobOperation.invoke();
-                stageDao.clearCachedStage(identifier.getStageIdentifier());
-                Stage stage = stageDao.findStageWithIdentifier(identifier.getStageIdentifier());
+                stageDao.clearCachedStage(stageIdentifier);
+                Stage stage = stageDao.findStageWithIdentifier(stageIdentifier);
                 updateStageWithoutNotifications(stage, null);
                 notifyStageStatusChangeListeners(stage);
             }
@@ -59,6 +59,7 @@ public class UserService {
     private final SecurityService securityService;
     private final GoConfigService goConfigService;
     private final TransactionTemplate transactionTemplate;
+    private final VerifiedAccessTokenCache verifiedAccessTokenCache;
 
     private final DelegatingValidationContext validationContext = new DelegatingValidationContext(null) {
         @Override
@@ -74,11 +75,13 @@ public class UserService {
     public UserService(UserDao userDao,
                        SecurityService securityService,
                        GoConfigService goConfigService,
-                       TransactionTemplate transactionTemplate) {
+                       TransactionTemplate transactionTemplate,
+                       VerifiedAccessTokenCache verifiedAccessTokenCache) {
         this.userDao = userDao;
         this.securityService = securityService;
         this.goConfigService = goConfigService;
         this.transactionTemplate = transactionTemplate;
+        this.verifiedAccessTokenCache = verifiedAccessTokenCache;
     }
 
     public void disable(final List<String> usersToBeDisabled, LocalizedOperationResult result) {
@@ -93,6 +96,7 @@ public class UserService {
                     userDao.disableUsers(usersToBeDisabled);
                 }
             });
+            verifiedAccessTokenCache.invalidateTokensOf(usersToBeDisabled);
         }
     }
 
@@ -175,6 +179,7 @@ public class UserService {
     public void deleteUser(String username, String byWhom, HttpLocalizedOperationResult result) {
         try {
             userDao.deleteUser(username, byWhom);
+            verifiedAccessTokenCache.invalidateTokensOf(List.of(username));
             result.setMessage(EntityType.User.deleteSuccessful(username));
         } catch (RecordNotFoundException e) {
             result.notFound(EntityType.User.notFoundMessage(username), general(GLOBAL));
@@ -188,6 +193,7 @@ public class UserService {
             boolean isValid = performUserDeletionValidation(userNames, result);
             if (isValid) {
                 userDao.deleteUsers(userNames, byWhom);
+                verifiedAccessTokenCache.invalidateTokensOf(userNames);
                 result.setMessage(EntityType.User.deleteSuccessful(userNames));
             }
         }
@@ -290,6 +296,9 @@ public class UserService {
         synchronized (enableUserMutex) {
             userDao.saveOrUpdate(user);
         }
+        if (!user.isEnabled()) {
+            verifiedAccessTokenCache.invalidateTokensOf(List.of(user.getName()));
+        }
     }
 
     public User findUserByName(String username) {
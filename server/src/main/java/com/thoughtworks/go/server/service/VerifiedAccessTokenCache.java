@@ -0,0 +1,136 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.thoughtworks.go.domain.AccessToken;
+import com.thoughtworks.go.util.SystemEnvironment;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Remembers, for a short while, access tokens which have been verified, so that API clients making many calls do not
+ * pay for a database lookup and a PBKDF2 derivation on each one of them.
+ * <p>
+ * Entries are keyed by an HMAC of the presented token, with a key generated when the server starts; the token itself
+ * is never kept. Entries are removed as soon as the token is revoked or its user is disabled or deleted, and the whole
+ * cache is cleared when authorization configurations change. A TTL of 0 disables the cache.
+ * <p>
+ * A token looked up just before it was revoked must not be put back once the revocation has removed it. Every
+ * invalidation hence bumps a generation, and a token is only kept if no invalidation happened since the caller took
+ * the {@link #generation()} it verified the token under.
+ */
+@Component
+public class VerifiedAccessTokenCache {
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final Cache<String, AccessToken> cache;
+    private final SecretKeySpec key;
+    private final boolean enabled;
+    private final AtomicLong generation = new AtomicLong();
+
+    public VerifiedAccessTokenCache(SystemEnvironment systemEnvironment, Ticker ticker) {
+        this.enabled = systemEnvironment.getAccessTokenCacheTtlInSeconds() > 0;
+        this.cache = Caffeine.newBuilder()
+            .ticker(ticker)
+            .expireAfterWrite(Math.max(0, systemEnvironment.getAccessTokenCacheTtlInSeconds()), TimeUnit.SECONDS)
+            .maximumSize(systemEnvironment.getAccessTokenCacheMaxSize())
+            .recordStats()
+            .build();
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.key = new SecretKeySpec(secret, HMAC_ALGORITHM);
+    }
+
+    @Autowired
+    public VerifiedAccessTokenCache(SystemEnvironment systemEnvironment) {
+        this(systemEnvironment, Ticker.systemTicker());
+    }
+
+    public AccessToken getIfPresent(String presentedToken) {
+        return enabled ? cache.getIfPresent(keyFor(presentedToken)) : null;
+    }
+
+    /**
+     * @return the generation to pass to {@link #put}, to be taken before the token is looked up
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    public void put(String presentedToken, AccessToken verifiedToken, long generationVerifiedUnder) {
+        if (!enabled) {
+            return;
+        }
+        String key = keyFor(presentedToken);
+        cache.put(key, verifiedToken);
+        // an invalidation bumps the generation before removing entries, so one which missed this entry is seen here
+        if (generation.get() != generationVerifiedUnder) {
+            cache.asMap().remove(key, verifiedToken);
+        }
+    }
+
+    public void invalidate(long accessTokenId) {
+        generation.incrementAndGet();
+        cache.asMap().values().removeIf(token -> token.getId() == accessTokenId);
+    }
+
+    public void invalidateTokensOf(Collection<String> usernames) {
+        generation.incrementAndGet();
+        Set<String> lowerCaseUsernames = usernames.stream().map(String::toLowerCase).collect(Collectors.toSet());
+        cache.asMap().values().removeIf(token -> token.getUsername() != null && lowerCaseUsernames.contains(token.getUsername().toLowerCase()));
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private String keyFor(String presentedToken) {
+        try {
+            // Mac instances are not thread safe, and are cheap to create compared to what this cache saves
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            return HexFormat.of().formatHex(mac.doFinal(presentedToken.getBytes(UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
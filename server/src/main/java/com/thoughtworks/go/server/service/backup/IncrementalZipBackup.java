@@ -0,0 +1,276 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service.backup;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.commons.codec.binary.Hex.encodeHexString;
+
+/**
+ * Zips up a directory for a backup, and writes a manifest of the SHA-256 of each of its files next to the zip.
+ * <p>
+ * Given an earlier backup, only the files which changed since are zipped up; for the others, the manifest names the
+ * backup whose zip holds them. Restoring such a backup hence needs the backups it names: the steps to restore it by
+ * hand are written next to the zip (see {@link #RESTORE_INSTRUCTIONS_EXTENSION}), and {@link #restore} follows the same
+ * steps. A full backup is made instead once {@code fullBackupEvery} backups build on each other, or when any of the
+ * backups the earlier one needs are gone.
+ */
+public class IncrementalZipBackup {
+    private static final Logger LOGGER = LoggerFactory.getLogger(IncrementalZipBackup.class);
+    private static final String HEADER = "# GoCD backup manifest, version 1";
+    private static final String INCREMENTS_SINCE_FULL = "# increments-since-full ";
+    static final String MANIFEST_EXTENSION = ".manifest";
+    static final String RESTORE_INSTRUCTIONS_EXTENSION = ".restore.txt";
+    // coarser than the modification times kept by any file system in use
+    private static final long TIMESTAMP_GRANULARITY_IN_MILLIS = 2000;
+
+    private final File sourceDir;
+    private final String zipName;
+    private int stored;
+    private int reused;
+
+    public IncrementalZipBackup(File sourceDir, String zipName) {
+        this.sourceDir = sourceDir;
+        this.zipName = zipName;
+    }
+
+    /**
+     * @param destDir           the directory of this backup, in the same parent directory as the other backups
+     * @param previousBackupDir the directory of the backup to build on, or null for a full backup
+     */
+    public void backup(File destDir, @Nullable File previousBackupDir, int fullBackupEvery) throws IOException {
+        Manifest previous = previousBackupDir == null ? null : usableManifestOf(previousBackupDir, destDir.getParentFile(), fullBackupEvery);
+        Manifest manifest = new Manifest(previous == null ? 0 : previous.incrementsSinceFull + 1);
+        Path root = sourceDir.toPath();
+        try (ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(new File(destDir, zipName))));
+             Stream<Path> paths = Files.walk(root)) {
+            for (Path path : (Iterable<Path>) paths.sorted()::iterator) {
+                if (path.equals(root)) {
+                    continue;
+                }
+                String name = root.relativize(path).toString().replace(File.separatorChar, '/');
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                if (attributes.isDirectory()) {
+                    zip.putNextEntry(new ZipEntry(name + "/"));
+                } else if (attributes.isRegularFile()) {
+                    manifest.add(backupFile(zip, path, name, attributes, previous, destDir.getName()));
+                }
+            }
+        }
+        manifest.writeTo(manifestOf(destDir));
+        writeRestoreInstructions(destDir, manifest);
+        LOGGER.info("[Backup] Backed up {}: stored {} files, {} unchanged files are kept by earlier backups", sourceDir, stored, reused);
+    }
+
+    private Entry backupFile(ZipOutputStream zip, Path path, String name, BasicFileAttributes attributes, @Nullable Manifest previousManifest, String backupName) throws IOException {
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        Entry previous = previousManifest == null ? null : previousManifest.entries.get(name);
+        if (previous != null) {
+            // a file changed just after it was last backed up could still have the same size and modification time
+            boolean racy = previous.lastModified + TIMESTAMP_GRANULARITY_IN_MILLIS >= previousManifest.writtenAt;
+            if (!racy && previous.size == attributes.size() && previous.lastModified == lastModified) {
+                reused++;
+                return previous;
+            }
+            String sha256;
+            try (InputStream in = Files.newInputStream(path)) {
+                sha256 = DigestUtils.sha256Hex(in);
+            }
+            if (sha256.equals(previous.sha256)) {
+                reused++;
+                return new Entry(name, attributes.size(), lastModified, sha256, previous.storedIn);
+            }
+        }
+        MessageDigest digest = DigestUtils.getSha256Digest();
+        zip.putNextEntry(new ZipEntry(name));
+        try (InputStream in = new DigestInputStream(Files.newInputStream(path), digest)) {
+            in.transferTo(zip);
+        }
+        stored++;
+        return new Entry(name, attributes.size(), lastModified, encodeHexString(digest.digest()), backupName);
+    }
+
+    private void writeRestoreInstructions(File destDir, Manifest manifest) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format("To restore %s from this backup, into an empty directory:", sourceDir.getName()));
+        lines.add("");
+        lines.add(String.format("1. Extract %s from each of these backup directories into it, in this order, replacing files already there:", zipName));
+        restoreOrder(destDir.getName(), manifest).forEach(backup -> lines.add("     " + backup));
+        lines.add(String.format("2. Delete every file in it which is not listed in %s. Each line of the manifest after the", manifestOf(destDir).getName()));
+        lines.add("   two header lines describes a file, separated by tabs: its SHA-256, size, modification time, the backup");
+        lines.add("   holding it and, last, its path.");
+        Files.write(new File(destDir, zipName + RESTORE_INSTRUCTIONS_EXTENSION).toPath(), lines, UTF_8);
+    }
+
+    /**
+     * The backups to extract, oldest first, so that each file ends up as held by the backup its manifest entry names:
+     * backups are named after the time they were taken, and each one only holds files which changed since the ones
+     * before it. This backup comes last for the directories, which only the newest zip is sure to hold.
+     */
+    private static List<String> restoreOrder(String backupName, Manifest manifest) {
+        List<String> backups = new ArrayList<>(manifest.backupsNeeded());
+        backups.remove(backupName);
+        backups.add(backupName);
+        return backups;
+    }
+
+    private @Nullable Manifest usableManifestOf(File previousBackupDir, File backupsDir, int fullBackupEvery) {
+        File manifestFile = manifestOf(previousBackupDir);
+        if (!manifestFile.isFile()) {
+            return null;
+        }
+        Manifest manifest;
+        try {
+            manifest = Manifest.readFrom(manifestFile);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("[Backup] Making a full backup of {}, as the manifest of the earlier backup could not be read", sourceDir, e);
+            return null;
+        }
+        if (manifest.incrementsSinceFull + 1 >= fullBackupEvery) {
+            return null;
+        }
+        for (String backup : manifest.backupsNeeded()) {
+            if (!new File(new File(backupsDir, backup), zipName).isFile()) {
+                LOGGER.warn("[Backup] Making a full backup of {}, as the earlier backup '{}' it would build on is gone", sourceDir, backup);
+                return null;
+            }
+        }
+        return manifest;
+    }
+
+    private File manifestOf(File backupDir) {
+        return new File(backupDir, zipName + MANIFEST_EXTENSION);
+    }
+
+    public int storedFiles() {
+        return stored;
+    }
+
+    public int reusedFiles() {
+        return reused;
+    }
+
+    /**
+     * Puts together, in {@code targetDir}, the directory as it was backed up in {@code backupDir}, taking the files
+     * which did not change from the earlier backups that hold them. This gives the same result as following the
+     * restore instructions written next to the backup, but only extracts each file once.
+     */
+    public static void restore(File backupDir, String zipName, File targetDir) throws IOException {
+        File backupsDir = backupDir.getParentFile();
+        Path target = targetDir.toPath().toAbsolutePath().normalize();
+        Manifest manifest = Manifest.readFrom(new File(backupDir, zipName + MANIFEST_EXTENSION));
+        try (ZipFile zip = new ZipFile(new File(backupDir, zipName))) {
+            for (ZipEntry entry : Collections.list(zip.entries())) {
+                if (entry.isDirectory()) {
+                    Files.createDirectories(resolve(target, entry.getName()));
+                }
+            }
+        }
+        for (String backup : manifest.backupsNeeded()) {
+            try (ZipFile zip = new ZipFile(new File(new File(backupsDir, backup), zipName))) {
+                for (Entry entry : manifest.entries.values()) {
+                    if (!entry.storedIn.equals(backup)) {
+                        continue;
+                    }
+                    ZipEntry zipEntry = zip.getEntry(entry.path);
+                    if (zipEntry == null) {
+                        throw new IOException(String.format("Backup '%s' does not hold '%s'", backup, entry.path));
+                    }
+                    Path file = resolve(target, entry.path);
+                    Files.createDirectories(file.getParent());
+                    try (InputStream in = zip.getInputStream(zipEntry)) {
+                        Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                }
+            }
+        }
+    }
+
+    private static Path resolve(Path target, String name) throws IOException {
+        Path path = target.resolve(name).normalize();
+        if (!path.startsWith(target)) {
+            throw new IOException("Refusing to restore '" + name + "' outside of " + target);
+        }
+        return path;
+    }
+
+    record Entry(String path, long size, long lastModified, String sha256, String storedIn) {
+    }
+
+    static class Manifest {
+        final int incrementsSinceFull;
+        final Map<String, Entry> entries = new LinkedHashMap<>();
+        long writtenAt = Long.MAX_VALUE;
+
+        Manifest(int incrementsSinceFull) {
+            this.incrementsSinceFull = incrementsSinceFull;
+        }
+
+        void add(Entry entry) {
+            entries.put(entry.path, entry);
+        }
+
+        Set<String> backupsNeeded() {
+            Set<String> backups = new TreeSet<>();
+            entries.values().forEach(entry -> backups.add(entry.storedIn));
+            return backups;
+        }
+
+        void writeTo(File file) throws IOException {
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), UTF_8))) {
+                writer.write(HEADER + "\n");
+                writer.write(INCREMENTS_SINCE_FULL + incrementsSinceFull + "\n");
+                for (Entry entry : entries.values()) {
+                    writer.write(String.join("\t", entry.sha256, String.valueOf(entry.size), String.valueOf(entry.lastModified), entry.storedIn, entry.path));
+                    writer.write("\n");
+                }
+            }
+        }
+
+        static Manifest readFrom(File file) throws IOException {
+            List<String> lines = Files.readAllLines(file.toPath(), UTF_8);
+            if (lines.size() < 2 || !HEADER.equals(lines.get(0)) || !lines.get(1).startsWith(INCREMENTS_SINCE_FULL)) {
+                throw new IOException("Not a backup manifest: " + file);
+            }
+            Manifest manifest = new Manifest(Integer.parseInt(lines.get(1).substring(INCREMENTS_SINCE_FULL.length()).trim()));
+            manifest.writtenAt = file.lastModified();
+            for (String line : lines.subList(2, lines.size())) {
+                String[] parts = line.split("\t", 5);
+                if (parts.length == 5) {
+                    manifest.add(new Entry(parts[4], Long.parseLong(parts[1]), Long.parseLong(parts[2]), parts[0], parts[3]));
+                }
+            }
+            return manifest;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service.support;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.thoughtworks.go.server.service.VerifiedAccessTokenCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Component
+public class AccessTokenCacheInformationProvider implements ServerInfoProvider {
+    private final VerifiedAccessTokenCache verifiedAccessTokenCache;
+
+    @Autowired
+    public AccessTokenCacheInformationProvider(VerifiedAccessTokenCache verifiedAccessTokenCache) {
+        this.verifiedAccessTokenCache = verifiedAccessTokenCache;
+    }
+
+    @Override
+    public double priority() {
+        return 11.6;
+    }
+
+    @Override
+    public Map<String, Object> asJsonCompatibleMap() {
+        CacheStats stats = verifiedAccessTokenCache.stats();
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("Cache Size", verifiedAccessTokenCache.size());
+        json.put("Hits", stats.hitCount());
+        json.put("Misses", stats.missCount());
+        json.put("Hit Ratio", stats.hitRate());
+        json.put("Evicted", stats.evictionCount());
+        return json;
+    }
+
+    @Override
+    public String name() {
+        return "Access Token Cache";
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service.support;
+
+import com.thoughtworks.go.server.service.ArtifactSizeIndex;
+import com.thoughtworks.go.server.service.ArtifactsRetentionEngine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Component
+public class ArtifactsRetentionInformationProvider implements ServerInfoProvider {
+    private final ArtifactsRetentionEngine artifactsRetentionEngine;
+    private final ArtifactSizeIndex artifactSizeIndex;
+
+    @Autowired
+    public ArtifactsRetentionInformationProvider(ArtifactsRetentionEngine artifactsRetentionEngine, ArtifactSizeIndex artifactSizeIndex) {
+        this.artifactsRetentionEngine = artifactsRetentionEngine;
+        this.artifactSizeIndex = artifactSizeIndex;
+    }
+
+    @Override
+    public double priority() {
+        return 11.8;
+    }
+
+    @Override
+    public Map<String, Object> asJsonCompatibleMap() {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("Runs", artifactsRetentionEngine.runs());
+        json.put("Stages Purged", artifactsRetentionEngine.stagesPurged());
+        json.put("Bytes Reclaimed", artifactsRetentionEngine.bytesReclaimed());
+        json.put("Backlog In Bytes", artifactsRetentionEngine.backlogInBytes());
+        json.put("Stages Pending Deletion", artifactsRetentionEngine.stagesPendingDeletion());
+        json.put("Stages With Known Size", artifactSizeIndex.size());
+        return json;
+    }
+
+    @Override
+    public String name() {
+        return "Artifacts Retention";
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service.support;
+
+import com.thoughtworks.go.server.cache.LockRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.thoughtworks.go.server.cache.LockRegistry.locks;
+
+@Component
+public class LockRegistryInformationProvider implements ServerInfoProvider {
+
+    @Override
+    public double priority() {
+        return 11.7;
+    }
+
+    @Override
+    public Map<String, Object> asJsonCompatibleMap() {
+        LockRegistry.Stats stats = locks().stats();
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("Live Locks", stats.liveLocks());
+        json.put("Acquisitions", stats.acquisitions());
+        json.put("Contended Acquisitions", stats.contendedAcquisitions());
+        json.put("Time Spent Waiting (ms)", stats.waitTimeInMillis());
+        return json;
+    }
+
+    @Override
+    public String name() {
+        return "Cache Locks";
+    }
+}
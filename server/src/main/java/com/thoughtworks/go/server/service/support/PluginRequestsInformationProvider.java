@@ -0,0 +1,50 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service.support;
+
+import com.thoughtworks.go.plugin.access.PluginRequestMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Component
+public class PluginRequestsInformationProvider implements ServerInfoProvider {
+    private final PluginRequestMetrics pluginRequestMetrics;
+
+    public PluginRequestsInformationProvider() {
+        this(PluginRequestMetrics.instance());
+    }
+
+    PluginRequestsInformationProvider(PluginRequestMetrics pluginRequestMetrics) {
+        this.pluginRequestMetrics = pluginRequestMetrics;
+    }
+
+    @Override
+    public double priority() {
+        return 5.6;
+    }
+
+    @Override
+    public Map<String, Object> asJsonCompatibleMap() {
+        return new LinkedHashMap<>(pluginRequestMetrics.snapshot());
+    }
+
+    @Override
+    public String name() {
+        return "Plugin Requests";
+    }
+}
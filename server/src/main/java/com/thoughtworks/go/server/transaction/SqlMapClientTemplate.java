@@ -16,8 +16,12 @@
 package com.thoughtworks.go.server.transaction;
 
 import com.thoughtworks.go.server.cache.GoCache;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.JdbcUpdateAffectedIncorrectNumberOfRowsException;
 
 import java.util.List;
@@ -48,6 +52,27 @@ public class SqlMapClientTemplate {
         delegate.insert(statementName, parameter);
     }
 
+    /**
+     * Inserts all the given parameters as a single JDBC batch. The batch runs on the connection of the current
+     * transaction, so this must be called within one. Generated keys are only set on the parameters by statements
+     * using {@code useGeneratedKeys}, as a {@code selectKey} would only see the key of the last row of the batch.
+     */
+    public void insertBatch(String statementName, List<?> parameters) {
+        if (parameters.isEmpty()) {
+            return;
+        }
+        goCache.stopServingForTransaction();
+        try (SqlSession batch = delegate.getSqlSessionFactory().openSession(ExecutorType.BATCH)) {
+            for (Object parameter : parameters) {
+                batch.insert(statementName, parameter);
+            }
+            batch.flushStatements();
+        } catch (PersistenceException e) {
+            DataAccessException translated = delegate.getPersistenceExceptionTranslator().translateExceptionIfPossible(e);
+            throw translated != null ? translated : e;
+        }
+    }
+
     public int update(String statementName, Object parameter) {
         goCache.stopServingForTransaction();
         return delegate.update(statementName, parameter);
@@ -92,7 +92,8 @@ public class BackupFilter extends OncePerRequestFilter {
     String replaceStringLiterals(String content) {
         return content
             .replaceAll("%backup_initiated_by%", HtmlUtils.htmlEscape(backupService.backupRunningSinceISO8601().orElse("")))
-            .replaceAll("%backup_started_by%", HtmlUtils.htmlEscape(backupService.backupStartedBy().orElse("")));
+            .replaceAll("%backup_started_by%", HtmlUtils.htmlEscape(backupService.backupStartedBy().orElse("")))
+            .replaceAll("%backup_progress%", HtmlUtils.htmlEscape(backupService.backupProgress().orElse("")));
     }
 
     private boolean isBackupFinishJsonUrl(String url) {
@@ -103,6 +104,7 @@ public class BackupFilter extends OncePerRequestFilter {
         response.setContentType("application/json");
         JsonObject json = new JsonObject();
         json.addProperty("is_backing_up", backupService.isBackingUp());
+        backupService.backupProgress().ifPresent(progress -> json.addProperty("progress", progress));
         try {
             response.getWriter().print(json);
         } catch (IOException e) {
@@ -23,4 +23,9 @@ public interface BackupStatusProvider {
     Optional<String> backupRunningSinceISO8601();
 
     Optional<String> backupStartedBy();
+
+    /**
+     * @return what the running backup is doing, and how far it has got with the database
+     */
+    Optional<String> backupProgress();
 }
@@ -30,8 +30,11 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.zip.Deflater;
 
+import static java.lang.String.format;
 import static org.apache.commons.lang3.StringUtils.isEmpty;
 
 @Component
@@ -41,6 +44,7 @@ public class FileView implements View, ServletContextAware {
 
     private ServletContext servletContext;
     public static final String NEED_TO_ZIP = "need_to_zip";
+    private static final Pattern OPEN_ENDED_RANGE = Pattern.compile("bytes=(\\d+)-");
 
     private ServletContext getServletContext() {
         return this.servletContext;
@@ -56,14 +60,57 @@ public class FileView implements View, ServletContextAware {
         return "application/octet-stream";
     }
 
-    private void handleFile(File file, boolean needToZip, HttpServletResponse response) throws IOException {
+    private void handleFile(File file, boolean needToZip, HttpServletRequest request, HttpServletResponse response) throws IOException {
         String filename = file.getName();
         seContentType(needToZip, response, filename);
         setHeaders(response, filename);
+        long offset = needToZip ? 0 : rangeOffset(request.getHeader("Range"));
+        if (offset > 0) {
+            handleRange(file, offset, response);
+            return;
+        }
         setContentLength(needToZip, file, response);
         setOutput(needToZip, file, response);
     }
 
+    /**
+     * Only open-ended ranges ("bytes=N-") are supported, which is what agents use to resume an interrupted download.
+     *
+     * @return the offset to start from, or 0 to send the whole file
+     */
+    static long rangeOffset(String rangeHeader) {
+        if (rangeHeader == null) {
+            return 0;
+        }
+        Matcher matcher = OPEN_ENDED_RANGE.matcher(rangeHeader.trim());
+        if (!matcher.matches()) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(matcher.group(1));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private void handleRange(File file, long offset, HttpServletResponse response) throws IOException {
+        long length = file.length();
+        if (offset >= length) {
+            response.setHeader("Content-Range", "bytes */" + length);
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            return;
+        }
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        response.setHeader("Content-Range", format("bytes %d-%d/%d", offset, length - 1, length));
+        response.addHeader("Content-Length", Long.toString(length - offset));
+        ServletOutputStream out = response.getOutputStream();
+        try (FileInputStream input = new FileInputStream(file)) {
+            input.getChannel().position(offset);
+            input.transferTo(out);
+        }
+        out.flush();
+    }
+
     private void setOutput(boolean needToZip, File file, HttpServletResponse response) throws IOException {
         ServletOutputStream out = response.getOutputStream();
         if (needToZip) {
@@ -108,14 +155,14 @@ public class FileView implements View, ServletContextAware {
     public void render(Map<String, ?> map, HttpServletRequest httpServletRequest, HttpServletResponse httpServletResponse) throws IOException {
         File file = (File) map.get("targetFile");
         boolean needToZip = map.containsKey(NEED_TO_ZIP);
-        handleFileWithLogging(httpServletResponse, file, needToZip);
+        handleFileWithLogging(httpServletRequest, httpServletResponse, file, needToZip);
     }
 
-    private void handleFileWithLogging(HttpServletResponse httpServletResponse, File file, boolean needToZip) throws IOException {
+    private void handleFileWithLogging(HttpServletRequest httpServletRequest, HttpServletResponse httpServletResponse, File file, boolean needToZip) throws IOException {
         LOGGER.info("[Artifact Download] About to download: {}. ShouldZip? = {}", file.getAbsolutePath(), needToZip);
         long before = System.currentTimeMillis();
 
-        handleFile(file, needToZip, httpServletResponse);
+        handleFile(file, needToZip, httpServletRequest, httpServletResponse);
 
         long timeTaken = System.currentTimeMillis() - before;
         LOGGER.info("[Artifact Download] Finished downloading: {}. ShouldZip? = {}. The time taken is: {} ms", file.getAbsolutePath(), needToZip, timeTaken);
@@ -60,18 +60,13 @@ public class GoDiskSpaceMonitorTest {
     private TestingEmailSender emailSender;
     private SystemDiskSpaceChecker mockDiskSpaceChecker;
     private long diskSpaceCacheRefresherInterval;
-    private StageService stageService;
-    private ConfigDbStateRepository configDbStateRepository;
 
     @BeforeEach
     public void setUp() {
         serverHealthService.removeAllLogs();
         emailSender = new TestingEmailSender();
         mockDiskSpaceChecker = mock(SystemDiskSpaceChecker.class);
-        stageService = mock(StageService.class);
-        configDbStateRepository = mock(ConfigDbStateRepository.class);
-        goDiskSpaceMonitor = new GoDiskSpaceMonitor(goConfigService, systemEnvironment, serverHealthService, emailSender, mockDiskSpaceChecker, mock(ArtifactsService.class),
-            stageService, configDbStateRepository);
+        goDiskSpaceMonitor = new GoDiskSpaceMonitor(goConfigService, systemEnvironment, serverHealthService, emailSender, mockDiskSpaceChecker, mock(ArtifactsRetentionEngine.class));
         goDiskSpaceMonitor.initialize();
         diskSpaceCacheRefresherInterval = systemEnvironment.getDiskSpaceCacheRefresherInterval();
         systemEnvironment.setDiskSpaceCacheRefresherInterval(-1);
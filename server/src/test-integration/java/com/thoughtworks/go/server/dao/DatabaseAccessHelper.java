@@ -36,6 +36,7 @@ import com.thoughtworks.go.server.service.InstanceFactory;
 import com.thoughtworks.go.server.service.ManualBuild;
 import com.thoughtworks.go.server.service.MaterialConfigConverter;
 import com.thoughtworks.go.server.service.PipelineService;
+import com.thoughtworks.go.server.service.SchedulabilityIndex;
 import com.thoughtworks.go.server.transaction.TransactionTemplate;
 import com.thoughtworks.go.util.Clock;
 import com.thoughtworks.go.util.Dates;
@@ -87,6 +88,7 @@ public class DatabaseAccessHelper extends HibernateDaoSupport {
     private final GoCache goCache;
     private final InstanceFactory instanceFactory;
     private final JobAgentMetadataDao jobAgentMetadataDao;
+    private final SchedulabilityIndex schedulabilityIndex;
 
     @Autowired
     public DatabaseAccessHelper(DataSource dataSource,
@@ -101,7 +103,8 @@ public class DatabaseAccessHelper extends HibernateDaoSupport {
                                 GoCache goCache,
                                 PipelineService pipelineService, InstanceFactory instanceFactory,
                                 JobAgentMetadataDao jobAgentMetadataDao,
-                                AgentDao agentDao) throws AmbiguousTableNameException {
+                                AgentDao agentDao,
+                                SchedulabilityIndex schedulabilityIndex) throws AmbiguousTableNameException {
         this.dataSource = dataSource;
         this.sqlMapClient = sqlMapClient;
         this.stageDao = stageDao;
@@ -115,6 +118,7 @@ public class DatabaseAccessHelper extends HibernateDaoSupport {
         this.pipelineDao = (PipelineSqlMapDao) pipelineDao;
         this.materialRepository = materialRepository;
         this.agentDao = agentDao;
+        this.schedulabilityIndex = schedulabilityIndex;
         setSessionFactory(sessionFactory);
         initialize(dataSource);
     }
@@ -164,6 +168,7 @@ public class DatabaseAccessHelper extends HibernateDaoSupport {
     public void onTearDown() throws Exception {
         databaseTester.onTearDown();
         goCache.clear();
+        schedulabilityIndex.clear();
     }
 
     public TransactionTemplate txTemplate() {
@@ -32,6 +32,7 @@ import com.thoughtworks.go.server.cache.GoCache;
 import com.thoughtworks.go.server.service.InstanceFactory;
 import com.thoughtworks.go.server.service.JobInstanceService;
 import com.thoughtworks.go.server.service.ScheduleService;
+import com.thoughtworks.go.server.service.StageService;
 import com.thoughtworks.go.server.transaction.SqlMapClientTemplate;
 import com.thoughtworks.go.server.transaction.TransactionTemplate;
 import com.thoughtworks.go.server.ui.SortOrder;
@@ -91,6 +92,8 @@ public class JobInstanceSqlMapDaoIntegrationTest {
     private GoConfigDao goConfigDao;
     @Autowired
     private InstanceFactory instanceFactory;
+    @Autowired
+    private StageService stageService;
 
     private GoConfigFileHelper configHelper = new GoConfigFileHelper();
 
@@ -675,6 +678,65 @@ public class JobInstanceSqlMapDaoIntegrationTest {
         assertThat(actual.getResult()).isEqualTo(JobResult.Failed);
     }
 
+    @Test
+    public void shouldGiveEachJobOfAScheduledStageAndItsPlanAndTransitionsAnId() {
+        PipelineConfig config = PipelineMother.withSingleStageWithMaterials(PIPELINE_NAME, STAGE_NAME, BuildPlanMother.withBuildPlans(JOB_NAME, OTHER_JOB_NAME, projectOne));
+        Stage stage = instanceFactory.createStageInstance(config.getFirst(), schedulingContext, "md5-test", new TimeProvider());
+
+        Stage scheduledStage = stageService.save(savedPipeline, stage);
+
+        JobInstances jobs = scheduledStage.getJobInstances();
+        assertThat(jobs).hasSize(3);
+        assertThat(jobs.stream().map(JobInstance::getId).distinct()).hasSize(3);
+        for (JobInstance job : jobs) {
+            assertThat(job.hasId()).isTrue();
+            assertThat(job.getTransitions()).isNotEmpty().allMatch(JobStateTransition::hasId);
+
+            JobInstance actual = jobInstanceDao.buildByIdWithTransitions(job.getId());
+            assertThat(actual.getName()).isEqualTo(job.getName());
+            assertThat(actual.getStageId()).isEqualTo(scheduledStage.getId());
+            assertThat(actual.getTransitions()).extracting(JobStateTransition::getId)
+                .containsExactlyElementsOf(job.getTransitions().stream().map(JobStateTransition::getId).collect(toList()));
+
+            JobPlan plan = jobInstanceDao.loadPlan(job.getId());
+            assertThat(plan.getJobId()).isEqualTo(job.getId());
+            assertThat(plan.getName()).isEqualTo(job.getName());
+        }
+    }
+
+    @Test
+    public void shouldUpdateStatesAndResultsOfSeveralJobsAndGiveEachNewTransitionAnId() {
+        JobInstance functional = jobInstanceDao.buildByIdWithTransitions(savedStage.getJobInstances().getByName(JOB_NAME).getId());
+        JobInstance unit = jobInstanceDao.buildByIdWithTransitions(savedStage.getJobInstances().getByName(OTHER_JOB_NAME).getId());
+        JobInstance building = jobInstanceDao.save(stageId, scheduled(projectOne));
+        building.changeState(JobState.Building);
+        assertThat(functional.cancel()).isTrue();
+        assertThat(unit.cancel()).isTrue();
+
+        jobInstanceDao.updateStatesAndResults(List.of(functional, unit, building));
+
+        for (JobInstance job : List.of(functional, unit, building)) {
+            assertThat(job.getTransitions()).allMatch(JobStateTransition::hasId);
+        }
+        for (JobInstance job : List.of(functional, unit)) {
+            JobInstance actual = jobInstanceDao.buildByIdWithTransitions(job.getId());
+            assertThat(actual.getState()).isEqualTo(JobState.Completed);
+            assertThat(actual.getResult()).isEqualTo(JobResult.Cancelled);
+            assertThat(actual.getTransitions()).hasSize(job.getTransitions().size());
+            assertThat(actual.getTransitions().stream().map(JobStateTransition::getId).toList())
+                .containsExactlyInAnyOrderElementsOf(job.getTransitions().stream().map(JobStateTransition::getId).toList());
+        }
+        JobInstance actualBuilding = jobInstanceDao.buildByIdWithTransitions(building.getId());
+        assertThat(actualBuilding.getState()).isEqualTo(JobState.Building);
+        assertThat(actualBuilding.getResult()).isEqualTo(JobResult.Unknown);
+        assertThat(actualBuilding.getTransitions()).hasSize(2);
+
+        jobInstanceDao.updateStatesAndResults(List.of(functional, unit, building));
+
+        assertThat(jobInstanceDao.buildByIdWithTransitions(functional.getId()).getTransitions()).hasSize(functional.getTransitions().size());
+        assertThat(jobInstanceDao.buildByIdWithTransitions(building.getId()).getTransitions()).hasSize(2);
+    }
+
     @Test
     public void shouldSaveTransitionsCorrectly() {
         JobInstance jobInstance = scheduled(projectOne, new Date(1));
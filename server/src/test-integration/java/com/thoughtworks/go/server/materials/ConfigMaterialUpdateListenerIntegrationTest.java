@@ -101,11 +101,8 @@ public class ConfigMaterialUpdateListenerIntegrationTest {
 
         TestingEmailSender emailSender = new TestingEmailSender();
         SystemDiskSpaceChecker mockDiskSpaceChecker = mock(SystemDiskSpaceChecker.class);
-        StageService stageService = mock(StageService.class);
-        ConfigDbStateRepository configDbStateRepository = mock(ConfigDbStateRepository.class);
         GoDiskSpaceMonitor goDiskSpaceMonitor = new GoDiskSpaceMonitor(goConfigService, systemEnvironment,
-                serverHealthService, emailSender, mockDiskSpaceChecker, mock(ArtifactsService.class),
-                stageService, configDbStateRepository);
+                serverHealthService, emailSender, mockDiskSpaceChecker, mock(ArtifactsRetentionEngine.class));
         goDiskSpaceMonitor.initialize();
 
         configTestRepo = new ConfigTestRepo(hgRepo, new MagicalGoConfigXmlWriter(ConfigElementImplementationRegistryMother.withNoPlugins()));
@@ -33,6 +33,7 @@ import com.thoughtworks.go.server.messaging.SendEmailMessage;
 import com.thoughtworks.go.server.messaging.ServerBackupQueue;
 import com.thoughtworks.go.server.persistence.ServerBackupRepository;
 import com.thoughtworks.go.server.service.backup.BackupUpdateListener;
+import com.thoughtworks.go.server.service.backup.IncrementalZipBackup;
 import com.thoughtworks.go.service.ConfigRepository;
 import com.thoughtworks.go.util.*;
 import com.thoughtworks.go.util.command.InMemoryStreamConsumer;
@@ -60,6 +61,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.Semaphore;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 
 import static com.thoughtworks.go.util.TestUtils.doInterruptiblyQuietlyRethrowInterrupt;
@@ -233,6 +235,31 @@ public class BackupServiceIntegrationTest {
         assertThat(Files.readString(new File(cloneDir, "cruise-config.xml").toPath(), UTF_8).indexOf("too-unique-to-be-present")).isEqualTo(-1);
     }
 
+    @Test
+    public void shouldOnlyBackupTheConfigRepositoryFilesWhichChangedSinceTheLastBackup_whenBackupsAreIncremental(@TempDir Path temporaryFolder) throws IOException {
+        when(systemEnvSpy.isBackupIncremental()).thenReturn(true);
+        TimeProvider timeProvider = mock(TimeProvider.class);
+        LocalDateTime now = LocalDateTime.now();
+        when(timeProvider.currentLocalDateTime()).thenReturn(now, now.plusMinutes(1));
+        BackupService backupService = new BackupService(artifactsDirHolder, goConfigService, timeProvider, backupInfoRepository, systemEnvSpy, configRepository, databaseStrategy, null);
+
+        ServerBackup fullBackup = backupService.startBackup(admin);
+        configHelper.addPipeline("too-unique-to-be-present", "stage-name");
+        ServerBackup incrementalBackup = backupService.startBackup(admin);
+
+        assertThat(incrementalBackup.isSuccessful()).isTrue();
+        assertThat(incrementalBackup.getStepDurationsInMillis()).containsKeys(BackupProgressStatus.BACKUP_CONFIG, BackupProgressStatus.BACKUP_CONFIG_REPO, BackupProgressStatus.BACKUP_DATABASE);
+        assertThat(filesIn(new File(incrementalBackup.getPath(), "config-repo.zip"))).isLessThan(filesIn(new File(fullBackup.getPath(), "config-repo.zip")));
+
+        File repoDir = TempDirUtils.createTempDirectoryIn(temporaryFolder, "restored-config-repo-backup").toFile();
+        IncrementalZipBackup.restore(new File(incrementalBackup.getPath()), "config-repo.zip", repoDir);
+        File cloneDir = TempDirUtils.createTempDirectoryIn(temporaryFolder, "cloned-config-repo-backup").toFile();
+        GitMaterial git = new GitMaterial(repoDir.getAbsolutePath());
+        String latestChangeRev = git.latestModification(cloneDir, subprocessExecutionContext).getFirst().getRevision();
+        git.checkout(cloneDir, new StringRevision(latestChangeRev), subprocessExecutionContext);
+        assertThat(Files.readString(new File(cloneDir, "cruise-config.xml").toPath(), UTF_8)).contains("too-unique-to-be-present");
+    }
+
     @Test
     public void shouldCaptureVersionForEveryBackup() throws IOException {
         BackupService backupService = new BackupService(artifactsDirHolder, goConfigService, timeProvider, backupInfoRepository, systemEnvSpy, configRepository, databaseStrategy, null);
@@ -606,6 +633,12 @@ public class BackupServiceIntegrationTest {
         thd.join();
     }
 
+    private int filesIn(File zip) throws IOException {
+        try (ZipFile zipFile = new ZipFile(zip)) {
+            return zipFile.size();
+        }
+    }
+
     private File configDir() {
         return new File(new SystemEnvironment().getConfigDir());
     }
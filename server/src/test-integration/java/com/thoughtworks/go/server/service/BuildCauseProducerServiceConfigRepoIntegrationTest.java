@@ -155,11 +155,8 @@ public class BuildCauseProducerServiceConfigRepoIntegrationTest {
 
         TestingEmailSender emailSender = new TestingEmailSender();
         SystemDiskSpaceChecker mockDiskSpaceChecker = mock(SystemDiskSpaceChecker.class);
-        StageService stageService = mock(StageService.class);
-        ConfigDbStateRepository configDbStateRepository = mock(ConfigDbStateRepository.class);
         goDiskSpaceMonitor = new GoDiskSpaceMonitor(goConfigService, systemEnvironment,
-                serverHealthService, emailSender, mockDiskSpaceChecker, mock(ArtifactsService.class),
-                stageService, configDbStateRepository);
+                serverHealthService, emailSender, mockDiskSpaceChecker, mock(ArtifactsRetentionEngine.class));
         goDiskSpaceMonitor.initialize();
 
         xmlWriter = new MagicalGoConfigXmlWriter(ConfigElementImplementationRegistryMother.withNoPlugins());
@@ -0,0 +1,89 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service;
+
+import com.thoughtworks.go.config.GoConfigDao;
+import com.thoughtworks.go.domain.JobResult;
+import com.thoughtworks.go.domain.Stage;
+import com.thoughtworks.go.server.dao.DatabaseAccessHelper;
+import com.thoughtworks.go.server.domain.Username;
+import com.thoughtworks.go.util.GoConfigFileHelper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(locations = {
+        "classpath:/applicationContext-global.xml",
+        "classpath:/applicationContext-dataLocalAccess.xml",
+        "classpath:/testPropertyConfigurer.xml",
+        "classpath:/spring-all-servlet.xml",
+})
+public class SchedulabilityIndexIntegrationTest {
+    @Autowired private SchedulabilityIndex schedulabilityIndex;
+    @Autowired private StageService stageService;
+    @Autowired private PipelinePauseService pipelinePauseService;
+    @Autowired private DatabaseAccessHelper dbHelper;
+    @Autowired private GoConfigDao goConfigDao;
+    private final GoConfigFileHelper configHelper = new GoConfigFileHelper();
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        dbHelper.onSetUp();
+        configHelper.usingCruiseConfigDao(goConfigDao);
+        configHelper.onSetUp();
+        configHelper.addPipeline("up42", "dev");
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        dbHelper.onTearDown();
+        configHelper.onTearDown();
+    }
+
+    @Test
+    public void shouldBeRegisteredWithStageServiceOnlyThroughItsOwnListener() {
+        assertThat(stageService.getStageStatusListeners()).noneMatch(listener -> listener instanceof SchedulabilityIndex);
+    }
+
+    @Test
+    public void shouldLookUpPauseStatusAgainOncePipelineIsPausedOrUnpaused() {
+        assertThat(schedulabilityIndex.isPaused("up42")).isFalse();
+
+        pipelinePauseService.pause("up42", "testing", Username.ANONYMOUS);
+        assertThat(schedulabilityIndex.isPaused("up42")).isTrue();
+
+        pipelinePauseService.unpause("up42");
+        assertThat(schedulabilityIndex.isPaused("up42")).isFalse();
+    }
+
+    @Test
+    public void shouldLookUpStageActivityAgainOnceStageServiceUpdatesTheStage() {
+        Stage stage = dbHelper.saveTestPipeline("up42", "dev").getFirstStage();
+        assertThat(schedulabilityIndex.isStageActive("up42", "dev")).isTrue();
+
+        dbHelper.completeAllJobs(stage, JobResult.Passed);
+        stageService.updateResult(stage);
+
+        assertThat(schedulabilityIndex.isStageActive("up42", "dev")).isFalse();
+    }
+}
@@ -65,22 +65,10 @@ class CacheKeyGeneratorTest {
     }
 
     @Test
-    void shouldAlwaysReturnInternedString() {
+    void shouldNotInternKeys() {
         assertThat(cacheKeyGenerator.generate("foo", "bar", new CaseInsensitiveString("1"), 1L))
-            .describedAs("Using '==' to check returned key is interned String")
-            .isSameAs("com.thoughtworks.go.domain.Pipeline.$foo.$bar.$1.$1");
-
-        assertThat(cacheKeyGenerator.generate("foo", 1))
-            .describedAs("Using '==' to check returned key is interned String")
-            .isSameAs("com.thoughtworks.go.domain.Pipeline.$foo.$1");
-
-        assertThat(cacheKeyGenerator.generate("foo", "bar"))
-            .describedAs("Using '==' to check returned key is interned String")
-            .isSameAs("com.thoughtworks.go.domain.Pipeline.$foo.$bar");
-
-        assertThat(cacheKeyGenerator.generate("foo", "bar", "baz"))
-            .describedAs("Using '==' to check returned key is interned String")
-            .isSameAs("com.thoughtworks.go.domain.Pipeline.$foo.$bar.$baz");
+            .isEqualTo("com.thoughtworks.go.domain.Pipeline.$foo.$bar.$1.$1")
+            .isNotSameAs("com.thoughtworks.go.domain.Pipeline.$foo.$bar.$1.$1");
     }
 
     @Test
@@ -0,0 +1,88 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.cache;
+
+import com.thoughtworks.go.config.CaseInsensitiveString;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LockRegistryTest {
+    private final LockRegistry registry = new LockRegistry();
+
+    @Test
+    void shouldShareTheLockBetweenEqualKeys() throws Exception {
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> {
+            try (LockRegistry.Held ignored = registry.lock(new String("some-key"))) {
+                locked.countDown();
+                release.await();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        locked.await();
+
+        CompletableFuture<Void> waiter = CompletableFuture.runAsync(() -> {
+            try (LockRegistry.Held ignored = registry.lock(new String("some-key"))) {
+                // acquired once the holder is done
+            }
+        });
+        Thread.sleep(100);
+        assertThat(waiter).isNotDone();
+
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        waiter.get(5, TimeUnit.SECONDS);
+        assertThat(registry.stats().acquisitions()).isEqualTo(2);
+        assertThat(registry.stats().contendedAcquisitions()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotBlockOnOtherKeys() throws Exception {
+        try (LockRegistry.Held ignored = registry.lock("some-key")) {
+            CompletableFuture.runAsync(() -> {
+                try (LockRegistry.Held other = registry.lock("some-other-key")) {
+                    // never blocked
+                }
+            }).get(5, TimeUnit.SECONDS);
+        }
+        assertThat(registry.stats().contendedAcquisitions()).isZero();
+    }
+
+    @Test
+    void shouldBeReentrant() {
+        try (LockRegistry.Held outer = registry.lock("some-key"); LockRegistry.Held inner = registry.lock("some-key")) {
+            assertThat(registry.stats().acquisitions()).isEqualTo(2);
+        }
+        assertThat(registry.stats().contendedAcquisitions()).isZero();
+    }
+
+    @Test
+    void shouldCompareLockKeysByTheirParts() {
+        assertThat(LockKey.of(LockRegistryTest.class, "pipeline", new CaseInsensitiveString("Up42"), 1))
+            .isEqualTo(LockKey.of(LockRegistryTest.class, "pipeline", new CaseInsensitiveString("up42"), 1))
+            .hasSameHashCodeAs(LockKey.of(LockRegistryTest.class, "pipeline", new CaseInsensitiveString("up42"), 1))
+            .isNotEqualTo(LockKey.of(LockRegistryTest.class, "pipeline", new CaseInsensitiveString("up42"), 2))
+            .isNotEqualTo(LockKey.of(LockRegistryTest.class, "stage", new CaseInsensitiveString("up42"), 1))
+            .isNotEqualTo(LockKey.of(LockKey.class, "pipeline", new CaseInsensitiveString("up42"), 1));
+    }
+}
@@ -16,6 +16,7 @@
 package com.thoughtworks.go.server.controller;
 
 import com.thoughtworks.go.domain.JobIdentifier;
+import com.thoughtworks.go.domain.exception.IllegalArtifactLocationException;
 import com.thoughtworks.go.server.cache.ZipArtifactCache;
 import com.thoughtworks.go.server.dao.JobInstanceDao;
 import com.thoughtworks.go.server.service.ArtifactsService;
@@ -27,6 +28,7 @@ import com.thoughtworks.go.server.web.ResponseCodeView;
 import com.thoughtworks.go.util.SystemEnvironment;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.mock.web.MockMultipartHttpServletRequest;
@@ -34,11 +36,18 @@ import org.springframework.web.multipart.MultipartHttpServletRequest;
 import org.springframework.web.servlet.ModelAndView;
 
 import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.HttpURLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 
 import static com.thoughtworks.go.remote.StandardHeaders.REQUEST_CONFIRM_MODIFICATION;
 import static com.thoughtworks.go.util.GoConstants.*;
 import static java.net.HttpURLConnection.*;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
@@ -117,6 +126,121 @@ public class ArtifactsControllerTest {
         assertThat(view.getContent()).isEqualTo("Error saving checksum file for the artifact at path 'some-path'");
     }
 
+    @Test
+    public void shouldReturnBadRequestIfRequiredHeadersAreMissingOnAStreamedArtifactRequest() throws Exception {
+        ModelAndView modelAndView = artifactsController.postStreamedArtifact("pipeline-1", "1", "stage-1", "2", "job-1", 122L, "some-path", 1, request);
+
+        ResponseCodeView view = (ResponseCodeView) modelAndView.getView();
+        assertThat(view.getStatusCode()).isEqualTo(HTTP_BAD_REQUEST);
+        assertThat(view.getContent()).isEqualTo("Missing required header 'X-GoCD-Confirm'");
+        verifyNoInteractions(artifactService);
+    }
+
+    @Test
+    public void shouldNotOverwriteAnExistingArtifactWithAStreamedArtifact(@TempDir Path tempDir) throws Exception {
+        File artifactFile = Files.createFile(tempDir.resolve("some-path")).toFile();
+        when(restfulService.findJob("pipeline-1", "1", "stage-1", "2", "job-1", 122L)).thenReturn(jobIdentifier());
+        when(artifactService.findArtifact(any(), eq("some-path"))).thenReturn(artifactFile);
+
+        ModelAndView modelAndView = artifactsController.postStreamedArtifact("pipeline-1", "1", "stage-1", "2", "job-1", 122L, "some-path", 1, newStreamedRequest());
+
+        ResponseCodeView view = (ResponseCodeView) modelAndView.getView();
+        assertThat(view.getStatusCode()).isEqualTo(HTTP_FORBIDDEN);
+        assertThat(view.getContent()).isEqualTo("File some-path already exists.");
+        verify(artifactService, never()).saveZipStream(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    public void shouldRejectAStreamedArtifactForAnIllegalLocation() throws Exception {
+        when(restfulService.findJob("pipeline-1", "1", "stage-1", "2", "job-1", 122L)).thenReturn(jobIdentifier());
+        when(artifactService.findArtifact(any(), eq("../some-path"))).thenThrow(new IllegalArtifactLocationException("outside the artifacts root"));
+
+        ModelAndView modelAndView = artifactsController.postStreamedArtifact("pipeline-1", "1", "stage-1", "2", "job-1", 122L, "../some-path", 1, newStreamedRequest());
+
+        ResponseCodeView view = (ResponseCodeView) modelAndView.getView();
+        assertThat(view.getStatusCode()).isEqualTo(HTTP_FORBIDDEN);
+        assertThat(view.getContent()).isEqualTo("Url ../some-path contains forbidden characters.");
+        verify(artifactService, never()).saveZipStream(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    public void shouldAppendTheChecksumsSentAlongWithAStreamedArtifactToTheChecksumFile() throws Exception {
+        File artifactFile = new File("junk");
+        File checksumFile = new File("checksums");
+        JobIdentifier jobIdentifier = jobIdentifier();
+        when(restfulService.findJob("pipeline-1", "1", "stage-1", "2", "job-1", 122L)).thenReturn(jobIdentifier);
+        when(artifactService.findArtifact(any(), eq("some-path"))).thenReturn(artifactFile);
+        when(artifactService.saveZipStream(eq(artifactFile), any(), any(), eq(2))).then(invocation -> {
+            invocation.<OutputStream>getArgument(2).write("some-path/file.txt=md5".getBytes(UTF_8));
+            return true;
+        });
+        when(artifactService.findArtifactRoot(jobIdentifier)).thenReturn("pipelines/pipeline-1/1/stage-1/2/job-1");
+        when(artifactService.getArtifactLocation("pipelines/pipeline-1/1/stage-1/2/job-1/cruise-output/md5.checksum")).thenReturn(checksumFile);
+        List<String> appendedChecksums = new ArrayList<>();
+        when(artifactService.saveOrAppendFile(eq(checksumFile), any())).then(invocation -> {
+            appendedChecksums.add(new String(invocation.<InputStream>getArgument(1).readAllBytes(), UTF_8));
+            return true;
+        });
+
+        ModelAndView modelAndView = artifactsController.postStreamedArtifact("pipeline-1", "1", "stage-1", "2", "job-1", 122L, "some-path", 2, newStreamedRequest());
+
+        ResponseCodeView view = (ResponseCodeView) modelAndView.getView();
+        assertThat(view.getStatusCode()).isEqualTo(HTTP_CREATED);
+        assertThat(view.getContent()).isEqualTo("File some-path was created successfully");
+        assertThat(appendedChecksums).containsExactly("some-path/file.txt=md5");
+    }
+
+    @Test
+    public void shouldSaveAStreamedArtifactSentWithoutChecksums() throws Exception {
+        File artifactFile = new File("junk");
+        when(restfulService.findJob("pipeline-1", "1", "stage-1", "2", "job-1", 122L)).thenReturn(jobIdentifier());
+        when(artifactService.findArtifact(any(), eq("some-path"))).thenReturn(artifactFile);
+        when(artifactService.saveZipStream(eq(artifactFile), any(), any(), eq(1))).thenReturn(true);
+
+        ModelAndView modelAndView = artifactsController.postStreamedArtifact("pipeline-1", "1", "stage-1", "2", "job-1", 122L, "some-path", null, newStreamedRequest());
+
+        assertThat(((ResponseCodeView) modelAndView.getView()).getStatusCode()).isEqualTo(HTTP_CREATED);
+        verify(artifactService, never()).saveOrAppendFile(any(), any());
+    }
+
+    @Test
+    public void shouldReturnHttpErrorCodeWhenAStreamedArtifactOrItsChecksumsFailToSave() throws Exception {
+        File artifactFile = new File("junk");
+        when(restfulService.findJob("pipeline-1", "1", "stage-1", "2", "job-1", 122L)).thenReturn(jobIdentifier());
+        when(artifactService.findArtifact(any(), eq("some-path"))).thenReturn(artifactFile);
+        when(artifactService.saveZipStream(eq(artifactFile), any(), any(), eq(1))).thenReturn(false);
+
+        ModelAndView modelAndView = artifactsController.postStreamedArtifact("pipeline-1", "1", "stage-1", "2", "job-1", 122L, "some-path", 1, newStreamedRequest());
+
+        ResponseCodeView view = (ResponseCodeView) modelAndView.getView();
+        assertThat(view.getStatusCode()).isEqualTo(HTTP_INTERNAL_ERROR);
+        assertThat(view.getContent()).isEqualTo("Error saving file some-path");
+
+        when(artifactService.saveZipStream(eq(artifactFile), any(), any(), eq(1))).then(invocation -> {
+            invocation.<OutputStream>getArgument(2).write("some-path=md5".getBytes(UTF_8));
+            return true;
+        });
+        when(artifactService.saveOrAppendFile(any(), any())).thenReturn(false);
+
+        modelAndView = artifactsController.postStreamedArtifact("pipeline-1", "1", "stage-1", "2", "job-1", 122L, "some-path", 1, newStreamedRequest());
+
+        view = (ResponseCodeView) modelAndView.getView();
+        assertThat(view.getStatusCode()).isEqualTo(HTTP_INTERNAL_ERROR);
+        assertThat(view.getContent()).isEqualTo("Error saving checksum file for the artifact at path 'some-path'");
+    }
+
+    private static JobIdentifier jobIdentifier() {
+        return new JobIdentifier("pipeline-1", 1, "1", "stage-1", "2", "job-1", 122L);
+    }
+
+    private static MockHttpServletRequest newStreamedRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(REQUEST_CONFIRM_MODIFICATION, true);
+        request.setContentType(STREAMED_ARTIFACT_CONTENT_TYPE);
+        request.setContent("zipped".getBytes(UTF_8));
+        return request;
+    }
+
     private static MockMultipartHttpServletRequest newMultiPartRequest() {
         MockMultipartHttpServletRequest mockMultipartHttpServletRequest = new MockMultipartHttpServletRequest();
         mockMultipartHttpServletRequest.addHeader(REQUEST_CONFIRM_MODIFICATION, true);
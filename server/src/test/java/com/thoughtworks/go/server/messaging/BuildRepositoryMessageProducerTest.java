@@ -23,10 +23,15 @@ import com.thoughtworks.go.remote.AgentIdentifier;
 import com.thoughtworks.go.remote.BuildRepositoryRemoteImpl;
 import com.thoughtworks.go.server.messaging.scheduling.WorkAssignments;
 import com.thoughtworks.go.server.perf.WorkAssignmentPerformanceLogger;
+import com.thoughtworks.go.remote.work.BuildWork;
+import com.thoughtworks.go.remote.work.Work;
 import com.thoughtworks.go.server.service.AgentRuntimeInfo;
+import com.thoughtworks.go.server.service.BuildAssignmentService;
+import com.thoughtworks.go.util.SystemEnvironment;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
 import java.util.UUID;
 
 import static com.thoughtworks.go.util.SystemUtil.currentWorkingDirectory;
@@ -44,6 +49,8 @@ public class BuildRepositoryMessageProducerTest {
 
     private BuildRepositoryRemoteImpl oldImplementation;
     private WorkAssignments newImplementation;
+    private BuildAssignmentService buildAssignmentService;
+    private SystemEnvironment systemEnvironment;
     private BuildRepositoryMessageProducer producer;
 
     @BeforeEach
@@ -51,7 +58,9 @@ public class BuildRepositoryMessageProducerTest {
         oldImplementation = mock(BuildRepositoryRemoteImpl.class);
         newImplementation = mock(WorkAssignments.class);
         WorkAssignmentPerformanceLogger workAssignmentPerformanceLogger = mock(WorkAssignmentPerformanceLogger.class);
-        producer = new BuildRepositoryMessageProducer(oldImplementation, newImplementation, workAssignmentPerformanceLogger);
+        buildAssignmentService = mock(BuildAssignmentService.class);
+        systemEnvironment = mock(SystemEnvironment.class);
+        producer = new BuildRepositoryMessageProducer(oldImplementation, newImplementation, workAssignmentPerformanceLogger, buildAssignmentService, systemEnvironment);
     }
 
     @Test
@@ -87,6 +96,31 @@ public class BuildRepositoryMessageProducerTest {
         verify(newImplementation).getWork(AGENT_INFO);
     }
 
+    @Test
+    public void shouldReserveAndHandOverTheNextWorkWhenPrefetchIsEnabled() {
+        Work work = mock(BuildWork.class);
+        when(systemEnvironment.isServerNextWorkPrefetchEnabled()).thenReturn(true);
+        when(buildAssignmentService.reserveNextJob(AGENT)).thenReturn(List.of("https://example.com/repo.git"));
+        when(buildAssignmentService.assignReservedWork(AGENT)).thenReturn(work);
+
+        assertThat(producer.reportCompleting(AGENT_INFO, jobIdentifier, passed, true)).containsExactly("https://example.com/repo.git");
+        assertThat(producer.reportCompleted(AGENT_INFO, jobIdentifier, passed, true)).isSameAs(work);
+
+        verify(oldImplementation).reportCompleting(AGENT_INFO, jobIdentifier, passed);
+        verify(oldImplementation).reportCompleted(AGENT_INFO, jobIdentifier, passed);
+    }
+
+    @Test
+    public void shouldNotReserveWorkWhenPrefetchIsDisabledOnTheServer() {
+        when(systemEnvironment.isServerNextWorkPrefetchEnabled()).thenReturn(false);
+
+        assertThat(producer.reportCompleting(AGENT_INFO, jobIdentifier, passed, true)).isEmpty();
+        assertThat(producer.reportCompleted(AGENT_INFO, jobIdentifier, passed, true)).isEqualTo(BuildAssignmentService.NO_WORK);
+
+        verifyNoInteractions(buildAssignmentService);
+        verify(oldImplementation).reportCompleted(AGENT_INFO, jobIdentifier, passed);
+    }
+
     @Test
     public void shouldAllocateNewCookieForEveryGetCookieRequest() {
         AgentRuntimeInfo agentRuntimeInfo = mock(AgentRuntimeInfo.class);
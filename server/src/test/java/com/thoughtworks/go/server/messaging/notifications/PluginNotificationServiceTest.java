@@ -27,6 +27,7 @@ import com.thoughtworks.go.domain.notificationdata.StageNotificationData;
 import com.thoughtworks.go.helper.AgentInstanceMother;
 import com.thoughtworks.go.helper.StageMother;
 import com.thoughtworks.go.listener.AgentStatusChangeListener;
+import com.thoughtworks.go.plugin.access.notification.NotificationBatch;
 import com.thoughtworks.go.plugin.access.notification.NotificationExtension;
 import com.thoughtworks.go.plugin.access.notification.NotificationPluginRegistry;
 import com.thoughtworks.go.plugin.api.response.Result;
@@ -46,6 +47,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.util.LinkedHashSet;
 import java.util.List;
 
+import static com.thoughtworks.go.util.SystemEnvironment.NOTIFICATION_PLUGIN_BATCH_SIZE;
 import static com.thoughtworks.go.util.SystemEnvironment.NOTIFICATION_PLUGIN_MESSAGES_TTL_IN_MILLIS;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
@@ -74,6 +76,7 @@ public class PluginNotificationServiceTest {
     @BeforeEach
     public void setUp() {
         pluginNotificationService = new PluginNotificationService(notificationPluginRegistry, pluginNotificationsQueueHandler, goConfigService, pipelineDao, stageDao, systemEnvironment);
+        lenient().when(notificationPluginRegistry.getPluginsInterestedIn(NotificationExtension.STAGE_STATUS_BATCH_NOTIFICATION)).thenReturn(new LinkedHashSet<>());
     }
 
     @Test
@@ -262,6 +265,46 @@ public class PluginNotificationServiceTest {
         assertMessage(messages.getLast(), PLUGIN_ID_2, NotificationExtension.AGENT_STATUS_CHANGE_NOTIFICATION, agentInstance);
     }
 
+    @Test
+    public void shouldBuildStageNotificationDataOnceForAllInterestedPlugins() {
+        Stage stage = StageMother.custom("Stage");
+        when(notificationPluginRegistry.getPluginsInterestedIn(NotificationExtension.STAGE_STATUS_CHANGE_NOTIFICATION)).thenReturn(new LinkedHashSet<>(List.of(PLUGIN_ID_1, PLUGIN_ID_2)));
+        when(goConfigService.isFirstStage(stage.getIdentifier().getPipelineName(), stage.getName())).thenReturn(true);
+        when(systemEnvironment.get(NOTIFICATION_PLUGIN_MESSAGES_TTL_IN_MILLIS)).thenReturn(1000L);
+
+        pluginNotificationService.notifyStageStatus(stage);
+
+        @SuppressWarnings("unchecked") ArgumentCaptor<PluginNotificationMessage<?>> captor = ArgumentCaptor.forClass(PluginNotificationMessage.class);
+        verify(pluginNotificationsQueueHandler, times(2)).post(captor.capture(), eq(1000L));
+        assertThat(captor.getAllValues().getFirst().getPayload()).isSameAs(captor.getAllValues().getLast().getPayload());
+        verify(pipelineDao, times(1)).findBuildCauseOfPipelineByNameAndCounter(stage.getIdentifier().getPipelineName(), stage.getIdentifier().getPipelineCounter());
+        verify(goConfigService, times(1)).findGroupNameByPipeline(new CaseInsensitiveString(stage.getIdentifier().getPipelineName()));
+    }
+
+    @Test
+    public void shouldBatchStageNotificationsForPluginsWhichRegisteredForBatches() {
+        when(notificationPluginRegistry.getPluginsInterestedIn(NotificationExtension.STAGE_STATUS_CHANGE_NOTIFICATION)).thenReturn(new LinkedHashSet<>(List.of(PLUGIN_ID_1, PLUGIN_ID_2)));
+        when(notificationPluginRegistry.getPluginsInterestedIn(NotificationExtension.STAGE_STATUS_BATCH_NOTIFICATION)).thenReturn(new LinkedHashSet<>(List.of(PLUGIN_ID_2)));
+        when(goConfigService.isFirstStage(anyString(), anyString())).thenReturn(true);
+        when(systemEnvironment.get(NOTIFICATION_PLUGIN_MESSAGES_TTL_IN_MILLIS)).thenReturn(1000L);
+        when(systemEnvironment.get(NOTIFICATION_PLUGIN_BATCH_SIZE)).thenReturn(2);
+
+        pluginNotificationService.notifyStageStatus(StageMother.custom("first"));
+        pluginNotificationService.notifyStageStatus(StageMother.custom("second"));
+        pluginNotificationService.notifyStageStatus(StageMother.custom("third"));
+        pluginNotificationService.flushBatches();
+
+        @SuppressWarnings("unchecked") ArgumentCaptor<PluginNotificationMessage<?>> captor = ArgumentCaptor.forClass(PluginNotificationMessage.class);
+        verify(pluginNotificationsQueueHandler, times(5)).post(captor.capture(), eq(1000L));
+        List<PluginNotificationMessage<?>> batches = captor.getAllValues().stream().filter(message -> message.pluginId().equals(PLUGIN_ID_2)).toList();
+
+        assertThat(captor.getAllValues().stream().filter(message -> message.pluginId().equals(PLUGIN_ID_1))).hasSize(3);
+        assertThat(batches).hasSize(2);
+        assertThat(batches).allSatisfy(message -> assertThat(message.getRequestName()).isEqualTo(NotificationExtension.STAGE_STATUS_BATCH_NOTIFICATION));
+        assertThat(((NotificationBatch) batches.getFirst().getData()).size()).isEqualTo(2);
+        assertThat(((NotificationBatch) batches.getLast().getData()).size()).isEqualTo(1);
+    }
+
     private void assertMessage(PluginNotificationMessage<?> notificationMessage, String pluginId, String requestName, AgentInstance agentInstance) {
         assertThat(notificationMessage.pluginId()).isEqualTo(pluginId);
         assertThat(notificationMessage.getRequestName()).isEqualTo(requestName);
@@ -19,9 +19,11 @@ import com.thoughtworks.go.config.exceptions.EntityType;
 import com.thoughtworks.go.config.exceptions.RecordNotFoundException;
 import com.thoughtworks.go.domain.AccessToken;
 import com.thoughtworks.go.server.dao.AccessTokenDao;
+import com.thoughtworks.go.server.exceptions.RevokedAccessTokenException;
 import com.thoughtworks.go.server.domain.Username;
 import com.thoughtworks.go.server.service.result.HttpLocalizedOperationResult;
 import com.thoughtworks.go.util.Clock;
+import com.thoughtworks.go.util.SystemEnvironment;
 import com.thoughtworks.go.util.TestingClock;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.jupiter.api.BeforeEach;
@@ -38,6 +40,7 @@ import java.util.Map;
 import static com.thoughtworks.go.helper.AccessTokenMother.randomAccessTokenForUser;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -54,7 +57,7 @@ class AccessTokenServiceTest {
 
     @BeforeEach
     void setUp() {
-        accessTokenService = new AccessTokenService(accessTokenDao, clock, securityService);
+        accessTokenService = new AccessTokenService(accessTokenDao, clock, securityService, new VerifiedAccessTokenCache(new SystemEnvironment()));
         result = new HttpLocalizedOperationResult();
 
         username = "Bob";
@@ -123,6 +126,40 @@ class AccessTokenServiceTest {
         verifyNoMoreInteractions(accessTokenDao);
     }
 
+    @Nested
+    class VerifiedTokens {
+        private AccessToken.AccessTokenWithDisplayValue token;
+
+        @BeforeEach
+        void setUp() {
+            token = AccessToken.create("description", username, authConfigId, clock);
+            token.setId(42);
+        }
+
+        @Test
+        void shouldNotLookUpATokenAgainOnceItHasBeenVerified() {
+            when(accessTokenDao.findAccessTokenBySaltId(token.getSaltId())).thenReturn(token);
+
+            assertThat(accessTokenService.findByAccessToken(token.getDisplayValue())).isSameAs(token);
+            assertThat(accessTokenService.findByAccessToken(token.getDisplayValue())).isSameAs(token);
+
+            verify(accessTokenDao, times(1)).findAccessTokenBySaltId(token.getSaltId());
+        }
+
+        @Test
+        void shouldLookUpATokenAgainOnceItHasBeenRevoked() {
+            when(accessTokenDao.findAccessTokenBySaltId(token.getSaltId())).thenReturn(token);
+            when(accessTokenDao.loadNotDeletedTokenForUser(42, username)).thenReturn(token);
+            accessTokenService.findByAccessToken(token.getDisplayValue());
+
+            accessTokenService.revokeAccessToken(42, username, "leaked");
+
+            assertThatThrownBy(() -> accessTokenService.findByAccessToken(token.getDisplayValue()))
+                .isInstanceOf(RevokedAccessTokenException.class);
+            verify(accessTokenDao, times(2)).findAccessTokenBySaltId(token.getSaltId());
+        }
+    }
+
     @Nested
     class OnTimer {
 
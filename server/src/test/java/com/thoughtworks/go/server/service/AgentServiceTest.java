@@ -102,7 +102,6 @@ class AgentServiceTest {
         agentService = new AgentService(new SystemEnvironment(), agentInstances,
                 agentDao, uuidGenerator, serverHealthService = mock(ServerHealthService.class), null);
         agentIdentifier = agent.getAgentIdentifier();
-        when(agentDao.cookieFor(agentIdentifier)).thenReturn("cookie");
     }
 
     @Nested
@@ -540,9 +539,51 @@ class AgentServiceTest {
         void shouldUpdateRuntimeInfo() {
             String cookie = "cookie";
             AgentRuntimeInfo runtimeInfo = new AgentRuntimeInfo(agentIdentifier, Idle, currentWorkingDirectory(), cookie);
-            when(agentDao.cookieFor(runtimeInfo.getIdentifier())).thenReturn(cookie);
             agentService.updateRuntimeInfo(runtimeInfo);
             verify(agentInstances).updateAgentRuntimeInfo(runtimeInfo);
+            verifyNoInteractions(agentDao);
+        }
+
+        @Test
+        void shouldSaveIpAddressChangesOfAllPingsInOneWriteWhenPendingUpdatesAreFlushed() {
+            AgentInstance agentInstance = agentInstances.findAgentAndRefreshStatus("uuid");
+            when(agentInstances.findAgent("uuid")).thenReturn(agentInstance);
+            AgentIdentifier movedAgent = new AgentIdentifier("host", "10.0.0.1", "uuid");
+
+            agentService.updateRuntimeInfo(new AgentRuntimeInfo(movedAgent, Idle, currentWorkingDirectory(), "cookie"));
+            agentService.updateRuntimeInfo(new AgentRuntimeInfo(movedAgent, Idle, currentWorkingDirectory(), "cookie"));
+
+            assertThat(agentInstance.getAgent().getIpaddress()).isEqualTo("10.0.0.1");
+            verifyNoInteractions(agentDao);
+
+            agentService.flushPendingAgentUpdates();
+            agentService.flushPendingAgentUpdates();
+
+            verify(agentDao).bulkUpdateAgents(List.of(agentInstance.getAgent()));
+            verifyNoMoreInteractions(agentDao);
+        }
+
+        @Test
+        void shouldTryToSaveIpAddressChangesAgainIfTheyCouldNotBeSaved() {
+            AgentInstance agentInstance = agentInstances.findAgentAndRefreshStatus("uuid");
+            when(agentInstances.findAgent("uuid")).thenReturn(agentInstance);
+            doThrow(new RuntimeException("database is down")).doNothing().when(agentDao).bulkUpdateAgents(any());
+
+            agentService.updateRuntimeInfo(new AgentRuntimeInfo(new AgentIdentifier("host", "10.0.0.1", "uuid"), Idle, currentWorkingDirectory(), "cookie"));
+            agentService.flushPendingAgentUpdates();
+            agentService.flushPendingAgentUpdates();
+
+            verify(agentDao, times(2)).bulkUpdateAgents(List.of(agentInstance.getAgent()));
+        }
+
+        @Test
+        void shouldNotSaveIpAddressChangesOfAgentsDeletedBeforePendingUpdatesAreFlushed() {
+            when(agentInstances.findAgent("uuid")).thenReturn(new NullAgentInstance("uuid"));
+
+            agentService.updateRuntimeInfo(new AgentRuntimeInfo(new AgentIdentifier("host", "10.0.0.1", "uuid"), Idle, currentWorkingDirectory(), "cookie"));
+            agentService.flushPendingAgentUpdates();
+
+            verifyNoInteractions(agentDao);
         }
 
         @Test
@@ -561,7 +602,7 @@ class AgentServiceTest {
         void shouldThrowExceptionWhenADuplicateAgentTriesToUpdateRuntimeInfo() {
             AgentRuntimeInfo runtimeInfo = new AgentRuntimeInfo(agentIdentifier, Idle, currentWorkingDirectory(), null);
             runtimeInfo.setCookie("invalid_cookie");
-            AgentInstance original = createFromLiveAgent(new AgentRuntimeInfo(agentIdentifier, Idle, currentWorkingDirectory(), null), new SystemEnvironment(), null);
+            AgentInstance original = AgentInstance.createFromAgent(new Agent("uuid", "host", "192.168.1.1", "cookie"), new SystemEnvironment(), null);
 
             try (LogFixture logFixture = logFixtureFor(AgentService.class, Level.DEBUG)) {
                 when(agentService.findAgentAndRefreshStatus(runtimeInfo.getUUId())).thenReturn(original);
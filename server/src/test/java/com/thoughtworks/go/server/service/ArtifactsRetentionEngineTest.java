@@ -0,0 +1,208 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service;
+
+import com.thoughtworks.go.config.ServerConfig;
+import com.thoughtworks.go.domain.Stage;
+import com.thoughtworks.go.helper.StageMother;
+import com.thoughtworks.go.util.GoConstants;
+import com.thoughtworks.go.util.SystemEnvironment;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class ArtifactsRetentionEngineTest {
+    private GoConfigService goConfigService;
+    private SystemDiskSpaceChecker diskSpaceChecker;
+    private ServerConfig serverConfig;
+    private StageService stageService;
+    private ArtifactsService artifactService;
+    private ConfigDbStateRepository configDbStateRepository;
+    private ExecutorService runner;
+    private ExecutorService deleters;
+    private ArtifactsRetentionEngine engine;
+
+    @BeforeEach
+    public void setUp() {
+        SystemEnvironment sysEnv = mock(SystemEnvironment.class);
+        when(sysEnv.getArtifactsRetentionHeadroomPercent()).thenReturn(10);
+
+        serverConfig = new ServerConfig();
+        goConfigService = mock(GoConfigService.class);
+        when(goConfigService.serverConfig()).thenReturn(serverConfig);
+
+        stageService = mock(StageService.class);
+        artifactService = mock(ArtifactsService.class);
+        diskSpaceChecker = mock(SystemDiskSpaceChecker.class);
+        configDbStateRepository = mock(ConfigDbStateRepository.class);
+        runner = mock(ExecutorService.class);
+        deleters = Executors.newFixedThreadPool(2);
+
+        engine = new ArtifactsRetentionEngine(goConfigService, stageService, artifactService, configDbStateRepository, sysEnv, diskSpaceChecker, runner, deleters);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        deleters.shutdownNow();
+    }
+
+    @Test
+    public void shouldStopItsThreadsOnShutdown() {
+        engine.shutdown();
+
+        verify(runner).shutdownNow();
+        assertThat(deleters.isShutdown()).isTrue();
+    }
+
+    @Test
+    public void shouldNotPurgeAnythingWhilePurgingIsNotConfigured() {
+        serverConfig.setPurgeLimits(null, null);
+        when(diskSpaceChecker.getUsableSpace(goConfigService.artifactsDir())).thenReturn(0L);
+
+        engine.purgeIfNeeded();
+
+        verifyNoInteractions(stageService, artifactService);
+        assertThat(engine.runs()).isZero();
+    }
+
+    @Test
+    public void shouldNotPurgeAnythingWhileThereIsMoreSpaceThanTheHeadroomAbovePurgeStart() {
+        serverConfig.setPurgeLimits(5.0, 9.0);
+        when(diskSpaceChecker.getUsableSpace(goConfigService.artifactsDir())).thenReturn(6 * GoConstants.GIGA_BYTE);
+
+        engine.purgeIfNeeded();
+
+        verifyNoInteractions(stageService, artifactService);
+        assertThat(engine.runs()).isZero();
+        assertThat(engine.backlogInBytes()).isZero();
+    }
+
+    @Test
+    public void shouldStartPurgingWithinTheHeadroomAbovePurgeStart_andOnlyPurgeAsManyStagesAsNeeded() {
+        serverConfig.setPurgeLimits(5.0, 9.0);
+        Stage stageOne = StageMother.passedStageInstance("stage", "build", "pipeline");
+        Stage stageTwo = StageMother.passedStageInstance("another", "job", "with-pipeline");
+        long available = 5 * GoConstants.GIGA_BYTE + GoConstants.GIGA_BYTE / 5;
+
+        when(stageService.oldestStagesWithDeletableArtifacts()).thenReturn(List.of(stageOne, stageTwo));
+        when(artifactService.sizeOfPurgeableArtifacts(stageOne)).thenReturn(4 * GoConstants.GIGA_BYTE);
+        when(diskSpaceChecker.getUsableSpace(goConfigService.artifactsDir())).thenReturn(available);
+        doAnswer((Answer<Object>) invocation -> {
+            when(diskSpaceChecker.getUsableSpace(goConfigService.artifactsDir())).thenReturn(10 * GoConstants.GIGA_BYTE);
+            return null;
+        }).when(artifactService).purgeArtifactsForStage(stageOne);
+
+        engine.purgeIfNeeded();
+
+        verify(artifactService).purgeArtifactsForStage(stageOne);
+        verify(artifactService, never()).purgeArtifactsForStage(stageTwo);
+        verify(configDbStateRepository).flushConfigState();
+        assertThat(engine.runs()).isEqualTo(1);
+        assertThat(engine.stagesPurged()).isEqualTo(1);
+        assertThat(engine.bytesReclaimed()).isEqualTo(10 * GoConstants.GIGA_BYTE - available);
+        assertThat(engine.backlogInBytes()).isZero();
+        assertThat(engine.stagesPendingDeletion()).isZero();
+    }
+
+    @Test
+    public void shouldPlanTheOldestStagesWhoseArtifactsTakeUpTheSpaceToBeFreed() {
+        Stage stageOne = StageMother.passedStageInstance("stage", "build", "pipeline");
+        Stage stageTwo = StageMother.passedStageInstance("another", "job", "with-pipeline");
+        Stage stageThree = StageMother.passedStageInstance("yet-another", "job1", "foo-pipeline");
+        when(artifactService.sizeOfPurgeableArtifacts(stageOne)).thenReturn(100L);
+        when(artifactService.sizeOfPurgeableArtifacts(stageTwo)).thenReturn(200L);
+        when(artifactService.sizeOfPurgeableArtifacts(stageThree)).thenReturn(300L);
+
+        assertThat(engine.plan(List.of(stageOne, stageTwo, stageThree), 250)).containsExactly(stageOne, stageTwo);
+        assertThat(engine.plan(List.of(stageOne, stageTwo, stageThree), 300)).containsExactly(stageOne, stageTwo);
+        assertThat(engine.plan(List.of(stageOne, stageTwo, stageThree), 1000)).containsExactly(stageOne, stageTwo, stageThree);
+    }
+
+    @Test
+    public void shouldPurgeMultiplePagesOfOldestStagesHavingArtifacts_andReportTheBacklogWhenThereIsNothingLeftToPurge() {
+        serverConfig.setPurgeLimits(5.0, 9.0);
+        final Stage stageOne = StageMother.passedStageInstance("stage", "build", "pipeline");
+        final Stage stageTwo = StageMother.passedStageInstance("another", "job", "with-pipeline");
+        final Stage stageThree = StageMother.passedStageInstance("yet-another", "job1", "foo-pipeline");
+        final Stage stageFour = StageMother.passedStageInstance("foo-stage", "bar-job", "baz-pipeline");
+        final Stage stageFive = StageMother.passedStageInstance("bar-stage", "baz-job", "quux-pipeline");
+
+        when(stageService.oldestStagesWithDeletableArtifacts()).thenReturn(List.of(stageOne, stageTwo));
+        when(diskSpaceChecker.getUsableSpace(goConfigService.artifactsDir())).thenReturn(4 * GoConstants.GIGA_BYTE);
+
+        doAnswer((Answer<Object>) invocation -> {
+            when(stageService.oldestStagesWithDeletableArtifacts()).thenReturn(List.of(stageThree, stageFour));
+            return null;
+        }).when(artifactService).purgeArtifactsForStage(stageTwo);
+
+        doAnswer((Answer<Object>) invocation -> {
+            when(stageService.oldestStagesWithDeletableArtifacts()).thenReturn(List.of(stageFive));
+            return null;
+        }).when(artifactService).purgeArtifactsForStage(stageFour);
+
+        doAnswer((Answer<Object>) invocation -> {
+            when(stageService.oldestStagesWithDeletableArtifacts()).thenReturn(new ArrayList<>());
+            return null;
+        }).when(artifactService).purgeArtifactsForStage(stageFive);
+
+        engine.purgeIfNeeded();
+
+        verify(artifactService).purgeArtifactsForStage(stageOne);
+        verify(artifactService).purgeArtifactsForStage(stageTwo);
+        verify(artifactService).purgeArtifactsForStage(stageThree);
+        verify(artifactService).purgeArtifactsForStage(stageFour);
+        verify(artifactService).purgeArtifactsForStage(stageFive);
+
+        verify(stageService, times(4)).oldestStagesWithDeletableArtifacts();
+        verify(configDbStateRepository, times(4)).flushConfigState();
+        verifyNoMoreInteractions(stageService);
+        assertThat(engine.stagesPurged()).isEqualTo(5);
+        assertThat(engine.backlogInBytes()).isEqualTo(5 * GoConstants.GIGA_BYTE);
+    }
+
+    @Test
+    public void shouldGiveUpUntilTheNextCheckWhenNoneOfTheStagesCouldBePurged() {
+        serverConfig.setPurgeLimits(5.0, 9.0);
+        Stage stageOne = StageMother.passedStageInstance("stage", "build", "pipeline");
+        when(stageService.oldestStagesWithDeletableArtifacts()).thenReturn(List.of(stageOne));
+        when(diskSpaceChecker.getUsableSpace(goConfigService.artifactsDir())).thenReturn(4 * GoConstants.GIGA_BYTE);
+        doThrow(new RuntimeException("database is gone")).when(artifactService).purgeArtifactsForStage(stageOne);
+
+        engine.purgeIfNeeded();
+
+        verify(stageService).oldestStagesWithDeletableArtifacts();
+        assertThat(engine.stagesPurged()).isZero();
+        assertThat(engine.stagesPendingDeletion()).isZero();
+    }
+
+    @Test
+    public void shouldFoldRequestsMadeWhileAPurgeIsWaitingToRunIntoIt() {
+        engine.requestPurge();
+        engine.onTimer();
+
+        verify(runner).submit(any(Runnable.class));
+    }
+}
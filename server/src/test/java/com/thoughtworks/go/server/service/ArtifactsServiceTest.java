@@ -37,6 +37,7 @@ import org.junit.jupiter.api.io.TempDir;
 import org.slf4j.event.Level;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -46,9 +47,12 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
 
 import static com.thoughtworks.go.util.GoConstants.PUBLISH_MAX_RETRIES;
+import static com.thoughtworks.go.util.GoConstants.STREAMED_ARTIFACT_CHECKSUM_ENTRY;
 import static com.thoughtworks.go.util.LogFixture.logFixtureFor;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -155,6 +159,96 @@ public class ArtifactsServiceTest {
         }
     }
 
+    @Test
+    void shouldExtractAStreamedZipAndKeepItsChecksumsEntryOutOfTheArtifacts() throws IOException {
+        File dest = new File(fakeRoot, "streamed");
+        ByteArrayOutputStream zip = new ByteArrayOutputStream();
+        try (ZipOutputStream zipOutputStream = new ZipOutputStream(zip)) {
+            zipOutputStream.putNextEntry(new ZipEntry("dir/log.txt"));
+            zipOutputStream.write("some log".getBytes(UTF_8));
+            zipOutputStream.putNextEntry(new ZipEntry(STREAMED_ARTIFACT_CHECKSUM_ENTRY));
+            zipOutputStream.write("dest/dir/log.txt=md5".getBytes(UTF_8));
+        }
+        ByteArrayOutputStream checksums = new ByteArrayOutputStream();
+
+        assumeArtifactsRoot(fakeRoot);
+        ArtifactsService artifactsService = new ArtifactsService(resolverService, stageService, artifactsDirHolder, new ZipUtil());
+        boolean saved = artifactsService.saveZipStream(dest, new ByteArrayInputStream(zip.toByteArray()), checksums, 1);
+
+        assertThat(saved).isTrue();
+        assertThat(new File(dest, "dir/log.txt")).hasContent("some log");
+        assertThat(new File(dest, STREAMED_ARTIFACT_CHECKSUM_ENTRY)).doesNotExist();
+        assertThat(checksums.toString(UTF_8)).isEqualTo("dest/dir/log.txt=md5");
+    }
+
+    @Test
+    void shouldMergeAStreamedZipIntoArtifactsUploadedEarlierToTheSameDestination() throws IOException {
+        File dest = new File(fakeRoot, "streamed");
+        FileUtils.writeStringToFile(new File(dest, "dir/earlier.txt"), "earlier", UTF_8);
+        FileUtils.writeStringToFile(new File(dest, "dir/log.txt"), "stale log", UTF_8);
+        byte[] zip = zipOf("dir/log.txt", "some log", STREAMED_ARTIFACT_CHECKSUM_ENTRY, "dest/dir/log.txt=md5");
+
+        assumeArtifactsRoot(fakeRoot);
+        ArtifactsService artifactsService = new ArtifactsService(resolverService, stageService, artifactsDirHolder, new ZipUtil());
+        boolean saved = artifactsService.saveZipStream(dest, new ByteArrayInputStream(zip), new ByteArrayOutputStream(), 1);
+
+        assertThat(saved).isTrue();
+        assertThat(new File(dest, "dir/earlier.txt")).hasContent("earlier");
+        assertThat(new File(dest, "dir/log.txt")).hasContent("some log");
+        assertThat(fakeRoot.list()).containsExactly("streamed");
+    }
+
+    @Test
+    void shouldNotLeavePartialArtifactsBehindWhenAStreamedZipEndsBeforeItsChecksums() throws IOException {
+        File dest = new File(fakeRoot, "streamed");
+        byte[] zip = zipOf("dir/log.txt", "some log");
+
+        assumeArtifactsRoot(fakeRoot);
+        ArtifactsService artifactsService = new ArtifactsService(resolverService, stageService, artifactsDirHolder, new ZipUtil());
+        boolean saved = artifactsService.saveZipStream(dest, new ByteArrayInputStream(zip), new ByteArrayOutputStream(), 1);
+
+        assertThat(saved).isFalse();
+        assertThat(fakeRoot.list()).isEmpty();
+    }
+
+    @Test
+    void shouldRejectAStreamedZipWithEntriesAfterItsChecksums() throws IOException {
+        File dest = new File(fakeRoot, "streamed");
+        byte[] zip = zipOf(STREAMED_ARTIFACT_CHECKSUM_ENTRY, "not checksums", "dir/log.txt", "some log");
+
+        assumeArtifactsRoot(fakeRoot);
+        ArtifactsService artifactsService = new ArtifactsService(resolverService, stageService, artifactsDirHolder, new ZipUtil());
+        boolean saved = artifactsService.saveZipStream(dest, new ByteArrayInputStream(zip), new ByteArrayOutputStream(), 1);
+
+        assertThat(saved).isFalse();
+        assertThat(fakeRoot.list()).isEmpty();
+    }
+
+    @Test
+    void shouldNotSaveAStreamedZipContainingDirectoryTraversalPath() throws IOException {
+        try (InputStream stream = Objects.requireNonNull(getClass().getResourceAsStream("/archive_traversal_attack.zip"))) {
+            ArtifactsService artifactsService = new ArtifactsService(resolverService, stageService, artifactsDirHolder, new ZipUtil());
+            boolean saved = artifactsService.saveZipStream(new File(fakeRoot, "streamed"), stream, new ByteArrayOutputStream(), 1);
+            assertThat(saved).isFalse();
+        }
+    }
+
+    @Test
+    void shouldWarnIfFailedToSaveAStreamedZip() throws IOException {
+        doThrow(new IOException()).when(zipUtil).unzip(any(ZipInputStream.class), any(File.class), any(ZipUtil.ZipEntryInterceptor.class));
+
+        try (LogFixture logFixture = logFixtureFor(ArtifactsService.class, Level.DEBUG)) {
+            ArtifactsService artifactsService = new ArtifactsService(resolverService, stageService, artifactsDirHolder, zipUtil);
+            boolean saved = artifactsService.saveZipStream(new File(fakeRoot, "streamed"), new ByteArrayInputStream(new byte[0]), new ByteArrayOutputStream(), 1);
+            assertThat(saved).isFalse();
+            String result;
+            synchronized (logFixture) {
+                result = logFixture.getLog();
+            }
+            assertThat(result).contains("Failed to save the file to:");
+        }
+    }
+
     @Test
     void shouldConvertArtifactPathToFileSystemLocation() throws Exception {
         File artifactsRoot = TempDirUtils.createRandomDirectoryIn(tempDir).toFile();
@@ -356,6 +450,47 @@ public class ArtifactsServiceTest {
         return jobDir;
     }
 
+    @Test
+    void shouldCountTheSizeOfUploadedArtifactsAgainstTheirStage() throws IOException {
+        File artifactsRoot = TempDirUtils.createRandomDirectoryIn(tempDir).toFile();
+        assumeArtifactsRoot(artifactsRoot);
+        ArtifactSizeIndex artifactSizeIndex = new ArtifactSizeIndex();
+        ArtifactsService artifactsService = new ArtifactsService(resolverService, stageService, artifactsDirHolder, zipUtil, artifactSizeIndex);
+        artifactsService.initialize();
+        File jobDir = new File(artifactsRoot, "pipelines/pipeline/10/stage/20/job");
+
+        artifactsService.saveFile(new File(jobDir, "foo"), new ByteArrayInputStream("hello world".getBytes(UTF_8)), false, 1);
+        artifactsService.saveOrAppendFile(new File(jobDir, "bar/baz"), new ByteArrayInputStream("quux".getBytes(UTF_8)));
+        artifactsService.saveOrAppendFile(new File(jobDir, "cruise-output/console.log"), new ByteArrayInputStream("Build Logs".getBytes(UTF_8)));
+
+        assertThat(artifactSizeIndex.sizeOf("pipeline/10/stage/20")).isEqualTo(15);
+        Stage stage = StageMother.createPassedStage("pipeline", 10, "stage", 20, "job", Instant.now());
+        assertThat(artifactsService.sizeOfPurgeableArtifacts(stage)).isEqualTo(15);
+
+        artifactsService.purgeArtifactsForStage(stage);
+
+        assertThat(artifactSizeIndex.sizeOf("pipeline/10/stage/20")).isEqualTo(-1);
+    }
+
+    @Test
+    void shouldMeasureThePurgeableArtifactsOfStagesWhichWereNotUploadedSinceTheServerStarted() throws IOException {
+        File artifactsRoot = TempDirUtils.createRandomDirectoryIn(tempDir).toFile();
+        assumeArtifactsRoot(artifactsRoot);
+        File jobDir = new File(artifactsRoot, "pipelines/pipeline/10/stage/20/job");
+        new File(jobDir, "bar").mkdirs();
+        new File(jobDir, "cruise-output").mkdirs();
+        Files.writeString(new File(jobDir, "foo").toPath(), "hello world", UTF_8);
+        Files.writeString(new File(jobDir, "bar/baz").toPath(), "quux", UTF_8);
+        Files.writeString(new File(jobDir, "cruise-output/console.log").toPath(), "Build Logs", UTF_8);
+        ArtifactSizeIndex artifactSizeIndex = new ArtifactSizeIndex();
+        ArtifactsService artifactsService = new ArtifactsService(resolverService, stageService, artifactsDirHolder, zipUtil, artifactSizeIndex);
+        artifactsService.initialize();
+        Stage stage = StageMother.createPassedStage("pipeline", 10, "stage", 20, "job", Instant.now());
+
+        assertThat(artifactsService.sizeOfPurgeableArtifacts(stage)).isEqualTo(15);
+        assertThat(artifactSizeIndex.sizeOf("pipeline/10/stage/20")).isEqualTo(15);
+    }
+
     @Test
     void shouldLogAndIgnoreExceptionsWhenDeletingStageArtifacts() throws IllegalArtifactLocationException {
         ArtifactsService artifactsService = new ArtifactsService(resolverService, stageService, artifactsDirHolder, zipUtil);
@@ -381,5 +516,15 @@ public class ArtifactsServiceTest {
     void willCleanUp(File file) {
         resourcesToBeCleanedOnTeardown.add(file);
     }
-}
 
+    private static byte[] zipOf(String... namesAndContents) throws IOException {
+        ByteArrayOutputStream zip = new ByteArrayOutputStream();
+        try (ZipOutputStream zipOutputStream = new ZipOutputStream(zip)) {
+            for (int i = 0; i < namesAndContents.length; i += 2) {
+                zipOutputStream.putNextEntry(new ZipEntry(namesAndContents[i]));
+                zipOutputStream.write(namesAndContents[i + 1].getBytes(UTF_8));
+            }
+        }
+        return zip.toByteArray();
+    }
+}
@@ -17,6 +17,7 @@ package com.thoughtworks.go.server.service;
 
 import com.thoughtworks.go.config.CaseInsensitiveString;
 import com.thoughtworks.go.server.database.Database;
+import com.thoughtworks.go.server.domain.BackupProgressStatus;
 import com.thoughtworks.go.server.domain.BackupStatus;
 import com.thoughtworks.go.server.domain.ServerBackup;
 import com.thoughtworks.go.server.domain.Username;
@@ -25,6 +26,7 @@ import com.thoughtworks.go.server.messaging.StartServerBackupMessage;
 import com.thoughtworks.go.server.persistence.ServerBackupRepository;
 import com.thoughtworks.go.service.ConfigRepository;
 import com.thoughtworks.go.util.Dates;
+import com.thoughtworks.go.util.ReflectionUtil;
 import com.thoughtworks.go.util.SystemEnvironment;
 import com.thoughtworks.go.util.TimeProvider;
 import org.junit.jupiter.api.BeforeEach;
@@ -163,6 +165,20 @@ public class BackupServiceTest {
         assertThat(serverBackupMessage.getId()).isEqualTo(99L);
     }
 
+    @Test
+    public void shouldReportTheProgressOfTheRunningBackup() {
+        BackupService backupService = new BackupService(artifactsDirHolder, mock(GoConfigService.class), null, serverBackupRepository, systemEnvironment, configRepo, databaseStrategy, null);
+        assertThat(backupService.backupProgress()).isEmpty();
+
+        ServerBackup runningBackup = new ServerBackup("path", new Date(), "admin", "");
+        runningBackup.setProgressStatus(BackupProgressStatus.BACKUP_DATABASE);
+        ReflectionUtil.setField(backupService, "runningBackup", runningBackup);
+        assertThat(backupService.backupProgress()).contains("Backing up Database");
+
+        when(databaseStrategy.backupBytesWritten()).thenReturn(10 * 1024 * 1024L);
+        assertThat(backupService.backupProgress()).contains("Backing up Database (10 MB of the database backed up)");
+    }
+
     @Test
     public void shouldMarkIncompleteBackupsAsAbortedOnInitialize() {
         BackupService backupService = new BackupService(artifactsDirHolder, mock(GoConfigService.class), null, serverBackupRepository, systemEnvironment, configRepo, databaseStrategy, null);
@@ -0,0 +1,97 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service;
+
+import com.thoughtworks.go.config.SecretConfig;
+import com.thoughtworks.go.plugin.access.secrets.SecretsExtension;
+import com.thoughtworks.go.plugin.domain.secrets.Secret;
+import com.thoughtworks.go.util.SystemEnvironment;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.*;
+
+class CoalescingSecretLookupTest {
+    private final AuthorizationExtensionCacheServiceTest.FakeTicker ticker = new AuthorizationExtensionCacheServiceTest.FakeTicker();
+    private SecretsExtension secretsExtension;
+    private SystemEnvironment systemEnvironment;
+    private SecretConfig secretConfig;
+
+    @BeforeEach
+    void setUp() {
+        secretsExtension = mock(SecretsExtension.class);
+        systemEnvironment = mock(SystemEnvironment.class);
+        secretConfig = new SecretConfig("secret_config_id", "cd.go.file");
+    }
+
+    @Test
+    void shouldReuseResolvedValuesUntilTheyExpire() {
+        when(systemEnvironment.getSecretsCacheTtlInSeconds()).thenReturn(30);
+        when(secretsExtension.lookupSecrets("cd.go.file", secretConfig, Set.of("password"))).thenReturn(List.of(new Secret("password", "secret")));
+        when(secretsExtension.lookupSecrets("cd.go.file", secretConfig, Set.of("username"))).thenReturn(List.of(new Secret("username", "bob")));
+        CoalescingSecretLookup lookup = new CoalescingSecretLookup(secretsExtension, systemEnvironment, ticker);
+
+        assertThat(lookup.lookupSecrets(secretConfig, Set.of("password"))).extracting(Secret::getValue).containsExactly("secret");
+        assertThat(lookup.lookupSecrets(secretConfig, Set.of("password", "username"))).extracting(Secret::getKey, Secret::getValue)
+            .containsExactlyInAnyOrder(tuple("password", "secret"), tuple("username", "bob"));
+        verify(secretsExtension, times(1)).lookupSecrets("cd.go.file", secretConfig, Set.of("password"));
+
+        ticker.advance(31, TimeUnit.SECONDS);
+        lookup.lookupSecrets(secretConfig, Set.of("password"));
+        verify(secretsExtension, times(2)).lookupSecrets("cd.go.file", secretConfig, Set.of("password"));
+    }
+
+    @Test
+    void shouldAlwaysAskThePluginWhenCachingIsOff() {
+        when(secretsExtension.lookupSecrets("cd.go.file", secretConfig, Set.of("password"))).thenReturn(List.of(new Secret("password", "secret")));
+        CoalescingSecretLookup lookup = new CoalescingSecretLookup(secretsExtension, systemEnvironment, ticker);
+
+        lookup.lookupSecrets(secretConfig, Set.of("password"));
+        lookup.lookupSecrets(secretConfig, Set.of("password"));
+
+        verify(secretsExtension, times(2)).lookupSecrets("cd.go.file", secretConfig, Set.of("password"));
+    }
+
+    @Test
+    void shouldWaitForALookupAlreadyInFlightRatherThanAskingAgain() throws Exception {
+        CountDownLatch lookupStarted = new CountDownLatch(1);
+        CountDownLatch pluginAnswers = new CountDownLatch(1);
+        when(secretsExtension.lookupSecrets(eq("cd.go.file"), eq(secretConfig), any())).thenAnswer(invocation -> {
+            lookupStarted.countDown();
+            pluginAnswers.await(10, TimeUnit.SECONDS);
+            return List.of(new Secret("password", "secret"));
+        });
+        CoalescingSecretLookup lookup = new CoalescingSecretLookup(secretsExtension, systemEnvironment, ticker);
+
+        CompletableFuture<List<Secret>> first = CompletableFuture.supplyAsync(() -> lookup.lookupSecrets(secretConfig, Set.of("password")));
+        lookupStarted.await(10, TimeUnit.SECONDS);
+        CompletableFuture<List<Secret>> second = CompletableFuture.supplyAsync(() -> lookup.lookupSecrets(secretConfig, Set.of("password")));
+        Thread.sleep(100);
+        pluginAnswers.countDown();
+
+        assertThat(first.get(10, TimeUnit.SECONDS)).extracting(Secret::getValue).containsExactly("secret");
+        assertThat(second.get(10, TimeUnit.SECONDS)).extracting(Secret::getValue).containsExactly("secret");
+        verify(secretsExtension, times(1)).lookupSecrets(eq("cd.go.file"), eq(secretConfig), any());
+    }
+}
@@ -32,6 +32,7 @@ import com.thoughtworks.go.helper.GoConfigMother;
 import com.thoughtworks.go.helper.JobInstanceMother;
 import com.thoughtworks.go.plugin.access.elastic.ElasticAgentMetadataStore;
 import com.thoughtworks.go.plugin.access.elastic.ElasticAgentPluginRegistry;
+import com.thoughtworks.go.plugin.access.elastic.models.AgentCreationRequest;
 import com.thoughtworks.go.plugin.api.info.PluginDescriptor;
 import com.thoughtworks.go.plugin.domain.elastic.Capabilities;
 import com.thoughtworks.go.plugin.domain.elastic.ElasticAgentPluginInfo;
@@ -43,6 +44,8 @@ import com.thoughtworks.go.server.exceptions.RulesViolationException;
 import com.thoughtworks.go.server.messaging.JobStatusTopic;
 import com.thoughtworks.go.server.messaging.elasticagents.CreateAgentMessage;
 import com.thoughtworks.go.server.messaging.elasticagents.CreateAgentQueueHandler;
+import com.thoughtworks.go.server.messaging.elasticagents.CreateAgentsQueueHandler;
+import com.thoughtworks.go.server.messaging.elasticagents.InFlightAgentCreations;
 import com.thoughtworks.go.server.messaging.elasticagents.ServerPingMessage;
 import com.thoughtworks.go.server.messaging.elasticagents.ServerPingQueueHandler;
 import com.thoughtworks.go.serverhealth.HealthStateLevel;
@@ -102,10 +105,13 @@ class ElasticAgentPluginServiceTest {
     private SecretParamResolver secretParamResolver;
     @Mock
     private JobStatusTopic jobStatusTopic;
+    @Mock
+    private CreateAgentsQueueHandler createAgentsQueue;
 
     private ElasticAgentPluginService service;
     private ElasticAgentMetadataStore elasticAgentMetadataStore;
     private JobInstanceSqlMapDao jobInstanceSqlMapDao;
+    private InFlightAgentCreations inFlightAgentCreations;
 
     @BeforeEach
     void setUp() {
@@ -123,9 +129,11 @@ class ElasticAgentPluginServiceTest {
         elasticAgentMetadataStore = ElasticAgentMetadataStore.instance();
 
         jobInstanceSqlMapDao = mock(JobInstanceSqlMapDao.class);
+        inFlightAgentCreations = new InFlightAgentCreations(new TimeProvider());
         service = new ElasticAgentPluginService(pluginManager, registry, agentService, environmentConfigService,
                 createAgentQueue, serverPingQueue, goConfigService, new TimeProvider(), serverHealthService, elasticAgentMetadataStore,
-                clusterProfilesService, jobInstanceSqlMapDao, scheduleService, consoleService, ephemeralAutoRegisterKeyService, secretParamResolver, jobStatusTopic);
+                clusterProfilesService, jobInstanceSqlMapDao, scheduleService, consoleService, ephemeralAutoRegisterKeyService, secretParamResolver, jobStatusTopic,
+                createAgentsQueue, inFlightAgentCreations);
         String autoRegisterKey = "key";
         when(goConfigService.serverConfig()).thenReturn(GoConfigMother.configWithAutoRegisterKey(autoRegisterKey).server());
     }
@@ -237,6 +245,51 @@ class ElasticAgentPluginServiceTest {
         assertThat(createAgentMessage.configuration()).isEqualTo(plan1.getElasticProfile().getConfigurationAsMap(true));
     }
 
+    @Test
+    void shouldNotAskForAnotherAgentForAStarvingJobWhoseAgentIsStillBeingCreated() {
+        JobPlan plan1 = plan(1, "docker");
+        when(ephemeralAutoRegisterKeyService.autoRegisterKey()).thenReturn(randomUUID().toString());
+        when(goConfigService.elasticJobStarvationThreshold()).thenReturn(0L);
+
+        service.createAgentsFor(new ArrayList<>(), List.of(plan1));
+        inFlightAgentCreations.started(List.of(plan1.getJobId()));
+        service.createAgentsFor(List.of(plan1), List.of(plan1));
+
+        verify(createAgentQueue, times(1)).post(any(), anyLong());
+
+        inFlightAgentCreations.completed(List.of(plan1.getJobId()));
+        service.createAgentsFor(List.of(plan1), List.of(plan1));
+
+        verify(createAgentQueue, times(2)).post(any(), anyLong());
+    }
+
+    @Test
+    void shouldAskForAgentsOfJobsWithTheSameProfilesInASingleBatchWhenThePluginSupportsIt() {
+        GoPluginDescriptor descriptor = GoPluginDescriptor.builder().id("docker").build();
+        elasticAgentMetadataStore.setPluginInfo(new ElasticAgentPluginInfo(descriptor, null, null, null, null, new Capabilities(false, false, false, true)));
+        JobPlan plan1 = plan(1, "docker");
+        JobPlan plan2 = plan(2, "docker");
+        JobPlan plan3 = plan(3, "docker");
+        plan3.getElasticProfile().addConfigurations(List.of(new ConfigurationProperty(new ConfigurationKey("image"), new ConfigurationValue("alpine"))));
+        when(ephemeralAutoRegisterKeyService.autoRegisterKey()).thenReturn("key-1", "key-2", "key-3");
+        when(goConfigService.elasticJobStarvationThreshold()).thenReturn(20000L);
+        when(environmentConfigService.envForPipeline("pipeline-1")).thenReturn("env-1");
+        when(environmentConfigService.envForPipeline("pipeline-2")).thenReturn("env-2");
+        when(environmentConfigService.envForPipeline("pipeline-3")).thenReturn("env-1");
+
+        service.createAgentsFor(new ArrayList<>(), List.of(plan1, plan2, plan3));
+
+        Map<String, String> clusterProfileConfiguration = plan1.getClusterProfile().getConfigurationAsMap(true, true);
+        verify(createAgentsQueue).post("docker", plan1.getElasticProfile().getConfigurationAsMap(true, true), clusterProfileConfiguration, List.of(
+                new AgentCreationRequest("key-1", "env-1", plan1.getIdentifier()),
+                new AgentCreationRequest("key-2", "env-2", plan2.getIdentifier())), 10000L);
+        verify(createAgentsQueue).post("docker", Map.of("image", "alpine"), clusterProfileConfiguration, List.of(
+                new AgentCreationRequest("key-3", "env-1", plan3.getIdentifier())), 10000L);
+        verifyNoInteractions(createAgentQueue);
+        assertThat(inFlightAgentCreations.isInFlight(plan1.getJobId())).isTrue();
+        assertThat(inFlightAgentCreations.isInFlight(plan3.getJobId())).isTrue();
+    }
+
     @Test
     void shouldReportMissingElasticPlugin() {
         JobPlan plan1 = plan(1, "missing");
@@ -236,6 +236,29 @@ public class JobInstanceServiceTest {
         verify(topic, never()).post(any());
     }
 
+    @Test
+    public void shouldCancelMultipleJobsWithASingleBulkUpdate() {
+        final JobStatusListener listener = mock(JobStatusListener.class);
+        final JobInstance scheduledJob = scheduled("dev");
+        final JobInstance completedJob = completed("test");
+        job.setAgentUuid("dummy agent");
+
+        final JobInstanceService jobService = new JobInstanceService(jobInstanceDao, topic, transactionTemplate, transactionSynchronizationManager, null,
+            null, goConfigService, null, serverHealthService, listener);
+
+        transactionTemplate.execute(new TransactionCallbackWithoutResult() {
+            @Override
+            protected void doInTransactionWithoutResult(TransactionStatus status) {
+                jobService.cancelJobs(List.of(job, scheduledJob, completedJob));
+            }
+        });
+
+        verify(jobInstanceDao).updateStatesAndResults(List.of(job, scheduledJob));
+        verify(listener).jobStatusesChanged(List.of(job, scheduledJob));
+        verify(topic).post(new JobResultMessage(job.getIdentifier(), JobResult.Cancelled, job.getAgentUuid()));
+        verifyNoMoreInteractions(topic);
+    }
+
     @Test
     public void shouldNotNotifyListenersWhenAssignedJobCancellationTransactionRollsback() {
         final JobInstanceService jobService = new JobInstanceService(jobInstanceDao, topic, transactionTemplate, transactionSynchronizationManager,
@@ -50,7 +50,7 @@ class RevokeStaleAccessTokenServiceTest {
 
     @BeforeEach
     void setUp() {
-        service = new RevokeStaleAccessTokenService(goConfigService, accessTokenService);
+        service = new RevokeStaleAccessTokenService(goConfigService, accessTokenService, mock(VerifiedAccessTokenCache.class));
 
         authConfig1 = new SecurityAuthConfig("authConfig1", "ldap");
         authConfig2 = new SecurityAuthConfig("authConfig2", "ldap");
@@ -0,0 +1,140 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service;
+
+import com.thoughtworks.go.helper.StageMother;
+import com.thoughtworks.go.server.domain.PipelineLockStatusChangeListener;
+import com.thoughtworks.go.server.domain.PipelinePauseChangeListener;
+import com.thoughtworks.go.server.domain.StageStatusListener;
+import com.thoughtworks.go.server.domain.Username;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class SchedulabilityIndexTest {
+    private PipelinePauseService pipelinePauseService;
+    private PipelineLockService pipelineLockService;
+    private StageService stageService;
+    private SchedulabilityIndex index;
+    private StageStatusListener stageStatusListener;
+
+    @BeforeEach
+    public void setUp() {
+        pipelinePauseService = mock(PipelinePauseService.class);
+        pipelineLockService = mock(PipelineLockService.class);
+        stageService = mock(StageService.class);
+        index = new SchedulabilityIndex(pipelinePauseService, pipelineLockService, stageService);
+        ArgumentCaptor<StageStatusListener> listener = ArgumentCaptor.forClass(StageStatusListener.class);
+        verify(stageService).addStageStatusListener(listener.capture());
+        stageStatusListener = listener.getValue();
+    }
+
+    @Test
+    public void shouldRegisterForChangesToWhatItRemembers() {
+        verify(pipelinePauseService).registerListener(index);
+        verify(pipelineLockService).registerListener(index);
+        assertThat(stageStatusListener).isNotNull();
+    }
+
+    @Test
+    public void shouldLookUpEachAnswerOnlyOnceUntilItChanges() {
+        when(pipelinePauseService.isPaused("up42")).thenReturn(true);
+        when(pipelineLockService.isLocked("up42")).thenReturn(false);
+        when(stageService.isStageActive("up42", "dev")).thenReturn(true);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(index.isPaused("up42")).isTrue();
+            assertThat(index.isPaused("UP42")).isTrue();
+            assertThat(index.isLocked("up42")).isFalse();
+            assertThat(index.isStageActive("up42", "dev")).isTrue();
+        }
+
+        verify(pipelinePauseService, times(1)).isPaused(anyString());
+        verify(pipelineLockService, times(1)).isLocked(anyString());
+        verify(stageService, times(1)).isStageActive(anyString(), anyString());
+    }
+
+    @Test
+    public void shouldLookUpPauseStatusAgainOnceThePipelineIsPausedOrUnpaused() {
+        when(pipelinePauseService.isPaused("up42")).thenReturn(false, true);
+        when(pipelinePauseService.isPaused("other")).thenReturn(false);
+        index.isPaused("up42");
+        index.isPaused("other");
+
+        index.pauseStatusChanged(PipelinePauseChangeListener.Event.pause("up42", Username.ANONYMOUS));
+
+        assertThat(index.isPaused("up42")).isTrue();
+        assertThat(index.isPaused("other")).isFalse();
+        verify(pipelinePauseService, times(2)).isPaused("up42");
+        verify(pipelinePauseService, times(1)).isPaused("other");
+    }
+
+    @Test
+    public void shouldLookUpLockStatusAgainOnceThePipelineIsLockedOrUnlocked() {
+        when(pipelineLockService.isLocked("up42")).thenReturn(false, true);
+        index.isLocked("up42");
+
+        index.lockStatusChanged(PipelineLockStatusChangeListener.Event.lock("up42"));
+
+        assertThat(index.isLocked("up42")).isTrue();
+        verify(pipelineLockService, times(2)).isLocked("up42");
+    }
+
+    @Test
+    public void shouldLookUpStageActivityAndLockStatusAgainOnceAStageOfThePipelineChanges() {
+        when(stageService.isStageActive("up42", "dev")).thenReturn(true, false);
+        when(stageService.isStageActive("up42", "ft")).thenReturn(false);
+        when(pipelineLockService.isLocked("up42")).thenReturn(true, false);
+        index.isStageActive("up42", "dev");
+        index.isStageActive("up42", "ft");
+        index.isLocked("up42");
+
+        stageStatusListener.stageStatusChanged(StageMother.passedStageInstance("up42", "dev", "unit", null));
+
+        assertThat(index.isStageActive("up42", "dev")).isFalse();
+        assertThat(index.isStageActive("up42", "ft")).isFalse();
+        assertThat(index.isLocked("up42")).isFalse();
+        verify(stageService, times(2)).isStageActive("up42", "dev");
+        verify(stageService, times(1)).isStageActive("up42", "ft");
+        verify(pipelineLockService, times(2)).isLocked("up42");
+    }
+
+    @Test
+    public void shouldNotRememberAnAnswerLookedUpWhileTheStateWasChanging() {
+        when(pipelinePauseService.isPaused("up42")).thenAnswer(invocation -> {
+            index.pauseStatusChanged(PipelinePauseChangeListener.Event.unPause("up42", Username.ANONYMOUS));
+            return true;
+        }).thenReturn(false);
+
+        assertThat(index.isPaused("up42")).isTrue();
+        assertThat(index.isPaused("up42")).isFalse();
+        assertThat(index.isPaused("up42")).isFalse();
+        verify(pipelinePauseService, times(2)).isPaused("up42");
+    }
+
+    @Test
+    public void shouldForgetEverythingWhenCleared() {
+        when(pipelinePauseService.isPaused("up42")).thenReturn(true, false);
+        index.isPaused("up42");
+
+        index.clear();
+
+        assertThat(index.isPaused("up42")).isFalse();
+    }
+}
@@ -33,16 +33,24 @@ import com.thoughtworks.go.serverhealth.HealthStateScope;
 import com.thoughtworks.go.serverhealth.HealthStateType;
 import com.thoughtworks.go.serverhealth.ServerHealthService;
 import com.thoughtworks.go.serverhealth.ServerHealthState;
+import com.thoughtworks.go.util.LogFixture;
+import com.thoughtworks.go.util.SystemEnvironment;
 import com.thoughtworks.go.util.TimeProvider;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.slf4j.event.Level;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static com.thoughtworks.go.domain.JobResult.*;
 import static com.thoughtworks.go.domain.JobState.Building;
 import static com.thoughtworks.go.domain.JobState.Completed;
+import static com.thoughtworks.go.util.LogFixture.logFixtureFor;
 import static java.net.HttpURLConnection.HTTP_FORBIDDEN;
 import static java.net.HttpURLConnection.HTTP_OK;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -69,6 +77,7 @@ public class ScheduleServiceTest {
     private ClusterProfilesService clusterProfileService;
     private StageOrderService stageOrderService;
     private PipelineLockService pipelineLockService;
+    private SystemEnvironment systemEnvironment;
 
     @BeforeEach
     public void setup() {
@@ -226,6 +235,72 @@ public class ScheduleServiceTest {
         verify(serverHealthService).update(ServerHealthState.success(HealthStateType.general(HealthStateScope.forStage("pipeline-quux", "mingle"))));
     }
 
+    @Test
+    public void shouldCreateQueuedPipelinesSideBySideAndRecordHowLongTheyWaitedInTheQueue() {
+        doReturn(2).when(systemEnvironment).getPipelineSchedulingThreads();
+        CruiseConfig cruiseConfig = mock(BasicCruiseConfig.class);
+        when(cruiseConfig.getMd5()).thenReturn("md5-test");
+        when(goConfigService.getCurrentConfig()).thenReturn(cruiseConfig);
+        CountDownLatch bothBeingCreated = new CountDownLatch(2);
+        final Map<CaseInsensitiveString, BuildCause> map = new HashMap<>();
+        for (String name : List.of("pipeline-foo", "pipeline-bar")) {
+            PipelineConfig pipelineConfig = PipelineConfigMother.pipelineConfig(name);
+            when(goConfigService.pipelineConfigNamed(new CaseInsensitiveString(name))).thenReturn(pipelineConfig);
+            when(schedulingChecker.canAutoTriggerConsumer(pipelineConfig)).thenReturn(true);
+            when(pipelineScheduleQueue.createPipeline(any(), eq(pipelineConfig), any(), eq("md5-test"), eq(timeProvider))).thenAnswer(invocation -> {
+                bothBeingCreated.countDown();
+                assertThat(bothBeingCreated.await(10, TimeUnit.SECONDS)).isTrue();
+                return PipelineMother.schedule(pipelineConfig, BuildCause.createManualForced());
+            });
+            when(pipelineScheduleQueue.timeQueued(new CaseInsensitiveString(name))).thenReturn(System.currentTimeMillis() - 5_000);
+            map.put(new CaseInsensitiveString(name), BuildCause.createManualForced());
+        }
+        when(pipelineScheduleQueue.toBeScheduled()).thenReturn(map);
+
+        service.autoSchedulePipelinesFromRequestBuffer();
+
+        verify(serverHealthService).update(ServerHealthState.success(HealthStateType.general(HealthStateScope.forStage("pipeline-foo", "mingle"))));
+        verify(serverHealthService).update(ServerHealthState.success(HealthStateType.general(HealthStateScope.forStage("pipeline-bar", "mingle"))));
+        verify(schedulingPerformanceLogger).pipelineTakenFromToBeScheduledQueue(eq(new CaseInsensitiveString("pipeline-foo")), longThat(wait -> wait >= 5_000));
+        verify(schedulingPerformanceLogger).pipelineTakenFromToBeScheduledQueue(eq(new CaseInsensitiveString("pipeline-bar")), longThat(wait -> wait >= 5_000));
+    }
+
+    @Test
+    public void shouldLogTheFailureOfEachPipelineScheduledSideBySide() {
+        doReturn(2).when(systemEnvironment).getPipelineSchedulingThreads();
+        final Map<CaseInsensitiveString, BuildCause> map = new HashMap<>();
+        for (String name : List.of("pipeline-foo", "pipeline-bar")) {
+            when(pipelineScheduleQueue.timeQueued(new CaseInsensitiveString(name))).thenReturn(System.currentTimeMillis());
+            doThrow(new RuntimeException("could not record " + name)).when(schedulingPerformanceLogger).pipelineTakenFromToBeScheduledQueue(eq(new CaseInsensitiveString(name)), anyLong());
+            map.put(new CaseInsensitiveString(name), BuildCause.createManualForced());
+        }
+        when(pipelineScheduleQueue.toBeScheduled()).thenReturn(map);
+
+        try (LogFixture logFixture = logFixtureFor(ScheduleService.class, Level.ERROR)) {
+            service.autoSchedulePipelinesFromRequestBuffer();
+
+            assertThat(logFixture.contains(Level.ERROR, "while scheduling the pipeline pipeline-foo")).isTrue();
+            assertThat(logFixture.contains(Level.ERROR, "while scheduling the pipeline pipeline-bar")).isTrue();
+        }
+    }
+
+    @Test
+    public void shouldScheduleQueuedPipelinesOneAfterTheOtherByDefault() {
+        final Map<CaseInsensitiveString, BuildCause> map = new HashMap<>();
+        map.put(new CaseInsensitiveString("pipeline-foo"), BuildCause.createManualForced());
+        map.put(new CaseInsensitiveString("pipeline-bar"), BuildCause.createManualForced());
+        when(pipelineScheduleQueue.toBeScheduled()).thenReturn(map);
+        List<Thread> schedulingThreads = new CopyOnWriteArrayList<>();
+        when(goConfigService.pipelineConfigNamed(any())).thenAnswer(invocation -> {
+            schedulingThreads.add(Thread.currentThread());
+            return null;
+        });
+
+        service.autoSchedulePipelinesFromRequestBuffer();
+
+        assertThat(schedulingThreads).hasSize(2).containsOnly(Thread.currentThread());
+    }
+
     @Test
     public void shouldCancelUnresponsiveJobs() {
         service.cancelHungJobs();
@@ -293,9 +368,10 @@ public class ScheduleServiceTest {
         stageOrderService = mock(StageOrderService.class);
         pipelineLockService = mock(PipelineLockService.class);
         clusterProfileService = mock(ClusterProfilesService.class);
+        systemEnvironment = spy(new SystemEnvironment());
         service = new ScheduleService(goConfigService, pipelineService, stageService, schedulingChecker, mock(PipelineDao.class), mock(StageDao.class), stageOrderService, securityService, pipelineScheduleQueue,
                 jobInstanceService, mock(JobInstanceDao.class), mock(AgentAssignment.class), environmentConfigService, pipelineLockService, serverHealthService,
                 new TestTransactionTemplate(synchronizationManager),
-                mock(AgentService.class), synchronizationManager, timeProvider, consoleActivityMonitor, pipelinePauseService, instanceFactory, schedulingPerformanceLogger, elasticProfileService, clusterProfileService);
+                mock(AgentService.class), synchronizationManager, timeProvider, consoleActivityMonitor, pipelinePauseService, instanceFactory, schedulingPerformanceLogger, elasticProfileService, clusterProfileService, systemEnvironment);
     }
 }
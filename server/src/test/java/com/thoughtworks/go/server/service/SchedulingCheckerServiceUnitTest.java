@@ -58,7 +58,7 @@ public class SchedulingCheckerServiceUnitTest {
     @BeforeEach
     public void setUp() {
         schedulingChecker = spy(new SchedulingCheckerService(goConfigService, mock(StageService.class),
-                mock(SecurityService.class), mock(PipelineLockService.class), mock(TriggerMonitor.class), mock(PipelineScheduleQueue.class), mock(PipelinePauseService.class), mock(PipelineService.class), new OutOfDiskSpaceChecker(mock(GoDiskSpaceMonitor.class))));
+                mock(SecurityService.class), mock(PipelineLockService.class), mock(TriggerMonitor.class), mock(PipelineScheduleQueue.class), mock(PipelineService.class), new OutOfDiskSpaceChecker(mock(GoDiskSpaceMonitor.class)), mock(SchedulabilityIndex.class)));
 
         lenient().doReturn(compositeChecker).when(schedulingChecker).buildScheduleCheckers(any());
         when(operationResult.getServerHealthState()).thenReturn(ServerHealthState.success(HealthStateType.general(HealthStateScope.GLOBAL)));
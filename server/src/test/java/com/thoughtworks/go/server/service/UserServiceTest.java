@@ -57,7 +57,7 @@ public class UserServiceTest {
         userDao = mock(UserDao.class);
         goConfigService = mock(GoConfigService.class);
         securityService = mock(SecurityService.class);
-        userService = new UserService(userDao, securityService, goConfigService, new TestTransactionTemplate(new TestTransactionSynchronizationManager()));
+        userService = new UserService(userDao, securityService, goConfigService, new TestTransactionTemplate(new TestTransactionSynchronizationManager()), mock(VerifiedAccessTokenCache.class));
     }
 
     @Test
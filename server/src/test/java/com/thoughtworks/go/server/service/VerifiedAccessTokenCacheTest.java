@@ -0,0 +1,106 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service;
+
+import com.thoughtworks.go.domain.AccessToken;
+import com.thoughtworks.go.util.SystemEnvironment;
+import com.thoughtworks.go.util.TestingClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class VerifiedAccessTokenCacheTest {
+    private final AuthorizationExtensionCacheServiceTest.FakeTicker ticker = new AuthorizationExtensionCacheServiceTest.FakeTicker();
+    private SystemEnvironment systemEnvironment;
+    private AccessToken.AccessTokenWithDisplayValue token;
+
+    @BeforeEach
+    void setUp() {
+        systemEnvironment = mock(SystemEnvironment.class);
+        when(systemEnvironment.getAccessTokenCacheTtlInSeconds()).thenReturn(30);
+        when(systemEnvironment.getAccessTokenCacheMaxSize()).thenReturn(10);
+
+        token = AccessToken.create("description", "Bob", "auth-config-1", new TestingClock());
+        token.setId(42);
+    }
+
+    @Test
+    void shouldForgetVerifiedTokensOnceTheyExpire() {
+        VerifiedAccessTokenCache cache = new VerifiedAccessTokenCache(systemEnvironment, ticker);
+        cache.put(token.getDisplayValue(), token, cache.generation());
+
+        assertThat(cache.getIfPresent(token.getDisplayValue())).isSameAs(token);
+        assertThat(cache.getIfPresent(token.getDisplayValue().toUpperCase())).isNull();
+
+        ticker.advance(31, TimeUnit.SECONDS);
+        assertThat(cache.getIfPresent(token.getDisplayValue())).isNull();
+        assertThat(cache.stats().hitCount()).isEqualTo(1);
+        assertThat(cache.stats().missCount()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldInvalidateTokensByIdAndByUser() {
+        VerifiedAccessTokenCache cache = new VerifiedAccessTokenCache(systemEnvironment, ticker);
+
+        cache.put(token.getDisplayValue(), token, cache.generation());
+        cache.invalidate(42);
+        assertThat(cache.getIfPresent(token.getDisplayValue())).isNull();
+
+        cache.put(token.getDisplayValue(), token, cache.generation());
+        cache.invalidateTokensOf(List.of("bob"));
+        assertThat(cache.getIfPresent(token.getDisplayValue())).isNull();
+    }
+
+    @Test
+    void shouldNotKeepATokenVerifiedBeforeAnInvalidationWhichRanMeanwhile() {
+        VerifiedAccessTokenCache cache = new VerifiedAccessTokenCache(systemEnvironment, ticker);
+
+        long generation = cache.generation();
+        cache.invalidate(42);
+        cache.put(token.getDisplayValue(), token, generation);
+        assertThat(cache.getIfPresent(token.getDisplayValue())).isNull();
+
+        generation = cache.generation();
+        cache.invalidateTokensOf(List.of("bob"));
+        cache.put(token.getDisplayValue(), token, generation);
+        assertThat(cache.getIfPresent(token.getDisplayValue())).isNull();
+
+        generation = cache.generation();
+        cache.invalidateAll();
+        cache.put(token.getDisplayValue(), token, generation);
+        assertThat(cache.getIfPresent(token.getDisplayValue())).isNull();
+        assertThat(cache.size()).isZero();
+
+        cache.put(token.getDisplayValue(), token, cache.generation());
+        assertThat(cache.getIfPresent(token.getDisplayValue())).isSameAs(token);
+    }
+
+    @Test
+    void shouldNotCacheAnythingWhenTheTtlIsZero() {
+        when(systemEnvironment.getAccessTokenCacheTtlInSeconds()).thenReturn(0);
+        VerifiedAccessTokenCache cache = new VerifiedAccessTokenCache(systemEnvironment, ticker);
+
+        cache.put(token.getDisplayValue(), token, cache.generation());
+
+        assertThat(cache.getIfPresent(token.getDisplayValue())).isNull();
+    }
+}
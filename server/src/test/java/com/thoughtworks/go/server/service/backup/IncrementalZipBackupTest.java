@@ -0,0 +1,189 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service.backup;
+
+import com.thoughtworks.go.util.ZipUtil;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IncrementalZipBackupTest {
+    private static final String ZIP = "config-repo.zip";
+
+    @TempDir
+    Path tempDir;
+
+    private File source;
+    private File backups;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        source = tempDir.resolve("source").toFile();
+        backups = tempDir.resolve("backups").toFile();
+        write("objects/pack/pack-1.pack", "first pack");
+        write("refs/heads/master", "abc");
+        new File(source, "refs/tags").mkdirs();
+    }
+
+    @Test
+    void shouldStoreEverythingInAFullBackup() throws IOException {
+        IncrementalZipBackup backup = backup("backup_1", null);
+
+        assertThat(backup.storedFiles()).isEqualTo(2);
+        assertThat(backup.reusedFiles()).isZero();
+        assertThat(filesIn("backup_1")).containsExactly("objects/", "objects/pack/", "objects/pack/pack-1.pack", "refs/", "refs/heads/", "refs/heads/master", "refs/tags/");
+        assertThat(new File(backups, "backup_1/" + ZIP + IncrementalZipBackup.MANIFEST_EXTENSION)).isFile();
+    }
+
+    @Test
+    void shouldOnlyStoreTheFilesWhichChangedSinceTheEarlierBackup() throws IOException {
+        backup("backup_1", null);
+        write("objects/pack/pack-2.pack", "second pack");
+        write("refs/heads/master", "def");
+        File touched = new File(source, "objects/pack/pack-1.pack");
+        touched.setLastModified(touched.lastModified() + 10_000);
+
+        IncrementalZipBackup backup = backup("backup_2", "backup_1");
+
+        assertThat(backup.storedFiles()).isEqualTo(2);
+        assertThat(backup.reusedFiles()).isEqualTo(1);
+        assertThat(filesIn("backup_2")).contains("objects/pack/pack-2.pack", "refs/heads/master").doesNotContain("objects/pack/pack-1.pack");
+    }
+
+    @Test
+    void shouldRestoreFromTheBackupsHoldingEachFile() throws IOException {
+        backup("backup_1", null);
+        write("objects/pack/pack-2.pack", "second pack");
+        write("refs/heads/master", "def");
+        backup("backup_2", "backup_1");
+        Files.delete(new File(source, "objects/pack/pack-2.pack").toPath());
+        write("refs/heads/master", "ghi");
+        backup("backup_3", "backup_2");
+
+        File restored = tempDir.resolve("restored").toFile();
+        IncrementalZipBackup.restore(new File(backups, "backup_3"), ZIP, restored);
+
+        assertThat(Files.readString(new File(restored, "objects/pack/pack-1.pack").toPath(), UTF_8)).isEqualTo("first pack");
+        assertThat(Files.readString(new File(restored, "refs/heads/master").toPath(), UTF_8)).isEqualTo("ghi");
+        assertThat(new File(restored, "objects/pack/pack-2.pack")).doesNotExist();
+        assertThat(new File(restored, "refs/tags")).isDirectory();
+    }
+
+    @Test
+    void shouldWriteInstructionsToRestoreAChainOfBackupsByHand() throws IOException {
+        backup("backup_1", null);
+        write("objects/pack/pack-2.pack", "second pack");
+        write("refs/heads/master", "def");
+        backup("backup_2", "backup_1");
+        Files.delete(new File(source, "objects/pack/pack-2.pack").toPath());
+        write("objects/pack/pack-3.pack", "third pack");
+        backup("backup_3", "backup_2");
+
+        List<String> instructions = Files.readAllLines(new File(backups, "backup_3/" + ZIP + IncrementalZipBackup.RESTORE_INSTRUCTIONS_EXTENSION).toPath(), UTF_8);
+        List<String> backupsToExtract = instructions.stream().filter(line -> line.startsWith("     ")).map(String::trim).toList();
+        assertThat(backupsToExtract).containsExactly("backup_1", "backup_2", "backup_3");
+
+        File byHand = tempDir.resolve("restored-by-hand").toFile();
+        for (String backup : backupsToExtract) {
+            new ZipUtil().unzip(new File(backups, backup + "/" + ZIP), byHand);
+        }
+        Set<String> listed = Files.readAllLines(new File(backups, "backup_3/" + ZIP + IncrementalZipBackup.MANIFEST_EXTENSION).toPath(), UTF_8)
+            .stream().skip(2).map(line -> line.split("\t", 5)[4]).collect(Collectors.toSet());
+        for (String file : filesUnder(byHand)) {
+            if (!listed.contains(file)) {
+                Files.delete(byHand.toPath().resolve(file));
+            }
+        }
+
+        File restored = tempDir.resolve("restored").toFile();
+        IncrementalZipBackup.restore(new File(backups, "backup_3"), ZIP, restored);
+
+        assertThat(filesUnder(byHand)).containsExactlyInAnyOrder("objects/pack/pack-1.pack", "objects/pack/pack-3.pack", "refs/heads/master");
+        assertThat(filesUnder(restored)).containsExactlyInAnyOrderElementsOf(filesUnder(byHand));
+        for (String file : filesUnder(restored)) {
+            assertThat(byHand.toPath().resolve(file)).hasSameTextualContentAs(restored.toPath().resolve(file));
+        }
+        assertThat(new File(byHand, "refs/tags")).isDirectory();
+    }
+
+    @Test
+    void shouldMakeAFullBackupWhenAnEarlierBackupItWouldBuildOnIsGone() throws IOException {
+        backup("backup_1", null);
+        write("refs/heads/master", "def");
+        backup("backup_2", "backup_1");
+        FileUtils.deleteDirectory(new File(backups, "backup_1"));
+
+        IncrementalZipBackup backup = backup("backup_3", "backup_2");
+
+        assertThat(backup.storedFiles()).isEqualTo(2);
+        assertThat(backup.reusedFiles()).isZero();
+    }
+
+    @Test
+    void shouldMakeAFullBackupOnceEnoughBackupsBuildOnEachOther() throws IOException {
+        backup("backup_1", null);
+        assertThat(backup("backup_2", "backup_1", 3).reusedFiles()).isEqualTo(2);
+        assertThat(backup("backup_3", "backup_2", 3).reusedFiles()).isEqualTo(2);
+        assertThat(backup("backup_4", "backup_3", 3).reusedFiles()).isZero();
+        assertThat(backup("backup_5", "backup_4", 3).reusedFiles()).isEqualTo(2);
+    }
+
+    private IncrementalZipBackup backup(String name, String previous) throws IOException {
+        return backup(name, previous, 7);
+    }
+
+    private IncrementalZipBackup backup(String name, String previous, int fullBackupEvery) throws IOException {
+        File destDir = new File(backups, name);
+        destDir.mkdirs();
+        IncrementalZipBackup backup = new IncrementalZipBackup(source, ZIP);
+        backup.backup(destDir, previous == null ? null : new File(backups, previous), fullBackupEvery);
+        return backup;
+    }
+
+    private List<String> filesIn(String backup) throws IOException {
+        try (ZipFile zip = new ZipFile(new File(backups, backup + "/" + ZIP))) {
+            return Collections.list(zip.entries()).stream().map(ZipEntry::getName).toList();
+        }
+    }
+
+    private static List<String> filesUnder(File dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir.toPath())) {
+            return paths.filter(Files::isRegularFile).map(path -> dir.toPath().relativize(path).toString().replace(File.separatorChar, '/')).toList();
+        }
+    }
+
+    private void write(String path, String content) throws IOException {
+        File file = new File(source, path);
+        file.getParentFile().mkdirs();
+        Files.writeString(file.toPath(), content, UTF_8);
+    }
+}
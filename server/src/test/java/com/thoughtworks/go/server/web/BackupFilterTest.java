@@ -140,6 +140,20 @@ public class BackupFilterTest {
         verify(res, never()).setStatus(anyInt());
     }
 
+    @Test
+    public void shouldIncludeTheProgressOfTheRunningBackupInTheIsBackupFinishedJsonAPI() throws Exception {
+        when(backupService.isBackingUp()).thenReturn(true);
+        when(backupService.backupProgress()).thenReturn(Optional.of("Backing up Database (10 MB of the database backed up)"));
+        Request request = request(HttpMethod.GET, "application/json", "/go/is_backup_finished.json");
+
+        backupFilter.doFilter(request, res, chain);
+
+        JsonObject json = new JsonObject();
+        json.addProperty("is_backing_up", true);
+        json.addProperty("progress", "Backing up Database (10 MB of the database backed up)");
+        verify(writer).print(json);
+    }
+
     @Test
     public void shouldReturnJsonResponseWhenBackupIsFinishedJsonAPIIsBeingCalled() throws Exception {
         when(backupService.isBackingUp()).thenReturn(true);
@@ -114,6 +114,39 @@ public class FileViewTest {
         assertEquals("hello", mockResponse.getContentAsString());
     }
 
+    @Test
+    public void shouldSendOnlyTheRemainingBytesWhenAnOpenEndedRangeIsRequested() throws Exception {
+        Map<String, Object> model = new HashMap<>();
+        model.put("targetFile", file);
+        mockRequest.addHeader("Range", "bytes=2-");
+
+        view.render(model, mockRequest, mockResponse);
+
+        assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, mockResponse.getStatus());
+        assertEquals("bytes 2-4/5", mockResponse.getHeader("Content-Range"));
+        assertEquals(3, getContentLength(mockResponse));
+        assertEquals("llo", mockResponse.getContentAsString());
+    }
+
+    @Test
+    public void shouldRejectARangeBeyondTheEndOfTheFile() throws Exception {
+        Map<String, Object> model = new HashMap<>();
+        model.put("targetFile", file);
+        mockRequest.addHeader("Range", "bytes=5-");
+
+        view.render(model, mockRequest, mockResponse);
+
+        assertEquals(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE, mockResponse.getStatus());
+    }
+
+    @Test
+    public void shouldSendTheWholeFileForUnsupportedRanges() {
+        assertEquals(0, FileView.rangeOffset("bytes=0-10"));
+        assertEquals(0, FileView.rangeOffset("bytes=-10"));
+        assertEquals(0, FileView.rangeOffset(null));
+        assertEquals(42, FileView.rangeOffset("bytes=42-"));
+    }
+
     @Test
     public void testDefaultContentTypeShouldBeTextPlain() {
         assertEquals("application/octet-stream", view.getContentType());